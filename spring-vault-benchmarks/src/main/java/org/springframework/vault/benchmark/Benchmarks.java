@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point running JMH benchmarks with the {@link GCProfiler} enabled so results
+ * report allocation rates ({@literal gc.alloc.rate.norm}) along with timings. Accepts
+ * the regular JMH command line options, e.g. a benchmark name pattern:
+ *
+ * <pre class="code">
+ * java -jar target/benchmarks.jar VaultTemplateBenchmark
+ * </pre>
+ *
+ * @author Mark Paluch
+ */
+public class Benchmarks {
+
+	public static void main(String[] args) throws Exception {
+
+		Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class).build();
+
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.vault.support.ClientOptions;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Measures latency of concurrent reads and the number of connections opened by the
+ * client. {@code http2=false} uses the pooled HttpComponents request factory,
+ * {@code http2=true} selects the OkHttp 3 request factory through
+ * {@link ClientOptions#isHttp2Enabled()}. {@link VaultStub} speaks plain HTTP/1.1 only,
+ * so the OkHttp 3 variant compares connection reuse; multiplexing requires a TLS Vault
+ * endpoint negotiating HTTP/2. The number of accepted connections is printed after each
+ * iteration.
+ *
+ * @author Mark Paluch
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class ConcurrentRequestsBenchmark {
+
+	@Benchmark
+	public VaultResponse read(ClientState state) {
+		return state.vaultTemplate.read("secret/myapp");
+	}
+
+	@State(Scope.Benchmark)
+	public static class ClientState extends VaultTemplateState {
+
+		@Param({ "false", "true" })
+		boolean http2;
+
+		@Setup(Level.Iteration)
+		public void resetConnections() {
+			stub.resetConnectionCount();
+		}
+
+		@TearDown(Level.Iteration)
+		public void reportConnections() {
+			System.out.println(String.format("%n# Connections: %d",
+					stub.getConnectionCount()));
+		}
+
+		@Override
+		ClientOptions clientOptions() {
+			return ClientOptions.builder().http2(http2).maxConnections(64)
+					.maxConnectionsPerRoute(64).build();
+		}
+
+		@Override
+		int stubThreads() {
+			return 32;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.vault.support.JsonMapFlattener;
+
+/**
+ * Benchmarks for {@link JsonMapFlattener#flatten(Map)} using secrets of increasing size
+ * and nesting depth.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMapFlattenerBenchmark {
+
+	@Param({ "10", "100" })
+	int entries;
+
+	@Param({ "1", "3" })
+	int depth;
+
+	Map<String, Object> secret;
+
+	@Setup
+	public void setUp() {
+		secret = createMap(entries, depth);
+	}
+
+	@Benchmark
+	public Map<String, String> flatten() {
+		return JsonMapFlattener.flatten(secret);
+	}
+
+	private static Map<String, Object> createMap(int entries, int depth) {
+
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+
+		for (int i = 0; i < entries; i++) {
+
+			if (depth > 1 && i % 4 == 0) {
+				map.put("nested" + i, createMap(Math.max(1, entries / 4), depth - 1));
+			}
+			else if (i % 4 == 1) {
+
+				List<Object> list = new ArrayList<Object>();
+				list.add("value-" + i);
+				list.add(i);
+				list.add(true);
+				map.put("list" + i, list);
+			}
+			else {
+				map.put("key" + i, "value-" + i);
+			}
+		}
+
+		return map;
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.vault.core.lease.SecretLeaseContainer;
+
+/**
+ * Benchmarks {@link SecretLeaseContainer#start()}: obtaining leases for the requested
+ * secrets from {@link VaultStub} and scheduling their renewal.
+ *
+ * @author Mark Paluch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecretLeaseContainerBenchmark {
+
+	@Benchmark
+	public SecretLeaseContainer start(ContainerState state) {
+
+		state.container.start();
+		return state.container;
+	}
+
+	@State(Scope.Benchmark)
+	public static class ContainerState extends VaultTemplateState {
+
+		@Param({ "10", "100" })
+		int secrets;
+
+		ThreadPoolTaskScheduler taskScheduler;
+
+		SecretLeaseContainer container;
+
+		@Setup(Level.Trial)
+		public void setUpScheduler() {
+
+			taskScheduler = new ThreadPoolTaskScheduler();
+			taskScheduler.setPoolSize(2);
+			taskScheduler.setDaemon(true);
+			taskScheduler.afterPropertiesSet();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDownScheduler() {
+			taskScheduler.destroy();
+		}
+
+		@Setup(Level.Invocation)
+		public void setUpContainer() throws Exception {
+
+			container = new SecretLeaseContainer(vaultTemplate, taskScheduler);
+
+			for (int i = 0; i < secrets; i++) {
+				container.requestRenewableSecret("database/creds/role-" + i);
+			}
+
+			container.afterPropertiesSet();
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDownContainer() throws Exception {
+			container.destroy();
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.util.Base64Utils;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Compares the encoding of transit payloads through generic {@link Map}s with Base64
+ * {@link String}s against typed objects with {@code byte[]} fields that Jackson encodes
+ * and decodes directly. The typed variant mirrors the request and response objects used
+ * by {@link org.springframework.vault.core.VaultTransitTemplate}.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransitEncodingBenchmark {
+
+	static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Param({ "32", "4096" })
+	int size;
+
+	byte[] plaintext;
+
+	byte[] context;
+
+	byte[] decryptResponse;
+
+	@Setup
+	public void setUp() throws IOException {
+
+		plaintext = new byte[size];
+		for (int i = 0; i < size; i++) {
+			plaintext[i] = (byte) ('a' + i % 26);
+		}
+
+		context = "tenant-4711".getBytes(UTF_8);
+
+		Map<String, Object> data = new LinkedHashMap<String, Object>();
+		data.put("plaintext", Base64Utils.encodeToString(plaintext));
+
+		Map<String, Object> response = new LinkedHashMap<String, Object>();
+		response.put("data", data);
+
+		decryptResponse = objectMapper.writeValueAsBytes(response);
+	}
+
+	@Benchmark
+	public byte[] writeMapRequest() throws IOException {
+
+		Map<String, String> request = new LinkedHashMap<String, String>();
+		request.put("plaintext", Base64Utils.encodeToString(plaintext));
+		request.put("context", Base64Utils.encodeToString(context));
+
+		return objectMapper.writeValueAsBytes(request);
+	}
+
+	@Benchmark
+	public byte[] writeTypedRequest() throws IOException {
+
+		TransitRequest request = new TransitRequest();
+		request.setPlaintext(plaintext);
+		request.setContext(context);
+
+		return objectMapper.writeValueAsBytes(request);
+	}
+
+	@Benchmark
+	public byte[] readMapResponse() throws IOException {
+
+		VaultResponse response = objectMapper.readValue(decryptResponse,
+				VaultResponse.class);
+
+		return Base64Utils.decodeFromString((String) response.getData().get(
+				"plaintext"));
+	}
+
+	@Benchmark
+	public byte[] readTypedResponse() throws IOException {
+		return objectMapper.readValue(decryptResponse, TransitResponseWrapper.class)
+				.getData().getPlaintext();
+	}
+
+	@JsonInclude(Include.NON_NULL)
+	static class TransitRequest {
+
+		private byte[] plaintext;
+
+		private byte[] context;
+
+		public byte[] getPlaintext() {
+			return plaintext;
+		}
+
+		public void setPlaintext(byte[] plaintext) {
+			this.plaintext = plaintext;
+		}
+
+		public byte[] getContext() {
+			return context;
+		}
+
+		public void setContext(byte[] context) {
+			this.context = context;
+		}
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class TransitResponseWrapper {
+
+		private TransitResponse data;
+
+		public TransitResponse getData() {
+			return data;
+		}
+
+		public void setData(TransitResponse data) {
+			this.data = data;
+		}
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class TransitResponse {
+
+		private byte[] plaintext;
+
+		public byte[] getPlaintext() {
+			return plaintext;
+		}
+
+		public void setPlaintext(byte[] plaintext) {
+			this.plaintext = plaintext;
+		}
+	}
+}
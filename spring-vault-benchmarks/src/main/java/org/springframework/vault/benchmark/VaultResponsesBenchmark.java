@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.vault.client.VaultResponses;
+import org.springframework.vault.support.VaultResponseSupport;
+
+/**
+ * Benchmarks for {@link VaultResponses#getTypeReference(Class)}. Besides creating the
+ * type reference, {@link #resolveJavaType()} measures resolving it to a Jackson
+ * {@link JavaType} as the message converter does for each typed read.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VaultResponsesBenchmark {
+
+	final TypeFactory typeFactory = new ObjectMapper().getTypeFactory();
+
+	@Benchmark
+	public ParameterizedTypeReference<VaultResponseSupport<Map>> getTypeReference() {
+		return VaultResponses.getTypeReference(Map.class);
+	}
+
+	@Benchmark
+	public JavaType resolveJavaType() {
+		return typeFactory.constructType(VaultResponses.getTypeReference(Map.class)
+				.getType());
+	}
+}
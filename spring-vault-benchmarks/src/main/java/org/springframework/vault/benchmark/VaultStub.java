@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.springframework.vault.client.VaultEndpoint;
+
+/**
+ * In-process HTTP stub of the Vault endpoints used by the benchmarks. Responses are
+ * pre-serialized so the stub adds as little overhead as possible to the measured client
+ * code. The stub listens on a random loopback port and counts the client connections
+ * it accepted.
+ * <p>
+ * Supported endpoints:
+ * <ul>
+ * <li>{@literal GET secret/*}: static secret</li>
+ * <li>{@literal PUT/POST secret/*}: accepts writes</li>
+ * <li>{@literal POST transit/encrypt/*} and {@literal POST transit/decrypt/*}</li>
+ * <li>{@literal GET database/creds/*}: renewable lease with a unique lease id</li>
+ * <li>{@literal PUT sys/renew/*} and {@literal PUT sys/revoke/*}</li>
+ * </ul>
+ *
+ * @author Mark Paluch
+ */
+class VaultStub {
+
+	static final String TOKEN = "benchmark-token";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final byte[] SECRET = json("{\"request_id\":\"a2c8ad5c\",\"lease_id\":\"\","
+			+ "\"renewable\":false,\"lease_duration\":2764800,\"data\":{"
+			+ "\"spring.datasource.username\":\"app\",\"spring.datasource.password\":\"s3cr3t\","
+			+ "\"server\":{\"port\":8080,\"ssl\":{\"enabled\":true,\"protocols\":[\"TLSv1.2\"]}},"
+			+ "\"feature\":{\"flags\":[\"a\",\"b\",\"c\"],\"limit\":100}},"
+			+ "\"wrap_info\":null,\"warnings\":null,\"auth\":null}");
+
+	private static final byte[] ENCRYPT = json("{\"data\":{\"ciphertext\":"
+			+ "\"vault:v1:XjsPWPjqPrBi1N2Ms2s1QM798YyFWnO4TR4lsFA=\"}}");
+
+	private static final byte[] DECRYPT = json("{\"data\":{\"plaintext\":"
+			+ "\"dGhlIHF1aWNrIGJyb3duIGZveA==\"}}");
+
+	private static final byte[] NOT_FOUND = json("{\"errors\":[]}");
+
+	private final AtomicLong leaseIds = new AtomicLong();
+
+	private final Set<String> connections = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private HttpServer server;
+
+	private ExecutorService executor;
+
+	/**
+	 * Start the stub.
+	 *
+	 * @param threads number of request handling threads.
+	 */
+	void start(int threads) throws IOException {
+
+		executor = Executors.newFixedThreadPool(threads);
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+				0), 512);
+		server.setExecutor(executor);
+		server.createContext("/v1/", new VaultHandler());
+		server.start();
+	}
+
+	void stop() {
+
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	VaultEndpoint getEndpoint() {
+
+		VaultEndpoint endpoint = VaultEndpoint.create("localhost", server.getAddress()
+				.getPort());
+		endpoint.setScheme("http");
+		return endpoint;
+	}
+
+	/**
+	 * @return the number of distinct client connections accepted since the last reset.
+	 */
+	int getConnectionCount() {
+		return connections.size();
+	}
+
+	void resetConnectionCount() {
+		connections.clear();
+	}
+
+	private static byte[] json(String json) {
+		return json.getBytes(UTF_8);
+	}
+
+	class VaultHandler implements HttpHandler {
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+
+			connections.add(exchange.getRemoteAddress().toString());
+
+			try {
+				drain(exchange.getRequestBody());
+
+				String method = exchange.getRequestMethod();
+				String path = exchange.getRequestURI().getPath().substring(4);
+
+				if (path.startsWith("secret/")) {
+
+					if (method.equals("GET")) {
+						respond(exchange, 200, SECRET);
+					}
+					else {
+						respond(exchange, 204, null);
+					}
+				}
+				else if (path.startsWith("transit/encrypt/")) {
+					respond(exchange, 200, ENCRYPT);
+				}
+				else if (path.startsWith("transit/decrypt/")) {
+					respond(exchange, 200, DECRYPT);
+				}
+				else if (path.startsWith("database/creds/")) {
+					respond(exchange, 200, lease(path, "database/creds/"));
+				}
+				else if (path.startsWith("sys/renew/")) {
+					respond(exchange, 200, lease(path, "sys/renew/"));
+				}
+				else if (path.startsWith("sys/revoke/")) {
+					respond(exchange, 204, null);
+				}
+				else {
+					respond(exchange, 404, NOT_FOUND);
+				}
+			}
+			finally {
+				exchange.close();
+			}
+		}
+
+		private byte[] lease(String path, String prefix) {
+
+			String leaseId = prefix.equals("sys/renew/") ? path.substring(prefix
+					.length()) : path + "/" + leaseIds.incrementAndGet();
+
+			return json(String.format("{\"lease_id\":\"%s\",\"renewable\":true,"
+					+ "\"lease_duration\":3600,\"data\":{\"username\":\"v-app-1\","
+					+ "\"password\":\"A1a-2b3c4d5e\"}}", leaseId));
+		}
+
+		private void respond(HttpExchange exchange, int status, byte[] body)
+				throws IOException {
+
+			if (body == null) {
+				exchange.sendResponseHeaders(status, -1);
+				return;
+			}
+
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, body.length);
+
+			OutputStream out = exchange.getResponseBody();
+			out.write(body);
+			out.close();
+		}
+
+		private void drain(InputStream in) throws IOException {
+
+			byte[] buffer = new byte[4096];
+			while (in.read(buffer) != -1) {
+				// discard
+			}
+
+			in.close();
+		}
+	}
+}
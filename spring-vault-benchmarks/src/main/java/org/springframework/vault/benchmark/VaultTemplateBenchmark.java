@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.vault.core.VaultTemplate;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+
+/**
+ * Benchmarks for the {@link VaultTemplate} request pipeline (session token injection,
+ * request execution, message conversion and response binding) against
+ * {@link VaultStub}.
+ *
+ * @author Mark Paluch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VaultTemplateBenchmark {
+
+	static final Map<String, String> BODY = Collections.singletonMap("password",
+			"s3cr3t");
+
+	@Benchmark
+	public VaultResponse read(VaultTemplateState state) {
+		return state.vaultTemplate.read("secret/myapp");
+	}
+
+	@Benchmark
+	public VaultResponseSupport<Map> readTyped(VaultTemplateState state) {
+		return state.vaultTemplate.read("secret/myapp", Map.class);
+	}
+
+	@Benchmark
+	public VaultResponse write(VaultTemplateState state) {
+		return state.vaultTemplate.write("secret/myapp", BODY);
+	}
+}
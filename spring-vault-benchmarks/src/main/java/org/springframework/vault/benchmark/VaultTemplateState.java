@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.vault.authentication.SimpleSessionManager;
+import org.springframework.vault.authentication.TokenAuthentication;
+import org.springframework.vault.config.ClientHttpRequestFactoryFactory;
+import org.springframework.vault.core.VaultTemplate;
+import org.springframework.vault.support.ClientOptions;
+import org.springframework.vault.support.SslConfiguration;
+
+/**
+ * Benchmark state providing a {@link VaultTemplate} connected to a {@link VaultStub}.
+ * Subclasses may override {@link #clientOptions()} to benchmark different client
+ * configurations.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+public class VaultTemplateState {
+
+	VaultStub stub;
+
+	ClientHttpRequestFactory requestFactory;
+
+	VaultTemplate vaultTemplate;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+
+		stub = new VaultStub();
+		stub.start(stubThreads());
+
+		requestFactory = ClientHttpRequestFactoryFactory.create(clientOptions(),
+				SslConfiguration.NONE);
+
+		vaultTemplate = new VaultTemplate(stub.getEndpoint(), requestFactory,
+				new SimpleSessionManager(new TokenAuthentication(VaultStub.TOKEN)));
+		vaultTemplate.afterPropertiesSet();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+
+		vaultTemplate.destroy();
+
+		if (requestFactory instanceof DisposableBean) {
+			((DisposableBean) requestFactory).destroy();
+		}
+
+		stub.stop();
+	}
+
+	ClientOptions clientOptions() {
+		return new ClientOptions();
+	}
+
+	int stubThreads() {
+		return 4;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.vault.core.VaultTransitOperations;
+import org.springframework.vault.support.VaultTransitContext;
+
+/**
+ * Benchmarks for {@link org.springframework.vault.core.VaultTransitTemplate} request
+ * body building and response binding against {@link VaultStub}.
+ *
+ * @author Mark Paluch
+ * @see TransitEncodingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VaultTransitTemplateBenchmark {
+
+	static final byte[] PLAINTEXT = "the quick brown fox".getBytes(Charset
+			.forName("UTF-8"));
+
+	static final VaultTransitContext CONTEXT = VaultTransitContext.builder()
+			.context("tenant-4711".getBytes(Charset.forName("UTF-8"))).build();
+
+	static final String CIPHERTEXT = "vault:v1:XjsPWPjqPrBi1N2Ms2s1QM798YyFWnO4TR4lsFA=";
+
+	@Benchmark
+	public String encrypt(VaultTemplateState state) {
+		return transit(state).encrypt("my-key", PLAINTEXT, CONTEXT);
+	}
+
+	@Benchmark
+	public String encryptString(VaultTemplateState state) {
+		return transit(state).encrypt("my-key", "dGhlIHF1aWNrIGJyb3duIGZveA==");
+	}
+
+	@Benchmark
+	public byte[] decrypt(VaultTemplateState state) {
+		return transit(state).decrypt("my-key", CIPHERTEXT, CONTEXT);
+	}
+
+	private static VaultTransitOperations transit(VaultTemplateState state) {
+		return state.vaultTemplate.opsForTransit();
+	}
+}
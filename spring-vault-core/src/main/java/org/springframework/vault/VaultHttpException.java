@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault;
+
+/**
+ * {@link VaultException} for requests that Vault answered with an error status. Carries
+ * the HTTP status code of the response.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see org.springframework.vault.client.VaultResponses#buildException(org.springframework.web.client.HttpStatusCodeException)
+ */
+@SuppressWarnings("serial")
+public class VaultHttpException extends VaultException {
+
+	private final int statusCode;
+
+	/**
+	 * Create a {@code VaultHttpException} with the specified detail message and HTTP
+	 * status code.
+	 *
+	 * @param msg the detail message
+	 * @param statusCode the HTTP status code
+	 */
+	public VaultHttpException(String msg, int statusCode) {
+
+		super(msg);
+
+		this.statusCode = statusCode;
+	}
+
+	/**
+	 * @return the HTTP status code of the response.
+	 */
+	public int getStatusCode() {
+		return statusCode;
+	}
+}
@@ -34,6 +34,7 @@ import org.springframework.util.Assert;
 import org.springframework.vault.VaultException;
 import org.springframework.vault.client.VaultHttpHeaders;
 import org.springframework.vault.client.VaultResponses;
+import org.springframework.vault.support.RenewalPolicy;
 import org.springframework.vault.support.VaultToken;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
@@ -43,11 +44,13 @@ import org.springframework.web.client.RestOperations;
  * Lifecycle-aware Session Manager. This {@link SessionManager} obtains tokens from a
  * {@link ClientAuthentication} upon {@link #getSessionToken() request}. Tokens are
  * renewed asynchronously if a token has a lease duration. This happens 5 seconds before
- * the token expires, see {@link #REFRESH_PERIOD_BEFORE_EXPIRY}.
+ * the token expires, see {@link #REFRESH_PERIOD_BEFORE_EXPIRY}. A
+ * {@link RenewalPolicyRefreshTrigger} spreads renewals using a {@link RenewalPolicy}.
  * <p>
  * This {@link SessionManager} also implements {@link DisposableBean} to revoke the
  * {@link LoginToken} once it's not required anymore. Token revocation will stop regular
- * token refresh.
+ * token refresh. Revoking a token also revokes all leases created with it, see
+ * {@link #setRevokeTokenOnDestroy(boolean)}.
  * <p>
  * If Token renewal runs into a client-side error, it assumes the token was
  * revoked/expired and discards the token state so the next attempt will lead to another
@@ -84,6 +87,8 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 
 	private volatile VaultToken token;
 
+	private boolean revokeTokenOnDestroy = true;
+
 	/**
 	 * Create a {@link LifecycleAwareSessionManager} given {@link ClientAuthentication},
 	 * {@link AsyncTaskExecutor} and {@link RestOperations}.
@@ -123,13 +128,28 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 		this.refreshTrigger = refreshTrigger;
 	}
 
+	/**
+	 * Configure whether to revoke the {@link LoginToken} on {@link #destroy()}. Vault
+	 * revokes all leases created with a token along with the token itself. Disable token
+	 * revocation to keep leases valid across restarts, e.g. when using a
+	 * {@link org.springframework.vault.core.lease.LeaseJournal}. The token then remains
+	 * valid until it expires. Enabled by default.
+	 *
+	 * @param revokeTokenOnDestroy {@literal true} to revoke the token on
+	 * {@link #destroy()}.
+	 * @since 1.1
+	 */
+	public void setRevokeTokenOnDestroy(boolean revokeTokenOnDestroy) {
+		this.revokeTokenOnDestroy = revokeTokenOnDestroy;
+	}
+
 	@Override
 	public void destroy() {
 
 		VaultToken token = this.token;
 		this.token = null;
 
-		if (token instanceof LoginToken) {
+		if (token instanceof LoginToken && revokeTokenOnDestroy) {
 			revoke(token);
 		}
 	}
@@ -325,4 +345,38 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 			return new Date(System.currentTimeMillis() + milliseconds);
 		}
 	}
+
+	/**
+	 * {@link RefreshTrigger} implementation using a {@link RenewalPolicy} to schedule
+	 * renewal. Randomized policies spread token renewals of clients that logged in at the
+	 * same time.
+	 *
+	 * @author Mark Paluch
+	 * @since 1.1
+	 */
+	public static class RenewalPolicyRefreshTrigger implements RefreshTrigger {
+
+		private final RenewalPolicy renewalPolicy;
+
+		/**
+		 * Create a new {@link RenewalPolicyRefreshTrigger} given {@link RenewalPolicy}.
+		 *
+		 * @param renewalPolicy must not be {@literal null}.
+		 */
+		public RenewalPolicyRefreshTrigger(RenewalPolicy renewalPolicy) {
+
+			Assert.notNull(renewalPolicy, "RenewalPolicy must not be null");
+
+			this.renewalPolicy = renewalPolicy;
+		}
+
+		@Override
+		public Date nextExecutionTime(LoginToken loginToken) {
+
+			long milliseconds = Math.max(TimeUnit.SECONDS.toMillis(1),
+					renewalPolicy.getRenewalDelay(loginToken.getLeaseDuration()));
+
+			return new Date(System.currentTimeMillis() + milliseconds);
+		}
+	}
 }
@@ -0,0 +1,538 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestFactory} decorator that guards requests with a circuit
+ * breaker and a bulkhead per {@link OperationClass}. Requests are classified by the
+ * mount they address: {@code sys/}, {@code auth/}, {@code transit/} and {@code pki/}
+ * map to {@link OperationClass#SYS}, {@link OperationClass#AUTH},
+ * {@link OperationClass#TRANSIT} and {@link OperationClass#PKI}, all other requests to
+ * {@link OperationClass#KV}. Backends mounted on other paths can be registered with
+ * {@link #setOperationClass(String, OperationClass)}.
+ * <p>
+ * A circuit breaker opens after a number of consecutive failures (I/O errors or
+ * {@literal 5xx} responses) and rejects requests until its open period elapses. It then
+ * lets a single trial request pass and closes again if the trial succeeds. A bulkhead
+ * limits the number of concurrent requests. Saturated bulkheads reject requests
+ * immediately instead of blocking the calling thread. Rejected requests fail with
+ * {@link CallNotPermittedException}. Each {@link OperationClass} is guarded
+ * independently so a slow PKI mount cannot exhaust capacity for transit requests.
+ * <p>
+ * Circuit breakers open after {@literal 5} consecutive failures for
+ * {@literal 30} {@link TimeUnit#SECONDS} by default. Bulkheads are not limited by
+ * default. Configure instances before using them to create requests.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see CallNotPermittedException
+ * @see org.springframework.vault.core.CachingVaultOperations
+ */
+public class CircuitBreakingClientHttpRequestFactory implements
+		ClientHttpRequestFactory, InitializingBean, DisposableBean {
+
+	private final ClientHttpRequestFactory delegate;
+
+	private final Map<OperationClass, Guard> guards = new EnumMap<OperationClass, Guard>(
+			OperationClass.class);
+
+	private final Map<String, OperationClass> mounts = new ConcurrentHashMap<String, OperationClass>();
+
+	/**
+	 * Create a new {@link CircuitBreakingClientHttpRequestFactory} given
+	 * {@link ClientHttpRequestFactory}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 */
+	public CircuitBreakingClientHttpRequestFactory(ClientHttpRequestFactory delegate) {
+
+		Assert.notNull(delegate, "ClientHttpRequestFactory must not be null");
+
+		this.delegate = delegate;
+
+		for (OperationClass operationClass : OperationClass.values()) {
+			guards.put(operationClass, new Guard(operationClass));
+		}
+
+		mounts.put("sys", OperationClass.SYS);
+		mounts.put("auth", OperationClass.AUTH);
+		mounts.put("transit", OperationClass.TRANSIT);
+		mounts.put("pki", OperationClass.PKI);
+	}
+
+	/**
+	 * Configure the circuit breaker for an {@link OperationClass}.
+	 *
+	 * @param operationClass must not be {@literal null}.
+	 * @param failureThreshold number of consecutive failures that open the circuit, must
+	 * be greater {@literal 0}.
+	 * @param openMillis period in {@link TimeUnit#MILLISECONDS} the circuit stays open
+	 * before a trial request is permitted, must not be negative.
+	 */
+	public void setCircuitBreaker(OperationClass operationClass, int failureThreshold,
+			long openMillis) {
+
+		Assert.notNull(operationClass, "OperationClass must not be null");
+		Assert.isTrue(failureThreshold > 0, "Failure threshold must be greater 0");
+		Assert.isTrue(openMillis >= 0, "Open period must not be negative");
+
+		guards.get(operationClass).configureCircuitBreaker(failureThreshold, openMillis);
+	}
+
+	/**
+	 * Configure the bulkhead for an {@link OperationClass}.
+	 *
+	 * @param operationClass must not be {@literal null}.
+	 * @param maxConcurrentRequests maximum number of concurrent requests, must be
+	 * greater {@literal 0}.
+	 */
+	public void setBulkhead(OperationClass operationClass, int maxConcurrentRequests) {
+
+		Assert.notNull(operationClass, "OperationClass must not be null");
+		Assert.isTrue(maxConcurrentRequests > 0,
+				"Max concurrent requests must be greater 0");
+
+		guards.get(operationClass).configureBulkhead(maxConcurrentRequests);
+	}
+
+	/**
+	 * Register the {@link OperationClass} for requests to a mount, e.g. a transit backend
+	 * mounted at {@code encryption}.
+	 *
+	 * @param mountPath must not be {@literal null} or empty.
+	 * @param operationClass must not be {@literal null}.
+	 */
+	public void setOperationClass(String mountPath, OperationClass operationClass) {
+
+		Assert.hasText(mountPath, "Mount path must not be empty");
+		Assert.notNull(operationClass, "OperationClass must not be null");
+
+		String mount = mountPath.startsWith("/") ? mountPath.substring(1) : mountPath;
+		mount = mount.endsWith("/") ? mount.substring(0, mount.length() - 1) : mount;
+
+		mounts.put(mount, operationClass);
+	}
+
+	/**
+	 * @param operationClass must not be {@literal null}.
+	 * @return the current {@link CircuitState} of the {@link OperationClass}.
+	 */
+	public CircuitState getCircuitState(OperationClass operationClass) {
+
+		Assert.notNull(operationClass, "OperationClass must not be null");
+
+		return guards.get(operationClass).getState(currentTimeMillis());
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod)
+			throws IOException {
+
+		return new GuardedClientHttpRequest(delegate.createRequest(uri, httpMethod),
+				guards.get(getOperationClass(uri)));
+	}
+
+	/**
+	 * Initialize the delegate {@link ClientHttpRequestFactory} if it is an
+	 * {@link InitializingBean}.
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+
+		if (delegate instanceof InitializingBean) {
+			((InitializingBean) delegate).afterPropertiesSet();
+		}
+	}
+
+	/**
+	 * Destroy the delegate {@link ClientHttpRequestFactory} if it is a
+	 * {@link DisposableBean}.
+	 */
+	@Override
+	public void destroy() throws Exception {
+
+		if (delegate instanceof DisposableBean) {
+			((DisposableBean) delegate).destroy();
+		}
+	}
+
+	/**
+	 * @return the current time in {@link TimeUnit#MILLISECONDS}.
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	OperationClass getOperationClass(URI uri) {
+
+		String path = getRelativePath(uri);
+		OperationClass result = OperationClass.KV;
+		int matchLength = -1;
+
+		for (Entry<String, OperationClass> entry : mounts.entrySet()) {
+
+			String mount = entry.getKey();
+
+			if (mount.length() > matchLength
+					&& (path.equals(mount) || path.startsWith(mount + "/"))) {
+				result = entry.getValue();
+				matchLength = mount.length();
+			}
+		}
+
+		return result;
+	}
+
+	private static String getRelativePath(URI uri) {
+
+		String path = uri.getPath() != null ? uri.getPath() : "";
+		int index = path.indexOf("/v1/");
+
+		if (index != -1) {
+			return path.substring(index + 4);
+		}
+
+		return path.startsWith("/") ? path.substring(1) : path;
+	}
+
+	private static boolean isFailure(URI uri, int statusCode) {
+
+		// sys/health reports standby and sealed state through status codes
+		if (uri.getPath() != null && uri.getPath().endsWith("/sys/health")) {
+			return false;
+		}
+
+		return statusCode >= 500;
+	}
+
+	/**
+	 * Operation classes that are guarded independently.
+	 */
+	public enum OperationClass {
+
+		/**
+		 * Key-value and other secret backends.
+		 */
+		KV,
+
+		/**
+		 * Transit backend.
+		 */
+		TRANSIT,
+
+		/**
+		 * PKI backend.
+		 */
+		PKI,
+
+		/**
+		 * System backend.
+		 */
+		SYS,
+
+		/**
+		 * Authentication backends including token operations.
+		 */
+		AUTH
+	}
+
+	/**
+	 * Circuit breaker states.
+	 */
+	public enum CircuitState {
+
+		/**
+		 * Requests are permitted.
+		 */
+		CLOSED,
+
+		/**
+		 * Requests are rejected.
+		 */
+		OPEN,
+
+		/**
+		 * A single trial request is permitted to probe whether Vault recovered.
+		 */
+		HALF_OPEN
+	}
+
+	/**
+	 * Circuit breaker and bulkhead for a single {@link OperationClass}.
+	 */
+	class Guard {
+
+		private final OperationClass operationClass;
+
+		private int failureThreshold = 5;
+
+		private long openMillis = TimeUnit.SECONDS.toMillis(30);
+
+		private CircuitState state = CircuitState.CLOSED;
+
+		private int consecutiveFailures;
+
+		private long openedAt;
+
+		private boolean trialInFlight;
+
+		private volatile Semaphore bulkhead;
+
+		Guard(OperationClass operationClass) {
+			this.operationClass = operationClass;
+		}
+
+		synchronized void configureCircuitBreaker(int failureThreshold, long openMillis) {
+			this.failureThreshold = failureThreshold;
+			this.openMillis = openMillis;
+		}
+
+		void configureBulkhead(int maxConcurrentRequests) {
+			this.bulkhead = new Semaphore(maxConcurrentRequests);
+		}
+
+		synchronized CircuitState getState(long now) {
+
+			if (state == CircuitState.OPEN && now - openedAt >= openMillis) {
+				return CircuitState.HALF_OPEN;
+			}
+
+			return state;
+		}
+
+		/**
+		 * Acquire a bulkhead permit and the circuit breaker permission.
+		 *
+		 * @return the acquired bulkhead {@link Semaphore} to release after the request
+		 * completed, may be {@literal null} if no bulkhead is configured.
+		 * @throws CallNotPermittedException if the request is rejected.
+		 */
+		Semaphore acquire() throws CallNotPermittedException {
+
+			Semaphore semaphore = this.bulkhead;
+
+			if (semaphore != null && !semaphore.tryAcquire()) {
+				throw new CallNotPermittedException(String.format(
+						"Bulkhead for %s requests is saturated", operationClass));
+			}
+
+			if (!tryAcquirePermission(currentTimeMillis())) {
+
+				if (semaphore != null) {
+					semaphore.release();
+				}
+
+				throw new CallNotPermittedException(String.format(
+						"Circuit breaker for %s requests is open", operationClass));
+			}
+
+			return semaphore;
+		}
+
+		synchronized boolean tryAcquirePermission(long now) {
+
+			switch (state) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (now - openedAt < openMillis) {
+					return false;
+				}
+				state = CircuitState.HALF_OPEN;
+				trialInFlight = true;
+				return true;
+			default:
+				if (trialInFlight) {
+					return false;
+				}
+				trialInFlight = true;
+				return true;
+			}
+		}
+
+		synchronized void onSuccess() {
+
+			state = CircuitState.CLOSED;
+			consecutiveFailures = 0;
+			trialInFlight = false;
+		}
+
+		synchronized void onFailure() {
+
+			trialInFlight = false;
+
+			if (state == CircuitState.HALF_OPEN
+					|| ++consecutiveFailures >= failureThreshold) {
+
+				state = CircuitState.OPEN;
+				openedAt = currentTimeMillis();
+				consecutiveFailures = 0;
+			}
+		}
+	}
+
+	/**
+	 * {@link ClientHttpRequest} that executes the delegate request if permitted by its
+	 * {@link Guard}. The request body is written directly to the delegate request.
+	 */
+	static class GuardedClientHttpRequest implements ClientHttpRequest {
+
+		private final ClientHttpRequest delegate;
+
+		private final Guard guard;
+
+		GuardedClientHttpRequest(ClientHttpRequest delegate, Guard guard) {
+			this.delegate = delegate;
+			this.guard = guard;
+		}
+
+		@Override
+		public ClientHttpResponse execute() throws IOException {
+
+			Semaphore bulkhead = guard.acquire();
+			ClientHttpResponse response;
+
+			try {
+				response = delegate.execute();
+			}
+			catch (IOException e) {
+				guard.onFailure();
+				release(bulkhead);
+				throw e;
+			}
+			catch (RuntimeException e) {
+				guard.onFailure();
+				release(bulkhead);
+				throw e;
+			}
+
+			if (isFailure(getURI(), response.getRawStatusCode())) {
+				guard.onFailure();
+			}
+			else {
+				guard.onSuccess();
+			}
+
+			return bulkhead != null ? new BulkheadReleasingResponse(response, bulkhead)
+					: response;
+		}
+
+		@Override
+		public OutputStream getBody() throws IOException {
+			return delegate.getBody();
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return delegate.getMethod();
+		}
+
+		@Override
+		public URI getURI() {
+			return delegate.getURI();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+
+		private static void release(Semaphore bulkhead) {
+
+			if (bulkhead != null) {
+				bulkhead.release();
+			}
+		}
+	}
+
+	/**
+	 * {@link ClientHttpResponse} that releases its bulkhead permit once the response is
+	 * closed.
+	 */
+	static class BulkheadReleasingResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+
+		private final Semaphore bulkhead;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		BulkheadReleasingResponse(ClientHttpResponse delegate, Semaphore bulkhead) {
+			this.delegate = delegate;
+			this.bulkhead = bulkhead;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() throws IOException {
+			return delegate.getStatusCode();
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return delegate.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			return delegate.getBody();
+		}
+
+		@Override
+		public void close() {
+
+			try {
+				delegate.close();
+			}
+			finally {
+				if (released.compareAndSet(false, true)) {
+					bulkhead.release();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,491 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * {@link VaultEndpointProvider} for a Vault HA cluster. The provider tracks health,
+ * latency and errors for each node and selects the node to send a request to.
+ * <ul>
+ * <li>{@link #getVaultEndpoint()} returns the active node. All requests use the active
+ * node unless they are routed through {@link #createRequestFactory(ClientHttpRequestFactory)}.</li>
+ * <li>{@link #getReadEndpoint()} returns the fastest healthy performance standby, or the
+ * active node if no performance standby is available.</li>
+ * </ul>
+ * Node roles are determined by periodic {@code sys/health} checks that follow the
+ * status codes of {@link org.springframework.vault.core.VaultSysOperations#health()}:
+ * {@literal 200} active, {@literal 429} standby, {@literal 473} performance standby.
+ * Other responses and I/O errors mark the node unavailable.
+ * <p>
+ * {@link #createRequestFactory(ClientHttpRequestFactory)} decorates a
+ * {@link ClientHttpRequestFactory} to route {@code GET} requests to
+ * {@link #getReadEndpoint()} and to record per-node latency and errors. Nodes failing
+ * requests are ejected with exponential backoff and re-admitted by the next successful
+ * health check after the backoff elapsed.
+ * <p>
+ * Instances are thread-safe once {@link #afterPropertiesSet() initialized}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultEndpointProvider
+ */
+public class HealthAwareVaultEndpointProvider implements VaultEndpointProvider,
+		InitializingBean, DisposableBean {
+
+	private static final Log logger = LogFactory
+			.getLog(HealthAwareVaultEndpointProvider.class);
+
+	private static final AtomicInteger poolId = new AtomicInteger();
+
+	private final List<Node> nodes;
+
+	private final ClientHttpRequestFactory healthCheckRequestFactory;
+
+	private TaskScheduler taskScheduler;
+
+	private boolean manageTaskScheduler;
+
+	private long healthCheckIntervalMillis = TimeUnit.SECONDS.toMillis(5);
+
+	private long minEjectionMillis = TimeUnit.SECONDS.toMillis(1);
+
+	private long maxEjectionMillis = TimeUnit.SECONDS.toMillis(60);
+
+	/**
+	 * Create a new {@link HealthAwareVaultEndpointProvider} given {@link VaultEndpoint}s
+	 * and a {@link ClientHttpRequestFactory} used for health checks.
+	 *
+	 * @param endpoints must not be {@literal null} or empty.
+	 * @param healthCheckRequestFactory must not be {@literal null}.
+	 */
+	public HealthAwareVaultEndpointProvider(List<VaultEndpoint> endpoints,
+			ClientHttpRequestFactory healthCheckRequestFactory) {
+
+		Assert.notEmpty(endpoints, "VaultEndpoints must not be empty");
+		Assert.notNull(healthCheckRequestFactory,
+				"ClientHttpRequestFactory must not be null");
+
+		List<Node> nodes = new ArrayList<Node>(endpoints.size());
+		for (VaultEndpoint endpoint : endpoints) {
+			nodes.add(new Node(endpoint));
+		}
+
+		this.nodes = Collections.unmodifiableList(nodes);
+		this.healthCheckRequestFactory = healthCheckRequestFactory;
+	}
+
+	/**
+	 * Set the {@link TaskScheduler} used for periodic health checks.
+	 *
+	 * @param taskScheduler must not be {@literal null}.
+	 */
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+
+		Assert.notNull(taskScheduler, "TaskScheduler must not be null");
+
+		this.taskScheduler = taskScheduler;
+	}
+
+	/**
+	 * Set the interval between health checks.
+	 *
+	 * @param healthCheckIntervalMillis interval in {@link TimeUnit#MILLISECONDS}, must be
+	 * greater {@literal 0}.
+	 */
+	public void setHealthCheckIntervalMillis(long healthCheckIntervalMillis) {
+
+		Assert.isTrue(healthCheckIntervalMillis > 0,
+				"Health check interval must be greater 0");
+
+		this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+	}
+
+	/**
+	 * Set the ejection backoff bounds. The first ejection lasts {@code minEjectionMillis}
+	 * and doubles with each subsequent failure up to {@code maxEjectionMillis}.
+	 *
+	 * @param minEjectionMillis minimum ejection period in {@link TimeUnit#MILLISECONDS},
+	 * must be greater {@literal 0}.
+	 * @param maxEjectionMillis maximum ejection period in {@link TimeUnit#MILLISECONDS},
+	 * must be greater or equal to {@code minEjectionMillis}.
+	 */
+	public void setEjectionBackoff(long minEjectionMillis, long maxEjectionMillis) {
+
+		Assert.isTrue(minEjectionMillis > 0, "Min ejection period must be greater 0");
+		Assert.isTrue(maxEjectionMillis >= minEjectionMillis,
+				"Max ejection period must be greater or equal to min ejection period");
+
+		this.minEjectionMillis = minEjectionMillis;
+		this.maxEjectionMillis = maxEjectionMillis;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		checkHealth();
+
+		if (this.taskScheduler == null) {
+
+			ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+			scheduler.setDaemon(true);
+			scheduler.setThreadNamePrefix(String.format("%s-%d-", getClass()
+					.getSimpleName(), poolId.incrementAndGet()));
+			scheduler.afterPropertiesSet();
+
+			this.taskScheduler = scheduler;
+			this.manageTaskScheduler = true;
+		}
+
+		this.taskScheduler.scheduleWithFixedDelay(new Runnable() {
+
+			@Override
+			public void run() {
+				checkHealth();
+			}
+		}, healthCheckIntervalMillis);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+
+		if (manageTaskScheduler && this.taskScheduler instanceof DisposableBean) {
+			((DisposableBean) this.taskScheduler).destroy();
+			this.taskScheduler = null;
+		}
+	}
+
+	/**
+	 * Return the active node. Falls back to the fastest available node if no active node
+	 * is known and to the first configured endpoint if no node is available.
+	 *
+	 * @return the {@link VaultEndpoint} to send requests to.
+	 */
+	@Override
+	public VaultEndpoint getVaultEndpoint() {
+		return selectNode(false).endpoint;
+	}
+
+	/**
+	 * Return the fastest available performance standby node. Falls back to
+	 * {@link #getVaultEndpoint()} if no performance standby is available.
+	 *
+	 * @return the {@link VaultEndpoint} to send read requests to.
+	 */
+	public VaultEndpoint getReadEndpoint() {
+		return selectNode(true).endpoint;
+	}
+
+	/**
+	 * Decorate a {@link ClientHttpRequestFactory} to route {@code GET} requests to
+	 * {@link #getReadEndpoint()} and to record latency and errors of each node.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @return the decorated {@link ClientHttpRequestFactory}.
+	 */
+	public ClientHttpRequestFactory createRequestFactory(
+			final ClientHttpRequestFactory delegate) {
+
+		Assert.notNull(delegate, "ClientHttpRequestFactory must not be null");
+
+		return new ClientHttpRequestFactory() {
+
+			@Override
+			public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod)
+					throws IOException {
+
+				Node node = findNode(uri);
+
+				if (node == null) {
+					return delegate.createRequest(uri, httpMethod);
+				}
+
+				if (httpMethod == HttpMethod.GET) {
+
+					Node readNode = selectNode(true);
+
+					if (readNode != node) {
+						node = readNode;
+						uri = UriComponentsBuilder.fromUri(uri)
+								.scheme(node.endpoint.getScheme())
+								.host(node.endpoint.getHost())
+								.port(node.endpoint.getPort()).build(true).toUri();
+					}
+				}
+
+				return new MeasuringClientHttpRequest(delegate.createRequest(uri,
+						httpMethod), node);
+			}
+		};
+	}
+
+	/**
+	 * Run a health check against all nodes.
+	 */
+	void checkHealth() {
+
+		for (Node node : nodes) {
+
+			Role role;
+			try {
+				role = probe(node.endpoint);
+			}
+			catch (IOException e) {
+
+				if (logger.isDebugEnabled()) {
+					logger.debug(String.format("Health check of %s failed",
+							node.endpoint), e);
+				}
+
+				role = Role.UNAVAILABLE;
+			}
+
+			node.role = role;
+
+			if (role == Role.UNAVAILABLE) {
+				eject(node);
+			}
+			else if (node.ejectedUntil <= currentTimeMillis()) {
+				node.consecutiveFailures.set(0);
+			}
+		}
+	}
+
+	/**
+	 * Returns the current time in {@link TimeUnit#MILLISECONDS}. Subclasses may override
+	 * this method to control time.
+	 *
+	 * @return the current time in milliseconds.
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	private Role probe(VaultEndpoint endpoint) throws IOException {
+
+		ClientHttpRequest request = healthCheckRequestFactory.createRequest(
+				endpoint.createUri("sys/health"), HttpMethod.GET);
+
+		ClientHttpResponse response = request.execute();
+
+		try {
+			return Role.fromStatusCode(response.getRawStatusCode());
+		}
+		finally {
+			response.close();
+		}
+	}
+
+	private Node selectNode(boolean read) {
+
+		long now = currentTimeMillis();
+		Node active = null;
+		Node fastestStandby = null;
+		Node fastest = null;
+
+		for (Node node : nodes) {
+
+			if (node.role == Role.UNAVAILABLE || node.ejectedUntil > now) {
+				continue;
+			}
+
+			if (node.role == Role.ACTIVE && active == null) {
+				active = node;
+			}
+
+			if (node.role == Role.PERFORMANCE_STANDBY
+					&& (fastestStandby == null || node.latencyNanos < fastestStandby.latencyNanos)) {
+				fastestStandby = node;
+			}
+
+			if (fastest == null || node.latencyNanos < fastest.latencyNanos) {
+				fastest = node;
+			}
+		}
+
+		if (read && fastestStandby != null) {
+			return fastestStandby;
+		}
+
+		if (active != null) {
+			return active;
+		}
+
+		return fastest != null ? fastest : nodes.get(0);
+	}
+
+	private Node findNode(URI uri) {
+
+		for (Node node : nodes) {
+
+			VaultEndpoint endpoint = node.endpoint;
+
+			if (endpoint.getHost().equalsIgnoreCase(uri.getHost())
+					&& endpoint.getPort() == uri.getPort()) {
+				return node;
+			}
+		}
+
+		return null;
+	}
+
+	private void eject(Node node) {
+
+		int failures = node.consecutiveFailures.incrementAndGet();
+		long backoff = minEjectionMillis << Math.min(failures - 1, 30);
+
+		node.ejectedUntil = currentTimeMillis() + Math.min(backoff, maxEjectionMillis);
+
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format("Ejecting %s after %d consecutive failures",
+					node.endpoint, failures));
+		}
+	}
+
+	/**
+	 * Role of a Vault node.
+	 */
+	enum Role {
+
+		ACTIVE, STANDBY, PERFORMANCE_STANDBY, UNAVAILABLE;
+
+		static Role fromStatusCode(int statusCode) {
+
+			switch (statusCode) {
+			case 200:
+				return ACTIVE;
+			case 429:
+				return STANDBY;
+			case 473:
+				return PERFORMANCE_STANDBY;
+			default:
+				return UNAVAILABLE;
+			}
+		}
+	}
+
+	/**
+	 * State of a single Vault node.
+	 */
+	static class Node {
+
+		final VaultEndpoint endpoint;
+
+		final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+		volatile Role role = Role.STANDBY;
+
+		volatile long latencyNanos;
+
+		volatile long ejectedUntil;
+
+		Node(VaultEndpoint endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		/**
+		 * Record the latency of a successful request as exponentially weighted moving
+		 * average.
+		 */
+		void recordLatency(long nanos) {
+
+			long current = latencyNanos;
+			latencyNanos = current == 0 ? nanos : current + (nanos - current) / 8;
+		}
+	}
+
+	/**
+	 * {@link ClientHttpRequest} recording latency and failures of a {@link Node}.
+	 */
+	private class MeasuringClientHttpRequest implements ClientHttpRequest {
+
+		private final ClientHttpRequest delegate;
+
+		private final Node node;
+
+		MeasuringClientHttpRequest(ClientHttpRequest delegate, Node node) {
+			this.delegate = delegate;
+			this.node = node;
+		}
+
+		@Override
+		public ClientHttpResponse execute() throws IOException {
+
+			long start = System.nanoTime();
+			ClientHttpResponse response;
+
+			try {
+				response = delegate.execute();
+			}
+			catch (IOException e) {
+				eject(node);
+				throw e;
+			}
+
+			if (response.getRawStatusCode() >= 500) {
+				eject(node);
+			}
+			else {
+				node.consecutiveFailures.set(0);
+				node.recordLatency(System.nanoTime() - start);
+			}
+
+			return response;
+		}
+
+		@Override
+		public OutputStream getBody() throws IOException {
+			return delegate.getBody();
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return delegate.getMethod();
+		}
+
+		@Override
+		public URI getURI() {
+			return delegate.getURI();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+
+/**
+ * {@link VaultMetricsRecorder} that aggregates requests in memory without external
+ * dependencies. Requests are aggregated by operation, HTTP method, status and endpoint.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see #getStatistics()
+ */
+public class InMemoryVaultMetricsRecorder implements VaultMetricsRecorder {
+
+	private final ConcurrentMap<Key, RequestStatistics> statistics = new ConcurrentHashMap<Key, RequestStatistics>();
+
+	@Override
+	public void record(VaultRequestSample sample) {
+
+		Assert.notNull(sample, "VaultRequestSample must not be null");
+
+		Key key = new Key(sample.getOperation(), sample.getMethod(), sample.getStatus(),
+				sample.getEndpoint());
+
+		RequestStatistics stats = statistics.get(key);
+
+		if (stats == null) {
+
+			RequestStatistics created = new RequestStatistics(key);
+			stats = statistics.putIfAbsent(key, created);
+
+			if (stats == null) {
+				stats = created;
+			}
+		}
+
+		stats.add(sample);
+	}
+
+	/**
+	 * @return a snapshot of the aggregated {@link RequestStatistics}.
+	 */
+	public List<RequestStatistics> getStatistics() {
+
+		List<RequestStatistics> result = new ArrayList<RequestStatistics>(
+				statistics.size());
+
+		for (RequestStatistics stats : statistics.values()) {
+			result.add(stats.snapshot());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return the aggregated {@link RequestStatistics} for {@code operation} across all
+	 * methods, status codes and endpoints.
+	 *
+	 * @param operation must not be {@literal null}.
+	 * @return the aggregated {@link RequestStatistics}.
+	 */
+	public RequestStatistics getStatistics(String operation) {
+
+		Assert.notNull(operation, "Operation must not be null");
+
+		RequestStatistics result = new RequestStatistics(new Key(operation, null, null,
+				null));
+
+		for (RequestStatistics stats : statistics.values()) {
+			if (stats.key.operation.equals(operation)) {
+				result.merge(stats);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Remove all recorded statistics.
+	 */
+	public void reset() {
+		statistics.clear();
+	}
+
+	/**
+	 * Aggregated statistics of requests sharing operation, HTTP method, status and
+	 * endpoint.
+	 */
+	public static class RequestStatistics {
+
+		private final Key key;
+
+		private long count;
+
+		private long totalTimeNanos;
+
+		private long maxTimeNanos;
+
+		private long requestBytes;
+
+		private long responseBytes;
+
+		RequestStatistics(Key key) {
+			this.key = key;
+		}
+
+		synchronized void add(VaultRequestSample sample) {
+
+			count++;
+			totalTimeNanos += sample.getDurationNanos();
+			maxTimeNanos = Math.max(maxTimeNanos, sample.getDurationNanos());
+			requestBytes += sample.getRequestBytes();
+			responseBytes += sample.getResponseBytes();
+		}
+
+		synchronized RequestStatistics snapshot() {
+
+			RequestStatistics snapshot = new RequestStatistics(key);
+			snapshot.merge(this);
+			return snapshot;
+		}
+
+		void merge(RequestStatistics other) {
+
+			synchronized (other) {
+				count += other.count;
+				totalTimeNanos += other.totalTimeNanos;
+				maxTimeNanos = Math.max(maxTimeNanos, other.maxTimeNanos);
+				requestBytes += other.requestBytes;
+				responseBytes += other.responseBytes;
+			}
+		}
+
+		/**
+		 * @return the operation.
+		 */
+		public String getOperation() {
+			return key.operation;
+		}
+
+		/**
+		 * @return the HTTP method, may be {@literal null} for statistics aggregated
+		 * across methods.
+		 */
+		public HttpMethod getMethod() {
+			return key.method;
+		}
+
+		/**
+		 * @return the status, may be {@literal null} for statistics aggregated across
+		 * status codes.
+		 */
+		public String getStatus() {
+			return key.status;
+		}
+
+		/**
+		 * @return the endpoint, may be {@literal null} for statistics aggregated across
+		 * endpoints.
+		 */
+		public String getEndpoint() {
+			return key.endpoint;
+		}
+
+		/**
+		 * @return the number of requests.
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the total duration of all requests in {@link TimeUnit#NANOSECONDS}.
+		 */
+		public long getTotalTimeNanos() {
+			return totalTimeNanos;
+		}
+
+		/**
+		 * @return the maximum duration in {@link TimeUnit#NANOSECONDS}.
+		 */
+		public long getMaxTimeNanos() {
+			return maxTimeNanos;
+		}
+
+		/**
+		 * @return the mean duration in {@link TimeUnit#NANOSECONDS}.
+		 */
+		public long getMeanTimeNanos() {
+			return count == 0 ? 0 : totalTimeNanos / count;
+		}
+
+		/**
+		 * @return the total number of request body bytes.
+		 */
+		public long getRequestBytes() {
+			return requestBytes;
+		}
+
+		/**
+		 * @return the total number of response body bytes.
+		 */
+		public long getResponseBytes() {
+			return responseBytes;
+		}
+	}
+
+	static class Key {
+
+		final String operation;
+
+		final HttpMethod method;
+
+		final String status;
+
+		final String endpoint;
+
+		Key(String operation, HttpMethod method, String status, String endpoint) {
+			this.operation = operation;
+			this.method = method;
+			this.status = status;
+			this.endpoint = endpoint;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof Key)) {
+				return false;
+			}
+
+			Key that = (Key) o;
+			return operation.equals(that.operation) && method == that.method
+					&& status.equals(that.status) && endpoint.equals(that.endpoint);
+		}
+
+		@Override
+		public int hashCode() {
+
+			int result = operation.hashCode();
+			result = 31 * result + method.hashCode();
+			result = 31 * result + status.hashCode();
+			result = 31 * result + endpoint.hashCode();
+			return result;
+		}
+	}
+}
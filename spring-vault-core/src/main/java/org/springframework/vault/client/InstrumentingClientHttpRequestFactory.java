@@ -0,0 +1,412 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link ClientHttpRequestFactory} decorator that reports each request to a
+ * {@link VaultMetricsRecorder}. Requests are reported once the response is closed or
+ * the request failed with the duration until the response was received, the status
+ * code, the endpoint and the number of request and response body bytes.
+ * <p>
+ * The reported operation is derived from the request path:
+ * <ul>
+ * <li>{@code sys/...} requests report the first path segment after {@code sys}, e.g.
+ * {@code sys/renew} or {@code sys/leases/renew}.</li>
+ * <li>Token requests report {@code auth/token/...}, e.g. {@code auth/token/lookup-self}.
+ * Other authentication backends report {@code auth/*}{@code /...}, e.g.
+ * {@code auth/*}{@code /login}.</li>
+ * <li>Requests to well-known backend endpoints report the endpoint relative to the
+ * mount, e.g. {@code {mount}/encrypt}, {@code {mount}/issue} or {@code {mount}/creds}.
+ * </li>
+ * <li>All other requests report {@code {mount}}.</li>
+ * </ul>
+ * Using this factory to create the {@link org.springframework.web.client.RestTemplate}s
+ * of {@link VaultClients} and {@link org.springframework.vault.core.VaultTemplate}
+ * instruments both, authentication and session requests.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultMetricsRecorder
+ */
+public class InstrumentingClientHttpRequestFactory implements ClientHttpRequestFactory,
+		InitializingBean, DisposableBean {
+
+	private static final Log logger = LogFactory
+			.getLog(InstrumentingClientHttpRequestFactory.class);
+
+	private static final Set<String> BACKEND_OPERATIONS = Collections
+			.unmodifiableSet(new HashSet<String>(Arrays.asList("encrypt", "decrypt",
+					"rewrap", "datakey", "hmac", "sign", "verify", "hash", "random",
+					"keys", "export", "issue", "revoke", "ca", "crl", "cert", "roles",
+					"tidy", "creds")));
+
+	private final ClientHttpRequestFactory delegate;
+
+	private final VaultMetricsRecorder recorder;
+
+	/**
+	 * Create a new {@link InstrumentingClientHttpRequestFactory} given
+	 * {@link ClientHttpRequestFactory} and {@link VaultMetricsRecorder}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @param recorder must not be {@literal null}.
+	 */
+	public InstrumentingClientHttpRequestFactory(ClientHttpRequestFactory delegate,
+			VaultMetricsRecorder recorder) {
+
+		Assert.notNull(delegate, "ClientHttpRequestFactory must not be null");
+		Assert.notNull(recorder, "VaultMetricsRecorder must not be null");
+
+		this.delegate = delegate;
+		this.recorder = recorder;
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod)
+			throws IOException {
+		return new InstrumentedClientHttpRequest(delegate.createRequest(uri, httpMethod));
+	}
+
+	/**
+	 * Initialize the delegate {@link ClientHttpRequestFactory} if it is an
+	 * {@link InitializingBean}.
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+
+		if (delegate instanceof InitializingBean) {
+			((InitializingBean) delegate).afterPropertiesSet();
+		}
+	}
+
+	/**
+	 * Destroy the delegate {@link ClientHttpRequestFactory} if it is a
+	 * {@link DisposableBean}.
+	 */
+	@Override
+	public void destroy() throws Exception {
+
+		if (delegate instanceof DisposableBean) {
+			((DisposableBean) delegate).destroy();
+		}
+	}
+
+	/**
+	 * Derive the operation from a request path.
+	 *
+	 * @param path the request path, may include the {@code /v1/} prefix.
+	 * @return the operation.
+	 */
+	static String getOperation(String path) {
+
+		String relative = path != null ? path : "";
+		int index = relative.indexOf("/v1/");
+
+		if (index != -1) {
+			relative = relative.substring(index + 4);
+		}
+
+		String[] segments = StringUtils.tokenizeToStringArray(relative, "/");
+
+		if (segments.length == 0) {
+			return "{mount}";
+		}
+
+		if (segments[0].equals("sys")) {
+
+			if (segments.length == 1) {
+				return "sys";
+			}
+
+			if (segments[1].equals("leases") && segments.length > 2) {
+				return "sys/leases/" + segments[2];
+			}
+
+			return "sys/" + segments[1];
+		}
+
+		if (segments[0].equals("auth")) {
+
+			String backend = segments.length > 1 && segments[1].equals("token") ? "token"
+					: "*";
+
+			return segments.length > 2 ? "auth/" + backend + "/" + segments[2]
+					: "auth/" + backend;
+		}
+
+		for (int i = 1; i < segments.length; i++) {
+			if (BACKEND_OPERATIONS.contains(segments[i])) {
+				return "{mount}/" + segments[i];
+			}
+		}
+
+		return "{mount}";
+	}
+
+	static String getEndpoint(URI uri) {
+
+		if (uri.getPort() == -1) {
+			return String.format("%s://%s", uri.getScheme(), uri.getHost());
+		}
+
+		return String.format("%s://%s:%d", uri.getScheme(), uri.getHost(),
+				uri.getPort());
+	}
+
+	private void record(ClientHttpRequest request, int statusCode, long durationNanos,
+			long requestBytes, long responseBytes) {
+
+		VaultRequestSample sample = new VaultRequestSample(getOperation(request.getURI()
+				.getPath()), request.getMethod(), getEndpoint(request.getURI()),
+				statusCode, durationNanos, requestBytes, responseBytes);
+
+		try {
+			recorder.record(sample);
+		}
+		catch (RuntimeException e) {
+			logger.warn(String.format("Cannot record %s", sample), e);
+		}
+	}
+
+	/**
+	 * {@link ClientHttpRequest} that measures the request duration and counts the
+	 * request body bytes.
+	 */
+	class InstrumentedClientHttpRequest implements ClientHttpRequest {
+
+		private final ClientHttpRequest delegate;
+
+		private CountingOutputStream body;
+
+		InstrumentedClientHttpRequest(ClientHttpRequest delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public ClientHttpResponse execute() throws IOException {
+
+			long start = System.nanoTime();
+			long requestBytes = body != null ? body.count : 0;
+			ClientHttpResponse response;
+
+			try {
+				response = delegate.execute();
+			}
+			catch (IOException e) {
+				record(delegate, VaultRequestSample.NO_RESPONSE, System.nanoTime()
+						- start, requestBytes, 0);
+				throw e;
+			}
+
+			return new InstrumentedClientHttpResponse(this, response, System.nanoTime()
+					- start, requestBytes);
+		}
+
+		@Override
+		public OutputStream getBody() throws IOException {
+
+			if (body == null) {
+				body = new CountingOutputStream(delegate.getBody());
+			}
+
+			return body;
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return delegate.getMethod();
+		}
+
+		@Override
+		public URI getURI() {
+			return delegate.getURI();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+	}
+
+	/**
+	 * {@link ClientHttpResponse} that counts the response body bytes and reports the
+	 * request when closed.
+	 */
+	class InstrumentedClientHttpResponse implements ClientHttpResponse {
+
+		private final ClientHttpRequest request;
+
+		private final ClientHttpResponse delegate;
+
+		private final long durationNanos;
+
+		private final long requestBytes;
+
+		private final AtomicBoolean recorded = new AtomicBoolean();
+
+		private CountingInputStream body;
+
+		InstrumentedClientHttpResponse(ClientHttpRequest request,
+				ClientHttpResponse delegate, long durationNanos, long requestBytes) {
+
+			this.request = request;
+			this.delegate = delegate;
+			this.durationNanos = durationNanos;
+			this.requestBytes = requestBytes;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() throws IOException {
+			return delegate.getStatusCode();
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return delegate.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+
+			if (body == null) {
+				body = new CountingInputStream(delegate.getBody());
+			}
+
+			return body;
+		}
+
+		@Override
+		public void close() {
+
+			int statusCode;
+
+			try {
+				statusCode = delegate.getRawStatusCode();
+			}
+			catch (IOException e) {
+				statusCode = VaultRequestSample.NO_RESPONSE;
+			}
+
+			try {
+				delegate.close();
+			}
+			finally {
+				if (recorded.compareAndSet(false, true)) {
+					record(request, statusCode, durationNanos, requestBytes,
+							body != null ? body.count : 0);
+				}
+			}
+		}
+	}
+
+	static class CountingOutputStream extends FilterOutputStream {
+
+		long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
+	static class CountingInputStream extends FilterInputStream {
+
+		long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+
+			int result = in.read();
+
+			if (result != -1) {
+				count++;
+			}
+
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+
+			int result = in.read(b, off, len);
+
+			if (result > 0) {
+				count += result;
+			}
+
+			return result;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+
+			long result = in.skip(n);
+			count += result;
+			return result;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link VaultMetricsRecorder} that publishes requests to a Micrometer
+ * {@link MeterRegistry}. Requires Micrometer on the class path. Requests are recorded
+ * as:
+ * <ul>
+ * <li>{@literal vault.client.requests} {@link Timer}</li>
+ * <li>{@literal vault.client.requests.request.size} {@link DistributionSummary} in
+ * bytes</li>
+ * <li>{@literal vault.client.requests.response.size} {@link DistributionSummary} in
+ * bytes</li>
+ * </ul>
+ * tagged with {@literal operation}, {@literal method}, {@literal status} and
+ * {@literal endpoint}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see #isPresent(ClassLoader)
+ */
+public class MicrometerVaultMetricsRecorder implements VaultMetricsRecorder {
+
+	/**
+	 * Default metric name prefix.
+	 */
+	public static final String DEFAULT_METRIC_NAME = "vault.client.requests";
+
+	private final MeterRegistry registry;
+
+	private final String metricName;
+
+	/**
+	 * Create a new {@link MicrometerVaultMetricsRecorder} given {@link MeterRegistry}
+	 * using the {@link #DEFAULT_METRIC_NAME default metric name}.
+	 *
+	 * @param registry must not be {@literal null}.
+	 */
+	public MicrometerVaultMetricsRecorder(MeterRegistry registry) {
+		this(registry, DEFAULT_METRIC_NAME);
+	}
+
+	/**
+	 * Create a new {@link MicrometerVaultMetricsRecorder} given {@link MeterRegistry}
+	 * and metric name.
+	 *
+	 * @param registry must not be {@literal null}.
+	 * @param metricName must not be {@literal null} or empty.
+	 */
+	public MicrometerVaultMetricsRecorder(MeterRegistry registry, String metricName) {
+
+		Assert.notNull(registry, "MeterRegistry must not be null");
+		Assert.hasText(metricName, "Metric name must not be empty");
+
+		this.registry = registry;
+		this.metricName = metricName;
+	}
+
+	/**
+	 * Check whether Micrometer is present.
+	 *
+	 * @param classLoader the {@link ClassLoader} to use, may be {@literal null}.
+	 * @return {@literal true} if Micrometer is present.
+	 */
+	public static boolean isPresent(ClassLoader classLoader) {
+		return ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry",
+				classLoader);
+	}
+
+	@Override
+	public void record(VaultRequestSample sample) {
+
+		Assert.notNull(sample, "VaultRequestSample must not be null");
+
+		Tags tags = Tags.of("operation", sample.getOperation(), "method", sample
+				.getMethod().name(), "status", sample.getStatus(), "endpoint",
+				sample.getEndpoint());
+
+		// MeterRegistry instance methods, static interface methods require Java 8
+		registry.timer(metricName, tags).record(sample.getDurationNanos(),
+				TimeUnit.NANOSECONDS);
+		registry.summary(metricName + ".request.size", tags).record(
+				sample.getRequestBytes());
+		registry.summary(metricName + ".response.size", tags).record(
+				sample.getResponseBytes());
+	}
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Random;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.vault.support.RetryPolicy;
+
+/**
+ * {@link ClientHttpRequestFactory} decorator that retries idempotent requests according
+ * to a {@link RetryPolicy}. Idempotent requests are {@literal GET}, {@literal HEAD} and
+ * {@literal OPTIONS} requests and lease and token renewals. Requests are retried on I/O
+ * errors and on {@literal 429}, {@literal 502}, {@literal 503} and {@literal 504}
+ * responses. Health checks ({@literal sys/health}) report standby and sealed state
+ * through status codes and are therefore retried on I/O errors only.
+ * <p>
+ * Retries are delayed using exponential backoff with full jitter. A
+ * {@literal Retry-After} response header extends the delay. Responses asking to retry
+ * later than the {@link RetryPolicy#getMaxBackoff() maximum backoff} are not retried.
+ * All requests created by this factory share a single retry budget that caps retries
+ * to a ratio of the request volume.
+ * <p>
+ * Request bodies of retryable requests are buffered to be sent again.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see RetryPolicy
+ */
+public class RetryingClientHttpRequestFactory implements ClientHttpRequestFactory,
+		InitializingBean, DisposableBean {
+
+	private static final Log logger = LogFactory
+			.getLog(RetryingClientHttpRequestFactory.class);
+
+	private static final String RETRY_AFTER = "Retry-After";
+
+	private final ClientHttpRequestFactory delegate;
+
+	private final RetryPolicy retryPolicy;
+
+	private final RetryBudget retryBudget;
+
+	private final Random random = new Random();
+
+	/**
+	 * Create a new {@link RetryingClientHttpRequestFactory} given
+	 * {@link ClientHttpRequestFactory} and {@link RetryPolicy}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @param retryPolicy must not be {@literal null}.
+	 */
+	public RetryingClientHttpRequestFactory(ClientHttpRequestFactory delegate,
+			RetryPolicy retryPolicy) {
+
+		Assert.notNull(delegate, "ClientHttpRequestFactory must not be null");
+		Assert.notNull(retryPolicy, "RetryPolicy must not be null");
+
+		this.delegate = delegate;
+		this.retryPolicy = retryPolicy;
+		this.retryBudget = new RetryBudget(retryPolicy.getRetryBudgetRatio(),
+				retryPolicy.getRetryBudgetCapacity());
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod)
+			throws IOException {
+
+		if (!retryPolicy.isEnabled() || !isIdempotent(uri, httpMethod)) {
+			return delegate.createRequest(uri, httpMethod);
+		}
+
+		return new RetryingClientHttpRequest(uri, httpMethod);
+	}
+
+	/**
+	 * Initialize the delegate {@link ClientHttpRequestFactory} if it is an
+	 * {@link InitializingBean}.
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+
+		if (delegate instanceof InitializingBean) {
+			((InitializingBean) delegate).afterPropertiesSet();
+		}
+	}
+
+	/**
+	 * Destroy the delegate {@link ClientHttpRequestFactory} if it is a
+	 * {@link DisposableBean}.
+	 */
+	@Override
+	public void destroy() throws Exception {
+
+		if (delegate instanceof DisposableBean) {
+			((DisposableBean) delegate).destroy();
+		}
+	}
+
+	/**
+	 * @return the current time in {@link java.util.concurrent.TimeUnit#MILLISECONDS}.
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	static boolean isIdempotent(URI uri, HttpMethod httpMethod) {
+
+		if (httpMethod == HttpMethod.GET || httpMethod == HttpMethod.HEAD
+				|| httpMethod == HttpMethod.OPTIONS) {
+			return true;
+		}
+
+		if (httpMethod != HttpMethod.PUT && httpMethod != HttpMethod.POST) {
+			return false;
+		}
+
+		String path = uri.getPath();
+
+		return path != null
+				&& (path.contains("/sys/renew") || path.contains("/sys/leases/renew") || path
+						.contains("/auth/token/renew"));
+	}
+
+	static boolean isRetryableStatus(URI uri, int statusCode) {
+
+		if (uri.getPath() != null && uri.getPath().endsWith("/sys/health")) {
+			return false;
+		}
+
+		return statusCode == 429 || statusCode == 502 || statusCode == 503
+				|| statusCode == 504;
+	}
+
+	/**
+	 * Compute the delay before the next attempt.
+	 *
+	 * @param attempt the number of the failed attempt, starting at {@literal 1}.
+	 * @param retryAfter delay requested by the server or {@literal -1} if absent.
+	 * @return the delay in milliseconds or {@literal -1} to not retry.
+	 */
+	long getDelay(int attempt, long retryAfter) {
+
+		long maxBackoff = retryPolicy.getMaxBackoff();
+
+		if (retryAfter > maxBackoff) {
+			return -1;
+		}
+
+		long backoff = Math.min(maxBackoff, retryPolicy.getInitialBackoff()
+				* (1L << Math.min(attempt - 1, 30)));
+
+		long delay;
+		synchronized (random) {
+			delay = (long) (random.nextDouble() * backoff);
+		}
+
+		return Math.max(delay, retryAfter);
+	}
+
+	long getRetryAfter(HttpHeaders headers) {
+
+		String value = headers.getFirst(RETRY_AFTER);
+
+		if (!StringUtils.hasText(value)) {
+			return -1;
+		}
+
+		try {
+			return Math.max(0, Long.parseLong(value.trim()) * 1000);
+		}
+		catch (NumberFormatException e) {
+			// not delta-seconds, try HTTP-date
+		}
+
+		try {
+			return Math.max(0, headers.getFirstDate(RETRY_AFTER) - currentTimeMillis());
+		}
+		catch (IllegalArgumentException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * {@link ClientHttpRequest} that buffers the request body and executes the request
+	 * using the delegate {@link ClientHttpRequestFactory} until it succeeds or the
+	 * {@link RetryPolicy} is exhausted.
+	 */
+	class RetryingClientHttpRequest extends AbstractClientHttpRequest {
+
+		private final URI uri;
+
+		private final HttpMethod httpMethod;
+
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+		RetryingClientHttpRequest(URI uri, HttpMethod httpMethod) {
+			this.uri = uri;
+			this.httpMethod = httpMethod;
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return httpMethod;
+		}
+
+		@Override
+		public URI getURI() {
+			return uri;
+		}
+
+		@Override
+		protected OutputStream getBodyInternal(HttpHeaders headers) {
+			return body;
+		}
+
+		@Override
+		protected ClientHttpResponse executeInternal(HttpHeaders headers)
+				throws IOException {
+
+			byte[] content = body.toByteArray();
+			retryBudget.deposit();
+
+			for (int attempt = 1;; attempt++) {
+
+				ClientHttpResponse response = null;
+				IOException failure = null;
+
+				try {
+					response = executeAttempt(headers, content);
+				}
+				catch (CallNotPermittedException e) {
+					// rejected locally by a circuit breaker, retrying would only spin
+					throw e;
+				}
+				catch (IOException e) {
+					failure = e;
+				}
+
+				long retryAfter = -1;
+
+				if (response != null) {
+
+					if (!isRetryableStatus(uri, response.getRawStatusCode())) {
+						return response;
+					}
+
+					retryAfter = getRetryAfter(response.getHeaders());
+				}
+
+				long delay = attempt < retryPolicy.getMaxAttempts() ? getDelay(attempt,
+						retryAfter) : -1;
+
+				if (delay < 0 || !retryBudget.tryAcquire()) {
+
+					if (failure != null) {
+						throw failure;
+					}
+
+					return response;
+				}
+
+				if (logger.isDebugEnabled()) {
+					logger.debug(String.format(
+							"Retrying %s %s in %d ms after attempt %d failed with %s",
+							httpMethod, uri, delay, attempt, failure != null ? failure
+									: response.getRawStatusCode()));
+				}
+
+				if (response != null) {
+					response.close();
+				}
+
+				sleep(delay);
+			}
+		}
+
+		private ClientHttpResponse executeAttempt(HttpHeaders headers, byte[] content)
+				throws IOException {
+
+			ClientHttpRequest request = delegate.createRequest(uri, httpMethod);
+			request.getHeaders().putAll(headers);
+
+			if (content.length > 0) {
+				request.getBody().write(content);
+			}
+
+			return request.execute();
+		}
+
+		private void sleep(long delay) throws InterruptedIOException {
+
+			if (delay == 0) {
+				return;
+			}
+
+			try {
+				Thread.sleep(delay);
+			}
+			catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(String.format(
+						"Interrupted while waiting to retry %s %s", httpMethod, uri));
+			}
+		}
+	}
+
+	/**
+	 * Token bucket limiting retries to a ratio of the request volume. Each request
+	 * deposits {@code ratio} tokens up to {@code capacity}, each retry consumes one
+	 * token.
+	 */
+	static class RetryBudget {
+
+		private final double ratio;
+
+		private final int capacity;
+
+		private double tokens;
+
+		RetryBudget(double ratio, int capacity) {
+			this.ratio = ratio;
+			this.capacity = capacity;
+			this.tokens = capacity;
+		}
+
+		synchronized void deposit() {
+			tokens = Math.min(capacity, tokens + ratio);
+		}
+
+		synchronized boolean tryAcquire() {
+
+			if (tokens < 1) {
+				return false;
+			}
+
+			tokens -= 1;
+			return true;
+		}
+	}
+}
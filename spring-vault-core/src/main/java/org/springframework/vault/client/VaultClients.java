@@ -15,23 +15,26 @@
  */
 package org.springframework.vault.client;
 
-import java.io.IOException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.springframework.http.HttpRequest;
-import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriTemplateHandler;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Vault Client factory to create {@link RestTemplate} configured to the needs of
@@ -46,12 +49,10 @@ public class VaultClients {
 	/**
 	 * Create a {@link RestTemplate} configured with {@link VaultEndpoint} and
 	 * {@link ClientHttpRequestFactory}. The template accepts relative URIs without a
-	 * leading slash that are expanded to use {@link VaultEndpoint}. {@link RestTemplate}
-	 * is configured with a {@link ClientHttpRequestInterceptor} to enforce serialization
-	 * to a byte array prior continuing the request. Eager serialization leads to a known
-	 * request body size that is required to send a
-	 * {@link org.springframework.http.HttpHeaders#CONTENT_LENGTH} request header.
-	 * Otherwise, Vault will deny body processing.
+	 * leading slash that are expanded to use {@link VaultEndpoint}.
+	 * {@link ClientHttpRequestFactory} implementations are expected to buffer the request
+	 * body to send a {@link org.springframework.http.HttpHeaders#CONTENT_LENGTH} request
+	 * header. Otherwise, Vault will deny body processing.
 	 * <p>
 	 * Requires Jackson 2 for Object-to-JSON mapping.
 	 *
@@ -70,12 +71,10 @@ public class VaultClients {
 	/**
 	 * Create a {@link RestTemplate} configured with {@link VaultEndpointProvider} and
 	 * {@link ClientHttpRequestFactory}. The template accepts relative URIs without a
-	 * leading slash that are expanded to use {@link VaultEndpoint}. {@link RestTemplate}
-	 * is configured with a {@link ClientHttpRequestInterceptor} to enforce serialization
-	 * to a byte array prior continuing the request. Eager serialization leads to a known
-	 * request body size that is required to send a
-	 * {@link org.springframework.http.HttpHeaders#CONTENT_LENGTH} request header.
-	 * Otherwise, Vault will deny body processing.
+	 * leading slash that are expanded to use {@link VaultEndpoint}.
+	 * {@link ClientHttpRequestFactory} implementations are expected to buffer the request
+	 * body to send a {@link org.springframework.http.HttpHeaders#CONTENT_LENGTH} request
+	 * header. Otherwise, Vault will deny body processing.
 	 * <p>
 	 * Requires Jackson 2 for Object-to-JSON mapping.
 	 *
@@ -99,11 +98,12 @@ public class VaultClients {
 
 	/**
 	 * Create a {@link RestTemplate} for Vault interaction. {@link RestTemplate} is
-	 * configured with a {@link ClientHttpRequestInterceptor} to enforce serialization to
-	 * a byte array prior continuing the request. Eager serialization leads to a known
-	 * request body size that is required to send a
-	 * {@link org.springframework.http.HttpHeaders#CONTENT_LENGTH} request header.
-	 * Otherwise, Vault will deny body processing.
+	 * configured without {@link org.springframework.http.client.ClientHttpRequestInterceptor
+	 * interceptors} so request bodies are written directly to the request created by
+	 * {@link ClientHttpRequestFactory} instead of being copied into an intermediate byte
+	 * array. {@link ClientHttpRequestFactory} implementations are expected to buffer the
+	 * request body to send a {@link org.springframework.http.HttpHeaders#CONTENT_LENGTH}
+	 * request header. Otherwise, Vault will deny body processing.
 	 * <p>
 	 * Requires Jackson 2 for Object-to-JSON mapping.
 	 *
@@ -113,24 +113,50 @@ public class VaultClients {
 	 */
 	public static RestTemplate createRestTemplate() {
 
+		return new RestTemplate(createMessageConverters());
+	}
+
+	/**
+	 * Create a {@link AsyncRestTemplate} configured with {@link VaultEndpointProvider}
+	 * and {@link AsyncClientHttpRequestFactory}. The template accepts relative URIs
+	 * without a leading slash that are expanded to use {@link VaultEndpoint}.
+	 * {@link AsyncClientHttpRequestFactory} implementations are expected to buffer the
+	 * request body to send a {@link org.springframework.http.HttpHeaders#CONTENT_LENGTH}
+	 * request header.
+	 * <p>
+	 * Requires Jackson 2 for Object-to-JSON mapping.
+	 *
+	 * @param endpointProvider must not be {@literal null}.
+	 * @param requestFactory must not be {@literal null}.
+	 * @return the {@link AsyncRestTemplate}.
+	 * @see org.springframework.http.client.Netty4ClientHttpRequestFactory
+	 * @see MappingJackson2HttpMessageConverter
+	 * @since 1.1
+	 */
+	public static AsyncRestTemplate createAsyncRestTemplate(
+			VaultEndpointProvider endpointProvider,
+			AsyncClientHttpRequestFactory requestFactory) {
+
+		Assert.notNull(endpointProvider, "VaultEndpointProvider must not be null");
+		Assert.notNull(requestFactory, "AsyncClientHttpRequestFactory must not be null");
+
+		AsyncRestTemplate restTemplate = new AsyncRestTemplate(requestFactory,
+				new RestTemplate(createMessageConverters()));
+
+		restTemplate.setUriTemplateHandler(createUriTemplateHandler(endpointProvider));
+
+		return restTemplate;
+	}
+
+	private static List<HttpMessageConverter<?>> createMessageConverters() {
+
 		List<HttpMessageConverter<?>> messageConverters = new ArrayList<HttpMessageConverter<?>>(
 				3);
 		messageConverters.add(new ByteArrayHttpMessageConverter());
 		messageConverters.add(new StringHttpMessageConverter());
 		messageConverters.add(new MappingJackson2HttpMessageConverter());
 
-		RestTemplate restTemplate = new RestTemplate(messageConverters);
-
-		restTemplate.getInterceptors().add(new ClientHttpRequestInterceptor() {
-
-			@Override
-			public ClientHttpResponse intercept(HttpRequest request, byte[] body,
-					ClientHttpRequestExecution execution) throws IOException {
-				return execution.execute(request, body);
-			}
-		});
-
-		return restTemplate;
+		return messageConverters;
 	}
 
 	private static DefaultUriTemplateHandler createUriTemplateHandler(
@@ -139,10 +165,22 @@ public class VaultClients {
 		return new PrefixAwareUriTemplateHandler(endpointProvider);
 	}
 
+	/**
+	 * {@link DefaultUriTemplateHandler} that resolves relative URI templates against the
+	 * {@link VaultEndpoint} obtained from {@link VaultEndpointProvider}. The base URL is
+	 * recomputed only if the provided {@link VaultEndpoint} changes. Parsed URI templates
+	 * are cached to avoid re-parsing frequently used templates.
+	 */
 	public static class PrefixAwareUriTemplateHandler extends DefaultUriTemplateHandler {
 
+		private static final int MAX_CACHED_TEMPLATES = 1024;
+
 		private final VaultEndpointProvider endpointProvider;
 
+		private final ConcurrentMap<String, UriComponents> templateCache = new ConcurrentHashMap<String, UriComponents>();
+
+		private volatile BaseUrl baseUrl;
+
 		public PrefixAwareUriTemplateHandler() {
 			this.endpointProvider = null;
 		}
@@ -153,12 +191,14 @@ public class VaultClients {
 
 		@Override
 		protected URI expandInternal(String uriTemplate, Map<String, ?> uriVariables) {
-			return super.expandInternal(prepareUriTemplate(uriTemplate), uriVariables);
+			return createUri(getTemplate(prepareUriTemplate(uriTemplate)).expand(
+					uriVariables));
 		}
 
 		@Override
 		protected URI expandInternal(String uriTemplate, Object... uriVariables) {
-			return super.expandInternal(prepareUriTemplate(uriTemplate), uriVariables);
+			return createUri(getTemplate(prepareUriTemplate(uriTemplate)).expand(
+					uriVariables));
 		}
 
 		@Override
@@ -167,16 +207,50 @@ public class VaultClients {
 			if (endpointProvider != null) {
 
 				VaultEndpoint endpoint = endpointProvider.getVaultEndpoint();
+				BaseUrl baseUrl = this.baseUrl;
 
-				return endpoint.getScheme() + "://" + endpoint.getHost() + ":"
-						+ endpoint.getPort() + "/v1";
+				if (baseUrl == null || !baseUrl.matches(endpoint)) {
+					baseUrl = new BaseUrl(endpoint);
+					this.baseUrl = baseUrl;
+				}
+
+				return baseUrl.url;
 			}
 
 			return super.getBaseUrl();
 		}
 
+		private UriComponents getTemplate(String uriTemplate) {
+
+			UriComponents template = templateCache.get(uriTemplate);
+
+			if (template == null) {
+
+				template = UriComponentsBuilder.fromUriString(uriTemplate).build();
+
+				if (templateCache.size() >= MAX_CACHED_TEMPLATES) {
+					templateCache.clear();
+				}
+
+				templateCache.put(uriTemplate, template);
+			}
+
+			return template;
+		}
+
+		private static URI createUri(UriComponents expanded) {
+
+			try {
+				return new URI(expanded.encode().toUriString());
+			}
+			catch (URISyntaxException e) {
+				throw new IllegalStateException("Could not create URI object: "
+						+ e.getMessage(), e);
+			}
+		}
+
 		/**
-		 * Strip/add leading slashes from {@code uriTemplate} depending on whetner the
+		 * Strip/add leading slashes from {@code uriTemplate} depending on whether the
 		 * base url has a trailing slash.
 		 *
 		 * @param uriTemplate
@@ -184,12 +258,14 @@ public class VaultClients {
 		 */
 		private String prepareUriTemplate(String uriTemplate) {
 
-			if (getBaseUrl() != null) {
-				if (uriTemplate.startsWith("/") && getBaseUrl().endsWith("/")) {
+			String baseUrl = getBaseUrl();
+
+			if (baseUrl != null) {
+				if (uriTemplate.startsWith("/") && baseUrl.endsWith("/")) {
 					return uriTemplate.substring(1);
 				}
 
-				if (!uriTemplate.startsWith("/") && !getBaseUrl().endsWith("/")) {
+				if (!uriTemplate.startsWith("/") && !baseUrl.endsWith("/")) {
 					return "/" + uriTemplate;
 				}
 
@@ -203,4 +279,31 @@ public class VaultClients {
 			return uriTemplate;
 		}
 	}
+
+	/**
+	 * Base URL computed from a {@link VaultEndpoint}.
+	 */
+	static class BaseUrl {
+
+		final String scheme;
+
+		final String host;
+
+		final int port;
+
+		final String url;
+
+		BaseUrl(VaultEndpoint endpoint) {
+
+			this.scheme = endpoint.getScheme();
+			this.host = endpoint.getHost();
+			this.port = endpoint.getPort();
+			this.url = scheme + "://" + host + ":" + port + "/v1";
+		}
+
+		boolean matches(VaultEndpoint endpoint) {
+			return port == endpoint.getPort() && host.equals(endpoint.getHost())
+					&& scheme.equals(endpoint.getScheme());
+		}
+	}
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+/**
+ * SPI to record metrics of Vault HTTP requests. Implementations are called once per
+ * request after the response was closed or the request failed and must be
+ * thread-safe. Implementations should not block as they are called on the requesting
+ * thread.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see InstrumentingClientHttpRequestFactory
+ * @see InMemoryVaultMetricsRecorder
+ * @see MicrometerVaultMetricsRecorder
+ */
+public interface VaultMetricsRecorder {
+
+	/**
+	 * Record a completed request.
+	 *
+	 * @param sample the {@link VaultRequestSample} describing the request, never
+	 * {@literal null}.
+	 */
+	void record(VaultRequestSample sample);
+}
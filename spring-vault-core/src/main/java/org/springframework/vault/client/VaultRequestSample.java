@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+
+/**
+ * Value object describing a single Vault HTTP request. The {@link #getOperation()
+ * operation} is derived from the request path by replacing mount paths and
+ * identifiers with placeholders (e.g. {@code sys/renew}, {@code {mount}/encrypt} or
+ * {@code auth/*}{@code /login}) to keep the number of distinct values bounded.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultMetricsRecorder
+ */
+public class VaultRequestSample {
+
+	/**
+	 * Status code of requests that failed without a response.
+	 */
+	public static final int NO_RESPONSE = -1;
+
+	private final String operation;
+
+	private final HttpMethod method;
+
+	private final String endpoint;
+
+	private final int statusCode;
+
+	private final long durationNanos;
+
+	private final long requestBytes;
+
+	private final long responseBytes;
+
+	/**
+	 * Create a new {@link VaultRequestSample}.
+	 *
+	 * @param operation must not be {@literal null}.
+	 * @param method must not be {@literal null}.
+	 * @param endpoint must not be {@literal null}.
+	 * @param statusCode the response status code or {@link #NO_RESPONSE}.
+	 * @param durationNanos duration in {@link TimeUnit#NANOSECONDS} until the response
+	 * was received or the request failed.
+	 * @param requestBytes number of request body bytes.
+	 * @param responseBytes number of response body bytes consumed.
+	 */
+	public VaultRequestSample(String operation, HttpMethod method, String endpoint,
+			int statusCode, long durationNanos, long requestBytes, long responseBytes) {
+
+		Assert.notNull(operation, "Operation must not be null");
+		Assert.notNull(method, "HttpMethod must not be null");
+		Assert.notNull(endpoint, "Endpoint must not be null");
+
+		this.operation = operation;
+		this.method = method;
+		this.endpoint = endpoint;
+		this.statusCode = statusCode;
+		this.durationNanos = durationNanos;
+		this.requestBytes = requestBytes;
+		this.responseBytes = responseBytes;
+	}
+
+	/**
+	 * @return the operation derived from the request path.
+	 */
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * @return the HTTP method.
+	 */
+	public HttpMethod getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return the endpoint in the form {@code scheme://host:port}.
+	 */
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	/**
+	 * @return the response status code or {@link #NO_RESPONSE} if the request failed
+	 * without a response.
+	 */
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	/**
+	 * @return the status code as {@link String} or {@literal IO_ERROR} if the request
+	 * failed without a response.
+	 */
+	public String getStatus() {
+		return statusCode == NO_RESPONSE ? "IO_ERROR" : Integer.toString(statusCode);
+	}
+
+	/**
+	 * @return the duration in {@link TimeUnit#NANOSECONDS} until the response was
+	 * received or the request failed.
+	 */
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/**
+	 * @return the number of request body bytes.
+	 */
+	public long getRequestBytes() {
+		return requestBytes;
+	}
+
+	/**
+	 * @return the number of response body bytes consumed.
+	 */
+	public long getResponseBytes() {
+		return responseBytes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s (%s) %s in %d ns", method, operation, endpoint,
+				getStatus(), durationNanos);
+	}
+}
@@ -32,6 +32,7 @@ import org.springframework.http.converter.json.MappingJackson2HttpMessageConvert
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.vault.VaultException;
+import org.springframework.vault.VaultHttpException;
 import org.springframework.vault.support.VaultResponseSupport;
 import org.springframework.web.client.HttpStatusCodeException;
 
@@ -48,7 +49,8 @@ public abstract class VaultResponses {
 			OBJECT_MAPPER);
 
 	/**
-	 * Build a {@link VaultException} given {@link HttpStatusCodeException}.
+	 * Build a {@link VaultException} given {@link HttpStatusCodeException}. The exception
+	 * is a {@link VaultHttpException} carrying the status code.
 	 * @param e must not be {@literal null}.
 	 * @return the {@link VaultException}.
 	 */
@@ -59,16 +61,18 @@ public abstract class VaultResponses {
 		String message = VaultResponses.getError(e.getResponseBodyAsString());
 
 		if (StringUtils.hasText(message)) {
-			return new VaultException(String.format("Status %s: %s", e.getStatusCode(),
-					message));
+			return new VaultHttpException(String.format("Status %s: %s",
+					e.getStatusCode(), message), e.getRawStatusCode());
 		}
 
-		return new VaultException(String.format("Status %s", e.getStatusCode()));
+		return new VaultHttpException(String.format("Status %s", e.getStatusCode()),
+				e.getRawStatusCode());
 	}
 
 	/**
 	 * Build a {@link VaultException} given {@link HttpStatusCodeException} and request
-	 * {@code path}.
+	 * {@code path}. The exception is a {@link VaultHttpException} carrying the status
+	 * code.
 	 * @param e must not be {@literal null}.
 	 * @param path
 	 * @return the {@link VaultException}.
@@ -80,11 +84,12 @@ public abstract class VaultResponses {
 		String message = VaultResponses.getError(e.getResponseBodyAsString());
 
 		if (StringUtils.hasText(message)) {
-			return new VaultException(String.format("Status %s %s: %s",
-					e.getStatusCode(), path, message));
+			return new VaultHttpException(String.format("Status %s %s: %s",
+					e.getStatusCode(), path, message), e.getRawStatusCode());
 		}
 
-		return new VaultException(String.format("Status %s %s", e.getStatusCode(), path));
+		return new VaultHttpException(String.format("Status %s %s", e.getStatusCode(),
+				path), e.getRawStatusCode());
 	}
 
 	/**
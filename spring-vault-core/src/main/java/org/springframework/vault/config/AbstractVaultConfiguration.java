@@ -29,10 +29,12 @@ import org.springframework.util.Assert;
 import org.springframework.vault.authentication.ClientAuthentication;
 import org.springframework.vault.authentication.LifecycleAwareSessionManager;
 import org.springframework.vault.authentication.SessionManager;
+import org.springframework.vault.client.InstrumentingClientHttpRequestFactory;
 import org.springframework.vault.client.SimpleVaultEndpointProvider;
 import org.springframework.vault.client.VaultClients;
 import org.springframework.vault.client.VaultEndpoint;
 import org.springframework.vault.client.VaultEndpointProvider;
+import org.springframework.vault.client.VaultMetricsRecorder;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.core.lease.SecretLeaseContainer;
 import org.springframework.vault.support.ClientOptions;
@@ -178,11 +180,34 @@ public abstract class AbstractVaultConfiguration implements ApplicationContextAw
 	 * instance.
 	 * @see #clientOptions()
 	 * @see #sslConfiguration()
+	 * @see #vaultMetricsRecorder()
 	 */
 	@Bean
 	public ClientFactoryWrapper clientHttpRequestFactoryWrapper() {
-		return new ClientFactoryWrapper(ClientHttpRequestFactoryFactory.create(
-				clientOptions(), sslConfiguration()));
+
+		ClientHttpRequestFactory requestFactory = ClientHttpRequestFactoryFactory
+				.create(clientOptions(), sslConfiguration());
+		VaultMetricsRecorder metricsRecorder = vaultMetricsRecorder();
+
+		if (metricsRecorder != null) {
+			requestFactory = new InstrumentingClientHttpRequestFactory(requestFactory,
+					metricsRecorder);
+		}
+
+		return new ClientFactoryWrapper(requestFactory);
+	}
+
+	/**
+	 * Return the {@link VaultMetricsRecorder} to record Vault requests. Requests are not
+	 * recorded by default.
+	 *
+	 * @return the {@link VaultMetricsRecorder} or {@literal null} to not record requests.
+	 * @since 1.1
+	 * @see org.springframework.vault.client.InMemoryVaultMetricsRecorder
+	 * @see org.springframework.vault.client.MicrometerVaultMetricsRecorder
+	 */
+	public VaultMetricsRecorder vaultMetricsRecorder() {
+		return null;
 	}
 
 	/**
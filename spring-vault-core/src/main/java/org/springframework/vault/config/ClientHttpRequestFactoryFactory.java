@@ -22,6 +22,8 @@ import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.KeyManager;
@@ -30,17 +32,25 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.OkHttpClient;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslProvider;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient.Builder;
+import okhttp3.Protocol;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
 
 import org.springframework.http.client.ClientHttpRequestFactory;
@@ -52,6 +62,7 @@ import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.vault.client.RetryingClientHttpRequestFactory;
 import org.springframework.vault.support.ClientOptions;
 import org.springframework.vault.support.SslConfiguration;
 import org.springframework.vault.support.SslConfiguration.KeyStoreConfiguration;
@@ -59,7 +70,8 @@ import org.springframework.vault.support.SslConfiguration.KeyStoreConfiguration;
 /**
  * Factory for {@link ClientHttpRequestFactory} that supports Apache HTTP Components,
  * OkHttp, Netty and the JDK HTTP client (in that order). This factory configures a
- * {@link ClientHttpRequestFactory} depending on the available dependencies.
+ * {@link ClientHttpRequestFactory} depending on the available dependencies. OkHttp 3 is
+ * preferred if {@link ClientOptions#isHttp2Enabled() HTTP/2} is enabled.
  *
  * @author Mark Paluch
  */
@@ -92,6 +104,7 @@ public class ClientHttpRequestFactoryFactory {
 	 * @param sslConfiguration must not be {@literal null}
 	 * @return a new {@link ClientHttpRequestFactory}. Lifecycle beans must be initialized
 	 * after obtaining.
+	 * @see ClientOptions#getRetryPolicy()
 	 */
 	public static ClientHttpRequestFactory create(ClientOptions options,
 			SslConfiguration sslConfiguration) {
@@ -99,8 +112,31 @@ public class ClientHttpRequestFactoryFactory {
 		Assert.notNull(options, "ClientOptions must not be null");
 		Assert.notNull(sslConfiguration, "SslConfiguration must not be null");
 
+		ClientHttpRequestFactory requestFactory = createRequestFactory(options,
+				sslConfiguration);
+
+		if (options.getRetryPolicy().isEnabled()) {
+			return new RetryingClientHttpRequestFactory(requestFactory,
+					options.getRetryPolicy());
+		}
+
+		return requestFactory;
+	}
+
+	private static ClientHttpRequestFactory createRequestFactory(ClientOptions options,
+			SslConfiguration sslConfiguration) {
+
 		try {
 
+			if (options.isHttp2Enabled()) {
+
+				if (OKHTTP3_PRESENT) {
+					return OkHttp3.usingOkHttp3(options, sslConfiguration);
+				}
+
+				logger.warn("HTTP/2 requires OkHttp 3; falling back to HTTP/1.1");
+			}
+
 			if (HTTP_COMPONENTS_PRESENT) {
 				return HttpComponents.usingHttpComponents(options, sslConfiguration);
 			}
@@ -226,15 +262,35 @@ public class ClientHttpRequestFactoryFactory {
 			httpClientBuilder.setRoutePlanner(new SystemDefaultRoutePlanner(
 					DefaultSchemePortResolver.INSTANCE, ProxySelector.getDefault()));
 
+			SSLConnectionSocketFactory sslSocketFactory = SSLConnectionSocketFactory
+					.getSocketFactory();
+
 			if (hasSslConfiguration(sslConfiguration)) {
 
-				SSLContext sslContext = getSSLContext(sslConfiguration);
-				SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(
-						sslContext);
-				httpClientBuilder.setSSLSocketFactory(sslSocketFactory);
-				httpClientBuilder.setSSLContext(sslContext);
+				sslSocketFactory = new SSLConnectionSocketFactory(
+						getSSLContext(sslConfiguration));
 			}
 
+			Registry<ConnectionSocketFactory> registry = RegistryBuilder
+					.<ConnectionSocketFactory> create()
+					.register("http", PlainConnectionSocketFactory.getSocketFactory())
+					.register("https", sslSocketFactory).build();
+
+			PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+					registry, null, null, null,
+					options.getConnectionTimeToLive() > 0 ? options
+							.getConnectionTimeToLive() : -1, TimeUnit.MILLISECONDS);
+
+			connectionManager.setMaxTotal(options.getMaxConnections());
+			connectionManager.setDefaultMaxPerRoute(options.getMaxConnectionsPerRoute());
+			connectionManager.setValidateAfterInactivity(options
+					.getValidateAfterInactivity());
+
+			httpClientBuilder.setConnectionManager(connectionManager);
+			httpClientBuilder.evictIdleConnections((long) options.getIdleTimeout(),
+					TimeUnit.MILLISECONDS);
+			httpClientBuilder.evictExpiredConnections();
+
 			RequestConfig requestConfig = RequestConfig.custom() //
 					.setConnectTimeout(options.getConnectionTimeout()) //
 					.setSocketTimeout(options.getReadTimeout()) //
@@ -260,6 +316,14 @@ public class ClientHttpRequestFactoryFactory {
 
 			final OkHttpClient okHttpClient = new OkHttpClient();
 
+			okHttpClient.setConnectionPool(new ConnectionPool(options
+					.getMaxConnectionsPerRoute(), options.getIdleTimeout()));
+
+			// Dispatcher limits apply to asynchronous calls only
+			okHttpClient.getDispatcher().setMaxRequests(options.getMaxConnections());
+			okHttpClient.getDispatcher().setMaxRequestsPerHost(
+					options.getMaxConnectionsPerRoute());
+
 			OkHttpClientHttpRequestFactory requestFactory = new OkHttpClientHttpRequestFactory(
 					okHttpClient) {
 
@@ -307,12 +371,29 @@ public class ClientHttpRequestFactoryFactory {
 			builder.connectTimeout(options.getConnectionTimeout(), TimeUnit.MILLISECONDS)
 					.readTimeout(options.getReadTimeout(), TimeUnit.MILLISECONDS);
 
+			// Dispatcher limits apply to asynchronous calls only
+			Dispatcher dispatcher = new Dispatcher();
+			dispatcher.setMaxRequests(options.getMaxConnections());
+			dispatcher.setMaxRequestsPerHost(options.getMaxConnectionsPerRoute());
+
+			if (options.isHttp2Enabled()) {
+				builder.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+			}
+			else {
+				builder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+			}
+
+			builder.dispatcher(dispatcher).connectionPool(
+					new okhttp3.ConnectionPool(options.getMaxConnectionsPerRoute(),
+							options.getIdleTimeout(), TimeUnit.MILLISECONDS));
+
 			return new OkHttp3ClientHttpRequestFactory(builder.build());
 		}
 	}
 
 	/**
-	 * {@link ClientHttpRequestFactory} for Netty.
+	 * {@link ClientHttpRequestFactory} for Netty. {@link Netty4ClientHttpRequestFactory}
+	 * opens a channel per request so connection pool options do not apply.
 	 *
 	 * @author Mark Paluch
 	 */
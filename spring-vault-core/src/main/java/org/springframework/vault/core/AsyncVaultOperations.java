@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.List;
+
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+
+/**
+ * Interface that specifies a basic set of asynchronous Vault operations. Methods return
+ * a {@link ListenableFuture} that is completed with the outcome of the Vault operation.
+ * Failures are reported through the {@link ListenableFuture} and not thrown on the
+ * calling {@link Thread}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultOperations
+ * @see AsyncVaultTemplate
+ * @see AsyncVaultOperationsAdapter
+ */
+public interface AsyncVaultOperations {
+
+	/**
+	 * @return the operations interface to interact with the Vault transit backend.
+	 */
+	AsyncVaultTransitOperations opsForTransit();
+
+	/**
+	 * Return {@link AsyncVaultTransitOperations} if the transit backend is mounted on a
+	 * different path than {@code transit}.
+	 *
+	 * @param path the mount path
+	 * @return the operations interface to interact with the Vault transit backend.
+	 */
+	AsyncVaultTransitOperations opsForTransit(String path);
+
+	/**
+	 * @return the operations interface to interact with the Vault PKI backend.
+	 */
+	AsyncVaultPkiOperations opsForPki();
+
+	/**
+	 * Return {@link AsyncVaultPkiOperations} if the PKI backend is mounted on a different
+	 * path than {@code pki}.
+	 *
+	 * @param path the mount path
+	 * @return the operations interface to interact with the Vault PKI backend.
+	 */
+	AsyncVaultPkiOperations opsForPki(String path);
+
+	/**
+	 * Read from a secret backend. Reading data using this method is suitable for secret
+	 * backends that do not require a request body.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @return the {@link ListenableFuture} emitting the data. Completes with
+	 * {@literal null} if the path does not exist.
+	 */
+	ListenableFuture<VaultResponse> read(String path);
+
+	/**
+	 * Read from a secret backend. Reading data using this method is suitable for secret
+	 * backends that do not require a request body.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @param responseType must not be {@literal null}.
+	 * @return the {@link ListenableFuture} emitting the data. Completes with
+	 * {@literal null} if the path does not exist.
+	 */
+	<T> ListenableFuture<VaultResponseSupport<T>> read(String path, Class<T> responseType);
+
+	/**
+	 * Enumerate keys from a secret backend.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @return the {@link ListenableFuture} emitting the keys. Completes with an empty
+	 * {@link List} if the path does not exist.
+	 */
+	ListenableFuture<List<String>> list(String path);
+
+	/**
+	 * Write to a secret backend.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @param body the body, may be {@literal null} if absent.
+	 * @return the {@link ListenableFuture} emitting the configuration data.
+	 */
+	ListenableFuture<VaultResponse> write(String path, Object body);
+
+	/**
+	 * Delete a path in the secret backend.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @return the {@link ListenableFuture} signalling completion.
+	 */
+	ListenableFuture<Void> delete(String path);
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+
+/**
+ * {@link AsyncVaultOperations} adapter that executes blocking {@link VaultOperations}
+ * calls on a bounded {@link AsyncListenableTaskExecutor}. The adapter allows fan-out of
+ * independent Vault calls without creating {@link Thread}s ad hoc.
+ * <p>
+ * The adapter creates a {@link ThreadPoolTaskExecutor} with {@link #setPoolSize(int)
+ * poolSize} threads and a work queue bounded to {@link #setQueueCapacity(int)
+ * queueCapacity} unless a {@link AsyncListenableTaskExecutor} is provided. Calls
+ * submitted to a saturated executor are handled according to the configured
+ * {@link RejectionPolicy}. Calls that do not complete within the configured
+ * {@link #setTimeout(long) timeout} complete exceptionally with a
+ * {@link TimeoutException} and the underlying task is interrupted.
+ * <p>
+ * Instances are thread-safe once {@link #afterPropertiesSet() initialized}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see AsyncVaultOperations
+ * @see RejectionPolicy
+ */
+public class AsyncVaultOperationsAdapter implements AsyncVaultOperations,
+		InitializingBean, DisposableBean {
+
+	private static final AtomicInteger poolId = new AtomicInteger();
+
+	private final VaultOperations vaultOperations;
+
+	private AsyncListenableTaskExecutor taskExecutor;
+
+	private boolean manageTaskExecutor;
+
+	private TaskScheduler timeoutScheduler;
+
+	private int poolSize = 8;
+
+	private int queueCapacity = 100;
+
+	private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+
+	private long timeout;
+
+	/**
+	 * Create a new {@link AsyncVaultOperationsAdapter} given {@link VaultOperations}. The
+	 * adapter creates a bounded executor on {@link #afterPropertiesSet()
+	 * initialization}.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 */
+	public AsyncVaultOperationsAdapter(VaultOperations vaultOperations) {
+
+		Assert.notNull(vaultOperations, "VaultOperations must not be null");
+
+		this.vaultOperations = vaultOperations;
+	}
+
+	/**
+	 * Create a new {@link AsyncVaultOperationsAdapter} given {@link VaultOperations} and
+	 * {@link AsyncListenableTaskExecutor}. Pool sizing and the {@link RejectionPolicy}
+	 * are not applied to externally provided executors.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 * @param taskExecutor must not be {@literal null}.
+	 */
+	public AsyncVaultOperationsAdapter(VaultOperations vaultOperations,
+			AsyncListenableTaskExecutor taskExecutor) {
+
+		Assert.notNull(vaultOperations, "VaultOperations must not be null");
+		Assert.notNull(taskExecutor, "AsyncListenableTaskExecutor must not be null");
+
+		this.vaultOperations = vaultOperations;
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the number of worker threads.
+	 *
+	 * @param poolSize number of threads, must be greater {@literal 0}.
+	 */
+	public void setPoolSize(int poolSize) {
+
+		Assert.isTrue(poolSize > 0, "Pool size must be greater 0");
+
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * Set the capacity of the work queue. Calls exceeding the queue capacity are handled
+	 * according to the {@link RejectionPolicy}.
+	 *
+	 * @param queueCapacity the queue capacity, must not be negative.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+
+		Assert.isTrue(queueCapacity >= 0, "Queue capacity must not be negative");
+
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Set the {@link RejectionPolicy} applied when the work queue is full.
+	 *
+	 * @param rejectionPolicy must not be {@literal null}.
+	 */
+	public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+
+		Assert.notNull(rejectionPolicy, "RejectionPolicy must not be null");
+
+		this.rejectionPolicy = rejectionPolicy;
+	}
+
+	/**
+	 * Set the per-call timeout. Calls exceeding the timeout complete with a
+	 * {@link TimeoutException}. A timeout of {@literal 0} disables timeouts.
+	 *
+	 * @param timeout timeout in {@link TimeUnit#MILLISECONDS}, must not be negative.
+	 */
+	public void setTimeout(long timeout) {
+
+		Assert.isTrue(timeout >= 0, "Timeout must not be negative");
+
+		this.timeout = timeout;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		if (this.taskExecutor == null) {
+
+			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+			executor.setCorePoolSize(poolSize);
+			executor.setMaxPoolSize(poolSize);
+			executor.setQueueCapacity(queueCapacity);
+			executor.setDaemon(true);
+			executor.setThreadNamePrefix(String.format("%s-%d-", getClass()
+					.getSimpleName(), poolId.incrementAndGet()));
+			executor.setRejectedExecutionHandler(rejectionPolicy == RejectionPolicy.CALLER_RUNS
+					? new CallerRunsUnlessShutdownPolicy()
+					: new ThreadPoolExecutor.AbortPolicy());
+			executor.afterPropertiesSet();
+
+			this.taskExecutor = executor;
+			this.manageTaskExecutor = true;
+		}
+
+		if (this.timeout > 0 && this.timeoutScheduler == null) {
+
+			ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+			scheduler.setDaemon(true);
+			scheduler.setThreadNamePrefix(String.format("%s-timeout-%d-", getClass()
+					.getSimpleName(), poolId.get()));
+			scheduler.afterPropertiesSet();
+
+			this.timeoutScheduler = scheduler;
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+
+		if (this.manageTaskExecutor && this.taskExecutor instanceof DisposableBean) {
+			((DisposableBean) this.taskExecutor).destroy();
+		}
+
+		if (this.timeoutScheduler instanceof DisposableBean) {
+			((DisposableBean) this.timeoutScheduler).destroy();
+		}
+	}
+
+	@Override
+	public AsyncVaultTransitOperations opsForTransit() {
+		return opsForTransit("transit");
+	}
+
+	@Override
+	public AsyncVaultTransitOperations opsForTransit(String path) {
+		return new AsyncVaultTransitTemplate(this, path);
+	}
+
+	@Override
+	public AsyncVaultPkiOperations opsForPki() {
+		return opsForPki("pki");
+	}
+
+	@Override
+	public AsyncVaultPkiOperations opsForPki(String path) {
+		return new AsyncVaultPkiTemplate(this, path);
+	}
+
+	@Override
+	public ListenableFuture<VaultResponse> read(final String path) {
+
+		return submit(new Callable<VaultResponse>() {
+
+			@Override
+			public VaultResponse call() {
+				return vaultOperations.read(path);
+			}
+		});
+	}
+
+	@Override
+	public <T> ListenableFuture<VaultResponseSupport<T>> read(final String path,
+			final Class<T> responseType) {
+
+		return submit(new Callable<VaultResponseSupport<T>>() {
+
+			@Override
+			public VaultResponseSupport<T> call() {
+				return vaultOperations.read(path, responseType);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<List<String>> list(final String path) {
+
+		return submit(new Callable<List<String>>() {
+
+			@Override
+			public List<String> call() {
+				return vaultOperations.list(path);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<VaultResponse> write(final String path, final Object body) {
+
+		return submit(new Callable<VaultResponse>() {
+
+			@Override
+			public VaultResponse call() {
+				return vaultOperations.write(path, body);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Void> delete(final String path) {
+
+		return submit(new Callable<Void>() {
+
+			@Override
+			public Void call() {
+				vaultOperations.delete(path);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Submit a {@link Callable} for execution and apply the configured timeout.
+	 * Submission failures are reported through the returned {@link ListenableFuture}.
+	 *
+	 * @param callable must not be {@literal null}.
+	 * @return the {@link ListenableFuture} for the {@link Callable} outcome.
+	 */
+	protected <T> ListenableFuture<T> submit(Callable<T> callable) {
+
+		Assert.state(this.taskExecutor != null, "Adapter is not initialized");
+
+		final ListenableFuture<T> future;
+
+		try {
+			future = taskExecutor.submitListenable(callable);
+		}
+		catch (TaskRejectedException e) {
+
+			SettableListenableFuture<T> rejected = new SettableListenableFuture<T>();
+			rejected.setException(e);
+			return rejected;
+		}
+
+		if (this.timeout <= 0 || this.timeoutScheduler == null) {
+			return future;
+		}
+
+		final SettableListenableFuture<T> result = new SettableListenableFuture<T>();
+		final long timeout = this.timeout;
+
+		final ScheduledFuture<?> timeoutTask = timeoutScheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+
+				if (result.setException(new TimeoutException(String.format(
+						"Vault call did not complete within %d ms", timeout)))) {
+					future.cancel(true);
+				}
+			}
+		}, new Date(System.currentTimeMillis() + timeout));
+
+		future.addCallback(new ListenableFutureCallback<T>() {
+
+			@Override
+			public void onSuccess(T value) {
+				timeoutTask.cancel(false);
+				result.set(value);
+			}
+
+			@Override
+			public void onFailure(Throwable ex) {
+				timeoutTask.cancel(false);
+				result.setException(ex);
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Runs rejected tasks on the calling {@link Thread} while the executor is active.
+	 * Unlike {@link ThreadPoolExecutor.CallerRunsPolicy}, which silently discards tasks
+	 * after shutdown, this policy throws {@link RejectedExecutionException} so the
+	 * returned {@link ListenableFuture} completes exceptionally.
+	 */
+	static class CallerRunsUnlessShutdownPolicy implements RejectedExecutionHandler {
+
+		@Override
+		public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+
+			if (executor.isShutdown()) {
+				throw new RejectedExecutionException(String.format(
+						"Task %s rejected from %s", runnable, executor));
+			}
+
+			runnable.run();
+		}
+	}
+
+	/**
+	 * Policy applied when the work queue of the executor is full.
+	 */
+	public enum RejectionPolicy {
+
+		/**
+		 * Reject the call. The returned {@link ListenableFuture} completes with a
+		 * {@link TaskRejectedException}.
+		 */
+		ABORT,
+
+		/**
+		 * Execute the call on the calling {@link Thread}, slowing down the caller. Calls
+		 * after the executor was shut down are rejected as with {@link #ABORT}.
+		 */
+		CALLER_RUNS;
+	}
+}
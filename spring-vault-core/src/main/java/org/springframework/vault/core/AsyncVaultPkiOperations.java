@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.vault.support.CertificateBundle;
+import org.springframework.vault.support.VaultCertificateRequest;
+import org.springframework.vault.support.VaultCertificateResponse;
+
+/**
+ * Interface that specifies asynchronous PKI backend-related operations.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultPkiOperations
+ * @see <a href="https://www.vaultproject.io/docs/secrets/pki/index.html">PKI Secret
+ * Backend</a>
+ */
+public interface AsyncVaultPkiOperations {
+
+	/**
+	 * Requests a certificate bundle (private key and certificate) from Vault's PKI
+	 * backend given a {@code roleName} and {@link VaultCertificateRequest}. The issuing
+	 * CA certificate is returned as well, so that only the root CA need be in a client's
+	 * trust store. Certificates use DER format and are base64 encoded.
+	 *
+	 * @param roleName must not be empty or {@literal null}.
+	 * @param certificateRequest must not be {@literal null}.
+	 * @return the {@link ListenableFuture} emitting the {@link VaultCertificateResponse}
+	 * containing a {@link CertificateBundle}.
+	 * @see <a
+	 * href="https://www.vaultproject.io/docs/secrets/pki/index.html#pki-issue">POST
+	 * /pki/issue/[role name]</a>
+	 */
+	ListenableFuture<VaultCertificateResponse> issueCertificate(String roleName,
+			VaultCertificateRequest certificateRequest);
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Map;
+
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureAdapter;
+import org.springframework.vault.support.CertificateBundle;
+import org.springframework.vault.support.VaultCertificateRequest;
+import org.springframework.vault.support.VaultCertificateResponse;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Default implementation of {@link AsyncVaultPkiOperations} using
+ * {@link AsyncVaultOperations}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class AsyncVaultPkiTemplate implements AsyncVaultPkiOperations {
+
+	private final AsyncVaultOperations vaultOperations;
+
+	private final String path;
+
+	/**
+	 * Create a new {@link AsyncVaultPkiTemplate} given {@link AsyncVaultOperations} and
+	 * the mount {@code path}.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 * @param path must not be empty or {@literal null}.
+	 */
+	public AsyncVaultPkiTemplate(AsyncVaultOperations vaultOperations, String path) {
+
+		Assert.notNull(vaultOperations, "AsyncVaultOperations must not be null");
+		Assert.hasText(path, "Path must not be empty");
+
+		this.vaultOperations = vaultOperations;
+		this.path = path;
+	}
+
+	@Override
+	public ListenableFuture<VaultCertificateResponse> issueCertificate(String roleName,
+			VaultCertificateRequest certificateRequest) {
+
+		Assert.hasText(roleName, "Role name must not be empty");
+		Assert.notNull(certificateRequest, "Certificate request must not be null");
+
+		Map<String, Object> request = VaultPkiTemplate
+				.createIssueRequest(certificateRequest);
+
+		return new ListenableFutureAdapter<VaultCertificateResponse, VaultResponse>(
+				vaultOperations.write(String.format("%s/issue/%s", path, roleName),
+						request)) {
+
+			@Override
+			protected VaultCertificateResponse adapt(VaultResponse response) {
+				return toCertificateResponse(response);
+			}
+		};
+	}
+
+	private static VaultCertificateResponse toCertificateResponse(VaultResponse response) {
+
+		Map<String, Object> data = response.getData();
+
+		VaultCertificateResponse certificateResponse = new VaultCertificateResponse();
+
+		certificateResponse.setAuth(response.getAuth());
+		certificateResponse.setMetadata(response.getMetadata());
+		certificateResponse.setWrapInfo(response.getWrapInfo());
+		certificateResponse.setLeaseDuration(response.getLeaseDuration());
+		certificateResponse.setLeaseId(response.getLeaseId());
+		certificateResponse.setRequestId(response.getRequestId());
+		certificateResponse.setRenewable(response.isRenewable());
+		certificateResponse.setWarnings(response.getWarnings());
+
+		if (data != null) {
+			certificateResponse.setData(CertificateBundle.of(
+					(String) data.get("serial_number"), (String) data.get("certificate"),
+					(String) data.get("issuing_ca"), (String) data.get("private_key")));
+		}
+
+		return certificateResponse;
+	}
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.vault.authentication.SessionManager;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
+import org.springframework.vault.client.VaultClients;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultEndpointProvider;
+import org.springframework.vault.client.VaultHttpHeaders;
+import org.springframework.vault.client.VaultResponses;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpStatusCodeException;
+
+/**
+ * Non-blocking implementation of {@link AsyncVaultOperations} using
+ * {@link AsyncRestTemplate}. Requests are executed by the configured
+ * {@link AsyncClientHttpRequestFactory} without occupying the calling {@link Thread}
+ * for the duration of the request. Use
+ * {@link org.springframework.http.client.Netty4ClientHttpRequestFactory} to run requests
+ * on Netty's event loop.
+ * <p>
+ * {@link AsyncVaultTemplate} obtains the session token from {@link SessionManager} when
+ * sending a request. Use a {@link SessionManager} that caches the session token (such as
+ * {@link org.springframework.vault.authentication.LifecycleAwareSessionManager}) to
+ * avoid blocking login calls on I/O threads.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see AsyncRestTemplate
+ * @see org.springframework.http.client.Netty4ClientHttpRequestFactory
+ */
+public class AsyncVaultTemplate implements AsyncVaultOperations {
+
+	private final AsyncRestTemplate sessionTemplate;
+
+	/**
+	 * Create a new {@link AsyncVaultTemplate} with a {@link VaultEndpoint},
+	 * {@link AsyncClientHttpRequestFactory} and {@link SessionManager}.
+	 *
+	 * @param vaultEndpoint must not be {@literal null}.
+	 * @param requestFactory must not be {@literal null}.
+	 * @param sessionManager must not be {@literal null}.
+	 */
+	public AsyncVaultTemplate(VaultEndpoint vaultEndpoint,
+			AsyncClientHttpRequestFactory requestFactory, SessionManager sessionManager) {
+		this(SimpleVaultEndpointProvider.of(vaultEndpoint), requestFactory,
+				sessionManager);
+	}
+
+	/**
+	 * Create a new {@link AsyncVaultTemplate} with a {@link VaultEndpointProvider},
+	 * {@link AsyncClientHttpRequestFactory} and {@link SessionManager}.
+	 *
+	 * @param endpointProvider must not be {@literal null}.
+	 * @param requestFactory must not be {@literal null}.
+	 * @param sessionManager must not be {@literal null}.
+	 */
+	public AsyncVaultTemplate(VaultEndpointProvider endpointProvider,
+			AsyncClientHttpRequestFactory requestFactory,
+			SessionManager sessionManager) {
+
+		Assert.notNull(endpointProvider, "VaultEndpointProvider must not be null");
+		Assert.notNull(requestFactory, "AsyncClientHttpRequestFactory must not be null");
+		Assert.notNull(sessionManager, "SessionManager must not be null");
+
+		this.sessionTemplate = VaultClients.createAsyncRestTemplate(endpointProvider,
+				new SessionTokenRequestFactory(requestFactory, sessionManager));
+	}
+
+	@Override
+	public AsyncVaultTransitOperations opsForTransit() {
+		return opsForTransit("transit");
+	}
+
+	@Override
+	public AsyncVaultTransitOperations opsForTransit(String path) {
+		return new AsyncVaultTransitTemplate(this, path);
+	}
+
+	@Override
+	public AsyncVaultPkiOperations opsForPki() {
+		return opsForPki("pki");
+	}
+
+	@Override
+	public AsyncVaultPkiOperations opsForPki(String path) {
+		return new AsyncVaultPkiTemplate(this, path);
+	}
+
+	@Override
+	public ListenableFuture<VaultResponse> read(String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		return map(sessionTemplate.getForEntity(path, VaultResponse.class), path,
+				new ResponseMapper<VaultResponse, VaultResponse>() {
+
+					@Override
+					public VaultResponse map(VaultResponse body) {
+						return body;
+					}
+
+					@Override
+					public VaultResponse notFound() {
+						return null;
+					}
+				});
+	}
+
+	@Override
+	public <T> ListenableFuture<VaultResponseSupport<T>> read(String path,
+			Class<T> responseType) {
+
+		Assert.hasText(path, "Path must not be empty");
+		Assert.notNull(responseType, "Response type must not be null");
+
+		ParameterizedTypeReference<VaultResponseSupport<T>> ref = VaultResponses
+				.getTypeReference(responseType);
+
+		return map(sessionTemplate.exchange(path, HttpMethod.GET, null, ref), path,
+				new ResponseMapper<VaultResponseSupport<T>, VaultResponseSupport<T>>() {
+
+					@Override
+					public VaultResponseSupport<T> map(VaultResponseSupport<T> body) {
+						return body;
+					}
+
+					@Override
+					public VaultResponseSupport<T> notFound() {
+						return null;
+					}
+				});
+	}
+
+	@Override
+	public ListenableFuture<List<String>> list(String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		String listPath = String.format("%s?list=true", path.endsWith("/") ? path
+				: (path + "/"));
+
+		return map(sessionTemplate.getForEntity(listPath, VaultResponse.class), listPath,
+				new ResponseMapper<VaultResponse, List<String>>() {
+
+					@Override
+					@SuppressWarnings("unchecked")
+					public List<String> map(VaultResponse body) {
+						return (List) body.getData().get("keys");
+					}
+
+					@Override
+					public List<String> notFound() {
+						return Collections.emptyList();
+					}
+				});
+	}
+
+	@Override
+	public ListenableFuture<VaultResponse> write(String path, Object body) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		return map(sessionTemplate.postForEntity(path, new HttpEntity<Object>(body),
+				VaultResponse.class), path,
+				new ResponseMapper<VaultResponse, VaultResponse>() {
+
+					@Override
+					public VaultResponse map(VaultResponse body) {
+						return body;
+					}
+
+					@Override
+					public VaultResponse notFound() {
+						return null;
+					}
+				});
+	}
+
+	@Override
+	public ListenableFuture<Void> delete(final String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		final SettableListenableFuture<Void> result = new SettableListenableFuture<Void>();
+
+		sessionTemplate.delete(path).addCallback(new ListenableFutureCallback<Object>() {
+
+			@Override
+			public void onSuccess(Object ignore) {
+				result.set(null);
+			}
+
+			@Override
+			public void onFailure(Throwable ex) {
+
+				Throwable cause = unwrap(ex);
+
+				if (cause instanceof HttpStatusCodeException
+						&& ((HttpStatusCodeException) cause).getStatusCode() == HttpStatus.NOT_FOUND) {
+					result.set(null);
+					return;
+				}
+
+				result.setException(translate(cause, path));
+			}
+		});
+
+		return result;
+	}
+
+	private static <S, T> ListenableFuture<T> map(ListenableFuture<ResponseEntity<S>> source,
+			final String path, final ResponseMapper<S, T> mapper) {
+
+		final SettableListenableFuture<T> result = new SettableListenableFuture<T>();
+
+		source.addCallback(new ListenableFutureCallback<ResponseEntity<S>>() {
+
+			@Override
+			public void onSuccess(ResponseEntity<S> entity) {
+
+				try {
+					result.set(mapper.map(entity.getBody()));
+				}
+				catch (RuntimeException e) {
+					result.setException(e);
+				}
+			}
+
+			@Override
+			public void onFailure(Throwable ex) {
+
+				Throwable cause = unwrap(ex);
+
+				if (cause instanceof HttpStatusCodeException
+						&& ((HttpStatusCodeException) cause).getStatusCode() == HttpStatus.NOT_FOUND) {
+					result.set(mapper.notFound());
+					return;
+				}
+
+				result.setException(translate(cause, path));
+			}
+		});
+
+		return result;
+	}
+
+	private static Throwable unwrap(Throwable ex) {
+
+		if (ex instanceof ExecutionException && ex.getCause() != null) {
+			return ex.getCause();
+		}
+
+		return ex;
+	}
+
+	private static Throwable translate(Throwable ex, String path) {
+
+		if (ex instanceof HttpStatusCodeException) {
+			return VaultResponses.buildException((HttpStatusCodeException) ex, path);
+		}
+
+		return ex;
+	}
+
+	/**
+	 * Strategy to map a response body to the result type.
+	 */
+	interface ResponseMapper<S, T> {
+
+		/**
+		 * @param body the response body.
+		 * @return the mapped result.
+		 */
+		T map(S body);
+
+		/**
+		 * @return the result if the resource was not found.
+		 */
+		T notFound();
+	}
+
+	/**
+	 * {@link AsyncClientHttpRequestFactory} decorator that sets the Vault session token on
+	 * each request it creates. Setting the header when creating the request (instead of
+	 * using a {@link org.springframework.http.client.AsyncClientHttpRequestInterceptor})
+	 * keeps {@link AsyncRestTemplate} from buffering request bodies in an intermediate
+	 * byte array.
+	 */
+	private static class SessionTokenRequestFactory implements
+			AsyncClientHttpRequestFactory {
+
+		private final AsyncClientHttpRequestFactory delegate;
+
+		private final SessionManager sessionManager;
+
+		SessionTokenRequestFactory(AsyncClientHttpRequestFactory delegate,
+				SessionManager sessionManager) {
+
+			this.delegate = delegate;
+			this.sessionManager = sessionManager;
+		}
+
+		@Override
+		public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod)
+				throws IOException {
+
+			AsyncClientHttpRequest request = delegate.createAsyncRequest(uri, httpMethod);
+			request.getHeaders().set(VaultHttpHeaders.VAULT_TOKEN,
+					sessionManager.getSessionToken().getToken());
+
+			return request;
+		}
+	}
+}
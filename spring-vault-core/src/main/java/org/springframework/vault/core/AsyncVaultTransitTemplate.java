@@ -0,0 +1,279 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.util.Assert;
+import org.springframework.util.Base64Utils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureAdapter;
+import org.springframework.vault.core.VaultTransitTemplate.RawTransitKeyImpl;
+import org.springframework.vault.core.VaultTransitTemplate.TransitRequest;
+import org.springframework.vault.core.VaultTransitTemplate.VaultTransitKeyImpl;
+import org.springframework.vault.support.RawTransitKey;
+import org.springframework.vault.support.TransitKeyType;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+import org.springframework.vault.support.VaultTransitContext;
+import org.springframework.vault.support.VaultTransitKey;
+import org.springframework.vault.support.VaultTransitKeyConfiguration;
+import org.springframework.vault.support.VaultTransitKeyCreationRequest;
+
+/**
+ * Default implementation of {@link AsyncVaultTransitOperations} using
+ * {@link AsyncVaultOperations}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class AsyncVaultTransitTemplate implements AsyncVaultTransitOperations {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final AsyncVaultOperations vaultOperations;
+
+	private final String path;
+
+	/**
+	 * Create a new {@link AsyncVaultTransitTemplate} given {@link AsyncVaultOperations}
+	 * and the mount {@code path}.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 * @param path must not be empty or {@literal null}.
+	 */
+	public AsyncVaultTransitTemplate(AsyncVaultOperations vaultOperations, String path) {
+
+		Assert.notNull(vaultOperations, "AsyncVaultOperations must not be null");
+		Assert.hasText(path, "Path must not be empty");
+
+		this.vaultOperations = vaultOperations;
+		this.path = path;
+	}
+
+	@Override
+	public ListenableFuture<Void> createKey(String keyName) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+
+		return completion(vaultOperations.write(
+				String.format("%s/keys/%s", path, keyName), null));
+	}
+
+	@Override
+	public ListenableFuture<Void> createKey(String keyName,
+			VaultTransitKeyCreationRequest createKeyRequest) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.notNull(createKeyRequest,
+				"VaultTransitKeyCreationRequest must not be empty");
+
+		return completion(vaultOperations.write(
+				String.format("%s/keys/%s", path, keyName), createKeyRequest));
+	}
+
+	@Override
+	public ListenableFuture<List<String>> getKeys() {
+
+		return new ListenableFutureAdapter<List<String>, VaultResponse>(
+				vaultOperations.read(String.format("%s/keys?list=true", path))) {
+
+			@Override
+			@SuppressWarnings("unchecked")
+			protected List<String> adapt(VaultResponse response) {
+				return response == null ? Collections.<String> emptyList()
+						: (List) response.getData().get("keys");
+			}
+		};
+	}
+
+	@Override
+	public ListenableFuture<Void> configureKey(String keyName,
+			VaultTransitKeyConfiguration keyConfiguration) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.notNull(keyConfiguration, "VaultKeyConfiguration must not be empty");
+
+		return completion(vaultOperations.write(
+				String.format("%s/keys/%s/config", path, keyName), keyConfiguration));
+	}
+
+	@Override
+	public ListenableFuture<RawTransitKey> exportKey(String keyName, TransitKeyType type) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.notNull(type, "Key type must not be null");
+
+		return new ListenableFutureAdapter<RawTransitKey, VaultResponseSupport<RawTransitKeyImpl>>(
+				vaultOperations.read(
+						String.format("%s/export/%s/%s", path, type.getValue(), keyName),
+						RawTransitKeyImpl.class)) {
+
+			@Override
+			protected RawTransitKey adapt(VaultResponseSupport<RawTransitKeyImpl> result) {
+				return result != null ? result.getData() : null;
+			}
+		};
+	}
+
+	@Override
+	public ListenableFuture<VaultTransitKey> getKey(String keyName) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+
+		return new ListenableFutureAdapter<VaultTransitKey, VaultResponseSupport<VaultTransitKeyImpl>>(
+				vaultOperations.read(String.format("%s/keys/%s", path, keyName),
+						VaultTransitKeyImpl.class)) {
+
+			@Override
+			protected VaultTransitKey adapt(VaultResponseSupport<VaultTransitKeyImpl> result) {
+				return result != null ? result.getData() : null;
+			}
+		};
+	}
+
+	@Override
+	public ListenableFuture<Void> deleteKey(String keyName) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+
+		return vaultOperations.delete(String.format("%s/keys/%s", path, keyName));
+	}
+
+	@Override
+	public ListenableFuture<Void> rotate(String keyName) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+
+		return completion(vaultOperations.write(
+				String.format("%s/keys/%s/rotate", path, keyName), null));
+	}
+
+	@Override
+	public ListenableFuture<String> encrypt(String keyName, String plaintext) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.notNull(plaintext, "Plain text must not be null");
+
+		TransitRequest request = new TransitRequest();
+		request.setPlaintext(plaintext.getBytes(UTF8));
+
+		return dataValue(vaultOperations.write(
+				String.format("%s/encrypt/%s", path, keyName), request), "ciphertext");
+	}
+
+	@Override
+	public ListenableFuture<String> encrypt(String keyName, byte[] plaintext,
+			VaultTransitContext transitRequest) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.notNull(plaintext, "Plain text must not be null");
+
+		TransitRequest request = new TransitRequest();
+		request.setPlaintext(plaintext);
+		request.apply(transitRequest);
+
+		return dataValue(vaultOperations.write(
+				String.format("%s/encrypt/%s", path, keyName), request), "ciphertext");
+	}
+
+	@Override
+	public ListenableFuture<String> decrypt(String keyName, String ciphertext) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.hasText(ciphertext, "Cipher text must not be empty");
+
+		TransitRequest request = new TransitRequest();
+		request.setCiphertext(ciphertext);
+
+		return new ListenableFutureAdapter<String, String>(dataValue(
+				vaultOperations.write(String.format("%s/decrypt/%s", path, keyName),
+						request), "plaintext")) {
+
+			@Override
+			protected String adapt(String plaintext) {
+				return new String(Base64Utils.decodeFromString(plaintext), UTF8);
+			}
+		};
+	}
+
+	@Override
+	public ListenableFuture<byte[]> decrypt(String keyName, String ciphertext,
+			VaultTransitContext transitRequest) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.hasText(ciphertext, "Cipher text must not be empty");
+
+		TransitRequest request = new TransitRequest();
+		request.setCiphertext(ciphertext);
+		request.apply(transitRequest);
+
+		return new ListenableFutureAdapter<byte[], String>(dataValue(
+				vaultOperations.write(String.format("%s/decrypt/%s", path, keyName),
+						request), "plaintext")) {
+
+			@Override
+			protected byte[] adapt(String plaintext) {
+				return Base64Utils.decodeFromString(plaintext);
+			}
+		};
+	}
+
+	@Override
+	public ListenableFuture<String> rewrap(String keyName, String ciphertext) {
+		return rewrap(keyName, ciphertext, null);
+	}
+
+	@Override
+	public ListenableFuture<String> rewrap(String keyName, String ciphertext,
+			VaultTransitContext transitRequest) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.hasText(ciphertext, "Cipher text must not be empty");
+
+		TransitRequest request = new TransitRequest();
+		request.setCiphertext(ciphertext);
+		request.apply(transitRequest);
+
+		return dataValue(vaultOperations.write(
+				String.format("%s/rewrap/%s", path, keyName), request), "ciphertext");
+	}
+
+	private static ListenableFuture<Void> completion(ListenableFuture<?> future) {
+
+		return new ListenableFutureAdapter<Void, Object>((ListenableFuture) future) {
+
+			@Override
+			protected Void adapt(Object ignore) {
+				return null;
+			}
+		};
+	}
+
+	private static ListenableFuture<String> dataValue(
+			ListenableFuture<VaultResponse> future, final String key) {
+
+		return new ListenableFutureAdapter<String, VaultResponse>(future) {
+
+			@Override
+			protected String adapt(VaultResponse response) {
+				return (String) response.getData().get(key);
+			}
+		};
+	}
+}
@@ -0,0 +1,625 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.Ciphertext;
+import org.springframework.vault.support.Plaintext;
+import org.springframework.vault.support.RawTransitKey;
+import org.springframework.vault.support.TransitKeyType;
+import org.springframework.vault.support.VaultDecryptionResult;
+import org.springframework.vault.support.VaultEncryptionResult;
+import org.springframework.vault.support.VaultTransitContext;
+import org.springframework.vault.support.VaultTransitKey;
+import org.springframework.vault.support.VaultTransitKeyConfiguration;
+import org.springframework.vault.support.VaultTransitKeyCreationRequest;
+
+/**
+ * {@link VaultTransitOperations} decorator that collects concurrent single-item
+ * {@code encrypt} and {@code decrypt} calls into batch requests. Calls are grouped by
+ * key name, operation and whether a key derivation context is present. A group is sent
+ * as a single batch request once it reaches {@link #setMaxBatchSize(int) maxBatchSize}
+ * items or after the {@link #setLingerMillis(long) linger} period elapsed, whichever
+ * comes first. Batches are sent using an {@link #setExecutor(Executor) executor} so
+ * slow batch requests do not delay the linger timer. Each caller blocks until its own
+ * item is processed and receives its individual result or failure.
+ * <p>
+ * Batching trades a small amount of latency (at most the linger period) for throughput
+ * if many threads encrypt or decrypt concurrently. All other operations, including the
+ * batch methods, are delegated as-is.
+ * <p>
+ * Instances are thread-safe once {@link #afterPropertiesSet() initialized}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultTransitOperations#encrypt(String, List)
+ * @see VaultTransitOperations#decrypt(String, List)
+ */
+public class BatchingVaultTransitOperations implements VaultTransitOperations,
+		InitializingBean, DisposableBean {
+
+	private static final AtomicInteger poolId = new AtomicInteger();
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final VaultTransitOperations delegate;
+
+	private final Object monitor = new Object();
+
+	private final Map<BatchKey, Batch<?, ?>> pending = new HashMap<BatchKey, Batch<?, ?>>();
+
+	private long lingerMillis = 2;
+
+	private int maxBatchSize = 100;
+
+	private TaskScheduler taskScheduler;
+
+	private boolean manageTaskScheduler;
+
+	private Executor executor;
+
+	private boolean manageExecutor;
+
+	/**
+	 * Create a new {@link BatchingVaultTransitOperations} given
+	 * {@link VaultTransitOperations}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 */
+	public BatchingVaultTransitOperations(VaultTransitOperations delegate) {
+
+		Assert.notNull(delegate, "VaultTransitOperations must not be null");
+
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Create a new {@link BatchingVaultTransitOperations} given
+	 * {@link VaultTransitOperations} and {@link TaskScheduler}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @param taskScheduler must not be {@literal null}.
+	 */
+	public BatchingVaultTransitOperations(VaultTransitOperations delegate,
+			TaskScheduler taskScheduler) {
+
+		Assert.notNull(delegate, "VaultTransitOperations must not be null");
+		Assert.notNull(taskScheduler, "TaskScheduler must not be null");
+
+		this.delegate = delegate;
+		this.taskScheduler = taskScheduler;
+	}
+
+	/**
+	 * Set the linger period to wait for further items before a batch is sent.
+	 *
+	 * @param lingerMillis linger period in {@link TimeUnit#MILLISECONDS}, must be greater
+	 * {@literal 0}.
+	 */
+	public void setLingerMillis(long lingerMillis) {
+
+		Assert.isTrue(lingerMillis > 0, "Linger period must be greater 0");
+
+		this.lingerMillis = lingerMillis;
+	}
+
+	/**
+	 * Set the maximum number of items per batch. A batch is sent immediately once it
+	 * reaches the maximum batch size.
+	 *
+	 * @param maxBatchSize maximum number of items, must be greater {@literal 0}.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+
+		Assert.isTrue(maxBatchSize > 0, "Max batch size must be greater 0");
+
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Set the {@link Executor} to send batches once their linger period has elapsed. A
+	 * cached thread pool is created if not set.
+	 *
+	 * @param executor must not be {@literal null}.
+	 */
+	public void setExecutor(Executor executor) {
+
+		Assert.notNull(executor, "Executor must not be null");
+
+		this.executor = executor;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		if (this.taskScheduler == null) {
+
+			ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+			scheduler.setDaemon(true);
+			scheduler.setThreadNamePrefix(String.format("%s-%d-", getClass()
+					.getSimpleName(), poolId.incrementAndGet()));
+			scheduler.afterPropertiesSet();
+
+			this.taskScheduler = scheduler;
+			this.manageTaskScheduler = true;
+		}
+
+		if (this.executor == null) {
+
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					String.format("%s-flush-%d-", getClass().getSimpleName(),
+							poolId.incrementAndGet()));
+			threadFactory.setDaemon(true);
+
+			this.executor = Executors.newCachedThreadPool(threadFactory);
+			this.manageExecutor = true;
+		}
+	}
+
+	/**
+	 * Send pending batches and shut down the managed {@link TaskScheduler} and
+	 * {@link Executor}.
+	 */
+	@Override
+	public void destroy() throws Exception {
+
+		List<Batch<?, ?>> batches;
+
+		synchronized (monitor) {
+			batches = new ArrayList<Batch<?, ?>>(pending.values());
+			pending.clear();
+		}
+
+		for (Batch<?, ?> batch : batches) {
+			batch.flush();
+		}
+
+		if (manageTaskScheduler && this.taskScheduler instanceof DisposableBean) {
+			((DisposableBean) this.taskScheduler).destroy();
+			this.taskScheduler = null;
+		}
+
+		if (manageExecutor && this.executor instanceof ExecutorService) {
+			((ExecutorService) this.executor).shutdown();
+			this.executor = null;
+		}
+	}
+
+	@Override
+	public void createKey(String keyName) {
+		delegate.createKey(keyName);
+	}
+
+	@Override
+	public void createKey(String keyName, VaultTransitKeyCreationRequest createKeyRequest) {
+		delegate.createKey(keyName, createKeyRequest);
+	}
+
+	@Override
+	public List<String> getKeys() {
+		return delegate.getKeys();
+	}
+
+	@Override
+	public void configureKey(String keyName, VaultTransitKeyConfiguration keyConfiguration) {
+		delegate.configureKey(keyName, keyConfiguration);
+	}
+
+	@Override
+	public RawTransitKey exportKey(String keyName, TransitKeyType type) {
+		return delegate.exportKey(keyName, type);
+	}
+
+	@Override
+	public VaultTransitKey getKey(String keyName) {
+		return delegate.getKey(keyName);
+	}
+
+	@Override
+	public void deleteKey(String keyName) {
+		delegate.deleteKey(keyName);
+	}
+
+	@Override
+	public void rotate(String keyName) {
+		delegate.rotate(keyName);
+	}
+
+	@Override
+	public String encrypt(String keyName, String plaintext) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.notNull(plaintext, "Plain text must not be null");
+
+		return encrypt(keyName, Plaintext.of(plaintext.getBytes(UTF8))).getCiphertext();
+	}
+
+	@Override
+	public String encrypt(String keyName, byte[] plaintext,
+			VaultTransitContext transitRequest) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.notNull(plaintext, "Plain text must not be null");
+
+		return encrypt(keyName, Plaintext.of(plaintext).with(contextOf(transitRequest)))
+				.getCiphertext();
+	}
+
+	@Override
+	public String decrypt(String keyName, String ciphertext) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.hasText(ciphertext, "Cipher text must not be empty");
+
+		return new String(decrypt(keyName, Ciphertext.of(ciphertext)).getPlaintext(),
+				UTF8);
+	}
+
+	@Override
+	public byte[] decrypt(String keyName, String ciphertext,
+			VaultTransitContext transitRequest) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.hasText(ciphertext, "Cipher text must not be empty");
+
+		return decrypt(keyName,
+				Ciphertext.of(ciphertext).with(contextOf(transitRequest)))
+				.getPlaintext();
+	}
+
+	@Override
+	public String rewrap(String keyName, String ciphertext) {
+		return delegate.rewrap(keyName, ciphertext);
+	}
+
+	@Override
+	public String rewrap(String keyName, String ciphertext,
+			VaultTransitContext transitRequest) {
+		return delegate.rewrap(keyName, ciphertext, transitRequest);
+	}
+
+	@Override
+	public List<VaultEncryptionResult> encrypt(String keyName, List<Plaintext> batchRequest) {
+		return delegate.encrypt(keyName, batchRequest);
+	}
+
+	@Override
+	public List<VaultDecryptionResult> decrypt(String keyName,
+			List<Ciphertext> batchRequest) {
+		return delegate.decrypt(keyName, batchRequest);
+	}
+
+	@Override
+	public List<VaultEncryptionResult> rewrap(String keyName,
+			List<Ciphertext> batchRequest) {
+		return delegate.rewrap(keyName, batchRequest);
+	}
+
+	/**
+	 * @return the number of items waiting to be sent.
+	 */
+	public int getPendingCount() {
+
+		synchronized (monitor) {
+
+			int count = 0;
+			for (Batch<?, ?> batch : pending.values()) {
+				count += batch.items.size();
+			}
+
+			return count;
+		}
+	}
+
+	private Ciphertext encrypt(final String keyName, Plaintext plaintext) {
+
+		BatchKey key = new BatchKey(keyName, Operation.ENCRYPT, plaintext.getContext()
+				.getContext() != null);
+
+		return enqueue(key, plaintext, new BatchFactory<Plaintext, VaultEncryptionResult>() {
+
+			@Override
+			public Batch<Plaintext, VaultEncryptionResult> create(BatchKey key) {
+
+				return new Batch<Plaintext, VaultEncryptionResult>(key) {
+
+					@Override
+					List<VaultEncryptionResult> execute(List<Plaintext> items) {
+						return delegate.encrypt(keyName, items);
+					}
+				};
+			}
+		}).get();
+	}
+
+	private Plaintext decrypt(final String keyName, Ciphertext ciphertext) {
+
+		BatchKey key = new BatchKey(keyName, Operation.DECRYPT, ciphertext.getContext()
+				.getContext() != null);
+
+		return enqueue(key, ciphertext,
+				new BatchFactory<Ciphertext, VaultDecryptionResult>() {
+
+					@Override
+					public Batch<Ciphertext, VaultDecryptionResult> create(BatchKey key) {
+
+						return new Batch<Ciphertext, VaultDecryptionResult>(key) {
+
+							@Override
+							List<VaultDecryptionResult> execute(List<Ciphertext> items) {
+								return delegate.decrypt(keyName, items);
+							}
+						};
+					}
+				}).get();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <I, R> R enqueue(BatchKey key, I item,
+			BatchFactory<I, R> factory) {
+
+		Assert.state(this.taskScheduler != null,
+				"BatchingVaultTransitOperations is not initialized");
+
+		SettableListenableFuture<R> future = new SettableListenableFuture<R>();
+		Batch<I, R> full = null;
+
+		synchronized (monitor) {
+
+			Batch<I, R> batch = (Batch<I, R>) pending.get(key);
+
+			if (batch == null) {
+
+				batch = factory.create(key);
+				batch.schedule = taskScheduler.schedule(new FlushTask(batch), new Date(
+						System.currentTimeMillis() + lingerMillis));
+				pending.put(key, batch);
+			}
+
+			batch.items.add(item);
+			batch.futures.add(future);
+
+			if (batch.items.size() >= maxBatchSize) {
+
+				pending.remove(key);
+				batch.schedule.cancel(false);
+				full = batch;
+			}
+		}
+
+		if (full != null) {
+			full.flush();
+		}
+
+		return await(future);
+	}
+
+	private static <T> T await(SettableListenableFuture<T> future) {
+
+		boolean interrupted = false;
+
+		try {
+			while (true) {
+				try {
+					return future.get();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		catch (ExecutionException e) {
+
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw new VaultException("Batch request failed", e.getCause());
+		}
+		finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static VaultTransitContext contextOf(VaultTransitContext transitRequest) {
+		return transitRequest != null ? transitRequest : VaultTransitContext.empty();
+	}
+
+	/**
+	 * Task handing a {@link Batch} over to the {@link Executor} once its linger period
+	 * has elapsed.
+	 */
+	private class FlushTask implements Runnable {
+
+		private final Batch<?, ?> batch;
+
+		FlushTask(Batch<?, ?> batch) {
+			this.batch = batch;
+		}
+
+		@Override
+		public void run() {
+
+			synchronized (monitor) {
+
+				if (pending.get(batch.key) != batch) {
+					return;
+				}
+
+				pending.remove(batch.key);
+			}
+
+			Executor executor = BatchingVaultTransitOperations.this.executor;
+
+			try {
+
+				if (executor != null) {
+
+					executor.execute(new Runnable() {
+
+						@Override
+						public void run() {
+							batch.flush();
+						}
+					});
+					return;
+				}
+			}
+			catch (RejectedExecutionException e) {
+				// shutting down, send the batch on the timer thread
+			}
+
+			batch.flush();
+		}
+	}
+
+	/**
+	 * Factory to create a {@link Batch} for a {@link BatchKey}.
+	 */
+	interface BatchFactory<I, R> {
+
+		Batch<I, R> create(BatchKey key);
+	}
+
+	/**
+	 * Collection of items and their futures sent as single batch request.
+	 */
+	abstract static class Batch<I, R> {
+
+		final BatchKey key;
+
+		final List<I> items = new ArrayList<I>();
+
+		final List<SettableListenableFuture<R>> futures = new ArrayList<SettableListenableFuture<R>>();
+
+		ScheduledFuture<?> schedule;
+
+		Batch(BatchKey key) {
+			this.key = key;
+		}
+
+		/**
+		 * Send the batch and complete the futures with their individual results. Futures
+		 * without a result are failed so callers never wait forever.
+		 */
+		void flush() {
+
+			Throwable failure = null;
+
+			try {
+
+				List<R> results = execute(items);
+				int count = Math.min(futures.size(), results.size());
+
+				for (int i = 0; i < count; i++) {
+					futures.get(i).set(results.get(i));
+				}
+			}
+			catch (RuntimeException e) {
+				failure = e;
+			}
+			catch (Error e) {
+				failure = e;
+				throw e;
+			}
+			finally {
+
+				for (SettableListenableFuture<R> future : futures) {
+
+					if (!future.isDone()) {
+						future.setException(failure != null ? failure
+								: new VaultException(String.format(
+										"Batch response contains no result for item of %s",
+										key.keyName)));
+					}
+				}
+			}
+		}
+
+		abstract List<R> execute(List<I> items);
+	}
+
+	enum Operation {
+		ENCRYPT, DECRYPT;
+	}
+
+	/**
+	 * Grouping key for batches.
+	 */
+	static class BatchKey {
+
+		final String keyName;
+
+		final Operation operation;
+
+		final boolean contextPresent;
+
+		BatchKey(String keyName, Operation operation, boolean contextPresent) {
+			this.keyName = keyName;
+			this.operation = operation;
+			this.contextPresent = contextPresent;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof BatchKey)) {
+				return false;
+			}
+
+			BatchKey that = (BatchKey) o;
+			return keyName.equals(that.keyName) && operation == that.operation
+					&& contextPresent == that.contextPresent;
+		}
+
+		@Override
+		public int hashCode() {
+
+			int result = keyName.hashCode();
+			result = 31 * result + operation.hashCode();
+			result = 31 * result + (contextPresent ? 1 : 0);
+			return result;
+		}
+	}
+}
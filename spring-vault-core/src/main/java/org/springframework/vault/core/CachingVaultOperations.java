@@ -0,0 +1,530 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.vault.client.CallNotPermittedException;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+
+/**
+ * Read-through caching {@link VaultOperations} decorator. Responses obtained through
+ * {@link #read(String)} and {@link #read(String, Class)} are cached by path and response
+ * type using the {@link VaultResponseSupport#getLeaseDuration() lease duration} as
+ * time-to-live. The time-to-live is capped by the
+ * {@link #setMaxTimeToLiveSeconds(long) maximum time-to-live}, which defaults to
+ * {@literal 300} seconds so that secrets with long leases (the generic backend reports
+ * 32 days by default) are re-read in reasonable intervals. The cache is bounded and
+ * evicts least recently used entries once {@link #setMaxEntries(int) the maximum number
+ * of entries} is exceeded.
+ * <p>
+ * {@link #write(String, Object)} and {@link #delete(String)} invalidate cached entries
+ * for the same path. All other operations are passed through to the delegate
+ * {@link VaultOperations} without caching. Responses without a lease duration are
+ * cached using the {@link #setDefaultTimeToLiveSeconds(long) default time-to-live},
+ * which defaults to {@literal 0} (not cached). Absent ({@literal null}) responses are
+ * not cached.
+ * <p>
+ * Expired entries are retained until they are evicted or replaced. If a read is
+ * rejected by a {@link org.springframework.vault.client.CircuitBreakingClientHttpRequestFactory
+ * circuit breaker or bulkhead}, the most recently cached response for the path is
+ * returned even if it is expired.
+ * <p>
+ * Cached response objects are shared between callers and must not be modified.
+ * <p>
+ * Instances are thread-safe.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultOperations
+ * @see VaultResponseSupport#getLeaseDuration()
+ */
+public class CachingVaultOperations implements VaultOperations {
+
+	private final VaultOperations delegate;
+
+	private final Object monitor = new Object();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	private final AtomicLong staleHits = new AtomicLong();
+
+	/**
+	 * Incremented on each invalidation to prevent caching of responses that were
+	 * obtained concurrently to a {@code write} or {@code delete}.
+	 */
+	private final AtomicLong invalidations = new AtomicLong();
+
+	private final Map<CacheKey, CacheEntry> cache = new LinkedHashMap<CacheKey, CacheEntry>(
+			16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+
+			if (size() > maxEntries) {
+				evictions.incrementAndGet();
+				return true;
+			}
+
+			return false;
+		}
+	};
+
+	private volatile int maxEntries = 1000;
+
+	private volatile long defaultTimeToLiveSeconds = 0;
+
+	private volatile long maxTimeToLiveSeconds = 300;
+
+	private volatile VaultBulkOperations bulkOperations;
+
+	/**
+	 * Create a new {@link CachingVaultOperations} given the delegate
+	 * {@link VaultOperations}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 */
+	public CachingVaultOperations(VaultOperations delegate) {
+
+		Assert.notNull(delegate, "VaultOperations must not be null");
+
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Set the maximum number of cached entries. Least recently used entries are evicted
+	 * once the cache size exceeds {@code maxEntries}.
+	 *
+	 * @param maxEntries maximum number of entries, must be greater {@literal 0}.
+	 */
+	public void setMaxEntries(int maxEntries) {
+
+		Assert.isTrue(maxEntries > 0, "Max entries must be greater 0");
+
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Set the time-to-live for responses that do not report a lease duration. Setting
+	 * the time-to-live to {@literal 0} disables caching of such responses.
+	 *
+	 * @param defaultTimeToLiveSeconds time-to-live in {@link TimeUnit#SECONDS}, must not
+	 * be negative.
+	 */
+	public void setDefaultTimeToLiveSeconds(long defaultTimeToLiveSeconds) {
+
+		Assert.isTrue(defaultTimeToLiveSeconds >= 0,
+				"Default time to live must not be negative");
+
+		this.defaultTimeToLiveSeconds = defaultTimeToLiveSeconds;
+	}
+
+	/**
+	 * Set the upper bound for the time-to-live of cached entries. Lease durations
+	 * exceeding the upper bound are capped. Defaults to {@literal 300} seconds.
+	 *
+	 * @param maxTimeToLiveSeconds maximum time-to-live in {@link TimeUnit#SECONDS}, must
+	 * not be negative.
+	 */
+	public void setMaxTimeToLiveSeconds(long maxTimeToLiveSeconds) {
+
+		Assert.isTrue(maxTimeToLiveSeconds >= 0, "Max time to live must not be negative");
+
+		this.maxTimeToLiveSeconds = maxTimeToLiveSeconds;
+	}
+
+	@Override
+	public VaultSysOperations opsForSys() {
+		return delegate.opsForSys();
+	}
+
+	@Override
+	public VaultTokenOperations opsForToken() {
+		return delegate.opsForToken();
+	}
+
+	@Override
+	public VaultTransitOperations opsForTransit() {
+		return delegate.opsForTransit();
+	}
+
+	@Override
+	public VaultTransitOperations opsForTransit(String path) {
+		return delegate.opsForTransit(path);
+	}
+
+	@Override
+	public VaultPkiOperations opsForPki() {
+		return delegate.opsForPki();
+	}
+
+	@Override
+	public VaultPkiOperations opsForPki(String path) {
+		return delegate.opsForPki(path);
+	}
+
+	@Override
+	public VaultBulkOperations opsForBulk() {
+
+		VaultBulkOperations bulkOperations = this.bulkOperations;
+
+		// racing callers may create an extra instance which is harmless
+		if (bulkOperations == null) {
+			bulkOperations = new VaultBulkTemplate(this);
+			this.bulkOperations = bulkOperations;
+		}
+
+		return bulkOperations;
+	}
+
+	@Override
+	public VaultResponse read(String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		CacheKey key = new CacheKey(normalize(path), null);
+		VaultResponse cached = (VaultResponse) getCached(key);
+
+		if (cached != null) {
+			return cached;
+		}
+
+		long generation = invalidations.get();
+		VaultResponse response;
+
+		try {
+			response = delegate.read(path);
+		}
+		catch (RuntimeException e) {
+			return (VaultResponse) getStaleOrThrow(key, e);
+		}
+
+		potentiallyCache(key, response, generation);
+
+		return response;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> VaultResponseSupport<T> read(String path, Class<T> responseType) {
+
+		Assert.hasText(path, "Path must not be empty");
+		Assert.notNull(responseType, "Response type must not be null");
+
+		CacheKey key = new CacheKey(normalize(path), responseType);
+		VaultResponseSupport<T> cached = (VaultResponseSupport<T>) getCached(key);
+
+		if (cached != null) {
+			return cached;
+		}
+
+		long generation = invalidations.get();
+		VaultResponseSupport<T> response;
+
+		try {
+			response = delegate.read(path, responseType);
+		}
+		catch (RuntimeException e) {
+			return (VaultResponseSupport<T>) getStaleOrThrow(key, e);
+		}
+
+		potentiallyCache(key, response, generation);
+
+		return response;
+	}
+
+	@Override
+	public List<String> list(String path) {
+		return delegate.list(path);
+	}
+
+	@Override
+	public void list(String path, KeyCallback callback) {
+		delegate.list(path, callback);
+	}
+
+	@Override
+	public void walk(String path, KeyCallback callback) {
+		delegate.walk(path, callback);
+	}
+
+	@Override
+	public VaultResponse write(String path, Object body) {
+
+		try {
+			return delegate.write(path, body);
+		}
+		finally {
+			evict(path);
+		}
+	}
+
+	@Override
+	public void delete(String path) {
+
+		try {
+			delegate.delete(path);
+		}
+		finally {
+			evict(path);
+		}
+	}
+
+	@Override
+	public <T> T doWithVault(RestOperationsCallback<T> clientCallback) {
+		return delegate.doWithVault(clientCallback);
+	}
+
+	@Override
+	public <T> T doWithSession(RestOperationsCallback<T> sessionCallback) {
+		return delegate.doWithSession(sessionCallback);
+	}
+
+	/**
+	 * Evict all cached entries for {@code path} regardless of their response type.
+	 *
+	 * @param path must not be {@literal null}.
+	 */
+	public void evict(String path) {
+
+		Assert.notNull(path, "Path must not be null");
+
+		String normalized = normalize(path);
+
+		synchronized (monitor) {
+
+			invalidations.incrementAndGet();
+
+			Iterator<CacheKey> iterator = cache.keySet().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().path.equals(normalized)) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached entries.
+	 */
+	public void clear() {
+
+		synchronized (monitor) {
+			invalidations.incrementAndGet();
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @return the number of cache hits.
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of cache misses.
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of reads that were served from expired entries because the
+	 * request was not permitted.
+	 */
+	public long getStaleHitCount() {
+		return staleHits.get();
+	}
+
+	/**
+	 * @return the number of entries evicted because the cache exceeded its maximum
+	 * number of entries.
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return the number of cached entries, including expired entries that were not yet
+	 * removed.
+	 */
+	public int size() {
+
+		synchronized (monitor) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * Returns the current time in {@link TimeUnit#MILLISECONDS}. Subclasses may override
+	 * this method to provide a different time source.
+	 *
+	 * @return the current time in {@link TimeUnit#MILLISECONDS}.
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	private Object getCached(CacheKey key) {
+
+		long now = currentTimeMillis();
+
+		synchronized (monitor) {
+
+			CacheEntry entry = cache.get(key);
+
+			if (entry != null && entry.expiresAt > now) {
+				hits.incrementAndGet();
+				return entry.value;
+			}
+		}
+
+		misses.incrementAndGet();
+		return null;
+	}
+
+	private Object getStaleOrThrow(CacheKey key, RuntimeException e) {
+
+		if (!isCallNotPermitted(e)) {
+			throw e;
+		}
+
+		synchronized (monitor) {
+
+			CacheEntry entry = cache.get(key);
+
+			if (entry == null) {
+				throw e;
+			}
+
+			staleHits.incrementAndGet();
+			return entry.value;
+		}
+	}
+
+	private static boolean isCallNotPermitted(Throwable e) {
+
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+
+			if (cause instanceof CallNotPermittedException) {
+				return true;
+			}
+
+			if (cause.getCause() == cause) {
+				return false;
+			}
+		}
+
+		return false;
+	}
+
+	private void potentiallyCache(CacheKey key, VaultResponseSupport<?> response,
+			long generation) {
+
+		if (response == null) {
+			return;
+		}
+
+		long timeToLive = response.getLeaseDuration() > 0 ? response.getLeaseDuration()
+				: defaultTimeToLiveSeconds;
+		timeToLive = Math.min(timeToLive, maxTimeToLiveSeconds);
+
+		if (timeToLive <= 0) {
+			return;
+		}
+
+		long now = currentTimeMillis();
+		long expiresAt = timeToLive > TimeUnit.MILLISECONDS.toSeconds(Long.MAX_VALUE
+				- now) ? Long.MAX_VALUE : now + TimeUnit.SECONDS.toMillis(timeToLive);
+
+		synchronized (monitor) {
+
+			if (invalidations.get() != generation) {
+				return;
+			}
+
+			cache.put(key, new CacheEntry(response, expiresAt));
+		}
+	}
+
+	private static String normalize(String path) {
+		return path.startsWith("/") ? path.substring(1) : path;
+	}
+
+	/**
+	 * Cache key composed of the path and the requested response type.
+	 */
+	static class CacheKey {
+
+		final String path;
+
+		final Class<?> responseType;
+
+		CacheKey(String path, Class<?> responseType) {
+			this.path = path;
+			this.responseType = responseType;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof CacheKey)) {
+				return false;
+			}
+
+			CacheKey that = (CacheKey) o;
+			return path.equals(that.path)
+					&& ObjectUtils.nullSafeEquals(responseType, that.responseType);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * path.hashCode() + ObjectUtils.nullSafeHashCode(responseType);
+		}
+	}
+
+	/**
+	 * Cached response along with its expiry time.
+	 */
+	static class CacheEntry {
+
+		final Object value;
+
+		final long expiresAt;
+
+		CacheEntry(Object value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
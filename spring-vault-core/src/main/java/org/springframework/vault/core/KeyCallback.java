@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+/**
+ * A callback for processing keys one at a time while they are read from a Vault list
+ * response.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultOperations#list(String, KeyCallback)
+ * @see VaultOperations#walk(String, KeyCallback)
+ */
+public interface KeyCallback {
+
+	/**
+	 * Callback method invoked for each key.
+	 *
+	 * @param key the key, never {@literal null}.
+	 */
+	void doWithKey(String key);
+}
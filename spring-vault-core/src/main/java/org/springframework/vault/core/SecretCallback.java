@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * A callback for processing secrets one at a time while a subtree is read.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultTreeWalker
+ */
+public interface SecretCallback {
+
+	/**
+	 * Callback method invoked for each secret.
+	 *
+	 * @param path the full path of the secret, never {@literal null}.
+	 * @param response the secret, never {@literal null}.
+	 */
+	void doWithSecret(String path, VaultResponse response);
+}
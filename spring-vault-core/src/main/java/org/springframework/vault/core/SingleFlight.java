@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.util.Assert;
+
+/**
+ * Coalesces concurrent invocations for the same key into a single invocation. The first
+ * caller for a key executes the {@link Task} while concurrent callers for the same key
+ * wait for its outcome. All callers receive the same result or the same exception.
+ * Completed invocations are not retained.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+class SingleFlight {
+
+	private final ConcurrentMap<Object, Call> calls = new ConcurrentHashMap<Object, Call>();
+
+	/**
+	 * Execute {@link Task} or join an in-flight execution for the same {@code key}.
+	 *
+	 * @param key must not be {@literal null}.
+	 * @param task must not be {@literal null}.
+	 * @return the result of the {@link Task}, can be {@literal null}.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T execute(Object key, Task<T> task) {
+
+		Assert.notNull(key, "Key must not be null");
+		Assert.notNull(task, "Task must not be null");
+
+		Call call = new Call();
+		Call inFlight = calls.putIfAbsent(key, call);
+
+		if (inFlight != null) {
+			return (T) inFlight.await();
+		}
+
+		try {
+			T result = task.execute();
+			call.result = result;
+			return result;
+		}
+		catch (RuntimeException e) {
+			call.error = e;
+			throw e;
+		}
+		catch (Error e) {
+			call.error = e;
+			throw e;
+		}
+		finally {
+			calls.remove(key, call);
+			call.latch.countDown();
+		}
+	}
+
+	/**
+	 * @return the number of in-flight invocations.
+	 */
+	int getInFlightCount() {
+		return calls.size();
+	}
+
+	/**
+	 * @param key must not be {@literal null}.
+	 * @return the number of callers waiting for the in-flight invocation for
+	 * {@code key}, {@literal 0} if there is no in-flight invocation.
+	 */
+	int getWaiterCount(Object key) {
+
+		Call call = calls.get(key);
+		return call != null ? call.waiters.get() : 0;
+	}
+
+	/**
+	 * Callback interface for the coalesced operation.
+	 */
+	interface Task<T> {
+
+		/**
+		 * @return the result, can be {@literal null}.
+		 */
+		T execute();
+	}
+
+	/**
+	 * In-flight invocation. {@link #result} and {@link #error} are published through
+	 * {@link #latch}.
+	 */
+	static class Call {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		final AtomicInteger waiters = new AtomicInteger();
+
+		Object result;
+
+		Throwable error;
+
+		Object await() {
+
+			waiters.incrementAndGet();
+			boolean interrupted = false;
+
+			while (true) {
+				try {
+					latch.await();
+					break;
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+
+			if (error instanceof RuntimeException) {
+				throw (RuntimeException) error;
+			}
+
+			if (error instanceof Error) {
+				throw (Error) error;
+			}
+
+			return result;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.vault.support.VaultBulkResult;
+
+/**
+ * Interface that specifies bulk operations to write and delete many paths at once.
+ * Bulk operations do not fail fast: each path is processed individually and failures
+ * are reported through {@link VaultBulkResult}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultBulkTemplate
+ */
+public interface VaultBulkOperations {
+
+	/**
+	 * Write multiple paths to a secret backend.
+	 *
+	 * @param bodies path to body mapping, must not be {@literal null}.
+	 * @return the {@link VaultBulkResult} reporting successfully written paths and
+	 * failures.
+	 */
+	VaultBulkResult write(Map<String, ?> bodies);
+
+	/**
+	 * Delete multiple paths in the secret backend.
+	 *
+	 * @param paths must not be {@literal null}.
+	 * @return the {@link VaultBulkResult} reporting successfully deleted paths and
+	 * failures.
+	 */
+	VaultBulkResult delete(Collection<String> paths);
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.Assert;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.VaultHttpException;
+import org.springframework.vault.support.VaultBulkResult;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Default implementation of {@link VaultBulkOperations}. Paths are processed by up to
+ * {@link #setParallelism(int) parallelism} concurrent workers using
+ * {@link VaultOperations#write(String, Object)} and
+ * {@link VaultOperations#delete(String)}. Paths failing with an I/O error, a server
+ * error ({@literal 5xx}) or due to throttling ({@literal 429}) are retried up to
+ * {@link #setMaxAttempts(int) maxAttempts} times with exponential backoff before they
+ * are reported as failure. Other failures, such as {@literal 400} or {@literal 403}, are
+ * reported without retry. A failing path does not affect processing of other paths.
+ * <p>
+ * Workers run on a {@link TaskExecutor}. The default {@link SimpleAsyncTaskExecutor}
+ * starts a daemon thread per worker and bulk call.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class VaultBulkTemplate implements VaultBulkOperations {
+
+	private static final AtomicInteger poolId = new AtomicInteger();
+
+	private final VaultOperations vaultOperations;
+
+	private final TaskExecutor taskExecutor;
+
+	private int parallelism = 8;
+
+	private int maxAttempts = 3;
+
+	private long retryBackoffMillis = 100;
+
+	/**
+	 * Create a new {@link VaultBulkTemplate} given {@link VaultOperations}.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 */
+	public VaultBulkTemplate(VaultOperations vaultOperations) {
+		this(vaultOperations, createTaskExecutor());
+	}
+
+	/**
+	 * Create a new {@link VaultBulkTemplate} given {@link VaultOperations} and
+	 * {@link TaskExecutor}.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 * @param taskExecutor must not be {@literal null}.
+	 */
+	public VaultBulkTemplate(VaultOperations vaultOperations, TaskExecutor taskExecutor) {
+
+		Assert.notNull(vaultOperations, "VaultOperations must not be null");
+		Assert.notNull(taskExecutor, "TaskExecutor must not be null");
+
+		this.vaultOperations = vaultOperations;
+		this.taskExecutor = taskExecutor;
+	}
+
+	private static TaskExecutor createTaskExecutor() {
+
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(String.format(
+				"%s-%d-", VaultBulkTemplate.class.getSimpleName(),
+				poolId.incrementAndGet()));
+		executor.setDaemon(true);
+
+		return executor;
+	}
+
+	/**
+	 * Set the maximum number of concurrent requests per bulk call. Defaults to
+	 * {@literal 8}.
+	 *
+	 * @param parallelism maximum number of concurrent requests, must be greater
+	 * {@literal 0}.
+	 */
+	public void setParallelism(int parallelism) {
+
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater 0");
+
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Set the maximum number of attempts per path, including the initial attempt.
+	 * Defaults to {@literal 3}.
+	 *
+	 * @param maxAttempts maximum number of attempts, must be greater {@literal 0}.
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+
+		Assert.isTrue(maxAttempts > 0, "Max attempts must be greater 0");
+
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Set the initial backoff between attempts. The backoff doubles with each further
+	 * attempt. Defaults to {@literal 100} milliseconds.
+	 *
+	 * @param retryBackoffMillis backoff in {@link TimeUnit#MILLISECONDS}, must not be
+	 * negative.
+	 */
+	public void setRetryBackoffMillis(long retryBackoffMillis) {
+
+		Assert.isTrue(retryBackoffMillis >= 0, "Retry backoff must not be negative");
+
+		this.retryBackoffMillis = retryBackoffMillis;
+	}
+
+	@Override
+	public VaultBulkResult write(Map<String, ?> bodies) {
+
+		Assert.notNull(bodies, "Bodies must not be null");
+
+		final Map<String, Object> copy = new LinkedHashMap<String, Object>(bodies);
+
+		return execute(new ArrayList<String>(copy.keySet()), new PathCallback() {
+
+			@Override
+			public void doWithPath(String path) {
+				vaultOperations.write(path, copy.get(path));
+			}
+		});
+	}
+
+	@Override
+	public VaultBulkResult delete(Collection<String> paths) {
+
+		Assert.notNull(paths, "Paths must not be null");
+
+		return execute(new ArrayList<String>(paths), new PathCallback() {
+
+			@Override
+			public void doWithPath(String path) {
+				vaultOperations.delete(path);
+			}
+		});
+	}
+
+	private VaultBulkResult execute(final List<String> paths, final PathCallback callback) {
+
+		for (String path : paths) {
+			Assert.hasText(path, "Path must not be empty");
+		}
+
+		final RuntimeException[] errors = new RuntimeException[paths.size()];
+		final boolean[] completed = new boolean[paths.size()];
+		final AtomicInteger next = new AtomicInteger();
+
+		int workers = Math.min(parallelism, paths.size());
+		final CountDownLatch completion = new CountDownLatch(workers);
+
+		Runnable worker = new Runnable() {
+
+			@Override
+			public void run() {
+
+				try {
+
+					int index;
+					while ((index = next.getAndIncrement()) < paths.size()) {
+
+						try {
+							errors[index] = doWithRetry(paths.get(index), callback);
+						}
+						catch (Throwable e) {
+							errors[index] = new VaultException(String.format(
+									"Cannot process %s", paths.get(index)), e);
+						}
+
+						completed[index] = true;
+					}
+				}
+				finally {
+					completion.countDown();
+				}
+			}
+		};
+
+		for (int i = 0; i < workers; i++) {
+
+			try {
+				taskExecutor.execute(worker);
+			}
+			catch (TaskRejectedException e) {
+				worker.run();
+			}
+		}
+
+		awaitUninterruptibly(completion);
+
+		List<String> succeeded = new ArrayList<String>(paths.size());
+		Map<String, RuntimeException> failures = new LinkedHashMap<String, RuntimeException>();
+
+		for (int i = 0; i < errors.length; i++) {
+
+			if (!completed[i]) {
+				failures.put(paths.get(i), new VaultException(String.format(
+						"%s was not processed", paths.get(i))));
+			}
+			else if (errors[i] == null) {
+				succeeded.add(paths.get(i));
+			}
+			else {
+				failures.put(paths.get(i), errors[i]);
+			}
+		}
+
+		return new VaultBulkResult(succeeded, failures);
+	}
+
+	private RuntimeException doWithRetry(String path, PathCallback callback) {
+
+		for (int attempt = 1;; attempt++) {
+
+			try {
+				callback.doWithPath(path);
+				return null;
+			}
+			catch (RuntimeException e) {
+
+				if (attempt >= maxAttempts || !isRetryable(e) || !backoff(attempt)) {
+					return e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determine whether a failed request is retryable: I/O errors, server errors
+	 * ({@literal 5xx}) and throttled requests ({@literal 429}).
+	 */
+	static boolean isRetryable(RuntimeException e) {
+
+		if (e instanceof HttpStatusCodeException) {
+			return isRetryable(((HttpStatusCodeException) e).getRawStatusCode());
+		}
+
+		if (e instanceof VaultHttpException) {
+			return isRetryable(((VaultHttpException) e).getStatusCode());
+		}
+
+		if (e instanceof ResourceAccessException) {
+			return true;
+		}
+
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+
+			if (cause instanceof IOException) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean isRetryable(int statusCode) {
+		return statusCode >= 500 || statusCode == 429;
+	}
+
+	private boolean backoff(int attempt) {
+
+		long delay = retryBackoffMillis * (1L << Math.min(attempt - 1, 16));
+
+		if (delay == 0) {
+			return true;
+		}
+
+		try {
+			Thread.sleep(delay);
+			return true;
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+
+		boolean interrupted = false;
+
+		while (true) {
+			try {
+				latch.await();
+				break;
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private interface PathCallback {
+
+		void doWithPath(String path);
+	}
+}
@@ -80,6 +80,12 @@ public interface VaultOperations {
 	 */
 	VaultPkiOperations opsForPki(String path);
 
+	/**
+	 * @return the operations interface to write and delete multiple paths at once.
+	 * @since 1.1
+	 */
+	VaultBulkOperations opsForBulk();
+
 	/**
 	 * Read from a secret backend. Reading data using this method is suitable for secret
 	 * backends that do not require a request body.
@@ -107,6 +113,30 @@ public interface VaultOperations {
 	 */
 	List<String> list(String path);
 
+	/**
+	 * Enumerate keys from a secret backend and pass each key to {@link KeyCallback} while
+	 * the response is parsed. Keys are not collected, which allows processing large
+	 * listings without materializing the whole listing in memory. Keys ending with
+	 * {@literal /} denote nested paths. Absent paths do not invoke the callback.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @param callback must not be {@literal null}.
+	 * @since 1.1
+	 */
+	void list(String path, KeyCallback callback);
+
+	/**
+	 * Recursively enumerate keys from a secret backend starting at {@code path}. Nested
+	 * paths are traversed depth-first and each leaf key is passed to {@link KeyCallback}
+	 * as full path (e.g. {@code secret/app/database}). Only nested paths of the listings
+	 * along the current traversal path are retained during the walk.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @param callback must not be {@literal null}.
+	 * @since 1.1
+	 */
+	void walk(String path, KeyCallback callback);
+
 	/**
 	 * Write to a secret backend.
 	 *
@@ -16,20 +16,28 @@
 package org.springframework.vault.core;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.util.Assert;
@@ -45,6 +53,7 @@ import org.springframework.vault.client.VaultResponses;
 import org.springframework.vault.support.VaultResponse;
 import org.springframework.vault.support.VaultResponseSupport;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
 
@@ -65,6 +74,12 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 
 	private final boolean dedicatedSessionManager;
 
+	private final SingleFlight readCoalescer = new SingleFlight();
+
+	private boolean coalesceReads;
+
+	private volatile VaultBulkOperations bulkOperations;
+
 	/**
 	 * Create a new {@link VaultTemplate} without setting {@link RestOperations} and
 	 * {@link SessionManager}.
@@ -144,23 +159,8 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 	private RestTemplate createSessionTemplate(VaultEndpointProvider endpointProvider,
 			ClientHttpRequestFactory requestFactory) {
 
-		RestTemplate restTemplate = VaultClients.createRestTemplate(endpointProvider,
-				requestFactory);
-
-		restTemplate.getInterceptors().add(new ClientHttpRequestInterceptor() {
-
-			@Override
-			public ClientHttpResponse intercept(HttpRequest request, byte[] body,
-					ClientHttpRequestExecution execution) throws IOException {
-
-				request.getHeaders().add(VaultHttpHeaders.VAULT_TOKEN,
-						sessionManager.getSessionToken().getToken());
-
-				return execution.execute(request, body);
-			}
-		});
-
-		return restTemplate;
+		return VaultClients.createRestTemplate(endpointProvider,
+				new SessionTokenRequestFactory(requestFactory));
 	}
 
 	/**
@@ -175,6 +175,23 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 		this.sessionManager = sessionManager;
 	}
 
+	/**
+	 * Configure whether concurrent reads of the same path and response type are
+	 * coalesced into a single Vault request. Coalesced callers wait for the in-flight
+	 * request and receive their own copy of its result (or share its exception). Typed
+	 * reads are coalesced only if the data type is a {@link Map}. Disabled by default.
+	 * <p>
+	 * Do not enable coalescing for applications reading lease-issuing paths (e.g.
+	 * {@code database/creds/…}, {@code aws/creds/…}) concurrently: coalesced callers
+	 * receive the same credentials and lease instead of one lease each.
+	 *
+	 * @param coalesceReads {@literal true} to coalesce concurrent reads.
+	 * @since 1.1
+	 */
+	public void setCoalesceReads(boolean coalesceReads) {
+		this.coalesceReads = coalesceReads;
+	}
+
 	@Override
 	public void afterPropertiesSet() {
 
@@ -219,6 +236,20 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 		return new VaultPkiTemplate(this, path);
 	}
 
+	@Override
+	public VaultBulkOperations opsForBulk() {
+
+		VaultBulkOperations bulkOperations = this.bulkOperations;
+
+		// racing callers may create an extra instance which is harmless
+		if (bulkOperations == null) {
+			bulkOperations = new VaultBulkTemplate(this);
+			this.bulkOperations = bulkOperations;
+		}
+
+		return bulkOperations;
+	}
+
 	@Override
 	public VaultResponse read(String path) {
 
@@ -227,27 +258,24 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 		return doRead(path, VaultResponse.class);
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public <T> VaultResponseSupport<T> read(final String path, final Class<T> responseType) {
 
-		final ParameterizedTypeReference<VaultResponseSupport<T>> ref = VaultResponses
-				.getTypeReference(responseType);
-
-		try {
-			ResponseEntity<VaultResponseSupport<T>> exchange = sessionTemplate.exchange(
-					path, HttpMethod.GET, null, ref);
+		Assert.hasText(path, "Path must not be empty");
+		Assert.notNull(responseType, "Response type must not be null");
 
-			return exchange.getBody();
+		if (!Map.class.isAssignableFrom(responseType)) {
+			return doReadTyped(path, responseType);
 		}
-		catch (HttpStatusCodeException e) {
 
-			if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-				return null;
-			}
+		return coalesce(new ReadKey(path, responseType, true),
+				new SingleFlight.Task<VaultResponseSupport<T>>() {
 
-			throw VaultResponses.buildException(e, path);
-		}
+					@Override
+					public VaultResponseSupport<T> execute() {
+						return doReadTyped(path, responseType);
+					}
+				});
 	}
 
 	@Override
@@ -255,14 +283,70 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 
 		Assert.hasText(path, "Path must not be empty");
 
-		VaultListResponse read = doRead(
-				String.format("%s?list=true", path.endsWith("/") ? path : (path + "/")),
-				VaultListResponse.class);
-		if (read == null) {
-			return Collections.emptyList();
-		}
+		final String listPath = getListPath(path);
+
+		return coalesce(new ReadKey(listPath, List.class, false),
+				new SingleFlight.Task<List<String>>() {
+
+					@Override
+					public List<String> execute() {
+
+						final List<String> keys = new ArrayList<String>();
+
+						doList(listPath, new KeyCallback() {
 
-		return (List) read.getData().get("keys");
+							@Override
+							public void doWithKey(String key) {
+								keys.add(key);
+							}
+						});
+
+						return keys;
+					}
+				});
+	}
+
+	@Override
+	public void list(String path, KeyCallback callback) {
+
+		Assert.hasText(path, "Path must not be empty");
+		Assert.notNull(callback, "KeyCallback must not be null");
+
+		doList(getListPath(path), callback);
+	}
+
+	@Override
+	public void walk(String path, final KeyCallback callback) {
+
+		Assert.hasText(path, "Path must not be empty");
+		Assert.notNull(callback, "KeyCallback must not be null");
+
+		Deque<String> pending = new ArrayDeque<String>();
+		pending.push(path.endsWith("/") ? path : (path + "/"));
+
+		while (!pending.isEmpty()) {
+
+			final String current = pending.pop();
+			final List<String> nested = new ArrayList<String>();
+
+			doList(getListPath(current), new KeyCallback() {
+
+				@Override
+				public void doWithKey(String key) {
+
+					if (key.endsWith("/")) {
+						nested.add(current + key);
+					}
+					else {
+						callback.doWithKey(current + key);
+					}
+				}
+			});
+
+			for (int i = nested.size() - 1; i >= 0; i--) {
+				pending.push(nested.get(i));
+			}
+		}
 	}
 
 	@Override
@@ -324,27 +408,295 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 
 	private <T> T doRead(final String path, final Class<T> responseType) {
 
-		return doWithSession(new RestOperationsCallback<T>() {
+		return coalesce(new ReadKey(path, responseType, false),
+				new SingleFlight.Task<T>() {
+
+					@Override
+					public T execute() {
+						return doWithSession(new RestOperationsCallback<T>() {
+
+							@Override
+							public T doWithRestOperations(RestOperations restOperations) {
+
+								try {
+									return restOperations.getForObject(path, responseType);
+								}
+								catch (HttpStatusCodeException e) {
+
+									if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+										return null;
+									}
+
+									throw VaultResponses.buildException(e, path);
+								}
+							}
+						});
+					}
+				});
+	}
+
+	private void doList(String listPath, KeyCallback callback) {
+
+		try {
+			sessionTemplate.execute(listPath, HttpMethod.GET, null,
+					new KeysResponseExtractor(callback));
+		}
+		catch (HttpStatusCodeException e) {
+
+			if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+				return;
+			}
+
+			throw VaultResponses.buildException(e, listPath);
+		}
+	}
+
+	private static String getListPath(String path) {
+		return String.format("%s?list=true", path.endsWith("/") ? path : (path + "/"));
+	}
+
+	private <T> VaultResponseSupport<T> doReadTyped(String path, Class<T> responseType) {
+
+		ParameterizedTypeReference<VaultResponseSupport<T>> ref = VaultResponses
+				.getTypeReference(responseType);
+
+		try {
+			ResponseEntity<VaultResponseSupport<T>> exchange = sessionTemplate.exchange(
+					path, HttpMethod.GET, null, ref);
+
+			return exchange.getBody();
+		}
+		catch (HttpStatusCodeException e) {
+
+			if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+				return null;
+			}
+
+			throw VaultResponses.buildException(e, path);
+		}
+	}
+
+	private <T> T coalesce(ReadKey key, SingleFlight.Task<T> task) {
+
+		if (!coalesceReads) {
+			return task.execute();
+		}
+
+		// the shared result is never handed out so callers cannot see each other's changes
+		return copy(readCoalescer.execute(key, task));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T copy(T result) {
+
+		if (result instanceof VaultResponseSupport) {
+			return (T) copyResponse((VaultResponseSupport<Object>) result);
+		}
+
+		return (T) copyValue(result);
+	}
+
+	private static VaultResponseSupport<Object> copyResponse(
+			VaultResponseSupport<Object> response) {
+
+		@SuppressWarnings("unchecked")
+		VaultResponseSupport<Object> copy = BeanUtils.instantiateClass(response
+				.getClass());
+
+		copy.setAuth(copyMap(response.getAuth()));
+		copy.setData(copyValue(response.getData()));
+		copy.setMetadata(copyMap(response.getMetadata()));
+		copy.setWrapInfo(copyMap(response.getWrapInfo()));
+		copy.setLeaseDuration(response.getLeaseDuration());
+		copy.setLeaseId(response.getLeaseId());
+		copy.setRequestId(response.getRequestId());
+		copy.setRenewable(response.isRenewable());
+		copy.setWarnings(response.getWarnings() != null ? new ArrayList<String>(
+				response.getWarnings()) : null);
+
+		return copy;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> Map<K, V> copyMap(Map<K, V> map) {
+		return (Map<K, V>) copyValue(map);
+	}
+
+	/**
+	 * Deep-copy {@link Map}s and {@link List}s as materialized from JSON. Other values
+	 * are immutable and returned as-is.
+	 */
+	private static Object copyValue(Object value) {
+
+		if (value instanceof Map) {
+
+			Map<?, ?> source = (Map<?, ?>) value;
+			Map<Object, Object> copy = new LinkedHashMap<Object, Object>(source.size());
+
+			for (Entry<?, ?> entry : source.entrySet()) {
+				copy.put(entry.getKey(), copyValue(entry.getValue()));
+			}
+
+			return copy;
+		}
+
+		if (value instanceof List) {
+
+			List<?> source = (List<?>) value;
+			List<Object> copy = new ArrayList<Object>(source.size());
+
+			for (Object element : source) {
+				copy.add(copyValue(element));
+			}
+
+			return copy;
+		}
+
+		return value;
+	}
+
+	/**
+	 * {@link ResponseExtractor} that reads {@code data.keys} from a list response using
+	 * Jackson's streaming parser and passes each key to {@link KeyCallback}. Other
+	 * response properties are skipped without being materialized.
+	 */
+	static class KeysResponseExtractor implements ResponseExtractor<Void> {
+
+		private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+		private final KeyCallback callback;
+
+		KeysResponseExtractor(KeyCallback callback) {
+			this.callback = callback;
+		}
 
-			@Override
-			public T doWithRestOperations(RestOperations restOperations) {
+		@Override
+		public Void extractData(ClientHttpResponse response) throws IOException {
 
-				try {
-					return restOperations.getForObject(path, responseType);
+			JsonParser parser = JSON_FACTORY.createParser(response.getBody());
+
+			try {
+				if (parser.nextToken() != JsonToken.START_OBJECT) {
+					return null;
 				}
-				catch (HttpStatusCodeException e) {
 
-					if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-						return null;
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+					String name = parser.getCurrentName();
+
+					if (parser.nextToken() == JsonToken.START_OBJECT
+							&& "data".equals(name)) {
+						readData(parser);
+					}
+					else {
+						parser.skipChildren();
 					}
+				}
+			}
+			finally {
+				parser.close();
+			}
 
-					throw VaultResponses.buildException(e, path);
+			return null;
+		}
+
+		private void readData(JsonParser parser) throws IOException {
+
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+				String name = parser.getCurrentName();
+
+				if (parser.nextToken() == JsonToken.START_ARRAY && "keys".equals(name)) {
+					readKeys(parser);
+				}
+				else {
+					parser.skipChildren();
 				}
 			}
-		});
+		}
+
+		private void readKeys(JsonParser parser) throws IOException {
+
+			JsonToken token;
+			while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+
+				if (token == JsonToken.VALUE_STRING) {
+					callback.doWithKey(parser.getText());
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
 	}
 
-	private static class VaultListResponse extends
-			VaultResponseSupport<Map<String, Object>> {
+	/**
+	 * Key for coalesced reads composed of the path, the response type and whether the
+	 * response type is used as {@link VaultResponseSupport} data type.
+	 */
+	private static class ReadKey {
+
+		private final String path;
+
+		private final Class<?> responseType;
+
+		private final boolean typed;
+
+		ReadKey(String path, Class<?> responseType, boolean typed) {
+			this.path = path;
+			this.responseType = responseType;
+			this.typed = typed;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof ReadKey)) {
+				return false;
+			}
+
+			ReadKey that = (ReadKey) o;
+			return typed == that.typed && path.equals(that.path)
+					&& responseType.equals(that.responseType);
+		}
+
+		@Override
+		public int hashCode() {
+
+			int result = path.hashCode();
+			result = 31 * result + responseType.hashCode();
+			result = 31 * result + (typed ? 1 : 0);
+			return result;
+		}
+	}
+
+	/**
+	 * {@link ClientHttpRequestFactory} decorator that sets the Vault session token on
+	 * each request it creates. Setting the header when creating the request (instead of
+	 * using a {@link org.springframework.http.client.ClientHttpRequestInterceptor}) keeps
+	 * {@link RestTemplate} from buffering request bodies in an intermediate byte array.
+	 */
+	private class SessionTokenRequestFactory implements ClientHttpRequestFactory {
+
+		private final ClientHttpRequestFactory delegate;
+
+		SessionTokenRequestFactory(ClientHttpRequestFactory delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod)
+				throws IOException {
+
+			ClientHttpRequest request = delegate.createRequest(uri, httpMethod);
+			request.getHeaders().set(VaultHttpHeaders.VAULT_TOKEN,
+					sessionManager.getSessionToken().getToken());
+
+			return request;
+		}
 	}
 }
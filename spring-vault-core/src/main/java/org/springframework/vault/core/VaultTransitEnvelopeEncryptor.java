@@ -0,0 +1,434 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.util.Assert;
+import org.springframework.util.Base64Utils;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultTransitContext;
+
+/**
+ * Envelope encryption using data keys issued by Vault's transit backend. Data is
+ * encrypted locally with {@literal AES-GCM} using a data key obtained from the
+ * {@code datakey} endpoint. The Vault-wrapped data key is stored alongside the cipher
+ * text so the data key can be recovered by Vault upon decryption.
+ * <p>
+ * The plain text data key is kept in memory and used for encryption until it reaches
+ * {@link #setMaxKeyAgeSeconds(long) maxKeyAgeSeconds} or
+ * {@link #setMaxKeyUses(long) maxKeyUses}, whichever comes first. Unwrapped data keys
+ * used for decryption are cached for the same period, bounded to
+ * {@link #setMaxCachedKeys(int) maxCachedKeys} entries. Vault is therefore only called
+ * when a data key is rotated or when decrypting data encrypted with an uncached data
+ * key.
+ * <p>
+ * The envelope format is: version ({@literal 1} byte), length of the wrapped key
+ * ({@literal 2} bytes), wrapped key ({@literal ASCII}), IV ({@literal 12} bytes) and the
+ * {@literal AES-GCM} cipher text including the {@literal 128} bit authentication tag.
+ * <p>
+ * The transit key must not use key derivation. Instances are thread-safe.
+ * <p>
+ * {@literal AES-GCM} requires Java 8 or later or a security provider supporting
+ * {@code AES/GCM/NoPadding} and {@literal GCM} algorithm parameters such as Bouncy
+ * Castle. Creating an encryptor fails if {@literal AES-GCM} is not available.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see <a href="https://www.vaultproject.io/api/secret/transit/index.html">Transit
+ * Secret Backend: Generate Data Key</a>
+ */
+public class VaultTransitEnvelopeEncryptor {
+
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+	private static final byte VERSION = 1;
+
+	private static final int IV_LENGTH = 12;
+
+	private static final int TAG_LENGTH = 16;
+
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+	private final VaultOperations vaultOperations;
+
+	private final VaultTransitOperations transitOperations;
+
+	private final String path;
+
+	private final String keyName;
+
+	private final SecureRandom secureRandom = new SecureRandom();
+
+	private final Object monitor = new Object();
+
+	private final Map<String, CachedKey> decryptionKeys = new LinkedHashMap<String, CachedKey>(
+			16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(Entry<String, CachedKey> eldest) {
+			return size() > maxCachedKeys;
+		}
+	};
+
+	private volatile DataKey dataKey;
+
+	private volatile long maxKeyAgeSeconds = 300;
+
+	private volatile long maxKeyUses = 1000000;
+
+	private volatile int maxCachedKeys = 100;
+
+	/**
+	 * Create a new {@link VaultTransitEnvelopeEncryptor} using the transit backend
+	 * mounted at {@code transit}.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 * @param keyName name of the transit key, must not be empty or {@literal null}.
+	 */
+	public VaultTransitEnvelopeEncryptor(VaultOperations vaultOperations, String keyName) {
+		this(vaultOperations, "transit", keyName);
+	}
+
+	/**
+	 * Create a new {@link VaultTransitEnvelopeEncryptor} using the transit backend
+	 * mounted at {@code path}.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 * @param path the transit mount path, must not be empty or {@literal null}.
+	 * @param keyName name of the transit key, must not be empty or {@literal null}.
+	 */
+	public VaultTransitEnvelopeEncryptor(VaultOperations vaultOperations, String path,
+			String keyName) {
+
+		Assert.notNull(vaultOperations, "VaultOperations must not be null");
+		Assert.hasText(path, "Path must not be empty");
+		Assert.hasText(keyName, "KeyName must not be empty");
+
+		assertGcmSupported();
+
+		this.vaultOperations = vaultOperations;
+		this.transitOperations = vaultOperations.opsForTransit(path);
+		this.path = path;
+		this.keyName = keyName;
+	}
+
+	/**
+	 * Set the maximum age of a data key. Data keys are rotated and cached decryption
+	 * keys expire after the given period.
+	 *
+	 * @param maxKeyAgeSeconds maximum age in {@link TimeUnit#SECONDS}, must be greater
+	 * {@literal 0}.
+	 */
+	public void setMaxKeyAgeSeconds(long maxKeyAgeSeconds) {
+
+		Assert.isTrue(maxKeyAgeSeconds > 0, "Max key age must be greater 0");
+
+		this.maxKeyAgeSeconds = maxKeyAgeSeconds;
+	}
+
+	/**
+	 * Set the maximum number of encryptions using the same data key.
+	 *
+	 * @param maxKeyUses maximum number of encryptions, must be greater {@literal 0}.
+	 */
+	public void setMaxKeyUses(long maxKeyUses) {
+
+		Assert.isTrue(maxKeyUses > 0, "Max key uses must be greater 0");
+
+		this.maxKeyUses = maxKeyUses;
+	}
+
+	/**
+	 * Set the maximum number of unwrapped data keys cached for decryption.
+	 *
+	 * @param maxCachedKeys maximum number of cached keys, must not be negative.
+	 */
+	public void setMaxCachedKeys(int maxCachedKeys) {
+
+		Assert.isTrue(maxCachedKeys >= 0, "Max cached keys must not be negative");
+
+		this.maxCachedKeys = maxCachedKeys;
+	}
+
+	/**
+	 * Encrypt {@code plaintext} with the current data key.
+	 *
+	 * @param plaintext must not be {@literal null}.
+	 * @return the envelope containing the wrapped data key and the cipher text.
+	 */
+	public byte[] encrypt(byte[] plaintext) {
+
+		Assert.notNull(plaintext, "Plain text must not be null");
+
+		DataKey key = getDataKey();
+
+		byte[] iv = new byte[IV_LENGTH];
+		secureRandom.nextBytes(iv);
+
+		byte[] ciphertext;
+		try {
+			ciphertext = createCipher(Cipher.ENCRYPT_MODE, key.secretKey, iv).doFinal(
+					plaintext);
+		}
+		catch (GeneralSecurityException e) {
+			throw new VaultException("Cannot encrypt plain text", e);
+		}
+
+		ByteBuffer envelope = ByteBuffer.allocate(1 + 2 + key.wrappedKey.length
+				+ IV_LENGTH + ciphertext.length);
+
+		envelope.put(VERSION);
+		envelope.putShort((short) key.wrappedKey.length);
+		envelope.put(key.wrappedKey);
+		envelope.put(iv);
+		envelope.put(ciphertext);
+
+		return envelope.array();
+	}
+
+	/**
+	 * Decrypt an envelope created by {@link #encrypt(byte[])}.
+	 *
+	 * @param envelope must not be {@literal null}.
+	 * @return the plain text.
+	 */
+	public byte[] decrypt(byte[] envelope) {
+
+		Assert.notNull(envelope, "Envelope must not be null");
+
+		ByteBuffer buffer = ByteBuffer.wrap(envelope);
+
+		if (buffer.remaining() < 3 || buffer.get() != VERSION) {
+			throw new VaultException("Unsupported envelope format");
+		}
+
+		int wrappedKeyLength = buffer.getShort() & 0xFFFF;
+
+		if (buffer.remaining() < wrappedKeyLength + IV_LENGTH + TAG_LENGTH) {
+			throw new VaultException("Envelope is truncated");
+		}
+
+		byte[] wrappedKey = new byte[wrappedKeyLength];
+		byte[] iv = new byte[IV_LENGTH];
+		buffer.get(wrappedKey);
+		buffer.get(iv);
+
+		SecretKey secretKey = getDecryptionKey(new String(wrappedKey, US_ASCII));
+
+		try {
+			return createCipher(Cipher.DECRYPT_MODE, secretKey, iv).doFinal(envelope,
+					buffer.position(), buffer.remaining());
+		}
+		catch (GeneralSecurityException e) {
+			throw new VaultException("Cannot decrypt envelope", e);
+		}
+	}
+
+	/**
+	 * Discard the current data key and all cached decryption keys.
+	 */
+	public void clear() {
+
+		synchronized (monitor) {
+			this.dataKey = null;
+			this.decryptionKeys.clear();
+		}
+	}
+
+	/**
+	 * Returns the current time in {@link TimeUnit#MILLISECONDS}. Subclasses may override
+	 * this method to control time.
+	 *
+	 * @return the current time in milliseconds.
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	private DataKey getDataKey() {
+
+		DataKey key = this.dataKey;
+
+		if (key != null && key.tryUse(currentTimeMillis(), maxKeyUses)) {
+			return key;
+		}
+
+		synchronized (monitor) {
+
+			key = this.dataKey;
+
+			if (key != null && key.tryUse(currentTimeMillis(), maxKeyUses)) {
+				return key;
+			}
+
+			key = generateDataKey();
+			key.tryUse(currentTimeMillis(), maxKeyUses);
+
+			this.dataKey = key;
+			this.decryptionKeys.put(new String(key.wrappedKey, US_ASCII), new CachedKey(
+					key.secretKey, key.expiresAt));
+
+			return key;
+		}
+	}
+
+	private DataKey generateDataKey() {
+
+		VaultResponse response = vaultOperations.write(
+				String.format("%s/datakey/plaintext/%s", path, keyName),
+				Collections.emptyMap());
+
+		if (response == null || response.getData() == null) {
+			throw new VaultException(String.format(
+					"Cannot obtain data key for transit key %s", keyName));
+		}
+
+		String plaintext = (String) response.getData().get("plaintext");
+		String ciphertext = (String) response.getData().get("ciphertext");
+
+		return new DataKey(new SecretKeySpec(Base64Utils.decodeFromString(plaintext),
+				"AES"), ciphertext.getBytes(US_ASCII), currentTimeMillis()
+				+ TimeUnit.SECONDS.toMillis(maxKeyAgeSeconds));
+	}
+
+	private SecretKey getDecryptionKey(String wrappedKey) {
+
+		long now = currentTimeMillis();
+
+		synchronized (monitor) {
+
+			CachedKey cached = decryptionKeys.get(wrappedKey);
+
+			if (cached != null && cached.expiresAt > now) {
+				return cached.secretKey;
+			}
+		}
+
+		SecretKey secretKey = new SecretKeySpec(transitOperations.decrypt(keyName,
+				wrappedKey, VaultTransitContext.empty()), "AES");
+
+		synchronized (monitor) {
+			decryptionKeys.put(wrappedKey, new CachedKey(secretKey, now
+					+ TimeUnit.SECONDS.toMillis(maxKeyAgeSeconds)));
+		}
+
+		return secretKey;
+	}
+
+	private static void assertGcmSupported() {
+
+		try {
+			Cipher.getInstance(TRANSFORMATION);
+			AlgorithmParameters.getInstance("GCM");
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException(String.format(
+					"%s is not supported by the installed security providers. "
+							+ "Envelope encryption requires Java 8 or a security provider "
+							+ "supporting AES-GCM, such as Bouncy Castle", TRANSFORMATION), e);
+		}
+	}
+
+	private static Cipher createCipher(int mode, SecretKey key, byte[] iv)
+			throws GeneralSecurityException {
+
+		Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+		cipher.init(mode, key, createGcmParameters(iv));
+
+		return cipher;
+	}
+
+	/**
+	 * Create {@literal GCM} {@link AlgorithmParameters} from their ASN.1 encoding. This
+	 * avoids {@code GCMParameterSpec} which is not available on Java 6.
+	 */
+	private static AlgorithmParameters createGcmParameters(byte[] iv)
+			throws GeneralSecurityException {
+
+		// SEQUENCE { OCTET STRING iv, INTEGER tagLengthInBytes }
+		ByteBuffer encoded = ByteBuffer.allocate(2 + 2 + iv.length + 3);
+		encoded.put((byte) 0x30).put((byte) (2 + iv.length + 3));
+		encoded.put((byte) 0x04).put((byte) iv.length).put(iv);
+		encoded.put((byte) 0x02).put((byte) 0x01).put((byte) TAG_LENGTH);
+
+		AlgorithmParameters parameters = AlgorithmParameters.getInstance("GCM");
+
+		try {
+			parameters.init(encoded.array());
+		}
+		catch (IOException e) {
+			throw new GeneralSecurityException("Cannot create GCM parameters", e);
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * Data key used for encryption along with its usage bounds.
+	 */
+	static class DataKey {
+
+		final SecretKey secretKey;
+
+		final byte[] wrappedKey;
+
+		final long expiresAt;
+
+		final AtomicLong uses = new AtomicLong();
+
+		DataKey(SecretKey secretKey, byte[] wrappedKey, long expiresAt) {
+			this.secretKey = secretKey;
+			this.wrappedKey = wrappedKey;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean tryUse(long now, long maxUses) {
+			return expiresAt > now && uses.incrementAndGet() <= maxUses;
+		}
+	}
+
+	/**
+	 * Unwrapped data key cached for decryption.
+	 */
+	static class CachedKey {
+
+		final SecretKey secretKey;
+
+		final long expiresAt;
+
+		CachedKey(SecretKey secretKey, long expiresAt) {
+			this.secretKey = secretKey;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -17,7 +17,11 @@ package org.springframework.vault.core;
 
 import java.util.List;
 
+import org.springframework.vault.support.Ciphertext;
+import org.springframework.vault.support.Plaintext;
 import org.springframework.vault.support.TransitKeyType;
+import org.springframework.vault.support.VaultDecryptionResult;
+import org.springframework.vault.support.VaultEncryptionResult;
 import org.springframework.vault.support.VaultTransitContext;
 import org.springframework.vault.support.VaultTransitKey;
 import org.springframework.vault.support.VaultTransitKeyConfiguration;
@@ -165,4 +169,44 @@ public interface VaultTransitOperations {
 	 * @see #rotate(String)
 	 */
 	String rewrap(String keyName, String ciphertext, VaultTransitContext transitRequest);
+
+	/**
+	 * Encrypts the provided batch of plaintexts using the named key. Each
+	 * {@link Plaintext} may carry its own {@link VaultTransitContext}. Large batches are
+	 * split into multiple requests according to the configured batch size.
+	 *
+	 * @param keyName must not be empty or {@literal null}.
+	 * @param batchRequest must not be {@literal null}.
+	 * @return the encryption results in the order of {@code batchRequest}. Failed items
+	 * are reported as unsuccessful {@link VaultEncryptionResult}.
+	 * @since 1.1
+	 */
+	List<VaultEncryptionResult> encrypt(String keyName, List<Plaintext> batchRequest);
+
+	/**
+	 * Decrypts the provided batch of ciphertexts using the named key. Each
+	 * {@link Ciphertext} may carry its own {@link VaultTransitContext}. Large batches are
+	 * split into multiple requests according to the configured batch size.
+	 *
+	 * @param keyName must not be empty or {@literal null}.
+	 * @param batchRequest must not be {@literal null}.
+	 * @return the decryption results in the order of {@code batchRequest}. Failed items
+	 * are reported as unsuccessful {@link VaultDecryptionResult}.
+	 * @since 1.1
+	 */
+	List<VaultDecryptionResult> decrypt(String keyName, List<Ciphertext> batchRequest);
+
+	/**
+	 * Rewrap the provided batch of ciphertexts using the latest version of the named
+	 * key. Large batches are split into multiple requests according to the configured
+	 * batch size.
+	 *
+	 * @param keyName must not be empty or {@literal null}.
+	 * @param batchRequest must not be {@literal null}.
+	 * @return the rewrap results in the order of {@code batchRequest}. Failed items are
+	 * reported as unsuccessful {@link VaultEncryptionResult}.
+	 * @since 1.1
+	 * @see #rotate(String)
+	 */
+	List<VaultEncryptionResult> rewrap(String keyName, List<Ciphertext> batchRequest);
 }
@@ -15,17 +15,30 @@
  */
 package org.springframework.vault.core;
 
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.util.Assert;
-import org.springframework.util.Base64Utils;
+import org.springframework.util.StringUtils;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.client.VaultResponses;
+import org.springframework.vault.support.Ciphertext;
+import org.springframework.vault.support.Plaintext;
 import org.springframework.vault.support.TransitKeyType;
+import org.springframework.vault.support.VaultDecryptionResult;
+import org.springframework.vault.support.VaultEncryptionResult;
 import org.springframework.vault.support.VaultResponse;
 import org.springframework.vault.support.VaultResponseSupport;
 import org.springframework.vault.support.VaultTransitContext;
@@ -33,6 +46,8 @@ import org.springframework.vault.support.VaultTransitKey;
 import org.springframework.vault.support.VaultTransitKeyConfiguration;
 import org.springframework.vault.support.VaultTransitKeyCreationRequest;
 import org.springframework.vault.support.RawTransitKey;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestOperations;
 
 /**
  * Default implementation of {@link VaultTransitOperations}.
@@ -42,10 +57,20 @@ import org.springframework.vault.support.RawTransitKey;
  */
 public class VaultTransitTemplate implements VaultTransitOperations {
 
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final ParameterizedTypeReference<VaultResponseSupport<TransitResponse>> RESPONSE_TYPE = VaultResponses
+			.getTypeReference(TransitResponse.class);
+
+	private static final ParameterizedTypeReference<VaultResponseSupport<BatchResponse>> BATCH_RESPONSE_TYPE = VaultResponses
+			.getTypeReference(BatchResponse.class);
+
 	private final VaultOperations vaultOperations;
 
 	private final String path;
 
+	private int maxBatchSize = 100;
+
 	public VaultTransitTemplate(VaultOperations vaultOperations, String path) {
 
 		Assert.notNull(vaultOperations, "VaultOperations must not be null");
@@ -55,6 +80,21 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 		this.path = path;
 	}
 
+	/**
+	 * Set the maximum number of items sent with a single batch request. Batch operations
+	 * exceeding the maximum batch size are split into multiple requests.
+	 *
+	 * @param maxBatchSize maximum number of items per request, must be greater
+	 * {@literal 0}.
+	 * @since 1.1
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+
+		Assert.isTrue(maxBatchSize > 0, "Max batch size must be greater 0");
+
+		this.maxBatchSize = maxBatchSize;
+	}
+
 	@Override
 	public void createKey(String keyName) {
 
@@ -144,13 +184,10 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 		Assert.hasText(keyName, "KeyName must not be empty");
 		Assert.notNull(plaintext, "Plain text must not be null");
 
-		Map<String, String> request = new LinkedHashMap<String, String>();
-
-		request.put("plaintext", Base64Utils.encodeToString(plaintext.getBytes()));
+		TransitRequest request = new TransitRequest();
+		request.setPlaintext(plaintext.getBytes(UTF8));
 
-		return (String) vaultOperations
-				.write(String.format("%s/encrypt/%s", path, keyName), request).getData()
-				.get("ciphertext");
+		return post("encrypt", keyName, request).getCiphertext();
 	}
 
 	@Override
@@ -160,103 +197,235 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 		Assert.hasText(keyName, "KeyName must not be empty");
 		Assert.notNull(plaintext, "Plain text must not be null");
 
-		Map<String, String> request = new LinkedHashMap<String, String>();
-
-		request.put("plaintext", Base64Utils.encodeToString(plaintext));
-
-		if (transitRequest != null) {
-			applyTransitOptions(transitRequest, request);
-		}
+		TransitRequest request = new TransitRequest();
+		request.setPlaintext(plaintext);
+		request.apply(transitRequest);
 
-		return (String) vaultOperations
-				.write(String.format("%s/encrypt/%s", path, keyName), request).getData()
-				.get("ciphertext");
+		return post("encrypt", keyName, request).getCiphertext();
 	}
 
 	@Override
 	public String decrypt(String keyName, String ciphertext) {
 
 		Assert.hasText(keyName, "KeyName must not be empty");
-		Assert.hasText(keyName, "Cipher text must not be empty");
+		Assert.hasText(ciphertext, "Cipher text must not be empty");
+
+		TransitRequest request = new TransitRequest();
+		request.setCiphertext(ciphertext);
+
+		return new String(post("decrypt", keyName, request).getPlaintext(), UTF8);
+	}
 
-		Map<String, String> request = new LinkedHashMap<String, String>();
+	@Override
+	public byte[] decrypt(String keyName, String ciphertext,
+			VaultTransitContext transitRequest) {
 
-		request.put("ciphertext", ciphertext);
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.hasText(ciphertext, "Cipher text must not be empty");
 
-		String plaintext = (String) vaultOperations
-				.write(String.format("%s/decrypt/%s", path, keyName), request).getData()
-				.get("plaintext");
+		TransitRequest request = new TransitRequest();
+		request.setCiphertext(ciphertext);
+		request.apply(transitRequest);
 
-		return new String(Base64Utils.decodeFromString(plaintext));
+		return post("decrypt", keyName, request).getPlaintext();
 	}
 
 	@Override
-	public byte[] decrypt(String keyName, String ciphertext,
+	public String rewrap(String keyName, String ciphertext) {
+		return rewrap(keyName, ciphertext, null);
+	}
+
+	@Override
+	public String rewrap(String keyName, String ciphertext,
 			VaultTransitContext transitRequest) {
 
 		Assert.hasText(keyName, "KeyName must not be empty");
-		Assert.hasText(keyName, "Cipher text must not be empty");
+		Assert.hasText(ciphertext, "Cipher text must not be empty");
 
-		Map<String, String> request = new LinkedHashMap<String, String>();
+		TransitRequest request = new TransitRequest();
+		request.setCiphertext(ciphertext);
+		request.apply(transitRequest);
 
-		request.put("ciphertext", ciphertext);
+		return post("rewrap", keyName, request).getCiphertext();
+	}
 
-		if (transitRequest != null) {
-			applyTransitOptions(transitRequest, request);
-		}
+	@Override
+	public List<VaultEncryptionResult> encrypt(String keyName, List<Plaintext> batchRequest) {
+
+		Assert.hasText(keyName, "KeyName must not be empty");
+		Assert.notNull(batchRequest, "BatchRequest must not be null");
+
+		List<VaultEncryptionResult> results = new ArrayList<VaultEncryptionResult>(
+				batchRequest.size());
+
+		for (int offset = 0; offset < batchRequest.size(); offset += maxBatchSize) {
+
+			List<Plaintext> chunk = batchRequest.subList(offset,
+					Math.min(batchRequest.size(), offset + maxBatchSize));
+			List<TransitRequest> batchInput = new ArrayList<TransitRequest>(
+					chunk.size());
 
-		String plaintext = (String) vaultOperations
-				.write(String.format("%s/decrypt/%s", path, keyName), request).getData()
-				.get("plaintext");
+			for (Plaintext plaintext : chunk) {
 
-		return Base64Utils.decodeFromString(plaintext);
+				TransitRequest item = new TransitRequest();
+				item.setPlaintext(plaintext.getPlaintext());
+				item.apply(plaintext.getContext());
+
+				batchInput.add(item);
+			}
+
+			List<TransitResponse> batchResults = writeBatch("encrypt", keyName,
+					batchInput);
+
+			for (int i = 0; i < chunk.size(); i++) {
+				results.add(toEncryptionResult(batchResults.get(i), chunk.get(i)
+						.getContext()));
+			}
+		}
+
+		return results;
 	}
 
 	@Override
-	public String rewrap(String keyName, String ciphertext) {
+	public List<VaultDecryptionResult> decrypt(String keyName,
+			List<Ciphertext> batchRequest) {
 
 		Assert.hasText(keyName, "KeyName must not be empty");
-		Assert.hasText(ciphertext, "Cipher text must not be empty");
+		Assert.notNull(batchRequest, "BatchRequest must not be null");
+
+		List<VaultDecryptionResult> results = new ArrayList<VaultDecryptionResult>(
+				batchRequest.size());
+
+		for (int offset = 0; offset < batchRequest.size(); offset += maxBatchSize) {
+
+			List<Ciphertext> chunk = batchRequest.subList(offset,
+					Math.min(batchRequest.size(), offset + maxBatchSize));
+			List<TransitResponse> batchResults = writeBatch("decrypt", keyName,
+					toBatchInput(chunk));
 
-		Map<String, String> request = new LinkedHashMap<String, String>();
-		request.put("ciphertext", ciphertext);
+			for (int i = 0; i < chunk.size(); i++) {
 
-		return (String) vaultOperations
-				.write(String.format("%s/rewrap/%s", path, keyName), request).getData()
-				.get("ciphertext");
+				TransitResponse batchResult = batchResults.get(i);
+
+				if (StringUtils.hasText(batchResult.getError())) {
+					results.add(new VaultDecryptionResult(new VaultException(batchResult
+							.getError())));
+				}
+				else {
+					results.add(new VaultDecryptionResult(Plaintext.of(
+							batchResult.getPlaintext()).with(chunk.get(i).getContext())));
+				}
+			}
+		}
+
+		return results;
 	}
 
 	@Override
-	public String rewrap(String keyName, String ciphertext,
-			VaultTransitContext transitRequest) {
+	public List<VaultEncryptionResult> rewrap(String keyName,
+			List<Ciphertext> batchRequest) {
 
 		Assert.hasText(keyName, "KeyName must not be empty");
-		Assert.hasText(ciphertext, "Cipher text must not be empty");
+		Assert.notNull(batchRequest, "BatchRequest must not be null");
+
+		List<VaultEncryptionResult> results = new ArrayList<VaultEncryptionResult>(
+				batchRequest.size());
+
+		for (int offset = 0; offset < batchRequest.size(); offset += maxBatchSize) {
+
+			List<Ciphertext> chunk = batchRequest.subList(offset,
+					Math.min(batchRequest.size(), offset + maxBatchSize));
+			List<TransitResponse> batchResults = writeBatch("rewrap", keyName,
+					toBatchInput(chunk));
+
+			for (int i = 0; i < chunk.size(); i++) {
+				results.add(toEncryptionResult(batchResults.get(i), chunk.get(i)
+						.getContext()));
+			}
+		}
+
+		return results;
+	}
 
-		Map<String, String> request = new LinkedHashMap<String, String>();
+	private List<TransitResponse> writeBatch(String operation, String keyName,
+			List<TransitRequest> batchInput) {
 
-		request.put("ciphertext", ciphertext);
+		BatchResponse response = post(
+				String.format("%s/%s/%s", path, operation, keyName),
+				Collections.singletonMap("batch_input", batchInput),
+				BATCH_RESPONSE_TYPE);
 
-		if (transitRequest != null) {
-			applyTransitOptions(transitRequest, request);
+		List<TransitResponse> batchResults = response.getBatchResults();
+
+		if (batchResults == null || batchResults.size() != batchInput.size()) {
+			throw new VaultException(String.format(
+					"Batch %s returned %d results for %d items", operation,
+					batchResults == null ? 0 : batchResults.size(), batchInput.size()));
 		}
 
-		return (String) vaultOperations
-				.write(String.format("%s/rewrap/%s", path, keyName), request).getData()
-				.get("ciphertext");
+		return batchResults;
+	}
+
+	private TransitResponse post(String operation, String keyName,
+			TransitRequest request) {
+		return post(String.format("%s/%s/%s", path, operation, keyName), request,
+				RESPONSE_TYPE);
 	}
 
-	private void applyTransitOptions(VaultTransitContext transitRequest,
-			Map<String, String> request) {
+	/**
+	 * Send {@code request} and bind the response data directly to {@code T} without
+	 * materializing an intermediate {@link VaultResponse}.
+	 */
+	private <T> T post(final String path, final Object request,
+			final ParameterizedTypeReference<VaultResponseSupport<T>> responseType) {
+
+		VaultResponseSupport<T> response = vaultOperations
+				.doWithSession(new RestOperationsCallback<VaultResponseSupport<T>>() {
+
+					@Override
+					public VaultResponseSupport<T> doWithRestOperations(
+							RestOperations restOperations) {
+
+						try {
+							return restOperations.exchange(path, HttpMethod.POST,
+									new HttpEntity<Object>(request), responseType)
+									.getBody();
+						}
+						catch (HttpStatusCodeException e) {
+							throw VaultResponses.buildException(e, path);
+						}
+					}
+				});
+
+		return response.getData();
+	}
+
+	private static List<TransitRequest> toBatchInput(List<Ciphertext> ciphertexts) {
+
+		List<TransitRequest> batchInput = new ArrayList<TransitRequest>(
+				ciphertexts.size());
 
-		if (transitRequest.getContext() != null) {
-			request.put("context",
-					Base64Utils.encodeToString(transitRequest.getContext()));
+		for (Ciphertext ciphertext : ciphertexts) {
+
+			TransitRequest item = new TransitRequest();
+			item.setCiphertext(ciphertext.getCiphertext());
+			item.apply(ciphertext.getContext());
+
+			batchInput.add(item);
 		}
 
-		if (transitRequest.getNonce() != null) {
-			request.put("nonce", Base64Utils.encodeToString(transitRequest.getNonce()));
+		return batchInput;
+	}
+
+	private static VaultEncryptionResult toEncryptionResult(TransitResponse batchResult,
+			VaultTransitContext context) {
+
+		if (StringUtils.hasText(batchResult.getError())) {
+			return new VaultEncryptionResult(new VaultException(batchResult.getError()));
 		}
+
+		return new VaultEncryptionResult(Ciphertext.of(batchResult.getCiphertext())
+				.with(context));
 	}
 
 	@Data
@@ -303,4 +472,52 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 
 		private String name;
 	}
+
+	/**
+	 * Request body for single and batch transit operations. Binary fields are Base64
+	 * encoded by Jackson while writing the request body.
+	 */
+	@Data
+	@JsonInclude(Include.NON_NULL)
+	static class TransitRequest {
+
+		private byte[] plaintext;
+
+		private String ciphertext;
+
+		private byte[] context;
+
+		private byte[] nonce;
+
+		void apply(VaultTransitContext transitContext) {
+
+			if (transitContext != null) {
+				this.context = transitContext.getContext();
+				this.nonce = transitContext.getNonce();
+			}
+		}
+	}
+
+	/**
+	 * Response data of single transit operations and items of batch operations. Binary
+	 * fields are Base64 decoded by Jackson while reading the response body.
+	 */
+	@Data
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class TransitResponse {
+
+		private String ciphertext;
+
+		private byte[] plaintext;
+
+		private String error;
+	}
+
+	@Data
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class BatchResponse {
+
+		@JsonProperty("batch_results")
+		private List<TransitResponse> batchResults;
+	}
 }
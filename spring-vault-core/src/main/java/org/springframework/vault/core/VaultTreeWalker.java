@@ -0,0 +1,503 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.PathMatcher;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Reads a whole subtree of a secret backend using {@link VaultOperations}. Paths are
+ * listed breadth-first and secrets are read concurrently by up to
+ * {@link #setParallelism(int) parallelism} workers per walk. Each secret is passed to
+ * {@link SecretCallback} on the thread that called {@link #walk(String, SecretCallback)}
+ * so callbacks do not need to be thread-safe. Results are handed over through a bounded
+ * queue: workers pause while the callback falls behind and the subtree is never held in
+ * memory as a whole.
+ * <p>
+ * Paths can be filtered using Ant-style {@link #setIncludePatterns(String...) include}
+ * and {@link #setExcludePatterns(String...) exclude} patterns (e.g.
+ * {@code secret/app/**}) that are matched against full secret paths. Nested paths
+ * matched by an exclude pattern ending with {@code /**} are not listed at all.
+ * <p>
+ * The walk fails with the first exception raised by either a Vault request or
+ * {@link SecretCallback} once in-flight requests have completed.
+ * <p>
+ * Instances are thread-safe once {@link #afterPropertiesSet() initialized}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultOperations#list(String, KeyCallback)
+ * @see VaultOperations#read(String)
+ */
+public class VaultTreeWalker implements InitializingBean, DisposableBean {
+
+	private static final AtomicInteger poolId = new AtomicInteger();
+
+	private static final Object DONE = new Object();
+
+	private final VaultOperations vaultOperations;
+
+	private final PathMatcher pathMatcher = new AntPathMatcher();
+
+	private volatile List<String> includePatterns = Collections.emptyList();
+
+	private volatile List<String> excludePatterns = Collections.emptyList();
+
+	private int parallelism = 8;
+
+	private TaskExecutor taskExecutor;
+
+	private boolean manageTaskExecutor;
+
+	/**
+	 * Create a new {@link VaultTreeWalker} given {@link VaultOperations}.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 */
+	public VaultTreeWalker(VaultOperations vaultOperations) {
+
+		Assert.notNull(vaultOperations, "VaultOperations must not be null");
+
+		this.vaultOperations = vaultOperations;
+	}
+
+	/**
+	 * Create a new {@link VaultTreeWalker} given {@link VaultOperations} and
+	 * {@link TaskExecutor}.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 * @param taskExecutor must not be {@literal null}.
+	 */
+	public VaultTreeWalker(VaultOperations vaultOperations, TaskExecutor taskExecutor) {
+
+		Assert.notNull(vaultOperations, "VaultOperations must not be null");
+		Assert.notNull(taskExecutor, "TaskExecutor must not be null");
+
+		this.vaultOperations = vaultOperations;
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the maximum number of concurrent Vault requests per walk. Defaults to
+	 * {@literal 8}. Must be configured before {@link #afterPropertiesSet()
+	 * initialization} to size the managed {@link TaskExecutor} accordingly.
+	 *
+	 * @param parallelism maximum number of concurrent requests, must be greater
+	 * {@literal 0}.
+	 */
+	public void setParallelism(int parallelism) {
+
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater 0");
+
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Set Ant-style patterns for secret paths to include. Secrets are included if they
+	 * match at least one pattern. All secrets are included if no patterns are configured.
+	 *
+	 * @param includePatterns must not be {@literal null}.
+	 * @see AntPathMatcher
+	 */
+	public void setIncludePatterns(String... includePatterns) {
+
+		Assert.notNull(includePatterns, "Include patterns must not be null");
+
+		this.includePatterns = Arrays.asList(includePatterns.clone());
+	}
+
+	/**
+	 * Set Ant-style patterns for secret paths to exclude. Exclusion takes precedence over
+	 * {@link #setIncludePatterns(String...) inclusion}.
+	 *
+	 * @param excludePatterns must not be {@literal null}.
+	 * @see AntPathMatcher
+	 */
+	public void setExcludePatterns(String... excludePatterns) {
+
+		Assert.notNull(excludePatterns, "Exclude patterns must not be null");
+
+		this.excludePatterns = Arrays.asList(excludePatterns.clone());
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		if (this.taskExecutor == null) {
+
+			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+			executor.setDaemon(true);
+			executor.setCorePoolSize(parallelism);
+			executor.setThreadNamePrefix(String.format("%s-%d-", getClass()
+					.getSimpleName(), poolId.incrementAndGet()));
+			executor.afterPropertiesSet();
+
+			this.taskExecutor = executor;
+			this.manageTaskExecutor = true;
+		}
+	}
+
+	/**
+	 * Shut down the managed {@link TaskExecutor}.
+	 */
+	@Override
+	public void destroy() throws Exception {
+
+		if (manageTaskExecutor && this.taskExecutor instanceof DisposableBean) {
+			((DisposableBean) this.taskExecutor).destroy();
+			this.taskExecutor = null;
+		}
+	}
+
+	/**
+	 * Read all secrets below {@code path} and pass each secret to {@link SecretCallback}.
+	 * Blocks until the subtree is read completely.
+	 *
+	 * @param path must not be {@literal null} or empty.
+	 * @param callback must not be {@literal null}.
+	 * @throws VaultException if a request fails.
+	 */
+	public void walk(String path, SecretCallback callback) {
+
+		Assert.hasText(path, "Path must not be empty");
+		Assert.notNull(callback, "SecretCallback must not be null");
+		Assert.state(taskExecutor != null,
+				"VaultTreeWalker is not initialized. Call afterPropertiesSet() first.");
+
+		int workers = this.parallelism;
+		Traversal traversal = new Traversal(workers);
+		traversal.add(path.endsWith("/") ? path : (path + "/"));
+
+		for (int i = 0; i < workers; i++) {
+
+			try {
+				taskExecutor.execute(traversal);
+			}
+			catch (TaskRejectedException e) {
+
+				traversal.fail(e);
+				for (int j = i; j < workers; j++) {
+					traversal.workerFinished();
+				}
+				break;
+			}
+		}
+
+		traversal.drain(callback);
+	}
+
+	boolean isIncluded(String path) {
+
+		for (String pattern : excludePatterns) {
+			if (pathMatcher.match(pattern, path)) {
+				return false;
+			}
+		}
+
+		if (includePatterns.isEmpty()) {
+			return true;
+		}
+
+		for (String pattern : includePatterns) {
+			if (pathMatcher.match(pattern, path)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	boolean isTraversable(String folder) {
+
+		String path = folder.substring(0, folder.length() - 1);
+
+		for (String pattern : excludePatterns) {
+			if (pattern.endsWith("/**") && pathMatcher.match(pattern, path)) {
+				return false;
+			}
+		}
+
+		if (includePatterns.isEmpty()) {
+			return true;
+		}
+
+		for (String pattern : includePatterns) {
+			if (pathMatcher.matchStart(pattern, path)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * State of a single walk. Work items ending with {@literal /} are listed, all other
+	 * work items are read. Workers take work items until no work is left and no other
+	 * worker is busy as busy workers may still discover further work.
+	 */
+	private class Traversal implements Runnable {
+
+		private final Object monitor = new Object();
+
+		private final Deque<String> work = new ArrayDeque<String>();
+
+		private final BlockingQueue<Object> results;
+
+		private int active;
+
+		private int workers;
+
+		private RuntimeException error;
+
+		Traversal(int workers) {
+
+			this.workers = workers;
+			this.results = new LinkedBlockingQueue<Object>(workers * 2);
+		}
+
+		@Override
+		public void run() {
+
+			try {
+
+				String item;
+				while ((item = take()) != null) {
+
+					try {
+						process(item);
+					}
+					catch (RuntimeException e) {
+						fail(e);
+					}
+					finally {
+						release();
+					}
+				}
+			}
+			finally {
+				workerFinished();
+			}
+		}
+
+		void add(String item) {
+
+			synchronized (monitor) {
+				work.addLast(item);
+				monitor.notify();
+			}
+		}
+
+		void fail(RuntimeException e) {
+
+			synchronized (monitor) {
+
+				if (error == null) {
+					error = e;
+				}
+
+				work.clear();
+				monitor.notifyAll();
+			}
+		}
+
+		void workerFinished() {
+
+			boolean last;
+			synchronized (monitor) {
+				last = --workers == 0;
+			}
+
+			if (!last) {
+				return;
+			}
+
+			boolean interrupted = false;
+
+			while (true) {
+				try {
+					results.put(DONE);
+					break;
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		void drain(SecretCallback callback) {
+
+			boolean interrupted = false;
+
+			while (true) {
+
+				Object next;
+				try {
+					next = results.take();
+				}
+				catch (InterruptedException e) {
+
+					interrupted = true;
+					fail(new VaultException("Interrupted while reading secrets"));
+					continue;
+				}
+
+				if (next == DONE) {
+					break;
+				}
+
+				if (!isFailed()) {
+
+					Secret secret = (Secret) next;
+					try {
+						callback.doWithSecret(secret.path, secret.response);
+					}
+					catch (RuntimeException e) {
+						fail(e);
+					}
+				}
+			}
+
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+
+			synchronized (monitor) {
+				if (error != null) {
+					throw error;
+				}
+			}
+		}
+
+		private String take() {
+
+			synchronized (monitor) {
+
+				while (true) {
+
+					if (error != null) {
+						return null;
+					}
+
+					String item = work.pollFirst();
+					if (item != null) {
+						active++;
+						return item;
+					}
+
+					if (active == 0) {
+						return null;
+					}
+
+					try {
+						monitor.wait();
+					}
+					catch (InterruptedException e) {
+
+						Thread.currentThread().interrupt();
+						fail(new VaultException("Interrupted while reading secrets"));
+						return null;
+					}
+				}
+			}
+		}
+
+		private void release() {
+
+			synchronized (monitor) {
+
+				if (--active == 0) {
+					monitor.notifyAll();
+				}
+			}
+		}
+
+		private boolean isFailed() {
+
+			synchronized (monitor) {
+				return error != null;
+			}
+		}
+
+		private void process(final String item) {
+
+			if (item.endsWith("/")) {
+
+				vaultOperations.list(item, new KeyCallback() {
+
+					@Override
+					public void doWithKey(String key) {
+
+						String path = item + key;
+
+						if (key.endsWith("/") ? isTraversable(path) : isIncluded(path)) {
+							add(path);
+						}
+					}
+				});
+
+				return;
+			}
+
+			VaultResponse response = vaultOperations.read(item);
+
+			if (response == null) {
+				return;
+			}
+
+			try {
+				results.put(new Secret(item, response));
+			}
+			catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+				fail(new VaultException("Interrupted while reading secrets"));
+			}
+		}
+	}
+
+	private static class Secret {
+
+		final String path;
+
+		final VaultResponse response;
+
+		Secret(String path, VaultResponse response) {
+			this.path = path;
+			this.response = response;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.util.Assert;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.core.VaultTransitOperations;
+import org.springframework.vault.core.lease.domain.Lease;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+
+/**
+ * {@link LeaseJournal} decorator encrypting secrets using Vault's transit backend
+ * before passing them to the delegate {@link LeaseJournal}. Lease identifiers and
+ * durations are not encrypted. Secrets can be only read from the journal by clients that
+ * are allowed to decrypt with the transit key.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultTransitOperations
+ */
+public class EncryptingLeaseJournal implements LeaseJournal {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final String CIPHERTEXT = "ciphertext";
+
+	private final LeaseJournal delegate;
+
+	private final VaultTransitOperations transitOperations;
+
+	private final String keyName;
+
+	/**
+	 * Create a new {@link EncryptingLeaseJournal}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @param transitOperations must not be {@literal null}.
+	 * @param keyName name of the transit key, must not be {@literal null} or empty.
+	 */
+	public EncryptingLeaseJournal(LeaseJournal delegate,
+			VaultTransitOperations transitOperations, String keyName) {
+
+		Assert.notNull(delegate, "Delegate LeaseJournal must not be null");
+		Assert.notNull(transitOperations, "VaultTransitOperations must not be null");
+		Assert.hasText(keyName, "Key name must not be null or empty");
+
+		this.delegate = delegate;
+		this.transitOperations = transitOperations;
+		this.keyName = keyName;
+	}
+
+	@Override
+	public void recordSecrets(RequestedSecret requestedSecret, Lease lease,
+			Map<String, Object> secrets) {
+
+		Assert.notNull(secrets, "Secrets must not be null");
+
+		try {
+
+			byte[] plaintext = OBJECT_MAPPER.writeValueAsBytes(secrets);
+			String ciphertext = transitOperations.encrypt(keyName, plaintext, null);
+
+			delegate.recordSecrets(requestedSecret, lease,
+					Collections.<String, Object> singletonMap(CIPHERTEXT, ciphertext));
+		}
+		catch (IOException e) {
+			throw new VaultException("Cannot serialize secrets", e);
+		}
+	}
+
+	@Override
+	public void recordRenewal(RequestedSecret requestedSecret, Lease lease) {
+		delegate.recordRenewal(requestedSecret, lease);
+	}
+
+	@Override
+	public void remove(RequestedSecret requestedSecret) {
+		delegate.remove(requestedSecret);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public LeaseJournalEntry get(RequestedSecret requestedSecret) {
+
+		LeaseJournalEntry entry = delegate.get(requestedSecret);
+
+		if (entry == null) {
+			return null;
+		}
+
+		Object ciphertext = entry.getSecrets().get(CIPHERTEXT);
+
+		if (!(ciphertext instanceof String)) {
+			return null;
+		}
+
+		try {
+
+			byte[] plaintext = transitOperations.decrypt(keyName, (String) ciphertext,
+					null);
+
+			return new LeaseJournalEntry(entry.getLease(), OBJECT_MAPPER.readValue(
+					plaintext, Map.class), entry.getTimestamp());
+		}
+		catch (IOException e) {
+			throw new VaultException("Cannot deserialize secrets", e);
+		}
+	}
+}
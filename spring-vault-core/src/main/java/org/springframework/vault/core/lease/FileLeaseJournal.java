@@ -0,0 +1,414 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.apachecommons.CommonsLog;
+
+import org.springframework.util.Assert;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.core.lease.domain.Lease;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+import org.springframework.vault.core.lease.domain.RequestedSecret.Mode;
+
+/**
+ * {@link LeaseJournal} backed by an append-only file. Each change is appended as JSON
+ * line and synced to disk before the method returns. The journal is read on first
+ * access; the most recent record of a requested secret wins. Incomplete records, e.g.
+ * from a crash during a write, are skipped. The file is compacted on first access and
+ * once it accumulated superseded records.
+ * <p>
+ * The journal file is readable and writable by its owner only. Secrets are stored as
+ * plain text, so the journal should be wrapped with {@link EncryptingLeaseJournal}:
+ *
+ * <pre class="code">
+ * LeaseJournal journal = new EncryptingLeaseJournal(new FileLeaseJournal(file),
+ * 		vaultOperations.opsForTransit(), "lease-journal");
+ * </pre>
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see EncryptingLeaseJournal
+ */
+@CommonsLog
+public class FileLeaseJournal implements LeaseJournal {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int COMPACTION_SLACK = 100;
+
+	private final File file;
+
+	private final Object lock = new Object();
+
+	// guarded by lock, initialized on first access
+	private Map<RequestedSecret, LeaseJournalEntry> entries;
+
+	// guarded by lock
+	private int records;
+
+	/**
+	 * Create a new {@link FileLeaseJournal} given {@link File}.
+	 *
+	 * @param file must not be {@literal null}.
+	 */
+	public FileLeaseJournal(File file) {
+
+		Assert.notNull(file, "File must not be null");
+
+		this.file = file;
+	}
+
+	@Override
+	public void recordSecrets(RequestedSecret requestedSecret, Lease lease,
+			Map<String, Object> secrets) {
+
+		Assert.notNull(requestedSecret, "RequestedSecret must not be null");
+		Assert.notNull(lease, "Lease must not be null");
+		Assert.notNull(secrets, "Secrets must not be null");
+
+		synchronized (lock) {
+
+			Map<RequestedSecret, LeaseJournalEntry> entries = getEntries();
+			long timestamp = currentTimeMillis();
+
+			Map<String, Object> record = createRecord("secrets", requestedSecret);
+			putLease(record, lease, timestamp);
+			record.put("secrets", secrets);
+
+			append(record);
+			entries.put(requestedSecret,
+					new LeaseJournalEntry(lease, secrets, timestamp));
+			compactIfNecessary();
+		}
+	}
+
+	@Override
+	public void recordRenewal(RequestedSecret requestedSecret, Lease lease) {
+
+		Assert.notNull(requestedSecret, "RequestedSecret must not be null");
+		Assert.notNull(lease, "Lease must not be null");
+
+		synchronized (lock) {
+
+			LeaseJournalEntry entry = getEntries().get(requestedSecret);
+
+			if (entry == null) {
+				return;
+			}
+
+			long timestamp = currentTimeMillis();
+
+			Map<String, Object> record = createRecord("renewal", requestedSecret);
+			putLease(record, lease, timestamp);
+
+			append(record);
+			entries.put(requestedSecret,
+					new LeaseJournalEntry(lease, entry.getSecrets(), timestamp));
+			compactIfNecessary();
+		}
+	}
+
+	@Override
+	public void remove(RequestedSecret requestedSecret) {
+
+		Assert.notNull(requestedSecret, "RequestedSecret must not be null");
+
+		synchronized (lock) {
+
+			if (getEntries().remove(requestedSecret) == null) {
+				return;
+			}
+
+			append(createRecord("remove", requestedSecret));
+			compactIfNecessary();
+		}
+	}
+
+	@Override
+	public LeaseJournalEntry get(RequestedSecret requestedSecret) {
+
+		Assert.notNull(requestedSecret, "RequestedSecret must not be null");
+
+		synchronized (lock) {
+			return getEntries().get(requestedSecret);
+		}
+	}
+
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	private Map<RequestedSecret, LeaseJournalEntry> getEntries() {
+
+		if (entries == null) {
+
+			entries = new LinkedHashMap<RequestedSecret, LeaseJournalEntry>();
+			records = 0;
+
+			if (file.exists()) {
+				read();
+			}
+
+			if (records > entries.size()) {
+				compact();
+			}
+		}
+
+		return entries;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void read() {
+
+		try {
+
+			BufferedReader reader = new BufferedReader(new InputStreamReader(
+					new FileInputStream(file), UTF8));
+
+			try {
+
+				String line;
+				while ((line = reader.readLine()) != null) {
+
+					if (line.trim().isEmpty()) {
+						continue;
+					}
+
+					records++;
+
+					try {
+						apply(OBJECT_MAPPER.readValue(line, Map.class));
+					}
+					catch (IOException e) {
+						log.warn(String.format(
+								"Skipping unreadable lease journal record in %s", file));
+					}
+					catch (RuntimeException e) {
+						log.warn(String.format(
+								"Skipping invalid lease journal record in %s", file));
+					}
+				}
+			}
+			finally {
+				reader.close();
+			}
+		}
+		catch (IOException e) {
+			throw new VaultException(String.format("Cannot read lease journal %s",
+					file), e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void apply(Map<String, Object> record) {
+
+		String type = (String) record.get("type");
+		RequestedSecret requestedSecret = RequestedSecret.from(
+				Mode.valueOf((String) record.get("mode")), (String) record.get("path"));
+
+		if ("secrets".equals(type)) {
+
+			entries.put(requestedSecret, new LeaseJournalEntry(getLease(record),
+					(Map<String, Object>) record.get("secrets"), getTimestamp(record)));
+			return;
+		}
+
+		if ("renewal".equals(type)) {
+
+			LeaseJournalEntry entry = entries.get(requestedSecret);
+
+			if (entry != null) {
+				entries.put(requestedSecret, new LeaseJournalEntry(getLease(record),
+						entry.getSecrets(), getTimestamp(record)));
+			}
+			return;
+		}
+
+		if ("remove".equals(type)) {
+			entries.remove(requestedSecret);
+		}
+	}
+
+	private void compactIfNecessary() {
+
+		if (records > (entries.size() * 2) + COMPACTION_SLACK) {
+			compact();
+		}
+	}
+
+	/**
+	 * Rewrite the journal to contain only the current entries.
+	 */
+	private void compact() {
+
+		List<Map<String, Object>> current = new ArrayList<Map<String, Object>>();
+
+		for (Entry<RequestedSecret, LeaseJournalEntry> entry : entries.entrySet()) {
+
+			Map<String, Object> record = createRecord("secrets", entry.getKey());
+			putLease(record, entry.getValue().getLease(), entry.getValue()
+					.getTimestamp());
+			record.put("secrets", entry.getValue().getSecrets());
+
+			current.add(record);
+		}
+
+		File compacted = new File(file.getPath() + ".tmp");
+
+		write(compacted, current, false);
+
+		if (!compacted.renameTo(file)) {
+
+			// rename does not replace existing files on all platforms
+			if (!file.delete() || !compacted.renameTo(file)) {
+				throw new VaultException(String.format(
+						"Cannot replace lease journal %s with compacted journal %s",
+						file, compacted));
+			}
+		}
+
+		records = current.size();
+	}
+
+	private void append(Map<String, Object> record) {
+
+		write(file, Collections.singletonList(record), true);
+		records++;
+	}
+
+	private static void write(File file, List<Map<String, Object>> records,
+			boolean append) {
+
+		try {
+
+			File parent = file.getAbsoluteFile().getParentFile();
+
+			if (parent != null && !parent.exists() && !parent.mkdirs()) {
+				throw new IOException(String.format("Cannot create directory %s",
+						parent));
+			}
+
+			// create the file with restricted permissions before writing any secret
+			if (!append || !file.exists()) {
+				createRestricted(file);
+			}
+
+			FileOutputStream out = new FileOutputStream(file, append);
+
+			try {
+
+				for (Map<String, Object> record : records) {
+					out.write(OBJECT_MAPPER.writeValueAsBytes(record));
+					out.write('\n');
+				}
+
+				out.flush();
+				out.getChannel().force(false);
+			}
+			finally {
+				out.close();
+			}
+		}
+		catch (IOException e) {
+			throw new VaultException(String.format("Cannot write lease journal %s",
+					file), e);
+		}
+	}
+
+	/**
+	 * Create an empty {@link File} that is readable and writable by its owner only.
+	 * Replaces an existing file.
+	 */
+	private static void createRestricted(File file) throws IOException {
+
+		if (file.exists() && !file.delete()) {
+			throw new IOException(String.format("Cannot delete %s", file));
+		}
+
+		if (!file.createNewFile()) {
+			throw new IOException(String.format("Cannot create %s", file));
+		}
+
+		// revoking permissions of other users is not supported on all file systems
+		boolean readRevoked = file.setReadable(false, false);
+		boolean writeRevoked = file.setWritable(false, false);
+
+		if (!file.setReadable(true, true) || !file.setWritable(true, true)) {
+			throw new IOException(String.format(
+					"Cannot set owner permissions of %s", file));
+		}
+
+		if (!readRevoked || !writeRevoked) {
+			log.warn(String.format(
+					"Cannot restrict permissions of lease journal %s to its owner",
+					file));
+		}
+	}
+
+	private static Map<String, Object> createRecord(String type,
+			RequestedSecret requestedSecret) {
+
+		Map<String, Object> record = new LinkedHashMap<String, Object>();
+
+		record.put("type", type);
+		record.put("path", requestedSecret.getPath());
+		record.put("mode", requestedSecret.getMode().name());
+
+		return record;
+	}
+
+	private static void putLease(Map<String, Object> record, Lease lease,
+			long timestamp) {
+
+		record.put("lease_id", lease.getLeaseId());
+		record.put("lease_duration", lease.getLeaseDuration());
+		record.put("renewable", lease.isRenewable());
+		record.put("timestamp", timestamp);
+	}
+
+	private static Lease getLease(Map<String, Object> record) {
+
+		Number leaseDuration = (Number) record.get("lease_duration");
+		Boolean renewable = (Boolean) record.get("renewable");
+
+		return Lease.of((String) record.get("lease_id"),
+				leaseDuration != null ? leaseDuration.longValue() : 0,
+				renewable != null && renewable);
+	}
+
+	private static long getTimestamp(Map<String, Object> record) {
+
+		Number timestamp = (Number) record.get("timestamp");
+		return timestamp != null ? timestamp.longValue() : 0;
+	}
+}
@@ -0,0 +1,674 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.util.Assert;
+
+/**
+ * {@link TaskScheduler} backed by a hashed timing wheel. Scheduling and cancellation are
+ * {@literal O(1)} operations regardless of the number of scheduled tasks, which suits
+ * large numbers of lease renewals that are mostly rescheduled or canceled before they
+ * fire.
+ * <p>
+ * A single ticker thread advances the wheel every {@link #setTickMillis(long) tick} and
+ * hands expired tasks to a bounded pool of {@link #setWorkerThreads(int) worker
+ * threads}. Tasks do not execute on the ticker thread, so slow tasks (e.g. renewal
+ * requests to a slow Vault server) do not delay other tasks from firing. Tasks fire with
+ * tick granularity and never before their scheduled time.
+ * <p>
+ * Tasks scheduled with a {@link Trigger} are rescheduled after each execution until the
+ * trigger returns {@literal null}. Exceptions thrown by tasks are logged.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see SecretLeaseContainer
+ */
+@CommonsLog
+public class HashedWheelTaskScheduler implements TaskScheduler, InitializingBean,
+		DisposableBean {
+
+	/**
+	 * Maximum number of pending tasks transferred into the wheel per tick to keep ticks
+	 * short under bursts.
+	 */
+	private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+	private static final AtomicIntegerFieldUpdater<WheelTask> STATE = AtomicIntegerFieldUpdater
+			.newUpdater(WheelTask.class, "state");
+
+	private final Queue<WheelTask> pending = new ConcurrentLinkedQueue<WheelTask>();
+
+	private final Queue<WheelTask> cancelled = new ConcurrentLinkedQueue<WheelTask>();
+
+	private long tickMillis = 100;
+
+	private int ticksPerWheel = 512;
+
+	private int workerThreads = 4;
+
+	private String threadNamePrefix = String.format("%s-",
+			HashedWheelTaskScheduler.class.getSimpleName());
+
+	private Bucket[] wheel;
+
+	private int mask;
+
+	private long tickNanos;
+
+	private long startTime;
+
+	private long tick;
+
+	private Thread ticker;
+
+	private ThreadPoolExecutor workers;
+
+	private volatile boolean running;
+
+	/**
+	 * Set the tick duration. Tasks fire with tick granularity.
+	 *
+	 * @param tickMillis tick duration in {@link TimeUnit#MILLISECONDS}, must be greater
+	 * {@literal 0}.
+	 */
+	public void setTickMillis(long tickMillis) {
+
+		Assert.isTrue(tickMillis > 0, "Tick duration must be greater 0");
+
+		this.tickMillis = tickMillis;
+	}
+
+	/**
+	 * Set the number of ticks per wheel revolution. The value is rounded up to the next
+	 * power of two. Larger wheels reduce the number of tasks per bucket.
+	 *
+	 * @param ticksPerWheel number of ticks, must be greater {@literal 0}.
+	 */
+	public void setTicksPerWheel(int ticksPerWheel) {
+
+		Assert.isTrue(ticksPerWheel > 0, "Ticks per wheel must be greater 0");
+		Assert.isTrue(ticksPerWheel <= 1 << 30, "Ticks per wheel must not exceed 2^30");
+
+		this.ticksPerWheel = ticksPerWheel;
+	}
+
+	/**
+	 * Set the number of worker threads executing tasks.
+	 *
+	 * @param workerThreads number of worker threads, must be greater {@literal 0}.
+	 */
+	public void setWorkerThreads(int workerThreads) {
+
+		Assert.isTrue(workerThreads > 0, "Worker threads must be greater 0");
+
+		this.workerThreads = workerThreads;
+	}
+
+	/**
+	 * Set the thread name prefix for the ticker and worker threads.
+	 *
+	 * @param threadNamePrefix must not be {@literal null}.
+	 */
+	public void setThreadNamePrefix(String threadNamePrefix) {
+
+		Assert.notNull(threadNamePrefix, "Thread name prefix must not be null");
+
+		this.threadNamePrefix = threadNamePrefix;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		int size = 1;
+		while (size < ticksPerWheel) {
+			size <<= 1;
+		}
+
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			this.wheel[i] = new Bucket();
+		}
+
+		this.mask = size - 1;
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				threadNamePrefix);
+		threadFactory.setDaemon(true);
+
+		this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+		this.workers.allowCoreThreadTimeOut(true);
+
+		this.startTime = System.nanoTime();
+		this.running = true;
+
+		this.ticker = threadFactory.newThread(new Ticker());
+		this.ticker.setName(threadNamePrefix + "ticker");
+		this.ticker.start();
+	}
+
+	/**
+	 * Stop the ticker and worker threads. Pending tasks are discarded, running tasks are
+	 * interrupted.
+	 */
+	@Override
+	public void destroy() throws InterruptedException {
+
+		this.running = false;
+
+		if (ticker != null) {
+			ticker.interrupt();
+			ticker.join(TimeUnit.SECONDS.toMillis(10));
+		}
+
+		if (workers != null) {
+			workers.shutdownNow();
+		}
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+
+		Assert.notNull(task, "Task must not be null");
+		Assert.notNull(trigger, "Trigger must not be null");
+
+		WheelTask wheelTask = new WheelTask(task, trigger);
+		return wheelTask.scheduleNext() ? wheelTask : null;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+
+		Assert.notNull(task, "Task must not be null");
+		Assert.notNull(startTime, "Start time must not be null");
+
+		WheelTask wheelTask = new WheelTask(task, null);
+		wheelTask.schedule(startTime);
+		return wheelTask;
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime,
+			long period) {
+		return schedule(task, periodicTrigger(startTime, period, true));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+		return schedule(task, periodicTrigger(new Date(), period, true));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime,
+			long delay) {
+		return schedule(task, periodicTrigger(startTime, delay, false));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+		return schedule(task, periodicTrigger(new Date(), delay, false));
+	}
+
+	/**
+	 * @return the number of tasks that are scheduled or awaiting transfer into the
+	 * wheel. Intended for monitoring, the value is approximate.
+	 */
+	public int getPendingCount() {
+
+		int count = pending.size();
+
+		if (wheel != null) {
+			for (Bucket bucket : wheel) {
+				count += bucket.size;
+			}
+		}
+
+		return count;
+	}
+
+	private static Trigger periodicTrigger(Date startTime, long period, boolean fixedRate) {
+
+		PeriodicTrigger trigger = new PeriodicTrigger(period);
+		trigger.setFixedRate(fixedRate);
+		trigger.setInitialDelay(Math.max(0, startTime.getTime()
+				- System.currentTimeMillis()));
+		return trigger;
+	}
+
+	private void enqueue(WheelTask task) {
+
+		if (!running) {
+			throw new TaskRejectedException(String.format(
+					"HashedWheelTaskScheduler is not running, rejecting task %s", task));
+		}
+
+		pending.add(task);
+	}
+
+	private void execute(WheelTask task) {
+
+		try {
+			workers.execute(task);
+		}
+		catch (RejectedExecutionException e) {
+			log.debug(String.format("Discarding task %s, scheduler is shut down", task));
+		}
+	}
+
+	/**
+	 * Ticker loop advancing the wheel.
+	 */
+	class Ticker implements Runnable {
+
+		@Override
+		public void run() {
+
+			while (running) {
+
+				long deadline = waitForNextTick();
+
+				if (deadline < 0) {
+					break;
+				}
+
+				removeCancelled();
+				transferPending();
+
+				wheel[(int) (tick & mask)].expire(deadline);
+				tick++;
+			}
+		}
+
+		/**
+		 * @return the current tick deadline relative to {@code startTime} or
+		 * {@literal -1} if interrupted.
+		 */
+		private long waitForNextTick() {
+
+			long deadline = tickNanos * (tick + 1);
+
+			for (;;) {
+
+				long now = System.nanoTime() - startTime;
+				long sleepMillis = TimeUnit.NANOSECONDS.toMillis(deadline - now
+						+ 999999);
+
+				if (sleepMillis <= 0) {
+					return now;
+				}
+
+				try {
+					Thread.sleep(sleepMillis);
+				}
+				catch (InterruptedException e) {
+
+					if (!running) {
+						return -1;
+					}
+				}
+			}
+		}
+
+		private void removeCancelled() {
+
+			WheelTask task;
+			while ((task = cancelled.poll()) != null) {
+				if (task.bucket != null) {
+					task.bucket.remove(task);
+				}
+			}
+		}
+
+		private void transferPending() {
+
+			for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+
+				WheelTask task = pending.poll();
+
+				if (task == null) {
+					break;
+				}
+
+				if (task.state != WheelTask.STATE_WAITING) {
+					continue;
+				}
+
+				long calculated = task.deadline / tickNanos;
+				task.remainingRounds = (calculated - tick) / wheel.length;
+
+				long ticks = Math.max(calculated, tick);
+				wheel[(int) (ticks & mask)].add(task);
+			}
+		}
+	}
+
+	/**
+	 * Doubly-linked list of {@link WheelTask}s. Accessed by the ticker thread only.
+	 */
+	class Bucket {
+
+		private WheelTask head;
+
+		private WheelTask tail;
+
+		volatile int size;
+
+		void add(WheelTask task) {
+
+			task.bucket = this;
+
+			if (head == null) {
+				head = tail = task;
+			}
+			else {
+				tail.next = task;
+				task.prev = tail;
+				tail = task;
+			}
+
+			size++;
+		}
+
+		void expire(long deadline) {
+
+			WheelTask task = head;
+
+			while (task != null) {
+
+				WheelTask next = task.next;
+
+				if (task.state != WheelTask.STATE_WAITING) {
+					remove(task);
+				}
+				else if (task.remainingRounds <= 0 && task.deadline <= deadline) {
+					remove(task);
+					execute(task);
+				}
+				else {
+					task.remainingRounds--;
+				}
+
+				task = next;
+			}
+		}
+
+		void remove(WheelTask task) {
+
+			if (task.bucket != this) {
+				return;
+			}
+
+			if (task.prev != null) {
+				task.prev.next = task.next;
+			}
+			else {
+				head = task.next;
+			}
+
+			if (task.next != null) {
+				task.next.prev = task.prev;
+			}
+			else {
+				tail = task.prev;
+			}
+
+			task.prev = null;
+			task.next = null;
+			task.bucket = null;
+			size--;
+		}
+	}
+
+	/**
+	 * Scheduled task and its {@link ScheduledFuture}. Tasks scheduled with a
+	 * {@link Trigger} are re-enqueued after each execution.
+	 */
+	class WheelTask implements ScheduledFuture<Object>, Runnable {
+
+		static final int STATE_WAITING = 0;
+
+		static final int STATE_RUNNING = 1;
+
+		static final int STATE_CANCELLED = 2;
+
+		static final int STATE_DONE = 3;
+
+		private final Runnable task;
+
+		private final Trigger trigger;
+
+		private final SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+
+		// see AtomicIntegerFieldUpdater STATE
+		volatile int state = STATE_WAITING;
+
+		/**
+		 * Deadline relative to the scheduler start time in nanoseconds.
+		 */
+		volatile long deadline;
+
+		private volatile Date scheduledExecutionTime;
+
+		// accessed by the ticker thread only
+		long remainingRounds;
+
+		Bucket bucket;
+
+		WheelTask prev;
+
+		WheelTask next;
+
+		WheelTask(Runnable task, Trigger trigger) {
+			this.task = task;
+			this.trigger = trigger;
+		}
+
+		boolean scheduleNext() {
+
+			Date next = trigger.nextExecutionTime(triggerContext);
+
+			if (next == null) {
+				return false;
+			}
+
+			schedule(next);
+			return true;
+		}
+
+		void schedule(Date executionTime) {
+
+			long delayMillis = Math.max(0, executionTime.getTime()
+					- System.currentTimeMillis());
+
+			this.scheduledExecutionTime = executionTime;
+			this.deadline = System.nanoTime() - startTime
+					+ TimeUnit.MILLISECONDS.toNanos(delayMillis);
+
+			enqueue(this);
+		}
+
+		@Override
+		public void run() {
+
+			if (!STATE.compareAndSet(this, STATE_WAITING, STATE_RUNNING)) {
+				return;
+			}
+
+			Date actualExecutionTime = new Date();
+
+			try {
+				task.run();
+			}
+			catch (RuntimeException e) {
+				log.error(String.format("Unexpected error occurred in scheduled task %s",
+						task), e);
+			}
+			catch (Error e) {
+				log.error(String.format("Unexpected error occurred in scheduled task %s",
+						task), e);
+			}
+
+			if (trigger != null) {
+
+				triggerContext.update(scheduledExecutionTime, actualExecutionTime,
+						new Date());
+
+				Date next = trigger.nextExecutionTime(triggerContext);
+
+				if (next != null && running
+						&& STATE.compareAndSet(this, STATE_RUNNING, STATE_WAITING)) {
+					schedule(next);
+					return;
+				}
+			}
+
+			if (STATE.compareAndSet(this, STATE_RUNNING, STATE_DONE)) {
+				signalDone();
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+
+			for (;;) {
+
+				int current = this.state;
+
+				if (current == STATE_CANCELLED || current == STATE_DONE) {
+					return false;
+				}
+
+				if (STATE.compareAndSet(this, current, STATE_CANCELLED)) {
+
+					if (current == STATE_WAITING) {
+						cancelled.add(this);
+					}
+
+					signalDone();
+					return true;
+				}
+			}
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return state == STATE_CANCELLED;
+		}
+
+		@Override
+		public boolean isDone() {
+
+			int current = this.state;
+			return current == STATE_CANCELLED || current == STATE_DONE;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(deadline - (System.nanoTime() - startTime),
+					TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed o) {
+
+			if (this == o) {
+				return 0;
+			}
+
+			long diff = getDelay(TimeUnit.NANOSECONDS) - o.getDelay(TimeUnit.NANOSECONDS);
+			return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+		}
+
+		@Override
+		public Object get() throws InterruptedException, ExecutionException {
+
+			synchronized (this) {
+				while (!isDone()) {
+					wait();
+				}
+			}
+
+			return getResult();
+		}
+
+		@Override
+		public Object get(long timeout, TimeUnit unit) throws InterruptedException,
+				ExecutionException, TimeoutException {
+
+			long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+
+			synchronized (this) {
+
+				while (!isDone()) {
+
+					long remaining = deadlineNanos - System.nanoTime();
+
+					if (remaining <= 0) {
+						throw new TimeoutException();
+					}
+
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+
+			return getResult();
+		}
+
+		private Object getResult() {
+
+			if (isCancelled()) {
+				throw new CancellationException(String.format("Task %s was cancelled",
+						task));
+			}
+
+			return null;
+		}
+
+		private synchronized void signalDone() {
+			notifyAll();
+		}
+
+		@Override
+		public String toString() {
+			return task.toString();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.Map;
+
+import org.springframework.vault.core.lease.domain.Lease;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+
+/**
+ * Journal recording leases and secrets obtained by {@link SecretLeaseContainer}. A
+ * {@link SecretLeaseContainer} configured with a {@link LeaseJournal} resumes renewal of
+ * journaled leases on {@link SecretLeaseContainer#start() start} instead of requesting
+ * new secrets. This prevents issuance of new dynamic credentials after an application
+ * restart while previously issued leases are still valid.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see FileLeaseJournal
+ * @see EncryptingLeaseJournal
+ * @see SecretLeaseContainer#setLeaseJournal(LeaseJournal)
+ */
+public interface LeaseJournal {
+
+	/**
+	 * Record secrets obtained for a {@link RequestedSecret} along with their
+	 * {@link Lease}. Replaces a previous entry for {@link RequestedSecret}.
+	 *
+	 * @param requestedSecret must not be {@literal null}.
+	 * @param lease must not be {@literal null}.
+	 * @param secrets must not be {@literal null}.
+	 */
+	void recordSecrets(RequestedSecret requestedSecret, Lease lease,
+			Map<String, Object> secrets);
+
+	/**
+	 * Record a renewed {@link Lease} for a {@link RequestedSecret}.
+	 *
+	 * @param requestedSecret must not be {@literal null}.
+	 * @param lease must not be {@literal null}.
+	 */
+	void recordRenewal(RequestedSecret requestedSecret, Lease lease);
+
+	/**
+	 * Remove the entry for {@link RequestedSecret}, e.g. after the {@link Lease} expired
+	 * or was revoked.
+	 *
+	 * @param requestedSecret must not be {@literal null}.
+	 */
+	void remove(RequestedSecret requestedSecret);
+
+	/**
+	 * Retrieve the entry for {@link RequestedSecret}.
+	 *
+	 * @param requestedSecret must not be {@literal null}.
+	 * @return the {@link LeaseJournalEntry} or {@literal null} if absent.
+	 */
+	LeaseJournalEntry get(RequestedSecret requestedSecret);
+}
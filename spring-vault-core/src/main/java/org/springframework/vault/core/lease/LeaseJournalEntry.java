@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+import org.springframework.vault.core.lease.domain.Lease;
+
+/**
+ * Entry of a {@link LeaseJournal} holding the most recent {@link Lease} and secrets of a
+ * requested secret.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class LeaseJournalEntry {
+
+	private final Lease lease;
+
+	private final Map<String, Object> secrets;
+
+	private final long timestamp;
+
+	/**
+	 * Create a new {@link LeaseJournalEntry}.
+	 *
+	 * @param lease must not be {@literal null}.
+	 * @param secrets must not be {@literal null}.
+	 * @param timestamp time in {@link TimeUnit#MILLISECONDS} since the epoch at which
+	 * the {@link Lease} was obtained or renewed.
+	 */
+	public LeaseJournalEntry(Lease lease, Map<String, Object> secrets, long timestamp) {
+
+		Assert.notNull(lease, "Lease must not be null");
+		Assert.notNull(secrets, "Secrets must not be null");
+
+		this.lease = lease;
+		this.secrets = secrets;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * @return the most recent {@link Lease}.
+	 */
+	public Lease getLease() {
+		return lease;
+	}
+
+	/**
+	 * @return the secrets.
+	 */
+	public Map<String, Object> getSecrets() {
+		return secrets;
+	}
+
+	/**
+	 * @return time in {@link TimeUnit#MILLISECONDS} since the epoch at which the
+	 * {@link Lease} was obtained or renewed.
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Determine the remaining lease duration.
+	 *
+	 * @param now current time in {@link TimeUnit#MILLISECONDS} since the epoch.
+	 * @return the remaining lease duration in {@link TimeUnit#SECONDS}, never negative.
+	 */
+	public long getRemainingLeaseDuration(long now) {
+
+		long elapsed = TimeUnit.MILLISECONDS.toSeconds(Math.max(0, now - timestamp));
+		return Math.max(0, lease.getLeaseDuration() - elapsed);
+	}
+}
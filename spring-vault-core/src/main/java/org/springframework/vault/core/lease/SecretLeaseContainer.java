@@ -18,14 +18,23 @@ package org.springframework.vault.core.lease;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReference;
@@ -34,13 +43,14 @@ import lombok.extern.apachecommons.CommonsLog;
 
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.TriggerContext;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.vault.VaultException;
@@ -52,6 +62,7 @@ import org.springframework.vault.core.lease.domain.RequestedSecret;
 import org.springframework.vault.core.lease.domain.RequestedSecret.Mode;
 import org.springframework.vault.core.lease.event.LeaseErrorListener;
 import org.springframework.vault.core.lease.event.LeaseListener;
+import org.springframework.vault.support.RenewalPolicy;
 import org.springframework.vault.support.VaultResponseSupport;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestOperations;
@@ -95,7 +106,9 @@ import org.springframework.web.client.RestOperations;
  * This container keeps track over {@link RequestedSecret}s and requests secrets upon
  * {@link #start()}. Leases qualified for {@link Lease#isRenewable() renewal} are renewed
  * by this container applying {@code minRenewalSeconds}/{@code expiryThresholdSeconds} on
- * a {@link TaskScheduler background thread}.
+ * a {@link TaskScheduler background thread}. Without a configured {@link TaskScheduler},
+ * the container uses a {@link HashedWheelTaskScheduler} that schedules and cancels
+ * renewals in constant time and performs renewal requests on a bounded worker pool.
  * <p>
  * Requests for secrets can define either renewal or rotation. The container renews leases
  * until expiry. Rotating secrets renew their associated lease until expiry and request
@@ -105,7 +118,10 @@ import org.springframework.web.client.RestOperations;
  * <p>
  * The container dispatches lease events to {@link LeaseListener} and
  * {@link LeaseErrorListener}. Event notifications are dispatched either on the
- * {@link #start() starting} {@link Thread} or worker threads used for background renewal.
+ * {@link #start() starting} {@link Thread}, startup threads if
+ * {@link #setStartupParallelism(int) started concurrently}, or worker threads used for
+ * background renewal. Events of a particular {@link RequestedSecret} are published in
+ * order.
  * <p>
  * Instances are thread-safe once {@link #afterPropertiesSet() initialized}.
  *
@@ -138,8 +154,22 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 
 	private int expiryThresholdSeconds = 60;
 
+	private int renewalWindowSeconds = 0;
+
+	private int renewalParallelism = 4;
+
+	private RenewalPolicy renewalPolicy;
+
+	private LeaseJournal leaseJournal;
+
+	private int startupParallelism = 1;
+
+	private int startupTimeoutSeconds = 0;
+
 	private TaskScheduler taskScheduler;
 
+	private RenewalWindows renewalWindows;
+
 	private boolean manageTaskScheduler;
 
 	private volatile boolean initialized;
@@ -203,6 +233,151 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		return expiryThresholdSeconds;
 	}
 
+	/**
+	 * Set the renewal window size to coalesce lease renewals. Renewals that fall into the
+	 * same window are executed together on a single scheduled tick, at the start of the
+	 * window, instead of individually at their exact renewal time. Renewals are moved
+	 * forward but never past their renewal time; renewals whose window starts earlier
+	 * than {@code minRenewalSeconds} are scheduled individually. Renewals of a window are
+	 * executed concurrently using up to {@link #setRenewalParallelism(int)
+	 * renewalParallelism} tasks. The window size must be smaller than the
+	 * {@link #setExpiryThresholdSeconds(int) expiry threshold}.
+	 * <p>
+	 * Defaults to {@literal 0} which disables coalescing so each lease is renewed on its
+	 * own schedule. Must be set before {@link #afterPropertiesSet() initialization}.
+	 *
+	 * @param renewalWindowSeconds window size in seconds, must not be negative.
+	 * @since 1.1
+	 */
+	public void setRenewalWindowSeconds(int renewalWindowSeconds) {
+
+		Assert.isTrue(renewalWindowSeconds >= 0,
+				"Renewal window seconds must not be negative");
+
+		this.renewalWindowSeconds = renewalWindowSeconds;
+	}
+
+	public int getRenewalWindowSeconds() {
+		return renewalWindowSeconds;
+	}
+
+	/**
+	 * Set the maximal number of concurrent renewals within a coalesced
+	 * {@link #setRenewalWindowSeconds(int) renewal window}. The effective parallelism is
+	 * also bounded by the number of threads of the {@link TaskScheduler}. Defaults to
+	 * {@literal 4}.
+	 *
+	 * @param renewalParallelism maximal number of concurrent renewals, must be greater
+	 * {@literal 0}.
+	 * @since 1.1
+	 */
+	public void setRenewalParallelism(int renewalParallelism) {
+
+		Assert.isTrue(renewalParallelism > 0, "Renewal parallelism must be greater 0");
+
+		this.renewalParallelism = renewalParallelism;
+	}
+
+	public int getRenewalParallelism() {
+		return renewalParallelism;
+	}
+
+	/**
+	 * Set the {@link RenewalPolicy} to determine the renewal time of leases. A
+	 * randomized policy spreads renewals of containers that obtained their leases at the
+	 * same time. Renewals never happen earlier than {@code minRenewalSeconds}.
+	 * <p>
+	 * Defaults to {@literal null} to renew leases {@code expiryThresholdSeconds} before
+	 * they expire.
+	 *
+	 * @param renewalPolicy may be {@literal null}.
+	 * @since 1.1
+	 */
+	public void setRenewalPolicy(RenewalPolicy renewalPolicy) {
+		this.renewalPolicy = renewalPolicy;
+	}
+
+	public RenewalPolicy getRenewalPolicy() {
+		return renewalPolicy;
+	}
+
+	/**
+	 * Set the {@link LeaseJournal} to record renewable leases and their secrets. The
+	 * container resumes renewal of journaled leases on {@link #start()} instead of
+	 * requesting new secrets. A journaled lease is validated by renewing it, leases that
+	 * cannot be renewed are discarded and secrets are requested from Vault.
+	 * <p>
+	 * Journaled leases are not revoked on {@link #destroy()} so a restarted container can
+	 * resume them. Vault revokes leases along with the token that created them, so the
+	 * token must outlive the application: disable token revocation on shutdown through
+	 * {@link org.springframework.vault.authentication.LifecycleAwareSessionManager#setRevokeTokenOnDestroy(boolean)}
+	 * (revoked by default) and use a token that does not expire before leases are
+	 * resumed, such as a periodic or orphan token. Otherwise journaled leases cannot be
+	 * renewed after restart and secrets are requested from Vault.
+	 * <p>
+	 * Journals store secrets. Wrap a {@link FileLeaseJournal} with
+	 * {@link EncryptingLeaseJournal} to not keep secrets as plain text on disk.
+	 *
+	 * @param leaseJournal may be {@literal null}.
+	 * @since 1.1
+	 */
+	public void setLeaseJournal(LeaseJournal leaseJournal) {
+
+		if (leaseJournal instanceof FileLeaseJournal) {
+			log.warn("FileLeaseJournal stores secrets as plain text. "
+					+ "Wrap it with EncryptingLeaseJournal to encrypt secrets using Vault's transit backend");
+		}
+
+		this.leaseJournal = leaseJournal;
+	}
+
+	public LeaseJournal getLeaseJournal() {
+		return leaseJournal;
+	}
+
+	/**
+	 * Set the number of requested secrets to obtain concurrently on {@link #start()}.
+	 * Each requested secret is obtained by a single thread so events for a particular
+	 * {@link RequestedSecret} are published in order. Defaults to {@literal 1} to obtain
+	 * secrets sequentially on the starting {@link Thread}.
+	 *
+	 * @param startupParallelism number of concurrent startup threads, must be greater
+	 * {@literal 0}.
+	 * @since 1.1
+	 */
+	public void setStartupParallelism(int startupParallelism) {
+
+		Assert.isTrue(startupParallelism > 0, "Startup parallelism must be greater 0");
+
+		this.startupParallelism = startupParallelism;
+	}
+
+	public int getStartupParallelism() {
+		return startupParallelism;
+	}
+
+	/**
+	 * Set the deadline for {@link #start()} to obtain all requested secrets. Secrets that
+	 * are not obtained within the deadline are reported to {@link LeaseErrorListener}s.
+	 * Requests that are already in flight complete in the background and revoke their
+	 * lease without publishing the secrets. Defaults to {@literal 0} to wait until all
+	 * secrets are obtained.
+	 *
+	 * @param startupTimeoutSeconds startup deadline in seconds, must not be negative.
+	 * @since 1.1
+	 */
+	public void setStartupTimeoutSeconds(int startupTimeoutSeconds) {
+
+		Assert.isTrue(startupTimeoutSeconds >= 0,
+				"Startup timeout seconds must not be negative");
+
+		this.startupTimeoutSeconds = startupTimeoutSeconds;
+	}
+
+	public int getStartupTimeoutSeconds() {
+		return startupTimeoutSeconds;
+	}
+
 	/**
 	 * Sets the {@link TaskScheduler} to use for scheduling and execution of lease
 	 * renewals.
@@ -249,7 +424,7 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		if (initialized) {
 
 			LeaseRenewalScheduler leaseRenewalScheduler = new LeaseRenewalScheduler(
-					this.taskScheduler);
+					this.taskScheduler, this.renewalWindows);
 			this.renewals.put(requestedSecret, leaseRenewalScheduler);
 
 			if (this.status == STATUS_STARTED) {
@@ -269,6 +444,10 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 	 * Multiple calls are synchronized to start the container only once. Container start
 	 * requires {@link #afterPropertiesSet() initialization} and cannot be started once
 	 * the container was {@link #destroy() destroyed}.
+	 * <p>
+	 * Secrets are obtained concurrently if {@link #setStartupParallelism(int) startup
+	 * parallelism} is greater {@literal 1} and within the
+	 * {@link #setStartupTimeoutSeconds(int) startup timeout} if configured.
 	 *
 	 * @see #afterPropertiesSet()
 	 * @see #stop()
@@ -284,6 +463,15 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 
 		if (UPDATER.compareAndSet(this, STATUS_INITIAL, STATUS_STARTED)) {
 
+			if (renewals.isEmpty()) {
+				return;
+			}
+
+			if (startupParallelism > 1 || startupTimeoutSeconds > 0) {
+				startConcurrently(renewals);
+				return;
+			}
+
 			for (Entry<RequestedSecret, LeaseRenewalScheduler> entry : renewals
 					.entrySet()) {
 				start(entry.getKey(), entry.getValue());
@@ -291,8 +479,93 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		}
 	}
 
+	/**
+	 * Obtain secrets using up to {@code startupParallelism} threads and await completion
+	 * until the startup deadline.
+	 */
+	private void startConcurrently(Map<RequestedSecret, LeaseRenewalScheduler> renewals) {
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				String.format("%s-startup-%d-", getClass().getSimpleName(),
+						poolId.incrementAndGet()));
+		threadFactory.setDaemon(true);
+
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(startupParallelism, renewals.size()), threadFactory);
+
+		Map<StartupTask, Future<?>> futures = new LinkedHashMap<StartupTask, Future<?>>();
+		Throwable failure = null;
+
+		try {
+
+			for (Entry<RequestedSecret, LeaseRenewalScheduler> entry : renewals
+					.entrySet()) {
+
+				StartupTask task = new StartupTask(entry.getKey(), entry.getValue());
+				futures.put(task, executor.submit(task));
+			}
+
+			long deadline = System.nanoTime()
+					+ TimeUnit.SECONDS.toNanos(startupTimeoutSeconds);
+
+			for (Entry<StartupTask, Future<?>> entry : futures.entrySet()) {
+
+				try {
+
+					if (startupTimeoutSeconds > 0) {
+						entry.getValue().get(Math.max(0, deadline - System.nanoTime()),
+								TimeUnit.NANOSECONDS);
+					}
+					else {
+						entry.getValue().get();
+					}
+				}
+				catch (TimeoutException e) {
+
+					// running tasks report the timeout themselves once they complete
+					if (entry.getKey().timeout()) {
+
+						entry.getValue().cancel(false);
+						entry.getKey().reportTimeout();
+					}
+				}
+				catch (ExecutionException e) {
+					if (failure == null) {
+						failure = e.getCause();
+					}
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new VaultException("Interrupted while obtaining secrets", e);
+		}
+		finally {
+			// secrets being obtained are revoked in the background once they arrive
+			executor.shutdown();
+		}
+
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+	}
+
 	private void start(RequestedSecret requestedSecret,
 			LeaseRenewalScheduler renewalScheduler) {
+		start(requestedSecret, renewalScheduler, null);
+	}
+
+	private void start(RequestedSecret requestedSecret,
+			LeaseRenewalScheduler renewalScheduler, StartupTask startupTask) {
+
+		if (leaseJournal != null
+				&& resume(requestedSecret, renewalScheduler, startupTask)) {
+			return;
+		}
 
 		VaultResponseSupport<Map<String, Object>> secrets = doGetSecrets(requestedSecret);
 
@@ -311,11 +584,188 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 				lease = Lease.none();
 			}
 
-			potentiallyScheduleLeaseRenewal(requestedSecret, lease, renewalScheduler);
+			if (!acceptLease(requestedSecret, lease, renewalScheduler, startupTask)) {
+				return;
+			}
+
+			if (leaseJournal != null && lease.hasLeaseId() && lease.isRenewable()
+					&& secrets.getData() != null) {
+
+				try {
+					leaseJournal.recordSecrets(requestedSecret, lease, secrets.getData());
+				}
+				catch (RuntimeException e) {
+					log.warn(String.format("Cannot journal lease %s for secret %s",
+							lease.getLeaseId(), requestedSecret.getPath()), e);
+				}
+			}
+
 			onSecretsObtained(requestedSecret, lease, secrets.getData());
 		}
 	}
 
+	/**
+	 * Resume a journaled {@link Lease} by renewing it.
+	 *
+	 * @return {@literal true} if the lease was resumed.
+	 */
+	private boolean resume(RequestedSecret requestedSecret,
+			LeaseRenewalScheduler renewalScheduler, StartupTask startupTask) {
+
+		LeaseJournalEntry entry;
+
+		try {
+			entry = leaseJournal.get(requestedSecret);
+		}
+		catch (RuntimeException e) {
+
+			log.warn(String.format("Cannot read journaled lease for secret %s",
+					requestedSecret.getPath()), e);
+			return false;
+		}
+
+		if (entry == null) {
+			return false;
+		}
+
+		Lease lease = entry.getLease();
+		long remaining = entry.getRemainingLeaseDuration(System.currentTimeMillis());
+
+		if (!lease.hasLeaseId() || remaining < minRenewalSeconds) {
+
+			removeFromJournal(requestedSecret);
+			return false;
+		}
+
+		Lease renewed;
+
+		try {
+			renewed = renew(lease);
+		}
+		catch (RuntimeException e) {
+
+			if (log.isDebugEnabled()) {
+				log.debug(String.format(
+						"Cannot resume journaled lease %s for secret %s: %s",
+						lease.getLeaseId(), requestedSecret.getPath(), e.getMessage()));
+			}
+
+			removeFromJournal(requestedSecret);
+			return false;
+		}
+
+		if (!renewed.hasLeaseId() || renewed.getLeaseDuration() < minRenewalSeconds) {
+
+			removeFromJournal(requestedSecret);
+			return false;
+		}
+
+		if (log.isDebugEnabled()) {
+			log.debug(String.format("Resumed journaled lease %s for secret %s",
+					renewed.getLeaseId(), requestedSecret.getPath()));
+		}
+
+		if (!acceptLease(requestedSecret, renewed, renewalScheduler, startupTask)) {
+			return true;
+		}
+
+		journalRenewal(requestedSecret, renewed);
+		onSecretsObtained(requestedSecret, renewed, entry.getSecrets());
+
+		return true;
+	}
+
+	/**
+	 * Schedule renewal of an obtained {@link Lease}. Leases obtained after the startup
+	 * timed out or after the container was stopped or destroyed are revoked instead.
+	 *
+	 * @return {@literal true} if the lease was accepted and its secrets can be published.
+	 */
+	private boolean acceptLease(RequestedSecret requestedSecret, Lease lease,
+			LeaseRenewalScheduler renewalScheduler, StartupTask startupTask) {
+
+		if ((startupTask == null || startupTask.complete())
+				&& this.status == STATUS_STARTED) {
+
+			try {
+				potentiallyScheduleLeaseRenewal(requestedSecret, lease, renewalScheduler);
+			}
+			catch (TaskRejectedException e) {
+
+				if (this.status != STATUS_DESTROYED) {
+					throw e;
+				}
+			}
+
+			// destroy() might have missed the lease before it was registered for renewal
+			if (this.status != STATUS_DESTROYED) {
+				return true;
+			}
+
+			renewalScheduler.disableScheduleRenewal();
+		}
+
+		if (lease.hasLeaseId()) {
+			doRevokeLease(requestedSecret, lease);
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return {@literal true} if the {@link LeaseJournal} holds {@code lease} for
+	 * {@link RequestedSecret} so it can be resumed after restart.
+	 */
+	private boolean isJournaled(RequestedSecret requestedSecret, Lease lease) {
+
+		if (leaseJournal == null) {
+			return false;
+		}
+
+		try {
+
+			LeaseJournalEntry entry = leaseJournal.get(requestedSecret);
+			return entry != null
+					&& lease.getLeaseId().equals(entry.getLease().getLeaseId());
+		}
+		catch (RuntimeException e) {
+
+			log.warn(String.format("Cannot read journaled lease for secret %s",
+					requestedSecret.getPath()), e);
+			return false;
+		}
+	}
+
+	private void journalRenewal(RequestedSecret requestedSecret, Lease lease) {
+
+		if (leaseJournal == null) {
+			return;
+		}
+
+		try {
+			leaseJournal.recordRenewal(requestedSecret, lease);
+		}
+		catch (RuntimeException e) {
+			log.warn(String.format("Cannot journal renewal of lease %s for secret %s",
+					lease.getLeaseId(), requestedSecret.getPath()), e);
+		}
+	}
+
+	private void removeFromJournal(RequestedSecret requestedSecret) {
+
+		if (leaseJournal == null) {
+			return;
+		}
+
+		try {
+			leaseJournal.remove(requestedSecret);
+		}
+		catch (RuntimeException e) {
+			log.warn(String.format("Cannot remove journaled lease for secret %s",
+					requestedSecret.getPath()), e);
+		}
+	}
+
 	private static boolean isRotatingGenericSecret(RequestedSecret requestedSecret,
 			VaultResponseSupport<Map<String, Object>> secrets) {
 
@@ -346,14 +796,18 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 
 		if (!this.initialized) {
 
+			if (this.renewalWindowSeconds > 0) {
+				Assert.isTrue(this.renewalWindowSeconds < this.expiryThresholdSeconds,
+						"Renewal window seconds must be less than expiry threshold seconds");
+			}
+
 			super.afterPropertiesSet();
 
 			this.initialized = true;
 
 			if (this.taskScheduler == null) {
 
-				ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-				scheduler.setDaemon(true);
+				HashedWheelTaskScheduler scheduler = new HashedWheelTaskScheduler();
 				scheduler.setThreadNamePrefix(String.format("%s-%d-", getClass()
 						.getSimpleName(), poolId.incrementAndGet()));
 				scheduler.afterPropertiesSet();
@@ -362,16 +816,25 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 				this.manageTaskScheduler = true;
 			}
 
+			if (this.renewalWindowSeconds > 0) {
+				// random window offset to not align renewal windows across instances
+				long windowMillis = TimeUnit.SECONDS.toMillis(this.renewalWindowSeconds);
+				this.renewalWindows = new RenewalWindows(this.taskScheduler,
+						this.renewalWindowSeconds, this.renewalParallelism,
+						(long) (Math.random() * windowMillis));
+			}
+
 			for (RequestedSecret requestedSecret : requestedSecrets) {
 				this.renewals.put(requestedSecret, new LeaseRenewalScheduler(
-						this.taskScheduler));
+						this.taskScheduler, this.renewalWindows));
 			}
 		}
 	}
 
 	/**
 	 * Shutdown this {@link SecretLeaseContainer}, disable lease renewal and revoke
-	 * leases.
+	 * leases. Leases held by the {@link #setLeaseJournal(LeaseJournal) lease journal}
+	 * are not revoked so they can be resumed after restart.
 	 *
 	 * @see #afterPropertiesSet()
 	 * @see #start()
@@ -392,7 +855,9 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 					Lease lease = entry.getValue().getLease();
 					entry.getValue().disableScheduleRenewal();
 
-					if (lease != null && lease.hasLeaseId()) {
+					// keep journaled leases for renewal after restart
+					if (lease != null && lease.hasLeaseId()
+							&& !isJournaled(entry.getKey(), lease)) {
 						doRevokeLease(entry.getKey(), lease);
 					}
 				}
@@ -441,12 +906,14 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 					potentiallyScheduleLeaseRenewal(requestedSecret, newLease,
 							leaseRenewal);
 
+					journalRenewal(requestedSecret, newLease);
 					onAfterLeaseRenewed(requestedSecret, newLease);
 				}
 
 				return newLease;
 			}
-		}, lease, getMinRenewalSeconds(), getExpiryThresholdSeconds());
+		}, lease, getMinRenewalSeconds(), getExpiryThresholdSeconds(),
+				getRenewalPolicy());
 	}
 
 	// -------------------------------------------------------------------------
@@ -547,6 +1014,8 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 	 */
 	protected void onLeaseExpired(RequestedSecret requestedSecret, Lease lease) {
 
+		removeFromJournal(requestedSecret);
+
 		super.onLeaseExpired(requestedSecret, lease);
 
 		if (requestedSecret.getMode() == Mode.ROTATE) {
@@ -578,6 +1047,7 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 									Map.class, lease.getLeaseId());
 						}
 					});
+			removeFromJournal(requestedSecret);
 			onAfterLeaseRevocation(requestedSecret, lease);
 		}
 		catch (HttpStatusCodeException e) {
@@ -596,13 +1066,15 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 	 * concurrently to schedule lease renewal. Each renewal run checks if the previously
 	 * attached {@link Lease} is still relevant to update. If any other process scheduled
 	 * a newer {@link Lease} for renewal, the previously registered renewal task will skip
-	 * renewal.
+	 * renewal. Renewals are coalesced if {@link RenewalWindows} are configured.
 	 */
 	@CommonsLog
 	static class LeaseRenewalScheduler {
 
 		private final TaskScheduler taskScheduler;
 
+		private final RenewalWindows renewalWindows;
+
 		final AtomicReference<Lease> currentLeaseRef = new AtomicReference<Lease>();
 
 		final Map<Lease, ScheduledFuture<?>> schedules = new ConcurrentHashMap<Lease, ScheduledFuture<?>>();
@@ -612,7 +1084,17 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		 * @param taskScheduler must not be {@literal null}.
 		 */
 		LeaseRenewalScheduler(TaskScheduler taskScheduler) {
+			this(taskScheduler, null);
+		}
+
+		/**
+		 *
+		 * @param taskScheduler must not be {@literal null}.
+		 * @param renewalWindows may be {@literal null} to schedule renewals individually.
+		 */
+		LeaseRenewalScheduler(TaskScheduler taskScheduler, RenewalWindows renewalWindows) {
 			this.taskScheduler = taskScheduler;
+			this.renewalWindows = renewalWindows;
 		}
 
 		/**
@@ -624,10 +1106,13 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		 * @param minRenewalSeconds minimum number of seconds before renewing a
 		 * {@link Lease}. This is to prevent too many renewals in a very short timeframe.
 		 * @param expiryThresholdSeconds number of seconds to renew before {@link Lease}.
+		 * @param renewalPolicy optional {@link RenewalPolicy} to determine the renewal
+		 * time instead of {@code expiryThresholdSeconds}, may be {@literal null}.
 		 */
 		void scheduleRenewal(final RequestedSecret requestedSecret,
 				final RenewLease renewLease, final Lease lease,
-				final int minRenewalSeconds, final int expiryThresholdSeconds) {
+				final int minRenewalSeconds, final int expiryThresholdSeconds,
+				RenewalPolicy renewalPolicy) {
 
 			if (log.isDebugEnabled()) {
 				if (lease.hasLeaseId()) {
@@ -684,10 +1169,18 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 				}
 			};
 
-			ScheduledFuture<?> scheduledFuture = taskScheduler.schedule(
-					task,
-					new OneShotTrigger(getRenewalSeconds(lease, minRenewalSeconds,
-							expiryThresholdSeconds)));
+			long renewalMillis = getRenewalMillis(lease, minRenewalSeconds,
+					expiryThresholdSeconds, renewalPolicy);
+
+			if (renewalWindows != null) {
+
+				// stale renewals are skipped through currentLeaseRef
+				renewalWindows.schedule(task, renewalMillis, minRenewalSeconds);
+				return;
+			}
+
+			ScheduledFuture<?> scheduledFuture = taskScheduler.schedule(task,
+					new OneShotTrigger(renewalMillis));
 
 			schedules.put(lease, scheduledFuture);
 		}
@@ -721,10 +1214,18 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 			}
 		}
 
-		private long getRenewalSeconds(Lease lease, int minRenewalSeconds,
-				int expiryThresholdSeconds) {
-			return Math.max(minRenewalSeconds, lease.getLeaseDuration()
-					- expiryThresholdSeconds);
+		private long getRenewalMillis(Lease lease, int minRenewalSeconds,
+				int expiryThresholdSeconds, RenewalPolicy renewalPolicy) {
+
+			long minRenewalMillis = TimeUnit.SECONDS.toMillis(minRenewalSeconds);
+
+			if (renewalPolicy != null) {
+				return Math.max(minRenewalMillis,
+						renewalPolicy.getRenewalDelay(lease.getLeaseDuration()));
+			}
+
+			return Math.max(minRenewalMillis, TimeUnit.SECONDS.toMillis(lease
+					.getLeaseDuration() - expiryThresholdSeconds));
 		}
 
 		private boolean isLeaseRenewable(Lease lease, RequestedSecret requestedSecret) {
@@ -749,6 +1250,270 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		}
 	}
 
+	/**
+	 * Coalesces renewals into fixed-size time windows. Renewals falling into the same
+	 * window share a single execution time and are run by up to {@code parallelism}
+	 * tasks that drain the window concurrently. Each window schedules at most
+	 * {@code parallelism} tasks on the {@link TaskScheduler}, regardless of the number of
+	 * renewals it contains.
+	 */
+	@CommonsLog
+	static class RenewalWindows {
+
+		private final TaskScheduler taskScheduler;
+
+		private final long windowMillis;
+
+		private final long offsetMillis;
+
+		private final int parallelism;
+
+		private final ConcurrentMap<Long, RenewalWindow> windows = new ConcurrentHashMap<Long, RenewalWindow>();
+
+		/**
+		 * @param taskScheduler must not be {@literal null}.
+		 * @param windowSeconds window size in seconds, must be greater {@literal 0}.
+		 * @param parallelism maximal number of concurrent renewals per window, must be
+		 * greater {@literal 0}.
+		 */
+		RenewalWindows(TaskScheduler taskScheduler, int windowSeconds, int parallelism) {
+			this(taskScheduler, windowSeconds, parallelism, 0);
+		}
+
+		/**
+		 * @param taskScheduler must not be {@literal null}.
+		 * @param windowSeconds window size in seconds, must be greater {@literal 0}.
+		 * @param parallelism maximal number of concurrent renewals per window, must be
+		 * greater {@literal 0}.
+		 * @param offsetMillis offset of window boundaries in milliseconds, must not be
+		 * negative.
+		 */
+		RenewalWindows(TaskScheduler taskScheduler, int windowSeconds, int parallelism,
+				long offsetMillis) {
+
+			Assert.notNull(taskScheduler, "TaskScheduler must not be null");
+			Assert.isTrue(windowSeconds > 0, "Window seconds must be greater 0");
+			Assert.isTrue(parallelism > 0, "Parallelism must be greater 0");
+			Assert.isTrue(offsetMillis >= 0, "Offset must not be negative");
+
+			this.taskScheduler = taskScheduler;
+			this.windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+			this.offsetMillis = offsetMillis % this.windowMillis;
+			this.parallelism = parallelism;
+		}
+
+		/**
+		 * Schedule a {@code renewal} in the window containing its renewal time.
+		 *
+		 * @param renewal the renewal task.
+		 * @param renewalMillis number of milliseconds until the renewal is due.
+		 * @param minRenewalSeconds minimum number of seconds before renewing.
+		 */
+		void schedule(Runnable renewal, long renewalMillis, int minRenewalSeconds) {
+
+			long executionTime = getExecutionTime(currentTimeMillis(), renewalMillis,
+					minRenewalSeconds);
+
+			if (!isWindowStart(executionTime)) {
+
+				taskScheduler.schedule(renewal, new Date(executionTime));
+				return;
+			}
+
+			for (;;) {
+
+				RenewalWindow window = windows.get(executionTime);
+
+				if (window == null) {
+
+					RenewalWindow created = new RenewalWindow(executionTime);
+					window = windows.putIfAbsent(executionTime, created);
+
+					if (window == null) {
+						window = created;
+					}
+				}
+
+				if (window.add(renewal)) {
+					return;
+				}
+
+				// window started draining, retry with a new window
+				windows.remove(executionTime, window);
+			}
+		}
+
+		/**
+		 * Align the renewal time to the start of its window. Falls back to the renewal
+		 * time itself if the window start would renew earlier than
+		 * {@code minRenewalSeconds}. Renewals are never moved past their renewal time.
+		 */
+		long getExecutionTime(long now, long renewalMillis, int minRenewalSeconds) {
+
+			long renewalTime = now + renewalMillis;
+			long windowStart = renewalTime
+					- ((renewalTime - offsetMillis) % windowMillis);
+
+			if (windowStart >= now + TimeUnit.SECONDS.toMillis(minRenewalSeconds)) {
+				return windowStart;
+			}
+
+			return renewalTime;
+		}
+
+		private boolean isWindowStart(long executionTime) {
+			return (executionTime - offsetMillis) % windowMillis == 0;
+		}
+
+		/**
+		 * @return the number of windows awaiting execution.
+		 */
+		int getWindowCount() {
+			return windows.size();
+		}
+
+		long currentTimeMillis() {
+			return System.currentTimeMillis();
+		}
+
+		/**
+		 * Renewals sharing an execution time. Once draining starts, the window rejects
+		 * further renewals.
+		 */
+		class RenewalWindow implements Runnable {
+
+			private final long executionTime;
+
+			private final Queue<Runnable> renewals = new ConcurrentLinkedQueue<Runnable>();
+
+			// guarded by this
+			private int drainers;
+
+			// guarded by this
+			private boolean draining;
+
+			RenewalWindow(long executionTime) {
+				this.executionTime = executionTime;
+			}
+
+			synchronized boolean add(Runnable renewal) {
+
+				if (draining) {
+					return false;
+				}
+
+				renewals.add(renewal);
+
+				if (drainers < parallelism) {
+
+					drainers++;
+					taskScheduler.schedule(this, new Date(executionTime));
+				}
+
+				return true;
+			}
+
+			@Override
+			public void run() {
+
+				synchronized (this) {
+					draining = true;
+				}
+
+				windows.remove(executionTime, this);
+
+				Runnable renewal;
+				while ((renewal = renewals.poll()) != null) {
+
+					try {
+						renewal.run();
+					}
+					catch (RuntimeException e) {
+						log.error("Cannot run renewal", e);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Startup of a single {@link RequestedSecret} that is subject to the startup timeout.
+	 * A task that times out while obtaining secrets revokes the obtained lease instead of
+	 * publishing it and reports the timeout itself to retain the order of events for its
+	 * secret. Tasks timing out before they start are cancelled.
+	 */
+	private class StartupTask implements Runnable {
+
+		private static final int STATE_NEW = 0;
+		private static final int STATE_RUNNING = 1;
+		private static final int STATE_COMPLETED = 2;
+		private static final int STATE_TIMED_OUT = 3;
+
+		private final RequestedSecret requestedSecret;
+
+		private final LeaseRenewalScheduler renewalScheduler;
+
+		private final AtomicInteger state = new AtomicInteger(STATE_NEW);
+
+		StartupTask(RequestedSecret requestedSecret,
+				LeaseRenewalScheduler renewalScheduler) {
+
+			this.requestedSecret = requestedSecret;
+			this.renewalScheduler = renewalScheduler;
+		}
+
+		@Override
+		public void run() {
+
+			if (!state.compareAndSet(STATE_NEW, STATE_RUNNING)) {
+				return;
+			}
+
+			try {
+				start(requestedSecret, renewalScheduler, this);
+			}
+			finally {
+
+				if (!state.compareAndSet(STATE_RUNNING, STATE_COMPLETED)
+						&& state.get() == STATE_TIMED_OUT) {
+					reportTimeout();
+				}
+			}
+		}
+
+		/**
+		 * Complete the startup before publishing secrets.
+		 *
+		 * @return {@literal true} if the startup did not time out.
+		 */
+		boolean complete() {
+			return state.compareAndSet(STATE_RUNNING, STATE_COMPLETED)
+					|| state.get() == STATE_COMPLETED;
+		}
+
+		/**
+		 * Time out the startup.
+		 *
+		 * @return {@literal true} if the task did not start yet and the caller is
+		 * required to {@link #reportTimeout() report} the timeout.
+		 */
+		boolean timeout() {
+
+			if (state.compareAndSet(STATE_NEW, STATE_TIMED_OUT)) {
+				return true;
+			}
+
+			state.compareAndSet(STATE_RUNNING, STATE_TIMED_OUT);
+			return false;
+		}
+
+		void reportTimeout() {
+			onError(requestedSecret, Lease.none(), new VaultException(String.format(
+					"Cannot obtain secrets for %s within startup timeout of %d seconds",
+					requestedSecret.getPath(), startupTimeoutSeconds)));
+		}
+	}
+
 	/**
 	 * This one-shot trigger creates only one execution time to trigger an execution only
 	 * once.
@@ -764,18 +1529,17 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		// see AtomicIntegerFieldUpdater UPDATER
 		private volatile int status = 0;
 
-		private final long seconds;
+		private final long millis;
 
-		OneShotTrigger(long seconds) {
-			this.seconds = seconds;
+		OneShotTrigger(long millis) {
+			this.millis = millis;
 		}
 
 		@Override
 		public Date nextExecutionTime(TriggerContext triggerContext) {
 
 			if (UPDATER.compareAndSet(this, STATUS_ARMED, STATUS_FIRED)) {
-				return new Date(System.currentTimeMillis()
-						+ TimeUnit.SECONDS.toMillis(seconds));
+				return new Date(System.currentTimeMillis() + millis);
 			}
 
 			return null;
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.support;
+
+import org.springframework.vault.VaultException;
+
+/**
+ * Holds the result of an individual item of a batch operation. A result either carries
+ * a value or the {@link VaultException} that caused the item to fail.
+ *
+ * @param <V> the value type.
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public abstract class AbstractResult<V> {
+
+	private final VaultException exception;
+
+	/**
+	 * Create a successful {@link AbstractResult}.
+	 */
+	protected AbstractResult() {
+		this.exception = null;
+	}
+
+	/**
+	 * Create a failed {@link AbstractResult} given {@link VaultException}.
+	 *
+	 * @param exception the cause of the failure.
+	 */
+	protected AbstractResult(VaultException exception) {
+		this.exception = exception;
+	}
+
+	/**
+	 * @return {@literal true} if the item was processed successfully.
+	 */
+	public boolean isSuccessful() {
+		return exception == null;
+	}
+
+	/**
+	 * @return the {@link VaultException} that caused the item to fail or {@literal null}
+	 * if the item was processed successfully.
+	 */
+	public VaultException getCause() {
+		return exception;
+	}
+
+	/**
+	 * Return the value or throw the {@link VaultException} that caused the item to fail.
+	 *
+	 * @return the value.
+	 * @throws VaultException if the item was not processed successfully.
+	 */
+	public V get() {
+
+		if (exception != null) {
+			throw exception;
+		}
+
+		return get0();
+	}
+
+	/**
+	 * @return the actual value.
+	 */
+	protected abstract V get0();
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.support;
+
+import org.springframework.util.Assert;
+
+/**
+ * Value object representing cipher text with an optional {@link VaultTransitContext}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see Plaintext
+ */
+public class Ciphertext {
+
+	private final String ciphertext;
+
+	private final VaultTransitContext context;
+
+	private Ciphertext(String ciphertext, VaultTransitContext context) {
+
+		this.ciphertext = ciphertext;
+		this.context = context;
+	}
+
+	/**
+	 * Factory method to create {@link Ciphertext} from the given {@code ciphertext}.
+	 *
+	 * @param ciphertext the cipher text to decrypt, must not be empty or
+	 * {@literal null}.
+	 * @return the {@link Ciphertext} for {@code ciphertext}.
+	 */
+	public static Ciphertext of(String ciphertext) {
+
+		Assert.hasText(ciphertext, "Ciphertext must not be empty");
+
+		return new Ciphertext(ciphertext, VaultTransitContext.empty());
+	}
+
+	/**
+	 * Create a new {@link Ciphertext} object associated with the given
+	 * {@link VaultTransitContext}.
+	 *
+	 * @param context transit context, must not be {@literal null}.
+	 * @return the new {@link Ciphertext} object.
+	 */
+	public Ciphertext with(VaultTransitContext context) {
+
+		Assert.notNull(context, "VaultTransitContext must not be null");
+
+		return new Ciphertext(this.ciphertext, context);
+	}
+
+	/**
+	 * @return the cipher text.
+	 */
+	public String getCiphertext() {
+		return ciphertext;
+	}
+
+	/**
+	 * @return the {@link VaultTransitContext}, never {@literal null}.
+	 */
+	public VaultTransitContext getContext() {
+		return context;
+	}
+}
@@ -17,10 +17,21 @@ package org.springframework.vault.support;
 
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.util.Assert;
+
 /**
- * Client options for Vault.
+ * Client options for Vault. Options consist of timeouts, connection pool settings and
+ * the retry policy. Pool settings are applied by HTTP clients that maintain a
+ * connection pool.
+ * <p>
+ * Apache HttpComponents enforces {@link #getMaxConnections()} and
+ * {@link #getMaxConnectionsPerRoute()} as connection limits. OkHttp applies them as
+ * {@code Dispatcher} limits which only bound concurrent asynchronous requests and
+ * retains up to {@link #getMaxConnectionsPerRoute()} idle connections, so synchronous
+ * requests through OkHttp are not limited by these settings.
  *
  * @author Mark Paluch
+ * @see #builder()
  */
 public class ClientOptions {
 
@@ -34,6 +45,41 @@ public class ClientOptions {
 	 */
 	private final int readTimeout;
 
+	/**
+	 * Maximum number of pooled connections.
+	 */
+	private final int maxConnections;
+
+	/**
+	 * Maximum number of pooled connections per route (host).
+	 */
+	private final int maxConnectionsPerRoute;
+
+	/**
+	 * Time after which idle connections are evicted from the pool.
+	 */
+	private final int idleTimeout;
+
+	/**
+	 * Maximum lifetime of a pooled connection, {@literal 0} for unlimited.
+	 */
+	private final int connectionTimeToLive;
+
+	/**
+	 * Period of inactivity after which a pooled connection is validated before reuse.
+	 */
+	private final int validateAfterInactivity;
+
+	/**
+	 * Whether to prefer HTTP/2 over TLS.
+	 */
+	private final boolean http2Enabled;
+
+	/**
+	 * Retry policy for idempotent requests.
+	 */
+	private final RetryPolicy retryPolicy;
+
 	/**
 	 * Create new {@link ClientOptions} with default timeouts of {@literal 5}
 	 * {@link TimeUnit#SECONDS} connection timeout and {@literal 15}
@@ -44,7 +90,7 @@ public class ClientOptions {
 	}
 
 	/**
-	 * Create new {@link ClientOptions}.
+	 * Create new {@link ClientOptions} using default connection pool settings.
 	 *
 	 * @param connectionTimeout connection timeout in {@link TimeUnit#MILLISECONDS}, must
 	 * be greater {@literal 0}.
@@ -52,8 +98,32 @@ public class ClientOptions {
 	 * {@literal 0}.
 	 */
 	public ClientOptions(int connectionTimeout, int readTimeout) {
+		this(connectionTimeout, readTimeout, 100, 50, (int) TimeUnit.SECONDS
+				.toMillis(60), 0, (int) TimeUnit.SECONDS.toMillis(2), false,
+				RetryPolicy.none());
+	}
+
+	ClientOptions(int connectionTimeout, int readTimeout, int maxConnections,
+			int maxConnectionsPerRoute, int idleTimeout, int connectionTimeToLive,
+			int validateAfterInactivity, boolean http2Enabled, RetryPolicy retryPolicy) {
+
 		this.connectionTimeout = connectionTimeout;
 		this.readTimeout = readTimeout;
+		this.maxConnections = maxConnections;
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+		this.idleTimeout = idleTimeout;
+		this.connectionTimeToLive = connectionTimeToLive;
+		this.validateAfterInactivity = validateAfterInactivity;
+		this.http2Enabled = http2Enabled;
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * @return a new {@link ClientOptionsBuilder} initialized with default options.
+	 * @since 1.1
+	 */
+	public static ClientOptionsBuilder builder() {
+		return new ClientOptionsBuilder();
 	}
 
 	/**
@@ -70,4 +140,245 @@ public class ClientOptions {
 		return readTimeout;
 	}
 
+	/**
+	 * @return the maximum number of pooled connections. Limits concurrent asynchronous
+	 * requests only when using OkHttp.
+	 * @since 1.1
+	 */
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	/**
+	 * @return the maximum number of pooled connections per route. Limits concurrent
+	 * asynchronous requests per host and idle connections only when using OkHttp.
+	 * @since 1.1
+	 */
+	public int getMaxConnectionsPerRoute() {
+		return maxConnectionsPerRoute;
+	}
+
+	/**
+	 * @return the time in {@link TimeUnit#MILLISECONDS} after which idle connections are
+	 * evicted.
+	 * @since 1.1
+	 */
+	public int getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * @return the maximum connection lifetime in {@link TimeUnit#MILLISECONDS},
+	 * {@literal 0} if unlimited.
+	 * @since 1.1
+	 */
+	public int getConnectionTimeToLive() {
+		return connectionTimeToLive;
+	}
+
+	/**
+	 * @return the period of inactivity in {@link TimeUnit#MILLISECONDS} after which
+	 * pooled connections are validated before reuse.
+	 * @since 1.1
+	 */
+	public int getValidateAfterInactivity() {
+		return validateAfterInactivity;
+	}
+
+	/**
+	 * @return {@literal true} if HTTP/2 should be negotiated for TLS connections.
+	 * @since 1.1
+	 */
+	public boolean isHttp2Enabled() {
+		return http2Enabled;
+	}
+
+	/**
+	 * @return the {@link RetryPolicy} for idempotent requests.
+	 * @since 1.1
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Builder for {@link ClientOptions}.
+	 *
+	 * @since 1.1
+	 */
+	public static class ClientOptionsBuilder {
+
+		private int connectionTimeout = (int) TimeUnit.SECONDS.toMillis(5);
+
+		private int readTimeout = (int) TimeUnit.SECONDS.toMillis(15);
+
+		private int maxConnections = 100;
+
+		private int maxConnectionsPerRoute = 50;
+
+		private int idleTimeout = (int) TimeUnit.SECONDS.toMillis(60);
+
+		private int connectionTimeToLive = 0;
+
+		private int validateAfterInactivity = (int) TimeUnit.SECONDS.toMillis(2);
+
+		private boolean http2Enabled;
+
+		private RetryPolicy retryPolicy = RetryPolicy.none();
+
+		ClientOptionsBuilder() {
+		}
+
+		/**
+		 * Set the connection timeout.
+		 *
+		 * @param connectionTimeout connection timeout in {@link TimeUnit#MILLISECONDS},
+		 * must be greater {@literal 0}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder connectionTimeout(int connectionTimeout) {
+
+			Assert.isTrue(connectionTimeout > 0, "Connection timeout must be greater 0");
+
+			this.connectionTimeout = connectionTimeout;
+			return this;
+		}
+
+		/**
+		 * Set the read timeout.
+		 *
+		 * @param readTimeout read timeout in {@link TimeUnit#MILLISECONDS}, must be
+		 * greater {@literal 0}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder readTimeout(int readTimeout) {
+
+			Assert.isTrue(readTimeout > 0, "Read timeout must be greater 0");
+
+			this.readTimeout = readTimeout;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of pooled connections. OkHttp applies this value to
+		 * concurrent asynchronous requests only.
+		 *
+		 * @param maxConnections must be greater {@literal 0}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder maxConnections(int maxConnections) {
+
+			Assert.isTrue(maxConnections > 0, "Max connections must be greater 0");
+
+			this.maxConnections = maxConnections;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of pooled connections per route (host). OkHttp applies
+		 * this value to concurrent asynchronous requests per host and to the number of
+		 * idle connections retained.
+		 *
+		 * @param maxConnectionsPerRoute must be greater {@literal 0}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+
+			Assert.isTrue(maxConnectionsPerRoute > 0,
+					"Max connections per route must be greater 0");
+
+			this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+			return this;
+		}
+
+		/**
+		 * Set the time after which idle connections are evicted from the pool.
+		 *
+		 * @param idleTimeout idle timeout in {@link TimeUnit#MILLISECONDS}, must be
+		 * greater {@literal 0}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder idleTimeout(int idleTimeout) {
+
+			Assert.isTrue(idleTimeout > 0, "Idle timeout must be greater 0");
+
+			this.idleTimeout = idleTimeout;
+			return this;
+		}
+
+		/**
+		 * Set the maximum lifetime of a pooled connection.
+		 *
+		 * @param connectionTimeToLive connection lifetime in
+		 * {@link TimeUnit#MILLISECONDS}, {@literal 0} for unlimited. Must not be
+		 * negative.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder connectionTimeToLive(int connectionTimeToLive) {
+
+			Assert.isTrue(connectionTimeToLive >= 0,
+					"Connection time to live must not be negative");
+
+			this.connectionTimeToLive = connectionTimeToLive;
+			return this;
+		}
+
+		/**
+		 * Set the period of inactivity after which pooled connections are validated
+		 * before reuse.
+		 *
+		 * @param validateAfterInactivity period in {@link TimeUnit#MILLISECONDS}, must
+		 * not be negative.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder validateAfterInactivity(int validateAfterInactivity) {
+
+			Assert.isTrue(validateAfterInactivity >= 0,
+					"Validate after inactivity must not be negative");
+
+			this.validateAfterInactivity = validateAfterInactivity;
+			return this;
+		}
+
+		/**
+		 * Enable HTTP/2 for TLS connections. HTTP/2 multiplexes concurrent requests over
+		 * a single connection. Requires OkHttp 3 and ALPN support in the JVM. The
+		 * connection falls back to HTTP/1.1 if the server does not negotiate HTTP/2.
+		 *
+		 * @param http2Enabled {@literal true} to enable HTTP/2.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder http2(boolean http2Enabled) {
+
+			this.http2Enabled = http2Enabled;
+			return this;
+		}
+
+		/**
+		 * Set the {@link RetryPolicy} for idempotent requests such as reads, lists, lease
+		 * renewals and health checks. Requests are not retried by default.
+		 *
+		 * @param retryPolicy must not be {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 * @see RetryPolicy#builder()
+		 */
+		public ClientOptionsBuilder retryPolicy(RetryPolicy retryPolicy) {
+
+			Assert.notNull(retryPolicy, "RetryPolicy must not be null");
+
+			this.retryPolicy = retryPolicy;
+			return this;
+		}
+
+		/**
+		 * Build a new {@link ClientOptions} instance.
+		 *
+		 * @return a new {@link ClientOptions}.
+		 */
+		public ClientOptions build() {
+			return new ClientOptions(connectionTimeout, readTimeout, maxConnections,
+					maxConnectionsPerRoute, idleTimeout, connectionTimeToLive,
+					validateAfterInactivity, http2Enabled, retryPolicy);
+		}
+	}
 }
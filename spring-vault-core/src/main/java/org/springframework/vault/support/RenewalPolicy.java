@@ -0,0 +1,261 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.support;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+/**
+ * Policy to determine when to renew a lease or a login token given its time to live.
+ * Renewal is scheduled either a fixed {@link #getExpiryThreshold() threshold} before
+ * expiry or at a random point within a {@link #getMinTtlPercentage() percentage range}
+ * of the time to live. A random {@link #getJitter() jitter} moves renewals further
+ * ahead, and a {@link #getMinSpacing() minimum spacing} prevents renewals from happening
+ * too often.
+ * <p>
+ * Randomized renewal spreads renewals of many clients that obtained their leases or
+ * tokens at the same time (e.g. after a deployment) instead of renewing in lockstep.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see #builder()
+ * @see org.springframework.vault.core.lease.SecretLeaseContainer#setRenewalPolicy(RenewalPolicy)
+ * @see org.springframework.vault.authentication.LifecycleAwareSessionManager.RenewalPolicyRefreshTrigger
+ */
+public class RenewalPolicy {
+
+	private static final Random RANDOM = new Random();
+
+	/**
+	 * Time before expiry to renew if no percentage range is set.
+	 */
+	private final long expiryThreshold;
+
+	/**
+	 * Lower bound of the time to live percentage range, {@literal 0} if not set.
+	 */
+	private final double minTtlPercentage;
+
+	/**
+	 * Upper bound of the time to live percentage range, {@literal 0} if not set.
+	 */
+	private final double maxTtlPercentage;
+
+	/**
+	 * Upper bound of the random delay subtracted from the renewal time.
+	 */
+	private final long jitter;
+
+	/**
+	 * Minimum delay before renewing.
+	 */
+	private final long minSpacing;
+
+	private RenewalPolicy(long expiryThreshold, double minTtlPercentage,
+			double maxTtlPercentage, long jitter, long minSpacing) {
+
+		this.expiryThreshold = expiryThreshold;
+		this.minTtlPercentage = minTtlPercentage;
+		this.maxTtlPercentage = maxTtlPercentage;
+		this.jitter = jitter;
+		this.minSpacing = minSpacing;
+	}
+
+	/**
+	 * @return a new {@link RenewalPolicyBuilder} initialized with default options.
+	 */
+	public static RenewalPolicyBuilder builder() {
+		return new RenewalPolicyBuilder();
+	}
+
+	/**
+	 * Determine the delay until renewal for a lease or token with the given time to
+	 * live.
+	 *
+	 * @param leaseDurationSeconds the time to live in {@link TimeUnit#SECONDS}.
+	 * @return the renewal delay in {@link TimeUnit#MILLISECONDS}.
+	 */
+	public long getRenewalDelay(long leaseDurationSeconds) {
+		return getRenewalDelay(leaseDurationSeconds, RANDOM);
+	}
+
+	long getRenewalDelay(long leaseDurationSeconds, Random random) {
+
+		long ttl = TimeUnit.SECONDS.toMillis(leaseDurationSeconds);
+		long delay;
+
+		if (maxTtlPercentage > 0) {
+
+			double percentage = minTtlPercentage
+					+ (random.nextDouble() * (maxTtlPercentage - minTtlPercentage));
+			delay = (long) (ttl * percentage);
+		}
+		else {
+			delay = ttl - expiryThreshold;
+		}
+
+		if (jitter > 0) {
+			delay -= (long) (random.nextDouble() * jitter);
+		}
+
+		return Math.max(minSpacing, delay);
+	}
+
+	/**
+	 * @return the time in {@link TimeUnit#MILLISECONDS} before expiry to renew if no
+	 * percentage range is set.
+	 */
+	public long getExpiryThreshold() {
+		return expiryThreshold;
+	}
+
+	/**
+	 * @return the lower bound of the time to live percentage range or {@literal 0} if
+	 * renewals use the {@link #getExpiryThreshold() expiry threshold}.
+	 */
+	public double getMinTtlPercentage() {
+		return minTtlPercentage;
+	}
+
+	/**
+	 * @return the upper bound of the time to live percentage range or {@literal 0} if
+	 * renewals use the {@link #getExpiryThreshold() expiry threshold}.
+	 */
+	public double getMaxTtlPercentage() {
+		return maxTtlPercentage;
+	}
+
+	/**
+	 * @return the upper bound in {@link TimeUnit#MILLISECONDS} of the random delay
+	 * subtracted from the renewal time.
+	 */
+	public long getJitter() {
+		return jitter;
+	}
+
+	/**
+	 * @return the minimum delay in {@link TimeUnit#MILLISECONDS} before renewing.
+	 */
+	public long getMinSpacing() {
+		return minSpacing;
+	}
+
+	/**
+	 * Builder for {@link RenewalPolicy}.
+	 */
+	public static class RenewalPolicyBuilder {
+
+		private long expiryThreshold = TimeUnit.SECONDS.toMillis(60);
+
+		private double minTtlPercentage;
+
+		private double maxTtlPercentage;
+
+		private long jitter;
+
+		private long minSpacing = TimeUnit.SECONDS.toMillis(10);
+
+		RenewalPolicyBuilder() {
+		}
+
+		/**
+		 * Renew the given time before expiry. Clears a previously configured
+		 * {@link #ttlPercentage(double, double) percentage range}.
+		 *
+		 * @param expiryThreshold time before expiry, must not be negative.
+		 * @param timeUnit must not be {@literal null}.
+		 * @return {@code this} {@link RenewalPolicyBuilder}.
+		 */
+		public RenewalPolicyBuilder expiryThreshold(long expiryThreshold,
+				TimeUnit timeUnit) {
+
+			Assert.isTrue(expiryThreshold >= 0, "Expiry threshold must not be negative");
+			Assert.notNull(timeUnit, "TimeUnit must not be null");
+
+			this.expiryThreshold = timeUnit.toMillis(expiryThreshold);
+			this.minTtlPercentage = 0;
+			this.maxTtlPercentage = 0;
+			return this;
+		}
+
+		/**
+		 * Renew at a random point between {@code minPercentage} and
+		 * {@code maxPercentage} of the time to live, e.g. {@code ttlPercentage(0.5, 0.8)}
+		 * renews between 50% and 80% of the time to live.
+		 *
+		 * @param minPercentage lower bound, must be greater {@literal 0}.
+		 * @param maxPercentage upper bound, must not be less than {@code minPercentage}
+		 * and must be less than {@literal 1}.
+		 * @return {@code this} {@link RenewalPolicyBuilder}.
+		 */
+		public RenewalPolicyBuilder ttlPercentage(double minPercentage,
+				double maxPercentage) {
+
+			Assert.isTrue(minPercentage > 0, "Min percentage must be greater 0");
+			Assert.isTrue(maxPercentage >= minPercentage,
+					"Max percentage must be greater or equal to min percentage");
+			Assert.isTrue(maxPercentage < 1, "Max percentage must be less than 1");
+
+			this.minTtlPercentage = minPercentage;
+			this.maxTtlPercentage = maxPercentage;
+			return this;
+		}
+
+		/**
+		 * Renew earlier by a random delay between {@literal 0} and {@code jitter}.
+		 *
+		 * @param jitter upper bound of the random delay, must not be negative.
+		 * @param timeUnit must not be {@literal null}.
+		 * @return {@code this} {@link RenewalPolicyBuilder}.
+		 */
+		public RenewalPolicyBuilder jitter(long jitter, TimeUnit timeUnit) {
+
+			Assert.isTrue(jitter >= 0, "Jitter must not be negative");
+			Assert.notNull(timeUnit, "TimeUnit must not be null");
+
+			this.jitter = timeUnit.toMillis(jitter);
+			return this;
+		}
+
+		/**
+		 * Set the minimum delay before renewing.
+		 *
+		 * @param minSpacing minimum delay, must not be negative.
+		 * @param timeUnit must not be {@literal null}.
+		 * @return {@code this} {@link RenewalPolicyBuilder}.
+		 */
+		public RenewalPolicyBuilder minSpacing(long minSpacing, TimeUnit timeUnit) {
+
+			Assert.isTrue(minSpacing >= 0, "Min spacing must not be negative");
+			Assert.notNull(timeUnit, "TimeUnit must not be null");
+
+			this.minSpacing = timeUnit.toMillis(minSpacing);
+			return this;
+		}
+
+		/**
+		 * Build a new {@link RenewalPolicy} instance.
+		 *
+		 * @return a new {@link RenewalPolicy}.
+		 */
+		public RenewalPolicy build() {
+			return new RenewalPolicy(expiryThreshold, minTtlPercentage,
+					maxTtlPercentage, jitter, minSpacing);
+		}
+	}
+}
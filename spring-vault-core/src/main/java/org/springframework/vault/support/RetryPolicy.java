@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+/**
+ * Retry policy for idempotent Vault requests. Retries are delayed using exponential
+ * backoff with full jitter and limited by a retry budget. The retry budget allows a
+ * burst of {@link #getRetryBudgetCapacity() capacity} retries and refills by
+ * {@link #getRetryBudgetRatio() ratio} for each request so retries cannot exceed the
+ * given ratio of the overall request volume while Vault is unavailable.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see #builder()
+ * @see org.springframework.vault.client.RetryingClientHttpRequestFactory
+ */
+public class RetryPolicy {
+
+	private static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0, 0);
+
+	/**
+	 * Maximum number of attempts including the initial attempt.
+	 */
+	private final int maxAttempts;
+
+	/**
+	 * Backoff before the first retry.
+	 */
+	private final long initialBackoff;
+
+	/**
+	 * Upper bound for backoff and {@literal Retry-After} delays.
+	 */
+	private final long maxBackoff;
+
+	/**
+	 * Retry budget tokens earned per request.
+	 */
+	private final double retryBudgetRatio;
+
+	/**
+	 * Maximum number of retry budget tokens.
+	 */
+	private final int retryBudgetCapacity;
+
+	private RetryPolicy(int maxAttempts, long initialBackoff, long maxBackoff,
+			double retryBudgetRatio, int retryBudgetCapacity) {
+
+		this.maxAttempts = maxAttempts;
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		this.retryBudgetRatio = retryBudgetRatio;
+		this.retryBudgetCapacity = retryBudgetCapacity;
+	}
+
+	/**
+	 * @return a {@link RetryPolicy} that does not retry requests.
+	 */
+	public static RetryPolicy none() {
+		return NONE;
+	}
+
+	/**
+	 * @return a new {@link RetryPolicyBuilder} initialized with default options.
+	 */
+	public static RetryPolicyBuilder builder() {
+		return new RetryPolicyBuilder();
+	}
+
+	/**
+	 * @return {@literal true} if requests are retried.
+	 */
+	public boolean isEnabled() {
+		return maxAttempts > 1;
+	}
+
+	/**
+	 * @return the maximum number of attempts including the initial attempt.
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * @return the backoff in {@link TimeUnit#MILLISECONDS} before the first retry.
+	 */
+	public long getInitialBackoff() {
+		return initialBackoff;
+	}
+
+	/**
+	 * @return the upper bound in {@link TimeUnit#MILLISECONDS} for backoff and
+	 * {@literal Retry-After} delays.
+	 */
+	public long getMaxBackoff() {
+		return maxBackoff;
+	}
+
+	/**
+	 * @return the retry budget tokens earned per request.
+	 */
+	public double getRetryBudgetRatio() {
+		return retryBudgetRatio;
+	}
+
+	/**
+	 * @return the maximum number of retry budget tokens.
+	 */
+	public int getRetryBudgetCapacity() {
+		return retryBudgetCapacity;
+	}
+
+	/**
+	 * Builder for {@link RetryPolicy}.
+	 */
+	public static class RetryPolicyBuilder {
+
+		private int maxAttempts = 3;
+
+		private long initialBackoff = 100;
+
+		private long maxBackoff = TimeUnit.SECONDS.toMillis(5);
+
+		private double retryBudgetRatio = 0.1;
+
+		private int retryBudgetCapacity = 10;
+
+		RetryPolicyBuilder() {
+		}
+
+		/**
+		 * Set the maximum number of attempts including the initial attempt.
+		 *
+		 * @param maxAttempts must be greater {@literal 0}.
+		 * @return {@code this} {@link RetryPolicyBuilder}.
+		 */
+		public RetryPolicyBuilder maxAttempts(int maxAttempts) {
+
+			Assert.isTrue(maxAttempts > 0, "Max attempts must be greater 0");
+
+			this.maxAttempts = maxAttempts;
+			return this;
+		}
+
+		/**
+		 * Set the exponential backoff bounds. The backoff doubles with each retry up to
+		 * {@code maxBackoff}. The actual delay is chosen randomly between {@literal 0}
+		 * and the backoff.
+		 *
+		 * @param initialBackoff backoff in {@link TimeUnit#MILLISECONDS} before the
+		 * first retry, must not be negative.
+		 * @param maxBackoff upper bound in {@link TimeUnit#MILLISECONDS}, must not be
+		 * less than {@code initialBackoff}.
+		 * @return {@code this} {@link RetryPolicyBuilder}.
+		 */
+		public RetryPolicyBuilder backoff(long initialBackoff, long maxBackoff) {
+
+			Assert.isTrue(initialBackoff >= 0, "Initial backoff must not be negative");
+			Assert.isTrue(maxBackoff >= initialBackoff,
+					"Max backoff must be greater or equal to initial backoff");
+
+			this.initialBackoff = initialBackoff;
+			this.maxBackoff = maxBackoff;
+			return this;
+		}
+
+		/**
+		 * Configure the retry budget.
+		 *
+		 * @param ratio retry budget tokens earned per request, must not be negative.
+		 * @param capacity maximum number of retry budget tokens, must be greater
+		 * {@literal 0}.
+		 * @return {@code this} {@link RetryPolicyBuilder}.
+		 */
+		public RetryPolicyBuilder retryBudget(double ratio, int capacity) {
+
+			Assert.isTrue(ratio >= 0, "Retry budget ratio must not be negative");
+			Assert.isTrue(capacity > 0, "Retry budget capacity must be greater 0");
+
+			this.retryBudgetRatio = ratio;
+			this.retryBudgetCapacity = capacity;
+			return this;
+		}
+
+		/**
+		 * Build a new {@link RetryPolicy} instance.
+		 *
+		 * @return a new {@link RetryPolicy}.
+		 */
+		public RetryPolicy build() {
+			return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff,
+					retryBudgetRatio, retryBudgetCapacity);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.support;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Summary of a bulk operation reporting paths that were processed successfully and
+ * failures by path. Paths are reported in the order they were submitted.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class VaultBulkResult {
+
+	private final List<String> succeeded;
+
+	private final Map<String, RuntimeException> failures;
+
+	/**
+	 * Create a new {@link VaultBulkResult}.
+	 *
+	 * @param succeeded must not be {@literal null}.
+	 * @param failures must not be {@literal null}.
+	 */
+	public VaultBulkResult(List<String> succeeded, Map<String, RuntimeException> failures) {
+
+		Assert.notNull(succeeded, "Succeeded paths must not be null");
+		Assert.notNull(failures, "Failures must not be null");
+
+		this.succeeded = Collections.unmodifiableList(succeeded);
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * @return {@literal true} if all paths were processed successfully.
+	 */
+	public boolean isSuccessful() {
+		return failures.isEmpty();
+	}
+
+	/**
+	 * @return paths that were processed successfully.
+	 */
+	public List<String> getSucceeded() {
+		return succeeded;
+	}
+
+	/**
+	 * @return the last exception by path for paths that could not be processed.
+	 */
+	public Map<String, RuntimeException> getFailures() {
+		return failures;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s [succeeded=%d, failed=%s]", getClass().getSimpleName(),
+				succeeded.size(), failures.keySet());
+	}
+}
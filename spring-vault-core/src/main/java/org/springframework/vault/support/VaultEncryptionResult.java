@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.support;
+
+import org.springframework.util.Assert;
+import org.springframework.vault.VaultException;
+
+/**
+ * Result of an encryption or rewrap operation within a batch.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class VaultEncryptionResult extends AbstractResult<Ciphertext> {
+
+	private final Ciphertext ciphertext;
+
+	/**
+	 * Create a successful {@link VaultEncryptionResult} given {@link Ciphertext}.
+	 *
+	 * @param ciphertext must not be {@literal null}.
+	 */
+	public VaultEncryptionResult(Ciphertext ciphertext) {
+
+		Assert.notNull(ciphertext, "Ciphertext must not be null");
+
+		this.ciphertext = ciphertext;
+	}
+
+	/**
+	 * Create a failed {@link VaultEncryptionResult} given {@link VaultException}.
+	 *
+	 * @param exception must not be {@literal null}.
+	 */
+	public VaultEncryptionResult(VaultException exception) {
+
+		super(exception);
+
+		Assert.notNull(exception, "VaultException must not be null");
+
+		this.ciphertext = null;
+	}
+
+	@Override
+	protected Ciphertext get0() {
+		return ciphertext;
+	}
+}
@@ -31,7 +31,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.Trigger;
 import org.springframework.vault.authentication.LifecycleAwareSessionManager.FixedTimeoutRefreshTrigger;
+import org.springframework.vault.authentication.LifecycleAwareSessionManager.RenewalPolicyRefreshTrigger;
 import org.springframework.vault.client.VaultHttpHeaders;
+import org.springframework.vault.support.RenewalPolicy;
 import org.springframework.vault.support.VaultToken;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestOperations;
@@ -104,6 +106,18 @@ public class LifecycleAwareSessionManagerUnitTests {
 		verifyZeroInteractions(restOperations);
 	}
 
+	@Test
+	public void shouldNotRevokeLoginTokenIfRevocationIsDisabled() {
+
+		when(clientAuthentication.login()).thenReturn(LoginToken.of("login"));
+
+		sessionManager.setRevokeTokenOnDestroy(false);
+		sessionManager.renewToken();
+		sessionManager.destroy();
+
+		verifyZeroInteractions(restOperations);
+	}
+
 	@Test
 	public void shouldNotThrowExceptionsOnRevokeErrors() {
 
@@ -254,4 +268,17 @@ public class LifecycleAwareSessionManagerUnitTests {
 				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(0)),
 				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(2)));
 	}
+
+	@Test
+	public void shouldScheduleNextExecutionUsingRenewalPolicy() {
+
+		RenewalPolicyRefreshTrigger trigger = new RenewalPolicyRefreshTrigger(
+				RenewalPolicy.builder().ttlPercentage(0.5, 0.8)
+						.minSpacing(0, TimeUnit.SECONDS).build());
+
+		Date nextExecutionTime = trigger.nextExecutionTime(LoginToken.of("foo", 60));
+		assertThat(nextExecutionTime).isBetween(
+				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(29)),
+				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(49)));
+	}
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.vault.client.CircuitBreakingClientHttpRequestFactory.CircuitState;
+import org.springframework.vault.client.CircuitBreakingClientHttpRequestFactory.OperationClass;
+import org.springframework.vault.client.RetryingClientHttpRequestFactoryUnitTests.ScriptedRequestFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link CircuitBreakingClientHttpRequestFactory}.
+ *
+ * @author Mark Paluch
+ */
+public class CircuitBreakingClientHttpRequestFactoryUnitTests {
+
+	private final ScriptedRequestFactory delegate = new ScriptedRequestFactory();
+
+	private long now = 1000;
+
+	private CircuitBreakingClientHttpRequestFactory requestFactory;
+
+	@Before
+	public void before() {
+
+		requestFactory = new CircuitBreakingClientHttpRequestFactory(delegate) {
+			@Override
+			protected long currentTimeMillis() {
+				return now;
+			}
+		};
+
+		requestFactory.setCircuitBreaker(OperationClass.KV, 2, 1000);
+	}
+
+	@Test
+	public void shouldClassifyRequestsByMount() {
+
+		requestFactory.setOperationClass("encryption/", OperationClass.TRANSIT);
+
+		assertThat(classify("secret/foo")).isEqualTo(OperationClass.KV);
+		assertThat(classify("sys/health")).isEqualTo(OperationClass.SYS);
+		assertThat(classify("auth/token/lookup-self")).isEqualTo(OperationClass.AUTH);
+		assertThat(classify("transit/encrypt/key")).isEqualTo(OperationClass.TRANSIT);
+		assertThat(classify("pki/issue/role")).isEqualTo(OperationClass.PKI);
+		assertThat(classify("encryption/encrypt/key")).isEqualTo(OperationClass.TRANSIT);
+		assertThat(classify("transitive/foo")).isEqualTo(OperationClass.KV);
+	}
+
+	@Test
+	public void shouldOpenCircuitAfterConsecutiveFailures() throws Exception {
+
+		delegate.respond(HttpStatus.SERVICE_UNAVAILABLE).disconnect()
+				.respond(HttpStatus.OK);
+
+		execute("secret/foo");
+
+		try {
+			execute("secret/foo");
+			fail("Missing IOException");
+		}
+		catch (IOException e) {
+			assertThat(e).isNotInstanceOf(CallNotPermittedException.class);
+		}
+
+		assertThat(requestFactory.getCircuitState(OperationClass.KV)).isEqualTo(
+				CircuitState.OPEN);
+
+		try {
+			execute("secret/foo");
+			fail("Missing CallNotPermittedException");
+		}
+		catch (CallNotPermittedException e) {
+			assertThat(delegate.requests.get(2).isExecuted()).isFalse();
+		}
+	}
+
+	@Test
+	public void shouldIsolateOperationClasses() throws Exception {
+
+		delegate.respond(HttpStatus.INTERNAL_SERVER_ERROR)
+				.respond(HttpStatus.INTERNAL_SERVER_ERROR).respond(HttpStatus.OK);
+
+		execute("secret/foo");
+		execute("secret/foo");
+
+		assertThat(execute("transit/encrypt/key").getStatusCode()).isEqualTo(
+				HttpStatus.OK);
+		assertThat(requestFactory.getCircuitState(OperationClass.TRANSIT)).isEqualTo(
+				CircuitState.CLOSED);
+	}
+
+	@Test
+	public void shouldCloseCircuitAfterSuccessfulTrial() throws Exception {
+
+		delegate.respond(HttpStatus.BAD_GATEWAY).respond(HttpStatus.BAD_GATEWAY)
+				.respond(HttpStatus.OK);
+
+		execute("secret/foo");
+		execute("secret/foo");
+		now += 1000;
+
+		assertThat(requestFactory.getCircuitState(OperationClass.KV)).isEqualTo(
+				CircuitState.HALF_OPEN);
+		assertThat(execute("secret/foo").getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(requestFactory.getCircuitState(OperationClass.KV)).isEqualTo(
+				CircuitState.CLOSED);
+	}
+
+	@Test
+	public void shouldReopenCircuitAfterFailedTrial() throws Exception {
+
+		delegate.respond(HttpStatus.BAD_GATEWAY).respond(HttpStatus.BAD_GATEWAY)
+				.respond(HttpStatus.BAD_GATEWAY);
+
+		execute("secret/foo");
+		execute("secret/foo");
+		now += 1000;
+		execute("secret/foo");
+
+		assertThat(requestFactory.getCircuitState(OperationClass.KV)).isEqualTo(
+				CircuitState.OPEN);
+	}
+
+	@Test
+	public void shouldIgnoreHealthStatus() throws Exception {
+
+		requestFactory.setCircuitBreaker(OperationClass.SYS, 1, 1000);
+		delegate.respond(HttpStatus.SERVICE_UNAVAILABLE);
+
+		execute("sys/health");
+
+		assertThat(requestFactory.getCircuitState(OperationClass.SYS)).isEqualTo(
+				CircuitState.CLOSED);
+	}
+
+	@Test
+	public void shouldRejectRequestsExceedingBulkhead() throws Exception {
+
+		requestFactory.setBulkhead(OperationClass.PKI, 1);
+		delegate.respond(HttpStatus.OK).respond(HttpStatus.OK).respond(HttpStatus.OK);
+
+		ClientHttpResponse response = execute("pki/issue/role");
+
+		try {
+			execute("pki/issue/role");
+			fail("Missing CallNotPermittedException");
+		}
+		catch (CallNotPermittedException e) {
+			assertThat(e).hasMessageContaining("Bulkhead");
+		}
+
+		response.close();
+
+		assertThat(execute("pki/issue/role").getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	private OperationClass classify(String path) {
+		return requestFactory.getOperationClass(URI.create("https://localhost:8200/v1/"
+				+ path));
+	}
+
+	private ClientHttpResponse execute(String path) throws IOException {
+		return requestFactory.createRequest(
+				URI.create("https://localhost:8200/v1/" + path), HttpMethod.GET)
+				.execute();
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link HealthAwareVaultEndpointProvider}.
+ *
+ * @author Mark Paluch
+ */
+public class HealthAwareVaultEndpointProviderUnitTests {
+
+	private final VaultEndpoint active = VaultEndpoint.create("vault-1", 8200);
+
+	private final VaultEndpoint standby = VaultEndpoint.create("vault-2", 8200);
+
+	private final VaultEndpoint perfStandby = VaultEndpoint.create("vault-3", 8200);
+
+	private final Map<String, Integer> statusCodes = new HashMap<String, Integer>();
+
+	private final StubRequestFactory requestFactory = new StubRequestFactory();
+
+	private long time = 1000;
+
+	private HealthAwareVaultEndpointProvider provider;
+
+	@Before
+	public void before() {
+
+		statusCodes.put("vault-1", 200);
+		statusCodes.put("vault-2", 429);
+		statusCodes.put("vault-3", 473);
+
+		provider = new HealthAwareVaultEndpointProvider(Arrays.asList(standby, active,
+				perfStandby), requestFactory) {
+
+			@Override
+			protected long currentTimeMillis() {
+				return time;
+			}
+		};
+		provider.setHealthCheckIntervalMillis(60000);
+		provider.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception {
+		provider.destroy();
+	}
+
+	@Test
+	public void shouldRouteWritesToActiveNode() {
+		assertThat(provider.getVaultEndpoint()).isSameAs(active);
+	}
+
+	@Test
+	public void shouldRouteReadsToPerformanceStandby() throws Exception {
+
+		assertThat(provider.getReadEndpoint()).isSameAs(perfStandby);
+
+		ClientHttpRequest request = provider.createRequestFactory(requestFactory)
+				.createRequest(active.createUri("secret/foo"), HttpMethod.GET);
+
+		assertThat(request.getURI().getHost()).isEqualTo("vault-3");
+		assertThat(request.getURI().getPath()).isEqualTo("/v1/secret/foo");
+	}
+
+	@Test
+	public void shouldNotRerouteWrites() throws Exception {
+
+		ClientHttpRequest request = provider.createRequestFactory(requestFactory)
+				.createRequest(active.createUri("secret/foo"), HttpMethod.POST);
+
+		assertThat(request.getURI().getHost()).isEqualTo("vault-1");
+	}
+
+	@Test
+	public void shouldFallBackToActiveNodeWhenStandbyIsSealed() {
+
+		statusCodes.put("vault-3", 503);
+		provider.checkHealth();
+
+		assertThat(provider.getReadEndpoint()).isSameAs(active);
+	}
+
+	@Test
+	public void shouldEjectFailingNodeWithBackoff() throws Exception {
+
+		provider.setEjectionBackoff(1000, 10000);
+		requestFactory.failing = "vault-3";
+
+		ClientHttpRequest request = provider.createRequestFactory(requestFactory)
+				.createRequest(active.createUri("secret/foo"), HttpMethod.GET);
+
+		try {
+			request.execute();
+			fail("Missing IOException");
+		}
+		catch (IOException e) {
+		}
+
+		assertThat(provider.getReadEndpoint()).isSameAs(active);
+
+		time += 1001;
+		requestFactory.failing = null;
+		provider.checkHealth();
+
+		assertThat(provider.getReadEndpoint()).isSameAs(perfStandby);
+	}
+
+	class StubRequestFactory implements ClientHttpRequestFactory {
+
+		String failing;
+
+		@Override
+		public ClientHttpRequest createRequest(final URI uri, HttpMethod httpMethod)
+				throws IOException {
+
+			if (uri.getHost().equals(failing)) {
+				return new MockClientHttpRequest(httpMethod, uri) {
+
+					@Override
+					protected ClientHttpResponse executeInternal() throws IOException {
+						throw new IOException("Connection refused");
+					}
+				};
+			}
+
+			MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+			request.setResponse(new StubResponse(statusCodes.get(uri.getHost())));
+
+			return request;
+		}
+	}
+
+	static class StubResponse extends AbstractClientHttpResponse {
+
+		private final int statusCode;
+
+		StubResponse(int statusCode) {
+			this.statusCode = statusCode;
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return statusCode;
+		}
+
+		@Override
+		public String getStatusText() {
+			return "";
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return new HttpHeaders();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.vault.client.InMemoryVaultMetricsRecorder.RequestStatistics;
+import org.springframework.vault.client.RetryingClientHttpRequestFactoryUnitTests.ScriptedRequestFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link InstrumentingClientHttpRequestFactory}.
+ *
+ * @author Mark Paluch
+ */
+public class InstrumentingClientHttpRequestFactoryUnitTests {
+
+	private final ScriptedRequestFactory delegate = new ScriptedRequestFactory();
+
+	private final InMemoryVaultMetricsRecorder recorder = new InMemoryVaultMetricsRecorder();
+
+	private final InstrumentingClientHttpRequestFactory requestFactory = new InstrumentingClientHttpRequestFactory(
+			delegate, recorder);
+
+	@Test
+	public void shouldDeriveOperationFromPath() {
+
+		assertThat(operation("/v1/sys/renew/database/creds/foo/1234")).isEqualTo(
+				"sys/renew");
+		assertThat(operation("/v1/sys/leases/renew")).isEqualTo("sys/leases/renew");
+		assertThat(operation("/v1/sys/health")).isEqualTo("sys/health");
+		assertThat(operation("/v1/auth/approle/login")).isEqualTo("auth/*/login");
+		assertThat(operation("/v1/auth/userpass/login/walter")).isEqualTo(
+				"auth/*/login");
+		assertThat(operation("/v1/auth/token/lookup-self")).isEqualTo(
+				"auth/token/lookup-self");
+		assertThat(operation("/v1/transit/encrypt/my-key")).isEqualTo(
+				"{mount}/encrypt");
+		assertThat(operation("/v1/my/transit/decrypt/my-key")).isEqualTo(
+				"{mount}/decrypt");
+		assertThat(operation("/v1/pki/issue/my-role")).isEqualTo("{mount}/issue");
+		assertThat(operation("/v1/database/creds/readonly")).isEqualTo("{mount}/creds");
+		assertThat(operation("/v1/secret/my/application")).isEqualTo("{mount}");
+	}
+
+	@Test
+	public void shouldRecordRequest() throws Exception {
+
+		delegate.respond(HttpStatus.OK);
+
+		ClientHttpRequest request = requestFactory.createRequest(
+				URI.create("https://localhost:8200/v1/transit/encrypt/my-key"),
+				HttpMethod.POST);
+		request.getBody().write("{\"plaintext\":\"Zm9v\"}".getBytes());
+
+		ClientHttpResponse response = request.execute();
+		StreamUtils.copyToByteArray(response.getBody());
+
+		assertThat(recorder.getStatistics()).isEmpty();
+
+		response.close();
+
+		List<RequestStatistics> statistics = recorder.getStatistics();
+		assertThat(statistics).hasSize(1);
+
+		RequestStatistics stats = statistics.get(0);
+		assertThat(stats.getOperation()).isEqualTo("{mount}/encrypt");
+		assertThat(stats.getMethod()).isEqualTo(HttpMethod.POST);
+		assertThat(stats.getStatus()).isEqualTo("200");
+		assertThat(stats.getEndpoint()).isEqualTo("https://localhost:8200");
+		assertThat(stats.getCount()).isEqualTo(1);
+		assertThat(stats.getRequestBytes()).isEqualTo(20);
+	}
+
+	@Test
+	public void shouldRecordIOException() throws Exception {
+
+		delegate.disconnect();
+
+		try {
+			requestFactory.createRequest(
+					URI.create("https://localhost:8200/v1/secret/foo"), HttpMethod.GET)
+					.execute();
+			fail("Missing IOException");
+		}
+		catch (IOException e) {
+
+			RequestStatistics stats = recorder.getStatistics("{mount}");
+			assertThat(stats.getCount()).isEqualTo(1);
+			assertThat(recorder.getStatistics().get(0).getStatus()).isEqualTo(
+					"IO_ERROR");
+		}
+	}
+
+	@Test
+	public void shouldRecordResponseBytes() throws Exception {
+
+		delegate.responses.add(new MockClientHttpResponse("{\"data\":{}}".getBytes(),
+				HttpStatus.OK));
+
+		ClientHttpResponse response = requestFactory.createRequest(
+				URI.create("https://localhost:8200/v1/secret/foo"), HttpMethod.GET)
+				.execute();
+		StreamUtils.copyToByteArray(response.getBody());
+		response.close();
+
+		assertThat(recorder.getStatistics("{mount}").getResponseBytes()).isEqualTo(11);
+	}
+
+	private static String operation(String path) {
+		return InstrumentingClientHttpRequestFactory.getOperation(path);
+	}
+}
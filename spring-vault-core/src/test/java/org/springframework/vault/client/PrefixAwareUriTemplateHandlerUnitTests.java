@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.vault.client.VaultClients.PrefixAwareUriTemplateHandler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link PrefixAwareUriTemplateHandler}.
+ *
+ * @author Mark Paluch
+ */
+public class PrefixAwareUriTemplateHandlerUnitTests {
+
+	@Test
+	public void shouldExpandRelativeTemplate() {
+
+		PrefixAwareUriTemplateHandler handler = new PrefixAwareUriTemplateHandler(
+				SimpleVaultEndpointProvider.of(VaultEndpoint.create("localhost", 8200)));
+
+		URI uri = handler.expand("sys/renew/{leaseId}", "foo/bar baz");
+
+		assertThat(uri.toString()).isEqualTo(
+				"https://localhost:8200/v1/sys/renew/foo/bar%20baz");
+	}
+
+	@Test
+	public void shouldExpandCachedTemplateWithDifferentVariables() {
+
+		PrefixAwareUriTemplateHandler handler = new PrefixAwareUriTemplateHandler(
+				SimpleVaultEndpointProvider.of(VaultEndpoint.create("localhost", 8200)));
+
+		assertThat(
+				handler.expand("{path}/issue/{roleName}", "pki", "web").toString())
+				.isEqualTo("https://localhost:8200/v1/pki/issue/web");
+		Map<String, String> variables = new HashMap<String, String>();
+		variables.put("path", "intermediate");
+		variables.put("roleName", "mail");
+
+		assertThat(handler.expand("{path}/issue/{roleName}", variables).getPath())
+				.isEqualTo("/v1/intermediate/issue/mail");
+	}
+
+	@Test
+	public void shouldRecomputeBaseUrlWhenEndpointChanges() {
+
+		final VaultEndpoint endpoint = VaultEndpoint.create("localhost", 8200);
+
+		PrefixAwareUriTemplateHandler handler = new PrefixAwareUriTemplateHandler(
+				SimpleVaultEndpointProvider.of(endpoint));
+
+		String baseUrl = handler.getBaseUrl();
+
+		assertThat(handler.getBaseUrl()).isSameAs(baseUrl);
+
+		endpoint.setHost("vault.example.com");
+
+		assertThat(handler.getBaseUrl()).isEqualTo("https://vault.example.com:8200/v1");
+	}
+
+	@Test
+	public void shouldExpandWithoutBaseUrl() {
+
+		PrefixAwareUriTemplateHandler handler = new PrefixAwareUriTemplateHandler();
+
+		assertThat(handler.expand("auth/{mount}/login", "app-id").toString())
+				.isEqualTo("/auth/app-id/login");
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.vault.support.RetryPolicy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link RetryingClientHttpRequestFactory}.
+ *
+ * @author Mark Paluch
+ */
+public class RetryingClientHttpRequestFactoryUnitTests {
+
+	private final ScriptedRequestFactory delegate = new ScriptedRequestFactory();
+
+	private final RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(3)
+			.backoff(0, 1000).build();
+
+	private final RetryingClientHttpRequestFactory requestFactory = new RetryingClientHttpRequestFactory(
+			delegate, retryPolicy);
+
+	@Test
+	public void shouldRetryReadOnServiceUnavailable() throws Exception {
+
+		delegate.respond(HttpStatus.SERVICE_UNAVAILABLE).respond(HttpStatus.OK);
+
+		ClientHttpResponse response = execute("secret/foo", HttpMethod.GET);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(delegate.requests).hasSize(2);
+	}
+
+	@Test
+	public void shouldRetryReadOnIOException() throws Exception {
+
+		delegate.disconnect().disconnect().disconnect();
+
+		try {
+			execute("secret/foo", HttpMethod.GET);
+			fail("Missing IOException");
+		}
+		catch (IOException e) {
+			assertThat(delegate.requests).hasSize(3);
+		}
+	}
+
+	@Test
+	public void shouldNotRetryCallsRejectedByCircuitBreaker() throws Exception {
+
+		delegate.reject().respond(HttpStatus.OK);
+
+		try {
+			execute("secret/foo", HttpMethod.GET);
+			fail("Missing CallNotPermittedException");
+		}
+		catch (CallNotPermittedException e) {
+			assertThat(delegate.requests).hasSize(1);
+		}
+	}
+
+	@Test
+	public void shouldNotRetryWrites() throws Exception {
+
+		delegate.respond(HttpStatus.SERVICE_UNAVAILABLE);
+
+		ClientHttpResponse response = execute("secret/foo", HttpMethod.POST);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(delegate.requests).hasSize(1);
+	}
+
+	@Test
+	public void shouldResendBodyOfRenewal() throws Exception {
+
+		delegate.respond(HttpStatus.BAD_GATEWAY).respond(HttpStatus.OK);
+
+		ClientHttpRequest request = requestFactory.createRequest(
+				URI.create("https://localhost:8200/v1/sys/renew"), HttpMethod.PUT);
+		request.getBody().write("{\"lease_id\":\"foo\"}".getBytes());
+
+		assertThat(request.execute().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(delegate.requests).hasSize(2);
+		assertThat(delegate.requests.get(1).getBodyAsString()).isEqualTo(
+				"{\"lease_id\":\"foo\"}");
+	}
+
+	@Test
+	public void shouldNotRetryHealthStatus() throws Exception {
+
+		delegate.respond(HttpStatus.TOO_MANY_REQUESTS);
+
+		ClientHttpResponse response = execute("sys/health", HttpMethod.GET);
+
+		assertThat(response.getRawStatusCode()).isEqualTo(429);
+		assertThat(delegate.requests).hasSize(1);
+	}
+
+	@Test
+	public void shouldRespectRetryAfter() {
+
+		assertThat(requestFactory.getDelay(1, 500)).isEqualTo(500);
+		assertThat(requestFactory.getDelay(1, 2000)).isEqualTo(-1);
+	}
+
+	@Test
+	public void shouldNotRetryIfRetryAfterExceedsMaxBackoff() throws Exception {
+
+		delegate.respond(HttpStatus.TOO_MANY_REQUESTS).respond(HttpStatus.OK);
+		delegate.responses.getFirst().getHeaders().set("Retry-After", "120");
+
+		ClientHttpResponse response = execute("secret/foo", HttpMethod.GET);
+
+		assertThat(response.getRawStatusCode()).isEqualTo(429);
+		assertThat(delegate.requests).hasSize(1);
+	}
+
+	@Test
+	public void shouldStopRetryingWhenBudgetIsExhausted() throws Exception {
+
+		RetryingClientHttpRequestFactory requestFactory = new RetryingClientHttpRequestFactory(
+				delegate, RetryPolicy.builder().maxAttempts(5).backoff(0, 0)
+						.retryBudget(0, 1).build());
+
+		delegate.respond(HttpStatus.SERVICE_UNAVAILABLE)
+				.respond(HttpStatus.SERVICE_UNAVAILABLE).respond(HttpStatus.OK);
+
+		ClientHttpResponse response = requestFactory.createRequest(
+				URI.create("https://localhost:8200/v1/secret/foo"), HttpMethod.GET)
+				.execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(delegate.requests).hasSize(2);
+	}
+
+	private ClientHttpResponse execute(String path, HttpMethod method) throws IOException {
+		return requestFactory.createRequest(
+				URI.create("https://localhost:8200/v1/" + path), method).execute();
+	}
+
+	static class ScriptedRequestFactory implements ClientHttpRequestFactory {
+
+		final LinkedList<MockClientHttpResponse> responses = new LinkedList<MockClientHttpResponse>();
+
+		final LinkedList<IOException> failures = new LinkedList<IOException>();
+
+		final List<MockClientHttpRequest> requests = new ArrayList<MockClientHttpRequest>();
+
+		ScriptedRequestFactory respond(HttpStatus status) {
+
+			responses.add(new MockClientHttpResponse(new byte[0], status));
+			return this;
+		}
+
+		ScriptedRequestFactory disconnect() {
+			return failWith(new IOException("Connection reset"));
+		}
+
+		ScriptedRequestFactory reject() {
+			return failWith(new CallNotPermittedException("Circuit breaker is open"));
+		}
+
+		private ScriptedRequestFactory failWith(IOException failure) {
+
+			responses.add(null);
+			failures.add(failure);
+			return this;
+		}
+
+		@Override
+		public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+
+			final MockClientHttpResponse response = responses.removeFirst();
+			final IOException failure = response == null ? failures.removeFirst() : null;
+
+			MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri) {
+
+				@Override
+				protected ClientHttpResponse executeInternal() throws IOException {
+
+					if (failure != null) {
+						throw failure;
+					}
+
+					return response;
+				}
+			};
+
+			requests.add(request);
+
+			return request;
+		}
+	}
+}
@@ -62,6 +62,24 @@ public class ClientHttpRequestFactoryFactoryIntegrationTests {
 		((DisposableBean) factory).destroy();
 	}
 
+	@Test
+	public void httpComponentsClientWithConnectionPoolOptionsShouldWork()
+			throws Exception {
+
+		ClientOptions options = ClientOptions.builder().maxConnections(20)
+				.maxConnectionsPerRoute(20).idleTimeout(1000)
+				.connectionTimeToLive(60000).validateAfterInactivity(500).build();
+
+		ClientHttpRequestFactory factory = HttpComponents.usingHttpComponents(options,
+				Settings.createSslConfiguration());
+		RestTemplate template = new RestTemplate(factory);
+
+		assertThat(request(template)).isNotNull().contains("initialized");
+		assertThat(request(template)).isNotNull().contains("initialized");
+
+		((DisposableBean) factory).destroy();
+	}
+
 	@Test
 	public void nettyClientShouldWork() throws Exception {
 
@@ -108,6 +126,22 @@ public class ClientHttpRequestFactoryFactoryIntegrationTests {
 		((DisposableBean) factory).destroy();
 	}
 
+	@Test
+	public void http2ShouldPreferOkHttp3() throws Exception {
+
+		ClientHttpRequestFactory factory = ClientHttpRequestFactoryFactory.create(
+				ClientOptions.builder().http2(true).build(),
+				Settings.createSslConfiguration());
+		RestTemplate template = new RestTemplate(factory);
+
+		String response = request(template);
+
+		assertThat(factory).isInstanceOf(OkHttp3ClientHttpRequestFactory.class);
+		assertThat(response).isNotNull().contains("initialized");
+
+		((DisposableBean) factory).destroy();
+	}
+
 	private String request(RestTemplate template) {
 
 		// Uninitialized and sealed can cause status 500
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.config;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.Test;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.vault.config.ClientHttpRequestFactoryFactory.OkHttp3;
+import org.springframework.vault.support.ClientOptions;
+import org.springframework.vault.support.SslConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ClientHttpRequestFactoryFactory}.
+ *
+ * @author Mark Paluch
+ */
+public class ClientHttpRequestFactoryFactoryUnitTests {
+
+	@Test
+	public void okHttp3ShouldUseHttp11OnlyIfHttp2IsDisabled() throws Exception {
+
+		ClientHttpRequestFactory factory = OkHttp3.usingOkHttp3(ClientOptions
+				.builder().http2(false).build(), SslConfiguration.NONE);
+
+		assertThat(getClient(factory).protocols()).containsExactly(Protocol.HTTP_1_1);
+
+		((DisposableBean) factory).destroy();
+	}
+
+	@Test
+	public void okHttp3ShouldPreferHttp2IfEnabled() throws Exception {
+
+		ClientHttpRequestFactory factory = OkHttp3.usingOkHttp3(ClientOptions
+				.builder().http2(true).build(), SslConfiguration.NONE);
+
+		assertThat(getClient(factory).protocols()).containsExactly(Protocol.HTTP_2,
+				Protocol.HTTP_1_1);
+
+		((DisposableBean) factory).destroy();
+	}
+
+	private static OkHttpClient getClient(ClientHttpRequestFactory factory) {
+		return (OkHttpClient) ReflectionTestUtils.getField(factory, "client");
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.core.AsyncVaultOperationsAdapter.RejectionPolicy;
+import org.springframework.vault.support.VaultResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AsyncVaultOperationsAdapter}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncVaultOperationsAdapterUnitTests {
+
+	@Mock
+	private VaultOperations vaultOperations;
+
+	private AsyncVaultOperationsAdapter adapter;
+
+	@After
+	public void after() throws Exception {
+
+		if (adapter != null) {
+			adapter.destroy();
+		}
+	}
+
+	@Test
+	public void shouldReadAsynchronously() throws Exception {
+
+		VaultResponse response = new VaultResponse();
+		when(vaultOperations.read("secret/foo")).thenReturn(response);
+
+		adapter = createAdapter();
+
+		assertThat(adapter.read("secret/foo").get(1, TimeUnit.SECONDS)).isSameAs(
+				response);
+	}
+
+	@Test
+	public void shouldReportFailureThroughFuture() throws Exception {
+
+		when(vaultOperations.read("secret/foo")).thenThrow(new VaultException("Error"));
+
+		adapter = createAdapter();
+
+		try {
+			adapter.read("secret/foo").get(1, TimeUnit.SECONDS);
+			fail("Missing ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(VaultException.class);
+		}
+	}
+
+	@Test
+	public void shouldRejectCallsWhenSaturated() throws Exception {
+
+		final CountDownLatch release = new CountDownLatch(1);
+		when(vaultOperations.read("secret/foo")).thenAnswer(awaiting(release));
+
+		adapter = new AsyncVaultOperationsAdapter(vaultOperations);
+		adapter.setPoolSize(1);
+		adapter.setQueueCapacity(0);
+		adapter.setRejectionPolicy(RejectionPolicy.ABORT);
+		adapter.afterPropertiesSet();
+
+		ListenableFuture<VaultResponse> first = adapter.read("secret/foo");
+		ListenableFuture<VaultResponse> second = adapter.read("secret/foo");
+
+		try {
+			second.get(1, TimeUnit.SECONDS);
+			fail("Missing ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(TaskRejectedException.class);
+		}
+		finally {
+			release.countDown();
+		}
+
+		assertThat(first.get(1, TimeUnit.SECONDS)).isNull();
+	}
+
+	@Test
+	public void shouldRunOnCallerThreadWhenSaturated() throws Exception {
+
+		final CountDownLatch release = new CountDownLatch(1);
+		when(vaultOperations.read("secret/foo")).thenAnswer(awaiting(release));
+		when(vaultOperations.read("secret/bar")).thenReturn(new VaultResponse());
+
+		adapter = new AsyncVaultOperationsAdapter(vaultOperations);
+		adapter.setPoolSize(1);
+		adapter.setQueueCapacity(0);
+		adapter.setRejectionPolicy(RejectionPolicy.CALLER_RUNS);
+		adapter.afterPropertiesSet();
+
+		adapter.read("secret/foo");
+		ListenableFuture<VaultResponse> second = adapter.read("secret/bar");
+
+		assertThat(second.isDone()).isTrue();
+		release.countDown();
+	}
+
+	@Test
+	public void shouldRejectCallerRunsCallsAfterDestroy() throws Exception {
+
+		adapter = new AsyncVaultOperationsAdapter(vaultOperations);
+		adapter.setRejectionPolicy(RejectionPolicy.CALLER_RUNS);
+		adapter.afterPropertiesSet();
+		adapter.destroy();
+
+		ListenableFuture<VaultResponse> future = adapter.read("secret/foo");
+
+		try {
+			future.get(1, TimeUnit.SECONDS);
+			fail("Missing ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(TaskRejectedException.class);
+		}
+	}
+
+	@Test
+	public void shouldTimeoutSlowCalls() throws Exception {
+
+		final CountDownLatch release = new CountDownLatch(1);
+		when(vaultOperations.read("secret/foo")).thenAnswer(awaiting(release));
+
+		adapter = new AsyncVaultOperationsAdapter(vaultOperations);
+		adapter.setTimeout(50);
+		adapter.afterPropertiesSet();
+
+		try {
+			adapter.read("secret/foo").get(1, TimeUnit.SECONDS);
+			fail("Missing ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+		}
+		finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void shouldEncryptUsingTransit() throws Exception {
+
+		VaultResponse response = new VaultResponse();
+		response.setData(Collections.singletonMap("ciphertext", (Object) "vault:v1:foo"));
+
+		when(vaultOperations.write(eq("transit/encrypt/mykey"), anyMap())).thenReturn(
+				response);
+
+		adapter = createAdapter();
+
+		assertThat(
+				adapter.opsForTransit().encrypt("mykey", "hello")
+						.get(1, TimeUnit.SECONDS)).isEqualTo("vault:v1:foo");
+	}
+
+	private AsyncVaultOperationsAdapter createAdapter() {
+
+		AsyncVaultOperationsAdapter adapter = new AsyncVaultOperationsAdapter(
+				vaultOperations);
+		adapter.afterPropertiesSet();
+
+		return adapter;
+	}
+
+	private static Answer<VaultResponse> awaiting(final CountDownLatch latch) {
+
+		return new Answer<VaultResponse>() {
+
+			@Override
+			public VaultResponse answer(InvocationOnMock invocation) throws Throwable {
+				latch.await(5, TimeUnit.SECONDS);
+				return null;
+			}
+		};
+	}
+}
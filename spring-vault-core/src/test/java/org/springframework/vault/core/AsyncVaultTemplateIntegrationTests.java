@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.TrustManagerFactory;
+
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.http.client.Netty4ClientHttpRequestFactory;
+import org.springframework.vault.authentication.SimpleSessionManager;
+import org.springframework.vault.authentication.TokenAuthentication;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+import org.springframework.vault.util.IntegrationTestSupport;
+import org.springframework.vault.util.Settings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link AsyncVaultTemplate} using the {@code generic} backend.
+ *
+ * @author Mark Paluch
+ */
+public class AsyncVaultTemplateIntegrationTests extends IntegrationTestSupport {
+
+	private Netty4ClientHttpRequestFactory requestFactory;
+
+	private AsyncVaultOperations asyncOperations;
+
+	@Before
+	public void before() throws Exception {
+
+		KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+		FileInputStream inputStream = new FileInputStream(new File(
+				Settings.findWorkDir(), "keystore.jks"));
+		try {
+			trustStore.load(inputStream, "changeit".toCharArray());
+		}
+		finally {
+			inputStream.close();
+		}
+
+		TrustManagerFactory trustManagerFactory = TrustManagerFactory
+				.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		trustManagerFactory.init(trustStore);
+
+		requestFactory = new Netty4ClientHttpRequestFactory();
+		requestFactory.setSslContext(SslContextBuilder.forClient()
+				.trustManager(trustManagerFactory).sslProvider(SslProvider.JDK).build());
+		requestFactory.afterPropertiesSet();
+
+		asyncOperations = new AsyncVaultTemplate(new VaultEndpoint(), requestFactory,
+				new SimpleSessionManager(new TokenAuthentication(Settings.token())));
+	}
+
+	@After
+	public void after() throws Exception {
+		requestFactory.destroy();
+	}
+
+	@Test
+	public void readShouldReturnAbsentKey() throws Exception {
+
+		VaultResponse read = asyncOperations.read("secret/absent").get(5,
+				TimeUnit.SECONDS);
+
+		assertThat(read).isNull();
+	}
+
+	@Test
+	public void readShouldReturnExistingKey() throws Exception {
+
+		asyncOperations.write("secret/mykey", Collections.singletonMap("hello", "world"))
+				.get(5, TimeUnit.SECONDS);
+
+		VaultResponse read = asyncOperations.read("secret/mykey").get(5,
+				TimeUnit.SECONDS);
+
+		assertThat(read).isNotNull();
+		assertThat(read.getData()).containsEntry("hello", "world");
+	}
+
+	@Test
+	public void readObjectShouldReadDomainClass() throws Exception {
+
+		asyncOperations.write("secret/mykey",
+				Collections.singletonMap("firstname", "Walter")).get(5, TimeUnit.SECONDS);
+
+		VaultResponseSupport<Person> read = asyncOperations.read("secret/mykey",
+				Person.class).get(5, TimeUnit.SECONDS);
+
+		assertThat(read).isNotNull();
+		assertThat(read.getData().getFirstname()).isEqualTo("Walter");
+	}
+
+	@Test
+	public void listShouldReturnExistingKey() throws Exception {
+
+		asyncOperations.write("secret/mykey", Collections.singletonMap("hello", "world"))
+				.get(5, TimeUnit.SECONDS);
+
+		List<String> keys = asyncOperations.list("secret").get(5, TimeUnit.SECONDS);
+
+		assertThat(keys).contains("mykey");
+	}
+
+	@Test
+	public void deleteShouldRemoveKey() throws Exception {
+
+		asyncOperations.write("secret/mykey", Collections.singletonMap("hello", "world"))
+				.get(5, TimeUnit.SECONDS);
+
+		asyncOperations.delete("secret/mykey").get(5, TimeUnit.SECONDS);
+
+		assertThat(asyncOperations.read("secret/mykey").get(5, TimeUnit.SECONDS))
+				.isNull();
+	}
+
+	static class Person {
+
+		String firstname;
+
+		public String getFirstname() {
+			return firstname;
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.Ciphertext;
+import org.springframework.vault.support.Plaintext;
+import org.springframework.vault.support.VaultDecryptionResult;
+import org.springframework.vault.support.VaultEncryptionResult;
+import org.springframework.vault.support.VaultTransitContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link BatchingVaultTransitOperations}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BatchingVaultTransitOperationsUnitTests {
+
+	@Mock
+	private VaultTransitOperations delegate;
+
+	private BatchingVaultTransitOperations operations;
+
+	private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void after() throws Exception {
+
+		executor.shutdownNow();
+
+		if (operations != null) {
+			operations.destroy();
+		}
+	}
+
+	@Test
+	public void shouldCombineConcurrentEncryptCalls() throws Exception {
+
+		when(delegate.encrypt(eq("mykey"), anyList())).thenAnswer(encryptAnswer());
+
+		operations = new BatchingVaultTransitOperations(delegate);
+		operations.setLingerMillis(200);
+		operations.afterPropertiesSet();
+
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		for (int i = 0; i < 3; i++) {
+			futures.add(executor.submit(encrypt("value-" + i)));
+		}
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(futures.get(i).get(1, TimeUnit.SECONDS)).isEqualTo(
+					"vault:v1:value-" + i);
+		}
+
+		verify(delegate, times(1)).encrypt(eq("mykey"), anyList());
+	}
+
+	@Test
+	public void shouldFlushWhenBatchIsFull() throws Exception {
+
+		when(delegate.encrypt(eq("mykey"), anyList())).thenAnswer(encryptAnswer());
+
+		operations = new BatchingVaultTransitOperations(delegate);
+		operations.setLingerMillis(10000);
+		operations.setMaxBatchSize(1);
+		operations.afterPropertiesSet();
+
+		assertThat(operations.encrypt("mykey", "hello")).isEqualTo("vault:v1:hello");
+		assertThat(operations.getPendingCount()).isZero();
+	}
+
+	@Test
+	public void shouldSeparateBatchesByContextPresence() throws Exception {
+
+		when(delegate.encrypt(eq("mykey"), anyList())).thenAnswer(encryptAnswer());
+
+		operations = new BatchingVaultTransitOperations(delegate);
+		operations.setLingerMillis(50);
+		operations.afterPropertiesSet();
+
+		Future<String> withoutContext = executor.submit(encrypt("foo"));
+		String withContext = operations.encrypt("mykey", "bar".getBytes(),
+				VaultTransitContext.builder().context("ctx".getBytes()).build());
+
+		assertThat(withContext).isEqualTo("vault:v1:bar");
+		assertThat(withoutContext.get(1, TimeUnit.SECONDS)).isEqualTo("vault:v1:foo");
+
+		verify(delegate, times(2)).encrypt(eq("mykey"), anyList());
+	}
+
+	@Test
+	public void shouldReportItemFailureToCaller() {
+
+		List<VaultDecryptionResult> results = new ArrayList<VaultDecryptionResult>();
+		results.add(new VaultDecryptionResult(new VaultException("invalid ciphertext")));
+		when(delegate.decrypt(eq("mykey"), anyList())).thenReturn(results);
+
+		operations = new BatchingVaultTransitOperations(delegate);
+		operations.setMaxBatchSize(1);
+		operations.afterPropertiesSet();
+
+		try {
+			operations.decrypt("mykey", "vault:v1:foo");
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).hasMessageContaining("invalid ciphertext");
+		}
+	}
+
+	@Test
+	public void shouldReportBatchFailureToCaller() {
+
+		when(delegate.decrypt(eq("mykey"), anyList())).thenThrow(
+				new VaultException("Status 500"));
+
+		operations = new BatchingVaultTransitOperations(delegate);
+		operations.setLingerMillis(10);
+		operations.afterPropertiesSet();
+
+		try {
+			operations.decrypt("mykey", "vault:v1:foo", null);
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).hasMessageContaining("Status 500");
+		}
+	}
+
+	@Test
+	public void shouldFailCallersWithoutBatchResult() {
+
+		when(delegate.decrypt(eq("mykey"), anyList())).thenReturn(
+				new ArrayList<VaultDecryptionResult>());
+
+		operations = new BatchingVaultTransitOperations(delegate);
+		operations.setLingerMillis(10);
+		operations.afterPropertiesSet();
+
+		try {
+			operations.decrypt("mykey", "vault:v1:foo");
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).hasMessageContaining("no result");
+		}
+	}
+
+	private Callable<String> encrypt(final String plaintext) {
+
+		return new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				return operations.encrypt("mykey", plaintext);
+			}
+		};
+	}
+
+	private static Answer<List<VaultEncryptionResult>> encryptAnswer() {
+
+		return new Answer<List<VaultEncryptionResult>>() {
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public List<VaultEncryptionResult> answer(InvocationOnMock invocation) {
+
+				List<Plaintext> plaintexts = (List<Plaintext>) invocation.getArguments()[1];
+				List<VaultEncryptionResult> results = new ArrayList<VaultEncryptionResult>();
+
+				for (Plaintext plaintext : plaintexts) {
+					results.add(new VaultEncryptionResult(Ciphertext.of("vault:v1:"
+							+ plaintext.asString())));
+				}
+
+				return results;
+			}
+		};
+	}
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import org.springframework.vault.client.CallNotPermittedException;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CachingVaultOperations}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CachingVaultOperationsUnitTests {
+
+	@Mock
+	private VaultOperations vaultOperations;
+
+	private long now = 1000;
+
+	private CachingVaultOperations cachingOperations;
+
+	@Before
+	public void before() {
+
+		cachingOperations = new CachingVaultOperations(vaultOperations) {
+			@Override
+			protected long currentTimeMillis() {
+				return now;
+			}
+		};
+	}
+
+	@Test
+	public void shouldCacheResponseWithLeaseDuration() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(response(60));
+
+		VaultResponse first = cachingOperations.read("secret/foo");
+		VaultResponse second = cachingOperations.read("secret/foo");
+
+		assertThat(second).isSameAs(first);
+		assertThat(cachingOperations.getHitCount()).isEqualTo(1);
+		assertThat(cachingOperations.getMissCount()).isEqualTo(1);
+		verify(vaultOperations).read("secret/foo");
+	}
+
+	@Test
+	public void shouldExpireEntryAfterLeaseDuration() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(response(60));
+
+		cachingOperations.read("secret/foo");
+		now += 60000;
+		cachingOperations.read("secret/foo");
+
+		assertThat(cachingOperations.getMissCount()).isEqualTo(2);
+		verify(vaultOperations, times(2)).read("secret/foo");
+	}
+
+	@Test
+	public void shouldNotCacheResponseWithoutLeaseDuration() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(response(0));
+
+		cachingOperations.read("secret/foo");
+		cachingOperations.read("secret/foo");
+
+		verify(vaultOperations, times(2)).read("secret/foo");
+	}
+
+	@Test
+	public void shouldApplyDefaultTimeToLive() {
+
+		cachingOperations.setDefaultTimeToLiveSeconds(10);
+		when(vaultOperations.read("secret/foo")).thenReturn(response(0));
+
+		cachingOperations.read("secret/foo");
+		cachingOperations.read("secret/foo");
+
+		verify(vaultOperations).read("secret/foo");
+	}
+
+	@Test
+	public void shouldCapTimeToLive() {
+
+		cachingOperations.setMaxTimeToLiveSeconds(10);
+		when(vaultOperations.read("secret/foo")).thenReturn(response(3600));
+
+		cachingOperations.read("secret/foo");
+		now += 10000;
+		cachingOperations.read("secret/foo");
+
+		verify(vaultOperations, times(2)).read("secret/foo");
+	}
+
+	@Test
+	public void shouldCapLongLeasesByDefault() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(response(2764800));
+
+		cachingOperations.read("secret/foo");
+		now += 300000;
+		cachingOperations.read("secret/foo");
+
+		verify(vaultOperations, times(2)).read("secret/foo");
+	}
+
+	@Test
+	public void shouldReuseBulkOperations() {
+		assertThat(cachingOperations.opsForBulk()).isSameAs(cachingOperations.opsForBulk());
+	}
+
+	@Test
+	public void shouldCacheByResponseType() {
+
+		VaultResponseSupport<Map> typed = new VaultResponseSupport<Map>();
+		typed.setLeaseDuration(60);
+
+		when(vaultOperations.read("secret/foo")).thenReturn(response(60));
+		when(vaultOperations.read("secret/foo", Map.class)).thenReturn(typed);
+
+		cachingOperations.read("secret/foo");
+		assertThat(cachingOperations.read("secret/foo", Map.class)).isSameAs(typed);
+		assertThat(cachingOperations.read("secret/foo", Map.class)).isSameAs(typed);
+
+		verify(vaultOperations).read("secret/foo");
+		verify(vaultOperations).read("secret/foo", Map.class);
+	}
+
+	@Test
+	public void writeShouldInvalidateCachedPath() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(response(60));
+
+		cachingOperations.read("secret/foo");
+		cachingOperations.write("secret/foo", Collections.singletonMap("key", "value"));
+		cachingOperations.read("secret/foo");
+
+		verify(vaultOperations, times(2)).read("secret/foo");
+	}
+
+	@Test
+	public void deleteShouldInvalidateCachedPath() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(response(60));
+		when(vaultOperations.read("secret/bar")).thenReturn(response(60));
+
+		cachingOperations.read("secret/foo");
+		cachingOperations.read("secret/bar");
+		cachingOperations.delete("secret/foo");
+		cachingOperations.read("secret/foo");
+		cachingOperations.read("secret/bar");
+
+		verify(vaultOperations, times(2)).read("secret/foo");
+		verify(vaultOperations).read("secret/bar");
+	}
+
+	@Test
+	public void shouldEvictLeastRecentlyUsedEntry() {
+
+		cachingOperations.setMaxEntries(2);
+
+		when(vaultOperations.read("secret/a")).thenReturn(response(60));
+		when(vaultOperations.read("secret/b")).thenReturn(response(60));
+		when(vaultOperations.read("secret/c")).thenReturn(response(60));
+
+		cachingOperations.read("secret/a");
+		cachingOperations.read("secret/b");
+		cachingOperations.read("secret/a");
+		cachingOperations.read("secret/c");
+
+		assertThat(cachingOperations.size()).isEqualTo(2);
+		assertThat(cachingOperations.getEvictionCount()).isEqualTo(1);
+
+		cachingOperations.read("secret/a");
+		cachingOperations.read("secret/b");
+
+		verify(vaultOperations).read("secret/a");
+		verify(vaultOperations, times(2)).read("secret/b");
+	}
+
+	@Test
+	public void shouldNotCacheAbsentResponse() {
+
+		cachingOperations.read("secret/absent");
+		cachingOperations.read("secret/absent");
+
+		verify(vaultOperations, times(2)).read("secret/absent");
+		assertThat(cachingOperations.size()).isZero();
+	}
+
+	@Test
+	public void shouldServeExpiredEntryIfCallIsNotPermitted() {
+
+		VaultResponse response = response(60);
+		when(vaultOperations.read("secret/foo")).thenReturn(response).thenThrow(
+				notPermitted());
+
+		cachingOperations.read("secret/foo");
+		now += 60000;
+
+		assertThat(cachingOperations.read("secret/foo")).isSameAs(response);
+		assertThat(cachingOperations.getStaleHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldPropagateOtherFailuresWithExpiredEntry() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(response(60)).thenThrow(
+				new ResourceAccessException("Connection refused"));
+
+		cachingOperations.read("secret/foo");
+		now += 60000;
+
+		try {
+			cachingOperations.read("secret/foo");
+			fail("Missing ResourceAccessException");
+		}
+		catch (ResourceAccessException e) {
+			assertThat(cachingOperations.getStaleHitCount()).isZero();
+		}
+	}
+
+	@Test(expected = ResourceAccessException.class)
+	public void shouldPropagateNotPermittedWithoutCachedEntry() {
+
+		when(vaultOperations.read("secret/foo")).thenThrow(notPermitted());
+
+		cachingOperations.read("secret/foo");
+	}
+
+	private static ResourceAccessException notPermitted() {
+		return new ResourceAccessException("Not permitted", new CallNotPermittedException(
+				"Circuit breaker for KV requests is open"));
+	}
+
+	private static VaultResponse response(long leaseDuration) {
+
+		VaultResponse response = new VaultResponse();
+		response.setLeaseDuration(leaseDuration);
+		response.setData(Collections.singletonMap("key", (Object) "value"));
+
+		return response;
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.vault.VaultException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link SingleFlight}.
+ *
+ * @author Mark Paluch
+ */
+public class SingleFlightUnitTests {
+
+	private final SingleFlight singleFlight = new SingleFlight();
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldCoalesceConcurrentCalls() throws Exception {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger invocations = new AtomicInteger();
+
+		final SingleFlight.Task<String> task = new SingleFlight.Task<String>() {
+
+			@Override
+			public String execute() {
+
+				invocations.incrementAndGet();
+				started.countDown();
+				await(release);
+				return "value";
+			}
+		};
+
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		futures.add(submit("key", task));
+		started.await(5, TimeUnit.SECONDS);
+
+		for (int i = 0; i < 3; i++) {
+			futures.add(submit("key", task));
+		}
+
+		awaitWaiters("key", 3);
+
+		release.countDown();
+
+		for (Future<String> future : futures) {
+			assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+		}
+
+		assertThat(invocations.get()).isEqualTo(1);
+		assertThat(singleFlight.getInFlightCount()).isZero();
+	}
+
+	@Test
+	public void shouldPropagateErrorToAllCallers() throws Exception {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		final SingleFlight.Task<String> task = new SingleFlight.Task<String>() {
+
+			@Override
+			public String execute() {
+
+				started.countDown();
+				await(release);
+				throw new VaultException("Status 503");
+			}
+		};
+
+		Future<String> leader = submit("key", task);
+		started.await(5, TimeUnit.SECONDS);
+		Future<String> follower = submit("key", task);
+
+		awaitWaiters("key", 1);
+		release.countDown();
+
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		futures.add(leader);
+		futures.add(follower);
+
+		for (Future<String> future : futures) {
+			try {
+				future.get(5, TimeUnit.SECONDS);
+				fail("Missing VaultException");
+			}
+			catch (ExecutionException e) {
+				assertThat(e.getCause()).isInstanceOf(VaultException.class);
+			}
+		}
+	}
+
+	@Test
+	public void shouldNotRetainCompletedCalls() {
+
+		final AtomicInteger invocations = new AtomicInteger();
+
+		SingleFlight.Task<Integer> task = new SingleFlight.Task<Integer>() {
+
+			@Override
+			public Integer execute() {
+				return invocations.incrementAndGet();
+			}
+		};
+
+		assertThat(singleFlight.execute("key", task)).isEqualTo(1);
+		assertThat(singleFlight.execute("key", task)).isEqualTo(2);
+		assertThat(singleFlight.execute("other", task)).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldReturnNullResults() {
+
+		Object result = singleFlight.execute("key", new SingleFlight.Task<Object>() {
+
+			@Override
+			public Object execute() {
+				return null;
+			}
+		});
+
+		assertThat(result).isNull();
+	}
+
+	private Future<String> submit(final String key, final SingleFlight.Task<String> task) {
+
+		return executor.submit(new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				return singleFlight.execute(key, task);
+			}
+		});
+	}
+
+	private void awaitWaiters(String key, int expected) throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+
+		while (singleFlight.getWaiterCount(key) < expected) {
+
+			if (System.currentTimeMillis() > deadline) {
+				fail(String.format("Expected %d waiters for %s", expected, key));
+			}
+
+			Thread.sleep(1);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
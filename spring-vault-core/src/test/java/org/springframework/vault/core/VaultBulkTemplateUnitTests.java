@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.VaultHttpException;
+import org.springframework.vault.support.VaultBulkResult;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link VaultBulkTemplate}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class VaultBulkTemplateUnitTests {
+
+	@Mock
+	private VaultOperations vaultOperations;
+
+	private VaultBulkTemplate bulkTemplate;
+
+	@Before
+	public void before() {
+
+		bulkTemplate = new VaultBulkTemplate(vaultOperations, new SyncTaskExecutor());
+		bulkTemplate.setRetryBackoffMillis(0);
+	}
+
+	@Test
+	public void shouldWriteAllPaths() {
+
+		Map<String, Object> bodies = new LinkedHashMap<String, Object>();
+		bodies.put("secret/a", Collections.singletonMap("key", "a"));
+		bodies.put("secret/b", Collections.singletonMap("key", "b"));
+
+		VaultBulkResult result = bulkTemplate.write(bodies);
+
+		assertThat(result.isSuccessful()).isTrue();
+		assertThat(result.getSucceeded()).containsExactly("secret/a", "secret/b");
+		verify(vaultOperations).write("secret/a", Collections.singletonMap("key", "a"));
+		verify(vaultOperations).write("secret/b", Collections.singletonMap("key", "b"));
+	}
+
+	@Test
+	public void shouldReportFailuresWithoutFailingFast() {
+
+		VaultException exception = new VaultHttpException("Status 403 secret/b", 403);
+		doThrow(exception).when(vaultOperations).delete("secret/b");
+
+		VaultBulkResult result = bulkTemplate.delete(Arrays.asList("secret/a",
+				"secret/b", "secret/c"));
+
+		assertThat(result.isSuccessful()).isFalse();
+		assertThat(result.getSucceeded()).containsExactly("secret/a", "secret/c");
+		assertThat(result.getFailures()).containsEntry("secret/b", exception).hasSize(1);
+		verify(vaultOperations).delete("secret/b");
+	}
+
+	@Test
+	public void shouldRetryServerErrorsAndThrottling() {
+
+		doThrow(new VaultHttpException("Status 429 secret/a", 429)).when(vaultOperations).delete(
+				"secret/a");
+		doThrow(new ResourceAccessException("Connection reset")).when(vaultOperations)
+				.delete("secret/b");
+
+		VaultBulkResult result = bulkTemplate.delete(Arrays.asList("secret/a",
+				"secret/b"));
+
+		assertThat(result.getFailures()).hasSize(2);
+		verify(vaultOperations, times(3)).delete("secret/a");
+		verify(vaultOperations, times(3)).delete("secret/b");
+	}
+
+	@Test
+	public void shouldNotRetryClientErrors() {
+
+		assertThat(VaultBulkTemplate.isRetryable(new VaultHttpException(
+				"Status 400 secret/a: bad request", 400))).isFalse();
+		assertThat(
+				VaultBulkTemplate.isRetryable(new VaultHttpException(
+						"Status 403 secret/a", 403))).isFalse();
+		assertThat(VaultBulkTemplate.isRetryable(new IllegalArgumentException()))
+				.isFalse();
+		assertThat(
+				VaultBulkTemplate.isRetryable(new VaultHttpException(
+						"Status 500 secret/a", 500))).isTrue();
+	}
+
+	@Test
+	public void shouldReportErrorsAsFailure() {
+
+		doThrow(new AssertionError()).when(vaultOperations).delete("secret/a");
+
+		VaultBulkResult result = bulkTemplate.delete(Arrays.asList("secret/a",
+				"secret/b"));
+
+		assertThat(result.getSucceeded()).containsExactly("secret/b");
+		assertThat(result.getFailures()).containsKey("secret/a").hasSize(1);
+	}
+
+	@Test
+	public void shouldProcessPathsConcurrently() {
+
+		VaultBulkTemplate template = new VaultBulkTemplate(vaultOperations);
+		template.setParallelism(4);
+
+		Map<String, Object> bodies = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < 20; i++) {
+			bodies.put("secret/" + i, "body");
+		}
+
+		VaultBulkResult result = template.write(bodies);
+
+		assertThat(result.getSucceeded()).containsExactlyElementsOf(bodies.keySet());
+	}
+}
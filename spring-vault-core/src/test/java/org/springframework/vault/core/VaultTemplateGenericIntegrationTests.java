@@ -15,6 +15,7 @@
  */
 package org.springframework.vault.core;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -122,6 +123,26 @@ public class VaultTemplateGenericIntegrationTests extends IntegrationTestSupport
 		assertThat(keys).contains("mykey");
 	}
 
+	@Test
+	public void walkShouldReturnNestedKeys() throws Exception {
+
+		vaultOperations.write("secret/walk/mykey",
+				Collections.singletonMap("hello", "world"));
+		vaultOperations.write("secret/walk/nested/other",
+				Collections.singletonMap("hello", "world"));
+
+		final List<String> keys = new ArrayList<String>();
+		vaultOperations.walk("secret/walk", new KeyCallback() {
+
+			@Override
+			public void doWithKey(String key) {
+				keys.add(key);
+			}
+		});
+
+		assertThat(keys).containsExactly("secret/walk/mykey", "secret/walk/nested/other");
+	}
+
 	@Test
 	public void deleteShouldRemoveKey() throws Exception {
 
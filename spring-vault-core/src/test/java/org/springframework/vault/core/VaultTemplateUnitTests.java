@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.vault.authentication.SessionManager;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultHttpHeaders;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link VaultTemplate}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class VaultTemplateUnitTests {
+
+	@Mock
+	private SessionManager sessionManager;
+
+	private final RecordingRequestFactory requestFactory = new RecordingRequestFactory();
+
+	private VaultTemplate vaultTemplate;
+
+	@Before
+	public void before() {
+
+		when(sessionManager.getSessionToken()).thenReturn(VaultToken.of("my-token"));
+
+		vaultTemplate = new VaultTemplate(VaultEndpoint.create("localhost", 8200),
+				requestFactory, sessionManager);
+	}
+
+	@Test
+	public void shouldWriteBodyToRequestCreatedByFactory() {
+
+		vaultTemplate.write("secret/foo", Collections.singletonMap("key", "value"));
+
+		assertThat(requestFactory.requests).hasSize(1);
+
+		MockClientHttpRequest request = requestFactory.requests.get(0);
+
+		assertThat(request.getURI().toString()).isEqualTo(
+				"https://localhost:8200/v1/secret/foo");
+		assertThat(request.getBodyAsString()).isEqualTo("{\"key\":\"value\"}");
+	}
+
+	@Test
+	public void shouldSetSessionTokenOnce() {
+
+		vaultTemplate.delete("secret/foo");
+
+		MockClientHttpRequest request = requestFactory.requests.get(0);
+
+		assertThat(request.getHeaders().get(VaultHttpHeaders.VAULT_TOKEN)).containsOnly(
+				"my-token");
+	}
+
+	@Test
+	public void listShouldReturnKeys() {
+
+		requestFactory.responses.put("/v1/secret/",
+				"{\"lease_duration\":0,\"data\":{\"keys\":[\"foo\",\"bar/\"]}}");
+
+		assertThat(vaultTemplate.list("secret")).containsExactly("foo", "bar/");
+		assertThat(requestFactory.requests.get(0).getURI().getQuery()).isEqualTo(
+				"list=true");
+	}
+
+	@Test
+	public void listShouldReturnEmptyListForAbsentPath() {
+		assertThat(vaultTemplate.list("secret")).isEmpty();
+	}
+
+	@Test
+	public void listShouldPassKeysToCallback() {
+
+		requestFactory.responses.put("/v1/secret/",
+				"{\"data\":{\"other\":{\"keys\":[\"nope\"]},\"keys\":[\"foo\",\"bar\"]},"
+						+ "\"warnings\":null}");
+
+		RecordingKeyCallback callback = new RecordingKeyCallback();
+		vaultTemplate.list("secret/", callback);
+
+		assertThat(callback.keys).containsExactly("foo", "bar");
+	}
+
+	@Test
+	public void walkShouldTraverseNestedPaths() {
+
+		requestFactory.responses.put("/v1/secret/",
+				"{\"data\":{\"keys\":[\"a\",\"b/\",\"c\"]}}");
+		requestFactory.responses.put("/v1/secret/b/",
+				"{\"data\":{\"keys\":[\"d/\",\"e\"]}}");
+		requestFactory.responses.put("/v1/secret/b/d/", "{\"data\":{\"keys\":[\"f\"]}}");
+
+		RecordingKeyCallback callback = new RecordingKeyCallback();
+		vaultTemplate.walk("secret", callback);
+
+		assertThat(callback.keys).containsExactly("secret/a", "secret/c",
+				"secret/b/e", "secret/b/d/f");
+	}
+
+	@Test
+	public void coalescedReadShouldReturnCopy() {
+
+		requestFactory.responses.put("/v1/secret/foo",
+				"{\"lease_id\":\"lease\",\"data\":{\"key\":\"value\",\"nested\":{\"a\":[\"b\"]}}}");
+
+		vaultTemplate.setCoalesceReads(true);
+
+		VaultResponse response = vaultTemplate.read("secret/foo");
+
+		assertThat(response.getLeaseId()).isEqualTo("lease");
+		assertThat(response.getData()).containsEntry("key", "value");
+
+		response.getData().put("key", "changed");
+
+		assertThat(vaultTemplate.read("secret/foo").getData()).containsEntry("key",
+				"value");
+	}
+
+	static class RecordingKeyCallback implements KeyCallback {
+
+		final List<String> keys = new ArrayList<String>();
+
+		@Override
+		public void doWithKey(String key) {
+			keys.add(key);
+		}
+	}
+
+	static class RecordingRequestFactory implements ClientHttpRequestFactory {
+
+		final List<MockClientHttpRequest> requests = new ArrayList<MockClientHttpRequest>();
+
+		final Map<String, String> responses = new HashMap<String, String>();
+
+		@Override
+		public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod)
+				throws IOException {
+
+			MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+			requests.add(request);
+
+			if (httpMethod != HttpMethod.GET) {
+				request.setResponse(new MockClientHttpResponse(new byte[0],
+						HttpStatus.NO_CONTENT));
+				return request;
+			}
+
+			String body = responses.get(uri.getPath());
+			MockClientHttpResponse response = body != null ? new MockClientHttpResponse(
+					body.getBytes(), HttpStatus.OK) : new MockClientHttpResponse(
+					new byte[0], HttpStatus.NOT_FOUND);
+			response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			request.setResponse(response);
+
+			return request;
+		}
+	}
+}
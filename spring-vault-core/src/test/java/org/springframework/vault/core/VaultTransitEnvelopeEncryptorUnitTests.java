@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import org.springframework.util.Base64Utils;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultTransitContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link VaultTransitEnvelopeEncryptor}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class VaultTransitEnvelopeEncryptorUnitTests {
+
+	private static final byte[] DATA_KEY = new byte[32];
+
+	@Mock
+	private VaultOperations vaultOperations;
+
+	@Mock
+	private VaultTransitOperations transitOperations;
+
+	private long time = 1000;
+
+	private VaultTransitEnvelopeEncryptor encryptor;
+
+	@Before
+	public void before() {
+
+		when(vaultOperations.opsForTransit("transit")).thenReturn(transitOperations);
+		when(vaultOperations.write(eq("transit/datakey/plaintext/mykey"), any()))
+				.thenReturn(dataKeyResponse("vault:v1:wrapped"));
+
+		encryptor = createEncryptor();
+	}
+
+	@Test
+	public void shouldEncryptAndDecrypt() {
+
+		byte[] envelope = encryptor.encrypt("hello-world".getBytes());
+
+		assertThat(new String(encryptor.decrypt(envelope))).isEqualTo("hello-world");
+	}
+
+	@Test
+	public void shouldReuseDataKey() {
+
+		encryptor.encrypt("foo".getBytes());
+		encryptor.encrypt("bar".getBytes());
+
+		verify(vaultOperations, times(1)).write(eq("transit/datakey/plaintext/mykey"),
+				any());
+	}
+
+	@Test
+	public void shouldRotateDataKeyAfterMaxUses() {
+
+		encryptor.setMaxKeyUses(1);
+
+		encryptor.encrypt("foo".getBytes());
+		encryptor.encrypt("bar".getBytes());
+
+		verify(vaultOperations, times(2)).write(eq("transit/datakey/plaintext/mykey"),
+				any());
+	}
+
+	@Test
+	public void shouldRotateDataKeyAfterMaxAge() {
+
+		encryptor.setMaxKeyAgeSeconds(10);
+
+		encryptor.encrypt("foo".getBytes());
+		time += 11000;
+		encryptor.encrypt("bar".getBytes());
+
+		verify(vaultOperations, times(2)).write(eq("transit/datakey/plaintext/mykey"),
+				any());
+	}
+
+	@Test
+	public void shouldUnwrapDataKeyOnceForDecryption() {
+
+		byte[] envelope = encryptor.encrypt("hello-world".getBytes());
+
+		when(
+				transitOperations.decrypt("mykey", "vault:v1:wrapped",
+						VaultTransitContext.empty())).thenReturn(DATA_KEY);
+
+		VaultTransitEnvelopeEncryptor decryptor = createEncryptor();
+
+		assertThat(decryptor.decrypt(envelope)).isEqualTo("hello-world".getBytes());
+		assertThat(decryptor.decrypt(envelope)).isEqualTo("hello-world".getBytes());
+
+		verify(transitOperations, times(1)).decrypt("mykey", "vault:v1:wrapped",
+				VaultTransitContext.empty());
+	}
+
+	@Test
+	public void shouldRejectTamperedEnvelope() {
+
+		byte[] envelope = encryptor.encrypt("hello-world".getBytes());
+		envelope[envelope.length - 1] ^= 1;
+
+		try {
+			encryptor.decrypt(envelope);
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).hasMessageContaining("Cannot decrypt");
+		}
+	}
+
+	private VaultTransitEnvelopeEncryptor createEncryptor() {
+
+		return new VaultTransitEnvelopeEncryptor(vaultOperations, "mykey") {
+
+			@Override
+			protected long currentTimeMillis() {
+				return time;
+			}
+		};
+	}
+
+	private static VaultResponse dataKeyResponse(String wrappedKey) {
+
+		Map<String, Object> data = new HashMap<String, Object>();
+		data.put("plaintext", Base64Utils.encodeToString(DATA_KEY));
+		data.put("ciphertext", wrappedKey);
+
+		VaultResponse response = new VaultResponse();
+		response.setData(data);
+
+		return response;
+	}
+}
@@ -15,6 +15,9 @@
  */
 package org.springframework.vault.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.After;
@@ -26,6 +29,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.vault.VaultException;
+import org.springframework.vault.support.Ciphertext;
+import org.springframework.vault.support.Plaintext;
+import org.springframework.vault.support.VaultDecryptionResult;
+import org.springframework.vault.support.VaultEncryptionResult;
 import org.springframework.vault.support.VaultMount;
 import org.springframework.vault.support.VaultTransitContext;
 import org.springframework.vault.support.VaultTransitKey;
@@ -277,4 +284,95 @@ public class VaultTransitTemplateIntegrationTests extends IntegrationTestSupport
 		String rewrapped = transitOperations.rewrap("mykey", ciphertext, transitRequest);
 		assertThat(rewrapped).startsWith("vault:v2");
 	}
+
+	@Test
+	public void shouldBatchEncryptAndDecrypt() {
+
+		assumeTrue(prepare().getVersion().isGreaterThanOrEqualTo(Version.parse("0.6.5")));
+
+		transitOperations.createKey("mykey");
+
+		List<VaultEncryptionResult> encrypted = transitOperations.encrypt("mykey",
+				Arrays.asList(Plaintext.of("one"), Plaintext.of("two")));
+
+		assertThat(encrypted).hasSize(2);
+		assertThat(encrypted.get(0).isSuccessful()).isTrue();
+		assertThat(encrypted.get(0).get().getCiphertext()).startsWith("vault:v1:");
+
+		List<VaultDecryptionResult> decrypted = transitOperations.decrypt("mykey",
+				Arrays.asList(encrypted.get(0).get(), encrypted.get(1).get()));
+
+		assertThat(decrypted).hasSize(2);
+		assertThat(decrypted.get(0).get().asString()).isEqualTo("one");
+		assertThat(decrypted.get(1).get().asString()).isEqualTo("two");
+	}
+
+	@Test
+	public void shouldBatchEncryptWithContextInChunks() {
+
+		assumeTrue(prepare().getVersion().isGreaterThanOrEqualTo(Version.parse("0.6.5")));
+
+		transitOperations.createKey("mykey", VaultTransitKeyCreationRequest.builder()
+				.derived(true).build());
+
+		VaultTransitTemplate transitTemplate = new VaultTransitTemplate(vaultOperations,
+				"transit");
+		transitTemplate.setMaxBatchSize(2);
+
+		List<Plaintext> batch = new ArrayList<Plaintext>();
+		for (int i = 0; i < 5; i++) {
+			batch.add(Plaintext.of("value-" + i).with(
+					VaultTransitContext.builder().context(("ctx-" + i).getBytes())
+							.build()));
+		}
+
+		List<VaultEncryptionResult> encrypted = transitTemplate.encrypt("mykey", batch);
+		List<Ciphertext> ciphertexts = new ArrayList<Ciphertext>();
+		for (VaultEncryptionResult result : encrypted) {
+			ciphertexts.add(result.get());
+		}
+
+		List<VaultDecryptionResult> decrypted = transitTemplate.decrypt("mykey",
+				ciphertexts);
+
+		assertThat(decrypted).hasSize(5);
+		for (int i = 0; i < 5; i++) {
+			assertThat(decrypted.get(i).get().asString()).isEqualTo("value-" + i);
+		}
+	}
+
+	@Test
+	public void shouldReportBatchItemErrors() {
+
+		assumeTrue(prepare().getVersion().isGreaterThanOrEqualTo(Version.parse("0.6.5")));
+
+		transitOperations.createKey("mykey");
+
+		String ciphertext = transitOperations.encrypt("mykey", "hello-world");
+
+		List<VaultDecryptionResult> decrypted = transitOperations.decrypt(
+				"mykey",
+				Arrays.asList(Ciphertext.of(ciphertext),
+						Ciphertext.of("vault:v1:invalid")));
+
+		assertThat(decrypted.get(0).isSuccessful()).isTrue();
+		assertThat(decrypted.get(1).isSuccessful()).isFalse();
+		assertThat(decrypted.get(1).getCause()).isInstanceOf(VaultException.class);
+	}
+
+	@Test
+	public void shouldBatchRewrap() {
+
+		assumeTrue(prepare().getVersion().isGreaterThanOrEqualTo(Version.parse("0.6.5")));
+
+		transitOperations.createKey("mykey");
+
+		String ciphertext = transitOperations.encrypt("mykey", "hello-world");
+		transitOperations.rotate("mykey");
+
+		List<VaultEncryptionResult> rewrapped = transitOperations.rewrap("mykey",
+				Collections.singletonList(Ciphertext.of(ciphertext)));
+
+		assertThat(rewrapped.get(0).get().getCiphertext()).startsWith("vault:v2:");
+	}
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link VaultTreeWalker}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class VaultTreeWalkerUnitTests {
+
+	@Mock
+	private VaultOperations vaultOperations;
+
+	private final Map<String, List<String>> tree = new HashMap<String, List<String>>();
+
+	private VaultTreeWalker walker;
+
+	@Before
+	public void before() {
+
+		tree.put("secret/", Arrays.asList("a", "b/", "tmp/"));
+		tree.put("secret/b/", Arrays.asList("c", "d/"));
+		tree.put("secret/b/d/", Collections.singletonList("e"));
+		tree.put("secret/tmp/", Collections.singletonList("f"));
+
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+
+				List<String> keys = tree.get(invocation.<String> getArgument(0));
+				KeyCallback callback = invocation.getArgument(1);
+
+				if (keys != null) {
+					for (String key : keys) {
+						callback.doWithKey(key);
+					}
+				}
+
+				return null;
+			}
+		}).when(vaultOperations).list(anyString(), any(KeyCallback.class));
+
+		walker = new VaultTreeWalker(vaultOperations);
+		walker.setParallelism(4);
+		walker.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception {
+		walker.destroy();
+	}
+
+	@Test
+	public void shouldReadSubtree() {
+
+		stubReads();
+
+		assertThat(walk("secret")).containsOnly("secret/a", "secret/b/c",
+				"secret/b/d/e", "secret/tmp/f");
+	}
+
+	@Test
+	public void shouldNotListExcludedPaths() {
+
+		stubReads();
+		walker.setExcludePatterns("secret/tmp/**");
+
+		assertThat(walk("secret/")).containsOnly("secret/a", "secret/b/c",
+				"secret/b/d/e");
+		verify(vaultOperations, never()).list(eq("secret/tmp/"), any(KeyCallback.class));
+	}
+
+	@Test
+	public void shouldReadIncludedPathsOnly() {
+
+		stubReads();
+		walker.setIncludePatterns("secret/b/*");
+
+		assertThat(walk("secret")).containsOnly("secret/b/c");
+		verify(vaultOperations, never()).read("secret/a");
+		verify(vaultOperations, never()).list(eq("secret/tmp/"), any(KeyCallback.class));
+	}
+
+	@Test
+	public void shouldPropagateReadFailure() {
+
+		when(vaultOperations.read(anyString())).thenThrow(new VaultException("Denied"));
+
+		try {
+			walk("secret");
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).hasMessage("Denied");
+		}
+	}
+
+	@Test
+	public void shouldPropagateCallbackFailure() {
+
+		stubReads();
+
+		try {
+			walker.walk("secret", new SecretCallback() {
+
+				@Override
+				public void doWithSecret(String path, VaultResponse response) {
+					throw new IllegalStateException("Cannot export");
+				}
+			});
+			fail("Missing IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertThat(e).hasMessage("Cannot export");
+		}
+	}
+
+	private void stubReads() {
+
+		when(vaultOperations.read(anyString())).thenAnswer(new Answer<VaultResponse>() {
+
+			@Override
+			public VaultResponse answer(InvocationOnMock invocation) {
+
+				VaultResponse response = new VaultResponse();
+				response.setData(Collections.<String, Object> singletonMap("path",
+						invocation.getArgument(0)));
+
+				return response;
+			}
+		});
+	}
+
+	private List<String> walk(String path) {
+
+		final List<String> paths = new ArrayList<String>();
+
+		walker.walk(path, new SecretCallback() {
+
+			@Override
+			public void doWithSecret(String path, VaultResponse response) {
+
+				assertThat(response.getData()).containsEntry("path", path);
+				paths.add(path);
+			}
+		});
+
+		return paths;
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.vault.core.lease.domain.Lease;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link FileLeaseJournal}.
+ *
+ * @author Mark Paluch
+ */
+public class FileLeaseJournalUnitTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private RequestedSecret requestedSecret = RequestedSecret.rotating("database/creds/app");
+
+	private File file;
+
+	@Before
+	public void before() throws Exception {
+		file = new File(temporaryFolder.getRoot(), "leases.journal");
+	}
+
+	@Test
+	public void shouldReturnNullForUnknownSecret() {
+		assertThat(new FileLeaseJournal(file).get(requestedSecret)).isNull();
+	}
+
+	@Test
+	public void shouldRecoverRecordedSecrets() {
+
+		FileLeaseJournal journal = new FileLeaseJournal(file);
+		journal.recordSecrets(requestedSecret, Lease.of("lease", 100, true),
+				Collections.<String, Object> singletonMap("username", "app-1"));
+
+		LeaseJournalEntry entry = new FileLeaseJournal(file).get(requestedSecret);
+
+		assertThat(entry).isNotNull();
+		assertThat(entry.getLease()).isEqualTo(Lease.of("lease", 100, true));
+		assertThat(entry.getSecrets()).containsEntry("username", "app-1");
+		assertThat(new FileLeaseJournal(file).get(RequestedSecret
+				.renewable("database/creds/app"))).isNull();
+	}
+
+	@Test
+	public void renewalShouldRetainSecrets() {
+
+		FileLeaseJournal journal = new FileLeaseJournal(file);
+		journal.recordSecrets(requestedSecret, Lease.of("lease", 100, true),
+				Collections.<String, Object> singletonMap("username", "app-1"));
+		journal.recordRenewal(requestedSecret, Lease.of("lease", 200, true));
+
+		LeaseJournalEntry entry = new FileLeaseJournal(file).get(requestedSecret);
+
+		assertThat(entry.getLease().getLeaseDuration()).isEqualTo(200);
+		assertThat(entry.getSecrets()).containsEntry("username", "app-1");
+	}
+
+	@Test
+	public void shouldRemoveEntry() {
+
+		FileLeaseJournal journal = new FileLeaseJournal(file);
+		journal.recordSecrets(requestedSecret, Lease.of("lease", 100, true),
+				Collections.<String, Object> singletonMap("username", "app-1"));
+		journal.remove(requestedSecret);
+
+		assertThat(journal.get(requestedSecret)).isNull();
+		assertThat(new FileLeaseJournal(file).get(requestedSecret)).isNull();
+	}
+
+	@Test
+	public void shouldSkipIncompleteRecords() throws Exception {
+
+		FileLeaseJournal journal = new FileLeaseJournal(file);
+		journal.recordSecrets(requestedSecret, Lease.of("lease", 100, true),
+				Collections.<String, Object> singletonMap("username", "app-1"));
+
+		FileOutputStream out = new FileOutputStream(file, true);
+		out.write("{\"type\":\"renewal\",\"pa".getBytes("UTF-8"));
+		out.close();
+
+		LeaseJournalEntry entry = new FileLeaseJournal(file).get(requestedSecret);
+
+		assertThat(entry.getLease()).isEqualTo(Lease.of("lease", 100, true));
+	}
+
+	@Test
+	public void shouldCompactJournal() throws Exception {
+
+		FileLeaseJournal journal = new FileLeaseJournal(file);
+		journal.recordSecrets(requestedSecret, Lease.of("lease", 100, true),
+				Collections.<String, Object> singletonMap("username", "app-1"));
+
+		for (int i = 0; i < 200; i++) {
+			journal.recordRenewal(requestedSecret, Lease.of("lease", i, true));
+		}
+
+		String content = new String(FileCopyUtils.copyToByteArray(file), "UTF-8");
+
+		assertThat(content.split("\n").length).isLessThan(110);
+		assertThat(new FileLeaseJournal(file).get(requestedSecret).getLease()
+				.getLeaseDuration()).isEqualTo(199);
+	}
+
+	@Test
+	public void shouldCalculateRemainingLeaseDuration() {
+
+		LeaseJournalEntry entry = new LeaseJournalEntry(Lease.of("lease", 100, true),
+				Collections.<String, Object> emptyMap(), 10000);
+
+		assertThat(entry.getRemainingLeaseDuration(40000)).isEqualTo(70);
+		assertThat(entry.getRemainingLeaseDuration(200000)).isZero();
+	}
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.Date;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link HashedWheelTaskScheduler}.
+ *
+ * @author Mark Paluch
+ */
+public class HashedWheelTaskSchedulerUnitTests {
+
+	private HashedWheelTaskScheduler scheduler;
+
+	@Before
+	public void before() {
+
+		scheduler = new HashedWheelTaskScheduler();
+		scheduler.setTickMillis(10);
+		scheduler.setTicksPerWheel(8);
+		scheduler.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception {
+		scheduler.destroy();
+	}
+
+	@Test
+	public void shouldExecuteTaskAfterDelay() throws Exception {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		long start = System.currentTimeMillis();
+
+		ScheduledFuture<?> future = scheduler.schedule(new CountDown(latch), new Date(
+				start + 100));
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(100);
+
+		future.get(5, TimeUnit.SECONDS);
+		assertThat(future.isDone()).isTrue();
+		assertThat(future.isCancelled()).isFalse();
+	}
+
+	@Test
+	public void shouldExecuteTaskBeyondOneWheelRevolution() throws Exception {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		long start = System.currentTimeMillis();
+
+		// 8 ticks of 10ms per revolution
+		scheduler.schedule(new CountDown(latch), new Date(start + 250));
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(250);
+	}
+
+	@Test
+	public void cancelShouldPreventExecution() throws Exception {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		ScheduledFuture<?> future = scheduler.schedule(new CountDown(latch), new Date(
+				System.currentTimeMillis() + 100));
+
+		assertThat(future.cancel(false)).isTrue();
+		assertThat(future.isCancelled()).isTrue();
+		assertThat(future.cancel(false)).isFalse();
+
+		assertThat(latch.await(300, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(scheduler.getPendingCount()).isZero();
+	}
+
+	@Test
+	public void getShouldThrowCancellationExceptionForCancelledTask() throws Exception {
+
+		ScheduledFuture<?> future = scheduler.schedule(new CountDown(new CountDownLatch(
+				1)), new Date(System.currentTimeMillis() + 1000));
+
+		future.cancel(false);
+
+		try {
+			future.get();
+			fail("Missing CancellationException");
+		}
+		catch (CancellationException e) {
+		}
+
+		try {
+			future.get(1, TimeUnit.SECONDS);
+			fail("Missing CancellationException");
+		}
+		catch (CancellationException e) {
+		}
+	}
+
+	@Test
+	public void shouldRescheduleTriggerTaskUntilTriggerCompletes() throws Exception {
+
+		final CountDownLatch latch = new CountDownLatch(3);
+		final AtomicInteger invocations = new AtomicInteger();
+
+		ScheduledFuture<?> future = scheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				invocations.incrementAndGet();
+				latch.countDown();
+			}
+		}, new Trigger() {
+
+			@Override
+			public Date nextExecutionTime(TriggerContext triggerContext) {
+
+				if (invocations.get() >= 3) {
+					return null;
+				}
+
+				return new Date(System.currentTimeMillis() + 20);
+			}
+		});
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		future.get(5, TimeUnit.SECONDS);
+		assertThat(invocations.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldNotScheduleTaskIfTriggerHasNoExecutionTime() {
+
+		ScheduledFuture<?> future = scheduler.schedule(new CountDown(new CountDownLatch(
+				1)), new Trigger() {
+
+			@Override
+			public Date nextExecutionTime(TriggerContext triggerContext) {
+				return null;
+			}
+		});
+
+		assertThat(future).isNull();
+	}
+
+	@Test
+	public void failingTaskShouldNotAffectOtherTasks() throws Exception {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		long now = System.currentTimeMillis();
+
+		scheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				throw new IllegalStateException("Failure");
+			}
+		}, new Date(now + 20));
+		scheduler.schedule(new CountDown(latch), new Date(now + 40));
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void shouldRejectTasksAfterDestroy() throws Exception {
+
+		scheduler.destroy();
+
+		try {
+			scheduler.schedule(new CountDown(new CountDownLatch(1)), new Date());
+			fail("Missing TaskRejectedException");
+		}
+		catch (TaskRejectedException e) {
+			assertThat(e).hasMessageContaining("not running");
+		}
+	}
+
+	static class CountDown implements Runnable {
+
+		private final CountDownLatch latch;
+
+		CountDown(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public void run() {
+			latch.countDown();
+		}
+	}
+}
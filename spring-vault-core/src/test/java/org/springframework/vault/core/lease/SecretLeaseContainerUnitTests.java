@@ -20,6 +20,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -29,7 +31,9 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -46,6 +50,7 @@ import org.springframework.vault.core.lease.event.LeaseListenerAdapter;
 import org.springframework.vault.core.lease.event.SecretLeaseCreatedEvent;
 import org.springframework.vault.core.lease.event.SecretLeaseEvent;
 import org.springframework.vault.core.lease.event.SecretLeaseExpiredEvent;
+import org.springframework.vault.support.RenewalPolicy;
 import org.springframework.vault.support.VaultResponse;
 import org.springframework.web.client.HttpClientErrorException;
 
@@ -53,8 +58,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -81,6 +88,9 @@ public class SecretLeaseContainerUnitTests {
 	@Mock
 	private LeaseListenerAdapter leaseListenerAdapter;
 
+	@Mock
+	private LeaseJournal leaseJournal;
+
 	@Captor
 	private ArgumentCaptor<SecretLeaseEvent> captor;
 
@@ -492,6 +502,340 @@ public class SecretLeaseContainerUnitTests {
 		assertThat(leaseCreatedEvent.getSecrets()).containsKey("key");
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldScheduleRenewalInRenewalWindow() throws Exception {
+
+		SecretLeaseContainer container = new SecretLeaseContainer(vaultOperations,
+				taskScheduler);
+		container.setRenewalWindowSeconds(30);
+		container.afterPropertiesSet();
+
+		when(vaultOperations.read(requestedSecret.getPath())).thenReturn(createSecrets());
+		when(vaultOperations.doWithSession(any(RestOperationsCallback.class)))
+				.thenReturn(getResponseEntity("new_lease", true, 70, HttpStatus.OK));
+
+		container.addRequestedSecret(requestedSecret);
+		container.start();
+
+		ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+		ArgumentCaptor<Date> dateCaptor = ArgumentCaptor.forClass(Date.class);
+		verify(taskScheduler).schedule(runnableCaptor.capture(), dateCaptor.capture());
+		verify(taskScheduler, never()).schedule(any(Runnable.class), any(Trigger.class));
+
+		assertThat(dateCaptor.getValue()).isBetween(
+				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(9)),
+				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(41)));
+
+		runnableCaptor.getValue().run();
+
+		verify(vaultOperations).doWithSession(any(RestOperationsCallback.class));
+		verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Date.class));
+	}
+
+	@Test
+	public void renewalWindowShouldAlignToWindowStart() {
+
+		SecretLeaseContainer.RenewalWindows windows = new SecretLeaseContainer.RenewalWindows(
+				taskScheduler, 60, 1);
+
+		assertThat(windows.getExecutionTime(100000, 40000, 10)).isEqualTo(120000);
+		assertThat(windows.getExecutionTime(100000, 80000, 10)).isEqualTo(180000);
+	}
+
+	@Test
+	public void renewalWindowShouldNotUndercutMinRenewalSeconds() {
+
+		SecretLeaseContainer.RenewalWindows windows = new SecretLeaseContainer.RenewalWindows(
+				taskScheduler, 60, 1);
+
+		assertThat(windows.getExecutionTime(100000, 10000, 10)).isEqualTo(110000);
+		assertThat(windows.getExecutionTime(115000, 10000, 10)).isEqualTo(125000);
+	}
+
+	@Test
+	public void shouldAllowZeroExpiryThresholdWithoutRenewalWindows() throws Exception {
+
+		SecretLeaseContainer container = new SecretLeaseContainer(vaultOperations,
+				taskScheduler);
+		container.setExpiryThresholdSeconds(0);
+		container.afterPropertiesSet();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectRenewalWindowExceedingExpiryThreshold() throws Exception {
+
+		SecretLeaseContainer container = new SecretLeaseContainer(vaultOperations,
+				taskScheduler);
+		container.setExpiryThresholdSeconds(30);
+		container.setRenewalWindowSeconds(30);
+		container.afterPropertiesSet();
+	}
+
+	@Test
+	public void renewalWindowShouldApplyOffset() {
+
+		SecretLeaseContainer.RenewalWindows windows = new SecretLeaseContainer.RenewalWindows(
+				taskScheduler, 60, 1, 15000);
+
+		assertThat(windows.getExecutionTime(100000, 40000, 10)).isEqualTo(135000);
+		assertThat(windows.getExecutionTime(100000, 30000, 10)).isEqualTo(135000);
+		assertThat(windows.getExecutionTime(100000, 20000, 10)).isEqualTo(135000);
+	}
+
+	@Test
+	public void scheduleRenewalShouldApplyRenewalPolicy() throws Exception {
+
+		prepareRenewal();
+
+		secretLeaseContainer.setRenewalPolicy(RenewalPolicy.builder()
+				.ttlPercentage(0.5, 0.8).build());
+		secretLeaseContainer.start();
+
+		ArgumentCaptor<Trigger> captor = ArgumentCaptor.forClass(Trigger.class);
+		verify(taskScheduler).schedule(any(Runnable.class), captor.capture());
+
+		Date nextExecutionTime = captor.getValue().nextExecutionTime(null);
+		assertThat(nextExecutionTime).isBetween(
+				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(49)),
+				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(81)));
+	}
+
+	@Test
+	public void renewalWindowShouldCoalesceRenewals() {
+
+		SecretLeaseContainer.RenewalWindows windows = new FixedTimeRenewalWindows(
+				taskScheduler, 60, 2);
+
+		List<String> renewed = new CopyOnWriteArrayList<String>();
+
+		windows.schedule(new Renewal(renewed, "one"), 40000, 10);
+		windows.schedule(new Renewal(renewed, "two"), 30000, 10);
+		windows.schedule(new Renewal(renewed, "three"), 35000, 10);
+
+		ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+		verify(taskScheduler, times(2)).schedule(captor.capture(),
+				eq(new Date(120000)));
+		assertThat(windows.getWindowCount()).isEqualTo(1);
+
+		captor.getAllValues().get(0).run();
+		captor.getAllValues().get(1).run();
+
+		assertThat(renewed).containsExactly("one", "two", "three");
+		assertThat(windows.getWindowCount()).isZero();
+	}
+
+	@Test
+	public void renewalWindowShouldNotAcceptRenewalsWhileDraining() {
+
+		SecretLeaseContainer.RenewalWindows windows = new FixedTimeRenewalWindows(
+				taskScheduler, 60, 1);
+
+		List<String> renewed = new CopyOnWriteArrayList<String>();
+
+		windows.schedule(new Renewal(renewed, "one"), 40000, 10);
+
+		ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+		verify(taskScheduler).schedule(captor.capture(), eq(new Date(120000)));
+
+		captor.getValue().run();
+		windows.schedule(new Renewal(renewed, "two"), 40000, 10);
+
+		verify(taskScheduler, times(2)).schedule(captor.capture(),
+				eq(new Date(120000)));
+		assertThat(renewed).containsExactly("one");
+		assertThat(windows.getWindowCount()).isEqualTo(1);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldResumeJournaledLease() {
+
+		secretLeaseContainer.setLeaseJournal(leaseJournal);
+
+		when(leaseJournal.get(requestedSecret)).thenReturn(
+				new LeaseJournalEntry(Lease.of("lease", 100, true), Collections
+						.singletonMap("key", (Object) "value"), System
+						.currentTimeMillis()));
+		when(vaultOperations.doWithSession(any(RestOperationsCallback.class)))
+				.thenReturn(getResponseEntity("lease", true, 100, HttpStatus.OK));
+		when(taskScheduler.schedule(any(Runnable.class), any(Trigger.class))).thenReturn(
+				scheduledFuture);
+
+		secretLeaseContainer.addRequestedSecret(requestedSecret);
+		secretLeaseContainer.start();
+
+		verify(vaultOperations, never()).read(anyString());
+		verify(leaseJournal).recordRenewal(requestedSecret, Lease.of("lease", 100, true));
+		verify(taskScheduler).schedule(any(Runnable.class), any(Trigger.class));
+		verify(leaseListenerAdapter).onLeaseEvent(captor.capture());
+
+		SecretLeaseCreatedEvent leaseCreatedEvent = (SecretLeaseCreatedEvent) captor
+				.getValue();
+
+		assertThat(leaseCreatedEvent.getLease().getLeaseId()).isEqualTo("lease");
+		assertThat(leaseCreatedEvent.getSecrets()).containsEntry("key", "value");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldRequestSecretsIfJournaledLeaseCannotBeRenewed() {
+
+		secretLeaseContainer.setLeaseJournal(leaseJournal);
+
+		when(leaseJournal.get(requestedSecret)).thenReturn(
+				new LeaseJournalEntry(Lease.of("old_lease", 100, true), Collections
+						.singletonMap("key", (Object) "value"), System
+						.currentTimeMillis()));
+		when(vaultOperations.doWithSession(any(RestOperationsCallback.class)))
+				.thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+		when(taskScheduler.schedule(any(Runnable.class), any(Trigger.class))).thenReturn(
+				scheduledFuture);
+		when(vaultOperations.read(requestedSecret.getPath())).thenReturn(createSecrets());
+
+		secretLeaseContainer.addRequestedSecret(requestedSecret);
+		secretLeaseContainer.start();
+
+		verify(leaseJournal).remove(requestedSecret);
+		verify(vaultOperations).read(requestedSecret.getPath());
+		verify(leaseJournal).recordSecrets(eq(requestedSecret),
+				eq(Lease.of("lease", 100, true)), any(Map.class));
+	}
+
+	@Test
+	public void shouldNotResumeExpiringJournaledLease() {
+
+		secretLeaseContainer.setLeaseJournal(leaseJournal);
+
+		when(leaseJournal.get(requestedSecret)).thenReturn(
+				new LeaseJournalEntry(Lease.of("old_lease", 100, true), Collections
+						.singletonMap("key", (Object) "value"), System
+						.currentTimeMillis() - TimeUnit.SECONDS.toMillis(95)));
+
+		prepareRenewal();
+		secretLeaseContainer.start();
+
+		verify(leaseJournal).remove(requestedSecret);
+		verify(vaultOperations).read(requestedSecret.getPath());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldNotRevokeJournaledLeasesOnDestroy() throws Exception {
+
+		secretLeaseContainer.setLeaseJournal(leaseJournal);
+		prepareRenewal();
+
+		secretLeaseContainer.start();
+
+		when(leaseJournal.get(requestedSecret)).thenReturn(
+				new LeaseJournalEntry(Lease.of("lease", 100, true), Collections
+						.singletonMap("key", (Object) "value"), System
+						.currentTimeMillis()));
+
+		secretLeaseContainer.destroy();
+
+		verify(leaseJournal).recordSecrets(eq(requestedSecret), any(Lease.class),
+				any(Map.class));
+		verify(scheduledFuture).cancel(false);
+		verify(vaultOperations, never()).doWithSession(any(RestOperationsCallback.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldRevokeLeasesMissingInJournalOnDestroy() throws Exception {
+
+		secretLeaseContainer.setLeaseJournal(leaseJournal);
+		prepareRenewal();
+
+		doThrow(new IllegalStateException("Disk full")).when(leaseJournal)
+				.recordSecrets(eq(requestedSecret), any(Lease.class), any(Map.class));
+
+		secretLeaseContainer.start();
+		secretLeaseContainer.destroy();
+
+		verify(vaultOperations).doWithSession(any(RestOperationsCallback.class));
+	}
+
+	@Test
+	public void shouldObtainSecretsConcurrently() {
+
+		final CountDownLatch concurrentReads = new CountDownLatch(3);
+
+		Answer<VaultResponse> answer = new Answer<VaultResponse>() {
+
+			@Override
+			public VaultResponse answer(InvocationOnMock invocation) throws Throwable {
+
+				concurrentReads.countDown();
+				concurrentReads.await(5, TimeUnit.SECONDS);
+
+				VaultResponse secrets = new VaultResponse();
+				secrets.setData(Collections.singletonMap("key", (Object) "value"));
+				return secrets;
+			}
+		};
+
+		when(vaultOperations.read(anyString())).thenAnswer(answer);
+
+		secretLeaseContainer.setStartupParallelism(4);
+		secretLeaseContainer.requestRenewableSecret("one");
+		secretLeaseContainer.requestRenewableSecret("two");
+		secretLeaseContainer.requestRenewableSecret("three");
+		secretLeaseContainer.start();
+
+		assertThat(concurrentReads.getCount()).isZero();
+		verify(vaultOperations, times(3)).read(anyString());
+		verify(leaseListenerAdapter, times(3)).onLeaseEvent(
+				any(SecretLeaseCreatedEvent.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldRevokeSecretsObtainedAfterStartupTimeout() {
+
+		final CountDownLatch release = new CountDownLatch(1);
+
+		VaultResponse secrets = new VaultResponse();
+		secrets.setData(Collections.singletonMap("key", (Object) "value"));
+
+		when(vaultOperations.read("fast")).thenReturn(secrets);
+		when(vaultOperations.read("slow")).thenAnswer(new Answer<VaultResponse>() {
+
+			@Override
+			public VaultResponse answer(InvocationOnMock invocation) throws Throwable {
+
+				release.await(5, TimeUnit.SECONDS);
+				return createSecrets();
+			}
+		});
+
+		secretLeaseContainer.setStartupParallelism(2);
+		secretLeaseContainer.setStartupTimeoutSeconds(1);
+		secretLeaseContainer.requestRenewableSecret("fast");
+		secretLeaseContainer.requestRenewableSecret("slow");
+
+		try {
+
+			secretLeaseContainer.start();
+
+			verify(leaseListenerAdapter).onLeaseEvent(
+					any(SecretLeaseCreatedEvent.class));
+			verify(leaseListenerAdapter, never()).onLeaseError(
+					any(SecretLeaseEvent.class), any(Exception.class));
+		}
+		finally {
+			release.countDown();
+		}
+
+		verify(leaseListenerAdapter, timeout(5000)).onLeaseError(captor.capture(),
+				any(VaultException.class));
+		verify(vaultOperations).doWithSession(any(RestOperationsCallback.class));
+		verify(leaseListenerAdapter).onLeaseEvent(any(SecretLeaseCreatedEvent.class));
+
+		assertThat(captor.getValue().getSource().getPath()).isEqualTo("slow");
+	}
+
 	@SuppressWarnings("unchecked")
 	private void prepareRenewal() {
 
@@ -546,4 +890,34 @@ public class SecretLeaseContainerUnitTests {
 
 		return secrets;
 	}
+
+	static class FixedTimeRenewalWindows extends SecretLeaseContainer.RenewalWindows {
+
+		FixedTimeRenewalWindows(TaskScheduler taskScheduler, int windowSeconds,
+				int parallelism) {
+			super(taskScheduler, windowSeconds, parallelism);
+		}
+
+		@Override
+		long currentTimeMillis() {
+			return 100000;
+		}
+	}
+
+	static class Renewal implements Runnable {
+
+		private final List<String> renewed;
+
+		private final String name;
+
+		Renewal(List<String> renewed, String name) {
+			this.renewed = renewed;
+			this.name = name;
+		}
+
+		@Override
+		public void run() {
+			renewed.add(name);
+		}
+	}
 }
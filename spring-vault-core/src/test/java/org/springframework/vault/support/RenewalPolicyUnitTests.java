@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.support;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RenewalPolicy}.
+ *
+ * @author Mark Paluch
+ */
+public class RenewalPolicyUnitTests {
+
+	@Test
+	public void shouldRenewBeforeExpiryThreshold() {
+
+		RenewalPolicy policy = RenewalPolicy.builder()
+				.expiryThreshold(60, TimeUnit.SECONDS).build();
+
+		assertThat(policy.getRenewalDelay(100, new FixedRandom(0.5))).isEqualTo(40000);
+	}
+
+	@Test
+	public void shouldApplyMinSpacing() {
+
+		RenewalPolicy policy = RenewalPolicy.builder()
+				.expiryThreshold(60, TimeUnit.SECONDS).minSpacing(10, TimeUnit.SECONDS)
+				.build();
+
+		assertThat(policy.getRenewalDelay(65, new FixedRandom(0.5))).isEqualTo(10000);
+	}
+
+	@Test
+	public void shouldRenewWithinTtlPercentage() {
+
+		RenewalPolicy policy = RenewalPolicy.builder().ttlPercentage(0.5, 0.8).build();
+
+		assertThat(policy.getRenewalDelay(100, new FixedRandom(0))).isEqualTo(50000);
+		assertThat(policy.getRenewalDelay(100, new FixedRandom(0.5))).isEqualTo(65000);
+		assertThat(policy.getRenewalDelay(100, new FixedRandom(0.99))).isLessThan(80000);
+	}
+
+	@Test
+	public void shouldApplyJitter() {
+
+		RenewalPolicy policy = RenewalPolicy.builder()
+				.expiryThreshold(60, TimeUnit.SECONDS).jitter(10, TimeUnit.SECONDS)
+				.build();
+
+		assertThat(policy.getRenewalDelay(100, new FixedRandom(0))).isEqualTo(40000);
+		assertThat(policy.getRenewalDelay(100, new FixedRandom(0.5))).isEqualTo(35000);
+	}
+
+	@Test
+	public void expiryThresholdShouldResetTtlPercentage() {
+
+		RenewalPolicy policy = RenewalPolicy.builder().ttlPercentage(0.5, 0.8)
+				.expiryThreshold(30, TimeUnit.SECONDS).build();
+
+		assertThat(policy.getMaxTtlPercentage()).isZero();
+		assertThat(policy.getRenewalDelay(100, new FixedRandom(0.5))).isEqualTo(70000);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectTtlPercentageAtExpiry() {
+		RenewalPolicy.builder().ttlPercentage(0.5, 1);
+	}
+
+	static class FixedRandom extends Random {
+
+		private final double value;
+
+		FixedRandom(double value) {
+			this.value = value;
+		}
+
+		@Override
+		public double nextDouble() {
+			return value;
+		}
+	}
+}